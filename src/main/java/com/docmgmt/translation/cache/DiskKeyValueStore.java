@@ -0,0 +1,287 @@
+package com.docmgmt.translation.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Small embedded key-value store backed by a single append-only file.
+ *
+ * <p>Each record is {@code [int keyLength][int valueLength][key][value]} in UTF-8.
+ * Only the keys and value positions are held in memory; values are read with
+ * positional reads. When the file grows past {@code maxBytes} it is compacted.
+ * If most of it is still live, it is cleared instead, or, for a store that
+ * evicts its oldest entries, compacted to the newest entries that fill half of
+ * it. A torn record at the end of the file (e.g. after a crash) is truncated on
+ * open.
+ */
+public class DiskKeyValueStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskKeyValueStore.class);
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_PART_BYTES = 1 << 24;
+
+    private final Path path;
+    private final long maxBytes;
+    private final boolean evictOldest;
+    // Value position in the file packed with its length: (position << 24) | length
+    private final Map<String, Long> index = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private FileChannel channel;
+    private long liveBytes;
+
+    public DiskKeyValueStore(Path path, long maxBytes) throws IOException {
+        this(path, maxBytes, false);
+    }
+
+    /**
+     * @param evictOldest Whether a full file keeps its newest entries rather than being cleared
+     */
+    public DiskKeyValueStore(Path path, long maxBytes, boolean evictOldest) throws IOException {
+        this.path = path;
+        this.maxBytes = maxBytes;
+        this.evictOldest = evictOldest;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = open(path);
+        load();
+    }
+
+    public String get(String key) {
+        Long location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            // The entry may have moved if the file was compacted since the lookup
+            location = index.get(key);
+            if (location == null) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) (location & (MAX_RECORD_PART_BYTES - 1)));
+            readFully(buffer, location >>> 24);
+            return new String(buffer.array(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warn("Failed to read cache entry from {}: {}", path, e.getMessage());
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(String key, String value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length >= MAX_RECORD_PART_BYTES || valueBytes.length >= MAX_RECORD_PART_BYTES) {
+            return;
+        }
+        int recordBytes = HEADER_BYTES + keyBytes.length + valueBytes.length;
+
+        lock.writeLock().lock();
+        try {
+            if (channel.size() + recordBytes > maxBytes) {
+                makeRoom();
+            }
+            long position = channel.size();
+            ByteBuffer record = ByteBuffer.allocate(recordBytes)
+                    .putInt(keyBytes.length)
+                    .putInt(valueBytes.length)
+                    .put(keyBytes)
+                    .put(valueBytes)
+                    .flip();
+            writeFully(record, position);
+
+            Long previous = index.put(key, pack(position + HEADER_BYTES + keyBytes.length, valueBytes.length));
+            if (previous != null) {
+                liveBytes -= HEADER_BYTES + keyBytes.length + (previous & (MAX_RECORD_PART_BYTES - 1));
+            }
+            liveBytes += recordBytes;
+        } catch (IOException e) {
+            logger.warn("Failed to write cache entry to {}: {}", path, e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * @return The keys stored, as a read-only live view
+     */
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    public long fileBytes() {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            channel.force(false);
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(header, position);
+            int keyLength = header.getInt(0);
+            int valueLength = header.getInt(4);
+            if (keyLength < 0 || valueLength < 0 || keyLength >= MAX_RECORD_PART_BYTES
+                    || valueLength >= MAX_RECORD_PART_BYTES
+                    || position + HEADER_BYTES + keyLength + valueLength > size) {
+                break;
+            }
+
+            ByteBuffer keyBuffer = ByteBuffer.allocate(keyLength);
+            readFully(keyBuffer, position + HEADER_BYTES);
+            String key = new String(keyBuffer.array(), StandardCharsets.UTF_8);
+            Long previous = index.put(key, pack(position + HEADER_BYTES + keyLength, valueLength));
+            if (previous != null) {
+                liveBytes -= HEADER_BYTES + keyLength + (previous & (MAX_RECORD_PART_BYTES - 1));
+            }
+            int recordBytes = HEADER_BYTES + keyLength + valueLength;
+            liveBytes += recordBytes;
+            position += recordBytes;
+        }
+
+        if (position < size) {
+            logger.warn("Truncating {} trailing bytes of incomplete record in {}", size - position, path);
+            channel.truncate(position);
+        }
+        logger.info("Loaded {} cache entries from {}", index.size(), path);
+    }
+
+    /**
+     * Compacts the file if at least half of it is overwritten garbage. Otherwise
+     * drops its oldest entries, or starts over with an empty file. Must be called
+     * with the write lock held.
+     */
+    private void makeRoom() throws IOException {
+        if (liveBytes * 2 <= maxBytes) {
+            compact(Long.MAX_VALUE);
+        } else if (evictOldest) {
+            compact(maxBytes / 2);
+        } else {
+            logger.info("Cache file {} is full, clearing {} entries", path, index.size());
+            channel.truncate(0);
+            index.clear();
+            liveBytes = 0;
+        }
+    }
+
+    /**
+     * Rewrites the live entries to a new file, in the order they were written,
+     * dropping the oldest ones until the rest take at most {@code keepBytes}.
+     */
+    private void compact(long keepBytes) throws IOException {
+        // Packed locations sort by file position, which is the order the entries were written in
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(index.entrySet());
+        entries.sort(Map.Entry.comparingByValue());
+        int first = entries.size();
+        long keptBytes = 0;
+        while (first > 0) {
+            Map.Entry<String, Long> entry = entries.get(first - 1);
+            long recordBytes = HEADER_BYTES + entry.getKey().getBytes(StandardCharsets.UTF_8).length
+                    + (entry.getValue() & (MAX_RECORD_PART_BYTES - 1));
+            if (keptBytes + recordBytes > keepBytes) {
+                break;
+            }
+            keptBytes += recordBytes;
+            first--;
+        }
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        Map<String, Long> compactedIndex = new ConcurrentHashMap<>();
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = 0;
+            for (Map.Entry<String, Long> entry : entries.subList(first, entries.size())) {
+                byte[] keyBytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                int valueLength = (int) (entry.getValue() & (MAX_RECORD_PART_BYTES - 1));
+                ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + keyBytes.length + valueLength)
+                        .putInt(keyBytes.length)
+                        .putInt(valueLength)
+                        .put(keyBytes);
+                readFully(record, entry.getValue() >>> 24);
+                record.flip();
+                while (record.hasRemaining()) {
+                    target.write(record);
+                }
+                compactedIndex.put(entry.getKey(), pack(position + HEADER_BYTES + keyBytes.length, valueLength));
+                position += record.limit();
+            }
+            target.force(false);
+        }
+
+        channel.close();
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = open(path);
+        index.clear();
+        index.putAll(compactedIndex);
+        liveBytes = keptBytes;
+        if (first > 0) {
+            logger.info("Cache file {} is full, evicted its {} oldest entries", path, first);
+        }
+        logger.info("Compacted cache file {} to {} bytes", path, channel.size());
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file " + path);
+            }
+            position += read;
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static long pack(long position, int length) {
+        return (position << 24) | length;
+    }
+}
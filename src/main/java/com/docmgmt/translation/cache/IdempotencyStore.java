@@ -0,0 +1,113 @@
+package com.docmgmt.translation.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent record of the requests already translated, keyed by document ID,
+ * source and target language and a hash of the texts to translate (the title and
+ * any further fields), holding their translations. A multi-target request has one entry per
+ * language. A request that is redelivered (after a rebalance, a rolled back
+ * transaction or a restart) is answered from here instead of going back to Gemini.
+ * The same document with a changed text, or resent with another source language,
+ * gets a new key and is translated again. A full store forgets its oldest entries,
+ * which are the least likely to be redelivered.
+ */
+@Component
+public class IdempotencyStore implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+    private static final String SEPARATOR = "\u0000";
+
+    private final DiskKeyValueStore store;
+    private final LongAdder hits = new LongAdder();
+
+    public IdempotencyStore(@Value("${app.idempotency.enabled:true}") boolean enabled,
+                            @Value("${app.idempotency.path:data/processed-requests.db}") String path,
+                            @Value("${app.idempotency.max-bytes:134217728}") long maxBytes) {
+        DiskKeyValueStore opened = null;
+        if (enabled) {
+            try {
+                opened = new DiskKeyValueStore(Paths.get(path), maxBytes, true);
+                logger.info("Idempotency store opened at {} with {} processed requests", path, opened.size());
+            } catch (IOException e) {
+                logger.error("Could not open idempotency store at {}, redelivered requests will be translated again: {}",
+                        path, e.getMessage(), e);
+            }
+        }
+        this.store = opened;
+    }
+
+    /**
+     * Builds the store key for a request.
+     */
+    public static String key(String documentId, String sourceLanguage, String targetLanguage, List<String> texts) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(String.join(SEPARATOR, texts).getBytes(StandardCharsets.UTF_8));
+            return documentId + '|' + sourceLanguage + '|' + targetLanguage + '|' + Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @return The translations already produced for these texts, in order, or null if they have not been processed
+     */
+    public List<String> find(String documentId, String sourceLanguage, String targetLanguage, List<String> texts) {
+        if (store == null) {
+            return null;
+        }
+        String translations = store.get(key(documentId, sourceLanguage, targetLanguage, texts));
+        if (translations == null) {
+            return null;
+        }
+        hits.increment();
+        return Arrays.asList(translations.split(SEPARATOR, -1));
+    }
+
+    public void record(String documentId, String sourceLanguage, String targetLanguage, List<String> texts,
+                       List<String> translations) {
+        if (store != null) {
+            store.put(key(documentId, sourceLanguage, targetLanguage, texts), String.join(SEPARATOR, translations));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("translation.idempotency.hits", hits, LongAdder::sum)
+                .description("Redelivered requests answered without translating again").register(registry);
+        if (store != null) {
+            Gauge.builder("translation.idempotency.size", store, DiskKeyValueStore::size)
+                    .description("Processed requests remembered").register(registry);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close idempotency store: {}", e.getMessage());
+            }
+        }
+    }
+}
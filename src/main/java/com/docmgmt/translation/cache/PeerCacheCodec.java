@@ -0,0 +1,126 @@
+package com.docmgmt.translation.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary bodies of the peer cache protocol ({@code /internal/cache}). A body is a
+ * count followed by that many strings, or key and value pairs, each string a
+ * big-endian int length and its UTF-8 bytes, -1 for null:
+ * <ul>
+ * <li>lookup request: the keys</li>
+ * <li>lookup response: the value of each key, in order, null where missed</li>
+ * <li>store request: the keys and values</li>
+ * </ul>
+ */
+public final class PeerCacheCodec {
+
+    private PeerCacheCodec() {
+    }
+
+    public static byte[] encodeStrings(Collection<String> strings) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                writeString(out, string);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException If the body is malformed
+     */
+    public static List<String> decodeStrings(byte[] body) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            int count = readCount(in, body.length);
+            List<String> strings = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                strings.add(readString(in, body.length));
+            }
+            return strings;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed peer cache body: " + e.getMessage(), e);
+        }
+    }
+
+    public static byte[] encodeEntries(Map<String, String> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(entries.size());
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException If the body is malformed
+     */
+    public static Map<String, String> decodeEntries(byte[] body) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            int count = readCount(in, body.length);
+            Map<String, String> entries = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                String key = readString(in, body.length);
+                String value = readString(in, body.length);
+                if (key == null || value == null) {
+                    throw new IOException("null key or value");
+                }
+                entries.put(key, value);
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed peer cache body: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static int readCount(DataInputStream in, int bodyLength) throws IOException {
+        int count = in.readInt();
+        // Every string takes at least its length
+        if (count < 0 || count > bodyLength / 4) {
+            throw new IOException("bad count " + count);
+        }
+        return count;
+    }
+
+    private static String readString(DataInputStream in, int bodyLength) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > bodyLength) {
+            throw new IOException("bad length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
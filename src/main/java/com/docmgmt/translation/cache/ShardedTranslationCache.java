@@ -0,0 +1,440 @@
+package com.docmgmt.translation.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares the translation cache between the instances listed in
+ * {@code app.cache.peers.members}, so a title translated by one is not translated
+ * again by another. Keys are spread over the instances by a {@link HashRing}; each
+ * instance keeps the keys it owns in its {@link TieredTranslationCache} and asks
+ * the owner for the others over {@code /internal/cache} ({@link PeerCacheCodec}),
+ * remembering answers in a small near-cache. Lookups for many keys go to each
+ * owner in one request, all owners at once.
+ *
+ * <p>Every {@code probe-interval-ms} the other instances are pinged. One that fails
+ * twice in a row, pings or lookups, leaves the ring and its keys are rehashed onto
+ * the others; it rejoins on its next answered ping. For {@code handoff-ms} after a
+ * change, including this instance's own start, a key missed at its new owner is
+ * looked up at its previous owner and copied over, so a rehash doesn't cost a
+ * burst of repeated Gemini calls.
+ *
+ * <p>A peer that is slow or down only costs a cache miss, after {@code timeout-ms}.
+ * Peer requests carry the shared secret {@code app.cache.peers.token}, without which
+ * a sharded instance refuses to start. Without members this is the local cache alone.
+ */
+@Component
+public class ShardedTranslationCache implements TranslationCache, MeterBinder {
+
+    public static final String TOKEN_HEADER = "X-Cache-Token";
+    public static final String HANDOFF_HEADER = "X-Cache-Handoff";
+    private static final String PATH = "/internal/cache";
+    private static final int MAX_FAILURES = 2;
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedTranslationCache.class);
+
+    private final TieredTranslationCache local;
+    private final WeightedLruCache nearCache;
+    private final List<String> members;
+    private final String self;
+    private final boolean enabled;
+    private final String token;
+    private final int virtualNodes;
+    private final Duration timeout;
+    private final long handoffMs;
+    private final HttpClient httpClient;
+    private final Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+    private final LongAdder nearHits = new LongAdder();
+    private final LongAdder peerHits = new LongAdder();
+    private final LongAdder peerMisses = new LongAdder();
+    private final LongAdder peerErrors = new LongAdder();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "translation-cache-peers");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile HashRing ring;
+    private volatile HashRing previousRing;
+    private volatile long previousUntil;
+
+    public ShardedTranslationCache(TieredTranslationCache translationCache,
+                                   @Value("${app.cache.peers.members:}") String members,
+                                   @Value("${app.cache.peers.self:}") String self,
+                                   @Value("${app.cache.peers.token:}") String token,
+                                   @Value("${app.cache.peers.virtual-nodes:128}") int virtualNodes,
+                                   @Value("${app.cache.peers.timeout-ms:100}") long timeoutMs,
+                                   @Value("${app.cache.peers.probe-interval-ms:2000}") long probeIntervalMs,
+                                   @Value("${app.cache.peers.handoff-ms:60000}") long handoffMs,
+                                   @Value("${app.cache.peers.near-cache-bytes:16777216}") long nearCacheBytes) {
+        this.local = translationCache;
+        this.nearCache = new WeightedLruCache(nearCacheBytes);
+        this.members = new ArrayList<>(new TreeSet<>(Arrays.stream(members.split(","))
+                .map(ShardedTranslationCache::baseUrl).filter(member -> !member.isEmpty()).toList()));
+        this.self = baseUrl(self);
+        if (!this.members.isEmpty() && !this.members.contains(this.self)) {
+            throw new IllegalStateException("app.cache.peers.self (" + self + ") must be one of app.cache.peers.members");
+        }
+        this.enabled = this.members.size() > 1;
+        if (enabled && token.isBlank()) {
+            throw new IllegalStateException("app.cache.peers.token must be set when the cache is shared by "
+                    + "app.cache.peers.members, or anyone could read and overwrite it");
+        }
+        this.token = token;
+        this.virtualNodes = virtualNodes;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.handoffMs = handoffMs;
+        this.ring = new HashRing(this.members, virtualNodes);
+
+        if (enabled) {
+            // Joining: keys this instance now owns were held by the others until it started
+            List<String> others = new ArrayList<>(this.members);
+            others.remove(this.self);
+            this.previousRing = new HashRing(others, virtualNodes);
+            this.previousUntil = System.currentTimeMillis() + handoffMs;
+            this.httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(timeout)
+                    .build();
+            scheduler.scheduleWithFixedDelay(this::probe, probeIntervalMs, probeIntervalMs, TimeUnit.MILLISECONDS);
+            logger.info("Translation cache sharded across {} as {}", this.members, this.self);
+        } else {
+            this.httpClient = null;
+        }
+    }
+
+    private static String baseUrl(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return Whether a peer request carries the configured token
+     */
+    public boolean authorizes(String requestToken) {
+        return !token.isEmpty() && requestToken != null && MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), requestToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String get(String key) {
+        return enabled ? getAll(List.of(key)).get(key) : local.get(key);
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        if (!enabled) {
+            return local.getAll(keys);
+        }
+
+        HashRing ring = this.ring;
+        Map<String, String> found = new HashMap<>();
+        Map<String, List<String>> byOwner = new LinkedHashMap<>();
+        List<String> ownMisses = new ArrayList<>();
+        for (String key : keys) {
+            String owner = ring.owner(key);
+            String value = self.equals(owner) ? getOwn(key) : nearCache.get(key);
+            if (value != null) {
+                if (!self.equals(owner)) {
+                    nearHits.increment();
+                }
+                found.put(key, value);
+            } else if (self.equals(owner)) {
+                ownMisses.add(key);
+            } else {
+                byOwner.computeIfAbsent(owner, peer -> new ArrayList<>()).add(key);
+            }
+        }
+
+        CompletableFuture<Map<String, String>> handedOver = handOver(ownMisses);
+        lookupAll(byOwner, false).join().forEach((key, value) -> {
+            nearCache.put(key, value);
+            found.put(key, value);
+        });
+        found.putAll(handedOver.join());
+        return found;
+    }
+
+    @Override
+    public void put(String key, String value) {
+        putAll(Map.of(key, value));
+    }
+
+    /**
+     * Stores keys this instance owns locally, and sends the others to their owners
+     * without waiting.
+     */
+    @Override
+    public void putAll(Map<String, String> entries) {
+        if (!enabled) {
+            local.putAll(entries);
+            return;
+        }
+
+        HashRing ring = this.ring;
+        Map<String, Map<String, String>> byOwner = new LinkedHashMap<>();
+        entries.forEach((key, value) -> {
+            String owner = ring.owner(key);
+            if (self.equals(owner)) {
+                local.put(key, value);
+            } else {
+                nearCache.put(key, value);
+                byOwner.computeIfAbsent(owner, peer -> new LinkedHashMap<>()).put(key, value);
+            }
+        });
+        byOwner.forEach(this::store);
+    }
+
+    /**
+     * Answers a peer's lookup. Keys missed here are looked up at their previous owner
+     * while a membership change is recent, unless the lookup is itself such a handoff.
+     *
+     * @return The value of each key, null where missed
+     */
+    public List<String> serveLookup(List<String> keys, boolean handoff) {
+        String[] values = new String[keys.size()];
+        List<String> misses = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getOwn(keys.get(i));
+            if (values[i] == null) {
+                misses.add(keys.get(i));
+            }
+        }
+        if (!handoff && !misses.isEmpty()) {
+            Map<String, String> handedOver = handOver(misses).join();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    values[i] = handedOver.get(keys.get(i));
+                }
+            }
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Stores translations a peer sent this instance as their owner.
+     */
+    public void serveStore(Map<String, String> entries) {
+        local.putAll(entries);
+    }
+
+    /**
+     * Looks up a key this instance owns. One it got from the key's owner before a
+     * rehash may still be in the near-cache, and is copied over.
+     */
+    private String getOwn(String key) {
+        String value = local.get(key);
+        if (value == null) {
+            value = nearCache.get(key);
+            if (value != null) {
+                local.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Copies keys this instance owns from their previous owners, if the ring changed recently.
+     */
+    private CompletableFuture<Map<String, String>> handOver(List<String> keys) {
+        HashRing previous = previousRing;
+        if (keys.isEmpty() || previous == null || System.currentTimeMillis() >= previousUntil) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        Set<String> live = ring.getMembers();
+        Map<String, List<String>> byPreviousOwner = new LinkedHashMap<>();
+        for (String key : keys) {
+            String owner = previous.owner(key);
+            if (owner != null && !owner.equals(self) && live.contains(owner)) {
+                byPreviousOwner.computeIfAbsent(owner, peer -> new ArrayList<>()).add(key);
+            }
+        }
+        return lookupAll(byPreviousOwner, true).thenApply(found -> {
+            local.putAll(found);
+            return found;
+        });
+    }
+
+    private CompletableFuture<Map<String, String>> lookupAll(Map<String, List<String>> keysByPeer, boolean handoff) {
+        if (keysByPeer.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        List<CompletableFuture<Map<String, String>>> lookups = new ArrayList<>(keysByPeer.size());
+        keysByPeer.forEach((peer, keys) -> lookups.add(lookup(peer, keys, handoff)));
+        return CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0])).thenApply(done -> {
+            Map<String, String> found = new HashMap<>();
+            lookups.forEach(lookup -> found.putAll(lookup.join()));
+            return found;
+        });
+    }
+
+    /**
+     * @return The values the peer has for the keys; empty if it couldn't be asked
+     */
+    private CompletableFuture<Map<String, String>> lookup(String peer, List<String> keys, boolean handoff) {
+        HttpRequest.Builder request = request(peer, "/get")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(PeerCacheCodec.encodeStrings(keys)));
+        if (handoff) {
+            request.header(HANDOFF_HEADER, "true");
+        }
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("HTTP " + response.statusCode());
+                    }
+                    List<String> values = PeerCacheCodec.decodeStrings(response.body());
+                    Map<String, String> found = new HashMap<>();
+                    for (int i = 0; i < keys.size() && i < values.size(); i++) {
+                        if (values.get(i) != null) {
+                            found.put(keys.get(i), values.get(i));
+                        }
+                    }
+                    peerHits.add(found.size());
+                    peerMisses.add(keys.size() - found.size());
+                    succeeded(peer);
+                    return found;
+                })
+                .exceptionally(error -> {
+                    failed(peer, "look up " + keys.size() + " keys at", error);
+                    return Map.of();
+                });
+    }
+
+    private void store(String peer, Map<String, String> entries) {
+        HttpRequest request = request(peer, "")
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(PeerCacheCodec.encodeEntries(entries)))
+                .build();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error == null && response.statusCode() == 204) {
+                succeeded(peer);
+            } else {
+                failed(peer, "store " + entries.size() + " translations at",
+                        error != null ? error : new IllegalStateException("HTTP " + response.statusCode()));
+            }
+        });
+    }
+
+    private HttpRequest.Builder request(String peer, String path) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(peer + PATH + path))
+                .timeout(timeout)
+                .header("Content-Type", "application/octet-stream");
+        return request.header(TOKEN_HEADER, token);
+    }
+
+    private void probe() {
+        try {
+            List<CompletableFuture<Void>> pings = new ArrayList<>();
+            for (String peer : members) {
+                if (peer.equals(self)) {
+                    continue;
+                }
+                pings.add(httpClient.sendAsync(request(peer, "/ping").GET().build(), HttpResponse.BodyHandlers.discarding())
+                        .handle((response, error) -> {
+                            if (error == null && response.statusCode() == 204) {
+                                succeeded(peer);
+                            } else {
+                                failed(peer, "ping", error != null ? error
+                                        : new IllegalStateException("HTTP " + response.statusCode()));
+                            }
+                            return null;
+                        }));
+            }
+            CompletableFuture.allOf(pings.toArray(new CompletableFuture[0])).join();
+            rehash();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to probe translation cache peers: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rebuilds the ring from the members that are up, if they changed.
+     */
+    private void rehash() {
+        Set<String> live = new TreeSet<>();
+        for (String member : members) {
+            if (member.equals(self) || failures.computeIfAbsent(member, peer -> new AtomicInteger()).get() < MAX_FAILURES) {
+                live.add(member);
+            }
+        }
+        HashRing current = ring;
+        if (live.equals(current.getMembers())) {
+            return;
+        }
+        logger.warn("Translation cache peers changed from {} to {}, rehashing", current.getMembers(), live);
+        previousRing = current;
+        previousUntil = System.currentTimeMillis() + handoffMs;
+        ring = new HashRing(live, virtualNodes);
+    }
+
+    private void succeeded(String peer) {
+        failures.computeIfAbsent(peer, p -> new AtomicInteger()).set(0);
+    }
+
+    private void failed(String peer, String action, Throwable error) {
+        peerErrors.increment();
+        int failed = failures.computeIfAbsent(peer, p -> new AtomicInteger()).incrementAndGet();
+        if (failed == 1) {
+            logger.warn("Failed to {} translation cache peer {}: {}", action, peer, error.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("translation.cache.gets", nearHits, LongAdder::sum)
+                .tag("result", "hit").tag("tier", "near")
+                .description("Translation cache lookups").register(registry);
+        FunctionCounter.builder("translation.cache.gets", peerHits, LongAdder::sum)
+                .tag("result", "hit").tag("tier", "peer")
+                .description("Translation cache lookups").register(registry);
+        FunctionCounter.builder("translation.cache.gets", peerMisses, LongAdder::sum)
+                .tag("result", "miss").tag("tier", "peer")
+                .description("Translation cache lookups").register(registry);
+        FunctionCounter.builder("translation.cache.peer.errors", peerErrors, LongAdder::sum)
+                .description("Peer cache requests that failed or timed out").register(registry);
+        Gauge.builder("translation.cache.peer.members", this, cache -> cache.ring.getMembers().size())
+                .description("Instances the cache is currently sharded across").register(registry);
+        Gauge.builder("translation.cache.size", nearCache, WeightedLruCache::size)
+                .tag("tier", "near").description("Cached translations").register(registry);
+        Gauge.builder("translation.cache.weight", nearCache, WeightedLruCache::weightBytes)
+                .tag("tier", "near").baseUnit("bytes").register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
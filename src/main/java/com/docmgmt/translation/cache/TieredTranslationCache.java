@@ -0,0 +1,158 @@
+package com.docmgmt.translation.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.text.Normalizer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-tier translation cache: a size-bounded in-heap LRU in front of a
+ * persistent on-disk store that survives restarts. Disk hits are promoted
+ * into the heap tier. Hit, miss and eviction counts and lookup times are
+ * published as {@code translation.cache.*} metrics on the actuator.
+ */
+@Component
+public class TieredTranslationCache implements TranslationCache, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TieredTranslationCache.class);
+
+    private final WeightedLruCache heapTier;
+    private final DiskKeyValueStore diskTier;
+    private final LongAdder heapHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile Timer heapHitTimer;
+    private volatile Timer diskHitTimer;
+    private volatile Timer missTimer;
+
+    public TieredTranslationCache(@Value("${app.cache.heap.max-bytes:67108864}") long heapMaxBytes,
+                                  @Value("${app.cache.disk.enabled:true}") boolean diskEnabled,
+                                  @Value("${app.cache.disk.path:data/translation-cache.db}") String diskPath,
+                                  @Value("${app.cache.disk.max-bytes:268435456}") long diskMaxBytes) {
+        this.heapTier = new WeightedLruCache(heapMaxBytes);
+
+        DiskKeyValueStore store = null;
+        if (diskEnabled) {
+            try {
+                store = new DiskKeyValueStore(Paths.get(diskPath), diskMaxBytes);
+            } catch (IOException e) {
+                logger.error("Could not open on-disk translation cache at {}, using heap tier only: {}",
+                        diskPath, e.getMessage(), e);
+            }
+        }
+        this.diskTier = store;
+        logger.info("Translation cache initialized (heap: {} bytes, disk: {})",
+                heapMaxBytes, diskTier != null ? diskPath : "disabled");
+    }
+
+    /**
+     * Builds the cache key for a translation. Whitespace is collapsed and the text is
+     * Unicode-normalized so trivially different copies of a title share one entry.
+     */
+    public static String key(String text, String sourceLanguage, String targetLanguage, String model) {
+        return model + '|' + sourceLanguage + '|' + targetLanguage + '|' + normalize(text);
+    }
+
+    /**
+     * @return The text with its whitespace collapsed and in Unicode normal form C
+     */
+    public static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFC).trim().replaceAll("\\s+", " ");
+    }
+
+    @Override
+    public String get(String key) {
+        long start = System.nanoTime();
+        String value = heapTier.get(key);
+        if (value != null) {
+            heapHits.increment();
+            recordLookup(heapHitTimer, start);
+            return value;
+        }
+
+        if (diskTier != null) {
+            value = diskTier.get(key);
+            if (value != null) {
+                diskHits.increment();
+                heapTier.put(key, value);
+                recordLookup(diskHitTimer, start);
+                return value;
+            }
+        }
+
+        misses.increment();
+        recordLookup(missTimer, start);
+        return null;
+    }
+
+    private static void recordLookup(Timer timer, long start) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void put(String key, String value) {
+        heapTier.put(key, value);
+        if (diskTier != null) {
+            diskTier.put(key, value);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("translation.cache.gets", heapHits, LongAdder::sum)
+                .tag("result", "hit").tag("tier", "heap")
+                .description("Translation cache lookups").register(registry);
+        FunctionCounter.builder("translation.cache.gets", diskHits, LongAdder::sum)
+                .tag("result", "hit").tag("tier", "disk")
+                .description("Translation cache lookups").register(registry);
+        FunctionCounter.builder("translation.cache.gets", misses, LongAdder::sum)
+                .tag("result", "miss").tag("tier", "none")
+                .description("Translation cache lookups").register(registry);
+        FunctionCounter.builder("translation.cache.evictions", heapTier, WeightedLruCache::evictionCount)
+                .tag("tier", "heap")
+                .description("Entries evicted to stay within the size bound").register(registry);
+
+        heapHitTimer = Timer.builder("translation.cache.lookup").tag("result", "hit").tag("tier", "heap")
+                .description("Translation cache lookup time").register(registry);
+        diskHitTimer = Timer.builder("translation.cache.lookup").tag("result", "hit").tag("tier", "disk")
+                .description("Translation cache lookup time").register(registry);
+        missTimer = Timer.builder("translation.cache.lookup").tag("result", "miss").tag("tier", "none")
+                .description("Translation cache lookup time").register(registry);
+
+        Gauge.builder("translation.cache.size", heapTier, WeightedLruCache::size)
+                .tag("tier", "heap").description("Cached translations").register(registry);
+        Gauge.builder("translation.cache.weight", heapTier, WeightedLruCache::weightBytes)
+                .tag("tier", "heap").baseUnit("bytes").register(registry);
+        if (diskTier != null) {
+            Gauge.builder("translation.cache.size", diskTier, DiskKeyValueStore::size)
+                    .tag("tier", "disk").description("Cached translations").register(registry);
+            Gauge.builder("translation.cache.weight", diskTier, DiskKeyValueStore::fileBytes)
+                    .tag("tier", "disk").baseUnit("bytes").register(registry);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (diskTier != null) {
+            try {
+                diskTier.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close on-disk translation cache: {}", e.getMessage());
+            }
+        }
+    }
+}
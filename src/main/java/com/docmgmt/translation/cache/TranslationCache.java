@@ -0,0 +1,36 @@
+package com.docmgmt.translation.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Translations by the key built with {@link TieredTranslationCache#key}.
+ */
+public interface TranslationCache {
+
+    /**
+     * @return The cached translation, or null if there is none
+     */
+    String get(String key);
+
+    void put(String key, String value);
+
+    /**
+     * @return The cached translations of those keys that have one
+     */
+    default Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> found = new HashMap<>();
+        for (String key : keys) {
+            String value = get(key);
+            if (value != null) {
+                found.put(key, value);
+            }
+        }
+        return found;
+    }
+
+    default void putAll(Map<String, String> entries) {
+        entries.forEach(this::put);
+    }
+}
@@ -0,0 +1,67 @@
+package com.docmgmt.translation.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-heap LRU cache bounded by the approximate number of bytes held by its
+ * keys and values rather than by entry count, so a few long titles can't
+ * crowd out thousands of short ones.
+ */
+public class WeightedLruCache {
+
+    // Rough per-entry cost of the map node, two String headers and their arrays
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long currentBytes;
+    private long evictions;
+
+    public WeightedLruCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized String get(String key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(String key, String value) {
+        long weight = weigh(key, value);
+        if (weight > maxBytes) {
+            return;
+        }
+
+        String previous = entries.put(key, value);
+        if (previous != null) {
+            currentBytes -= weigh(key, previous);
+        }
+        currentBytes += weight;
+
+        // Least recently used entries come first; the entry just added is last
+        Iterator<Map.Entry<String, String>> iterator = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, String> eldest = iterator.next();
+            currentBytes -= weigh(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weightBytes() {
+        return currentBytes;
+    }
+
+    public synchronized long evictionCount() {
+        return evictions;
+    }
+
+    private static long weigh(String key, String value) {
+        return ENTRY_OVERHEAD_BYTES + 2L * (key.length() + value.length());
+    }
+}
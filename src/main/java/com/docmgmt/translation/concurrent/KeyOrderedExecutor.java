@@ -0,0 +1,57 @@
+package com.docmgmt.translation.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs tasks on an underlying executor so that tasks sharing a key run one after
+ * another in submission order, while tasks with different keys run in parallel.
+ * At most {@code maxInFlight} tasks are queued or running at once; {@link #submit}
+ * blocks the caller when that limit is reached.
+ */
+public class KeyOrderedExecutor {
+
+    private final Executor executor;
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyOrderedExecutor(Executor executor, int maxInFlight) {
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Schedules the task after every earlier task with the same key, whether those
+     * succeeded or failed.
+     *
+     * @return A future completing when the task has run
+     */
+    public CompletableFuture<Void> submit(String key, Runnable task) {
+        permits.acquireUninterruptibly();
+        CompletableFuture<Void> next;
+        try {
+            next = tails.compute(key, (k, tail) -> (tail == null ? CompletableFuture.<Void>completedFuture(null) : tail)
+                    .handle((result, error) -> null)
+                    .thenRunAsync(task, executor));
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        next.whenComplete((result, error) -> {
+            tails.remove(key, next);
+            permits.release();
+        });
+        return next;
+    }
+
+    /**
+     * @return The number of tasks currently queued or running
+     */
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+}
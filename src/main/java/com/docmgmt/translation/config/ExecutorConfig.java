@@ -0,0 +1,53 @@
+package com.docmgmt.translation.config;
+
+import com.docmgmt.translation.concurrent.KeyOrderedExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors used to run translations off the Kafka container thread.
+ *
+ * <p>With {@code spring.threads.virtual.enabled=true} (requires a Java 21 runtime,
+ * see the {@code java21} Maven profile) every task gets its own virtual thread and
+ * only {@code app.kafka.max-in-flight} bounds concurrency. Otherwise a fixed pool
+ * of that many platform threads is used.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.kafka.max-in-flight:64}")
+    private int maxInFlight;
+
+    @Bean
+    public AsyncTaskExecutor translationTaskExecutor() {
+        if (virtualThreads) {
+            logger.info("Translation tasks run on virtual threads (max in flight: {})", maxInFlight);
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("translation-vt-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+
+        logger.info("Translation tasks run on a pool of {} platform threads", maxInFlight);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("translation-");
+        executor.setCorePoolSize(maxInFlight);
+        executor.setMaxPoolSize(maxInFlight);
+        return executor;
+    }
+
+    @Bean
+    public KeyOrderedExecutor keyOrderedTranslationExecutor(AsyncTaskExecutor translationTaskExecutor) {
+        return new KeyOrderedExecutor(translationTaskExecutor, maxInFlight);
+    }
+}
@@ -0,0 +1,58 @@
+package com.docmgmt.translation.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared, non-blocking HTTP client for all calls to the Gemini API.
+ *
+ * <p>Requests are multiplexed over HTTP/2 connections that are kept alive and
+ * reused, so many concurrent translations share a handful of sockets and no
+ * thread is parked while a response is pending. The JDK sizes its connection pool
+ * and keep-alive from the {@code jdk.httpclient.connectionPoolSize} and
+ * {@code jdk.httpclient.keepalive.timeout} system properties, read once for every
+ * client in the JVM, so they are passed as JVM arguments (see the pom) rather than
+ * set here.
+ */
+@Configuration
+public class GeminiHttpClientConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiHttpClientConfig.class);
+
+    @Value("${app.gemini.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${app.gemini.http.threads:4}")
+    private int threads;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService geminiHttpExecutor() {
+        // Only runs response handling and completion stages, never waits on the network
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "gemini-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean
+    public HttpClient geminiHttpClient(ExecutorService geminiHttpExecutor) {
+        logger.info("Creating Gemini HTTP client (HTTP/2, connect timeout {} ms, keep-alive {} s, pool size {})",
+                connectTimeoutMs, System.getProperty("jdk.httpclient.keepalive.timeout", "default"),
+                System.getProperty("jdk.httpclient.connectionPoolSize", "unbounded"));
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(geminiHttpExecutor)
+                .build();
+    }
+}
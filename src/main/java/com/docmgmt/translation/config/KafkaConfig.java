@@ -1,8 +1,17 @@
 package com.docmgmt.translation.config;
 
+import com.docmgmt.translation.kafka.KafkaConsumer;
+import com.docmgmt.translation.kafka.OffsetTracker;
+import com.docmgmt.translation.kafka.TranslationRequestDeserializer;
+import com.docmgmt.translation.model.TranslationRequest;
+import com.docmgmt.translation.service.TranslationUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,11 +19,18 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultAfterRollbackProcessor;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.BackOff;
 import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
@@ -33,6 +49,57 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${app.kafka.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.kafka.max-linger-ms:200}")
+    private int maxLingerMs;
+
+    @Value("${app.kafka.max-poll-interval-ms:300000}")
+    private int maxPollIntervalMs;
+
+    @Value("${app.kafka.fetch-min-bytes:16384}")
+    private int fetchMinBytes;
+
+    @Value("${app.kafka.producer.linger-ms:20}")
+    private int producerLingerMs;
+
+    @Value("${app.kafka.producer.batch-size:65536}")
+    private int producerBatchSize;
+
+    @Value("${app.kafka.producer.compression:lz4}")
+    private String producerCompression;
+
+    @Value("${app.kafka.producer.idempotence:true}")
+    private boolean producerIdempotence;
+
+    @Value("${app.kafka.concurrency:1}")
+    private int concurrency;
+
+    @Value("${app.kafka.dispatch-mode:batch}")
+    private String dispatchMode;
+
+    @Value("${app.kafka.exactly-once:false}")
+    private boolean exactlyOnce;
+
+    @Value("${app.kafka.transaction-id-prefix:translation-tx-}")
+    private String transactionIdPrefix;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.topics.dlq}")
+    private String dlqTopic;
+
+    @Value("${app.resilience.circuit-breaker.open-duration-ms:30000}")
+    private long circuitOpenDurationMs;
+
+    @Value("${app.kafka.failure.back-off-ms:1000}")
+    private long failureBackOffMs;
+
+    @Value("${app.kafka.failure.max-retries:2}")
+    private long failureMaxRetries;
+
     /**
      * This bean allows Spring to conditionally enable/disable Kafka components
      * based on the app.kafka.enabled property
@@ -57,23 +124,69 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        // Responses are sent without waiting on each other, so let them fill compressed batches
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, producerLingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producerCompression);
+        // Broker-side de-duplication makes the producer's own retries safe
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, producerIdempotence);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(configProps);
+        if (exactlyOnce) {
+            // Must be unique per instance, or instances fence each other's producers
+            factory.setTransactionIdPrefix(transactionIdPrefix);
+        }
+        return factory;
     }
 
     @Bean
     public KafkaTemplate<String, Object> kafkaTemplate() {
+        // In exactly-once mode every send must belong to a listener transaction
         return new KafkaTemplate<>(producerFactory());
     }
 
-    // Consumer configuration for String messages (translation requests)
+    /**
+     * In exactly-once mode each listener invocation runs in a Kafka transaction: the
+     * responses it sends and its consumed offsets are committed together, or not at all.
+     */
+    private KafkaTransactionManager<String, Object> transactionManager() {
+        return exactlyOnce ? new KafkaTransactionManager<>(producerFactory()) : null;
+    }
+
+    private void configureIsolation(Map<String, Object> props) {
+        if (exactlyOnce) {
+            // Never see responses or retry records from transactions that were rolled back
+            props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        }
+    }
+
+    /**
+     * Reads the request topic. Replace this bean to accept another request encoding.
+     */
     @Bean
-    public ConsumerFactory<String, String> stringConsumerFactory() {
+    public Deserializer<TranslationRequest> translationRequestDeserializer(MeterRegistry meterRegistry) {
+        return new TranslationRequestDeserializer(meterRegistry);
+    }
+
+    // Consumer configuration for translation requests
+    @Bean
+    public ConsumerFactory<String, TranslationRequest> requestConsumerFactory(
+            Deserializer<TranslationRequest> translationRequestDeserializer) {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        return new DefaultKafkaConsumerFactory<>(props);
+        // Let the broker accumulate up to batch-size records, waiting at most max-linger-ms
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, maxLingerMs);
+        // The group evicts a consumer whose listener holds a poll longer than this; the
+        // backpressure controller pauses the topic well before
+        props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, maxPollIntervalMs);
+        configureIsolation(props);
+        // A record that can't be read reaches the listener with a null value and the
+        // error in a header, instead of failing the whole poll
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+            new ErrorHandlingDeserializer<>(translationRequestDeserializer));
     }
 
     // Add the missing JSON consumer factory
@@ -83,18 +196,58 @@ public class KafkaConfig {
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configureIsolation(props);
         
-        // Configure the JSON deserializer to trust all packages
+        // Only trust our own model classes from the type headers written by JsonSerializer
         JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
-        jsonDeserializer.addTrustedPackages("*");
+        jsonDeserializer.addTrustedPackages("com.docmgmt.translation.model");
         
         return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), jsonDeserializer);
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(stringConsumerFactory());
+    public ConcurrentKafkaListenerContainerFactory<String, TranslationRequest> kafkaListenerContainerFactory(
+            ConsumerFactory<String, TranslationRequest> requestConsumerFactory, OffsetTracker offsetTracker) {
+        ConcurrentKafkaListenerContainerFactory<String, TranslationRequest> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(requestConsumerFactory);
+        // One consumer thread per share of the request topic's partitions
+        factory.setConcurrency(concurrency);
+        // Deliver each poll as one list so requests can be translated in micro-batches;
+        // offsets are committed once the listener returns (AckMode.BATCH)
+        factory.setBatchListener(true);
+        // A failed call is retried a few times, then its records go to the DLQ; records deferred
+        // while the Gemini circuit is open are redelivered instead until it may probe again
+        DeadLetterPublishingRecoverer recoverer = dlqRecoverer();
+        FixedBackOff failureBackOff = new FixedBackOff(failureBackOffMs, failureMaxRetries);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, failureBackOff);
+        errorHandler.setBackOffFunction(this::deferralBackOff);
+        factory.setCommonErrorHandler(errorHandler);
+        if (exactlyOnce && (KafkaConsumer.PER_RECORD.equalsIgnoreCase(dispatchMode)
+                || KafkaConsumer.PIPELINED.equalsIgnoreCase(dispatchMode))) {
+            throw new IllegalStateException("app.kafka.exactly-once requires app.kafka.dispatch-mode=batch: "
+                    + dispatchMode + " workers publish from their own threads, outside the listener's transaction");
+        }
+        if (exactlyOnce) {
+            // A failed transaction is rolled back and the batch redelivered; records it
+            // had already translated are then answered from the idempotency store
+            factory.getContainerProperties().setTransactionManager(transactionManager());
+            DefaultAfterRollbackProcessor<String, TranslationRequest> afterRollbackProcessor =
+                new DefaultAfterRollbackProcessor<>(recoverer, failureBackOff, kafkaTemplate(), true);
+            afterRollbackProcessor.setBackOffFunction(this::deferralBackOff);
+            factory.setAfterRollbackProcessor(afterRollbackProcessor);
+        }
+        if (KafkaConsumer.PIPELINED.equalsIgnoreCase(dispatchMode)) {
+            // The listener commits offsets itself, up to the lowest unfinished record per partition
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+            factory.getContainerProperties().setConsumerRebalanceListener(offsetTracker);
+            factory.getContainerProperties().setIdleEventInterval(1000L);
+        }
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor consumerExecutor = new SimpleAsyncTaskExecutor("kafka-consumer-vt-");
+            consumerExecutor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(consumerExecutor);
+        }
         return factory;
     }
 
@@ -104,11 +257,38 @@ public class KafkaConfig {
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(jsonConsumerFactory());
 
-        // Configure error handler with retry
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
-            new FixedBackOff(5000L, 3));
+        // Retry tier listeners acknowledge each record themselves, after it was answered or re-routed
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+
+        // Retries happen on the tier topics; anything that still escapes the listener
+        // (e.g. an undeserializable record) goes straight to the DLQ instead of blocking the partition
+        DeadLetterPublishingRecoverer recoverer = dlqRecoverer();
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, new FixedBackOff(0L, 0L));
         factory.setCommonErrorHandler(errorHandler);
+        if (exactlyOnce) {
+            factory.getContainerProperties().setTransactionManager(transactionManager());
+            factory.setAfterRollbackProcessor(new DefaultAfterRollbackProcessor<>(recoverer,
+                new FixedBackOff(0L, 0L), kafkaTemplate(), true));
+        }
 
         return factory;
     }
+
+    private DeadLetterPublishingRecoverer dlqRecoverer() {
+        return new DeadLetterPublishingRecoverer(kafkaTemplate(), (record, exception) -> new TopicPartition(dlqTopic, -1));
+    }
+
+    /**
+     * @return For a batch deferred because the Gemini circuit is open, a back-off of the
+     *         circuit's open duration for as long as it stays open; null for any other
+     *         failure, which gets the bounded back-off and then the DLQ
+     */
+    BackOff deferralBackOff(ConsumerRecord<?, ?> record, Exception exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TranslationUnavailableException) {
+                return new FixedBackOff(circuitOpenDurationMs, FixedBackOff.UNLIMITED_ATTEMPTS);
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,37 @@
+package com.docmgmt.translation.config;
+
+import com.docmgmt.translation.kafka.RetryTopicRouter;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Declares the retry tier and DLQ topics so the broker creates them on startup.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.kafka.enabled", havingValue = "true", matchIfMissing = false)
+public class KafkaTopicConfig {
+
+    @Value("${app.topics.dlq}")
+    private String dlqTopic;
+
+    @Value("${app.topics.partitions:3}")
+    private int partitions;
+
+    @Bean
+    public KafkaAdmin.NewTopics retryTopics(RetryTopicRouter retryTopicRouter) {
+        List<NewTopic> topics = new ArrayList<>();
+        for (String name : retryTopicRouter.getTopicNames()) {
+            topics.add(TopicBuilder.name(name).partitions(partitions).build());
+        }
+        topics.add(TopicBuilder.name(dlqTopic).partitions(partitions).build());
+        return new KafkaAdmin.NewTopics(topics.toArray(new NewTopic[0]));
+    }
+}
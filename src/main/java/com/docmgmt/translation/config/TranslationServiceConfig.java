@@ -0,0 +1,120 @@
+package com.docmgmt.translation.config;
+
+import com.docmgmt.translation.cache.ShardedTranslationCache;
+import com.docmgmt.translation.service.Bulkhead;
+import com.docmgmt.translation.service.CachingTranslationService;
+import com.docmgmt.translation.service.CircuitBreaker;
+import com.docmgmt.translation.service.CoalescingTranslationService;
+import com.docmgmt.translation.service.ResilientTranslationService;
+import com.docmgmt.translation.service.TranslationMemory;
+import com.docmgmt.translation.service.TranslationMemoryService;
+import com.docmgmt.translation.service.TranslationRouter;
+import com.docmgmt.translation.service.TranslationServiceInterface;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Assembles the translation pipelines used by the REST controller and the Kafka
+ * consumer. Each decorator wraps the one below it, with the router between the
+ * Gemini models at the bottom. The two pipelines share the cache (sharded across
+ * instances when peers are configured), the translation memory and the circuit
+ * breaker but have separate bulkheads, so backlog processing from Kafka can never
+ * take the Gemini capacity reserved for interactive REST calls.
+ */
+@Configuration
+public class TranslationServiceConfig {
+
+    @Value("${app.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${app.resilience.circuit-breaker.sliding-window-size:20}")
+    private int slidingWindowSize;
+
+    @Value("${app.resilience.circuit-breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${app.resilience.circuit-breaker.failure-rate-threshold:50}")
+    private double failureRateThreshold;
+
+    @Value("${app.resilience.circuit-breaker.open-duration-ms:30000}")
+    private long openDurationMs;
+
+    @Value("${app.resilience.circuit-breaker.half-open-probes:3}")
+    private int halfOpenProbes;
+
+    @Value("${app.resilience.bulkhead.interactive.max-concurrent:16}")
+    private int interactiveMaxConcurrent;
+
+    @Value("${app.resilience.bulkhead.interactive.max-wait-ms:0}")
+    private long interactiveMaxWaitMs;
+
+    @Value("${app.resilience.bulkhead.kafka.max-concurrent:16}")
+    private int kafkaMaxConcurrent;
+
+    @Value("${app.resilience.bulkhead.kafka.max-wait-ms:60000}")
+    private long kafkaMaxWaitMs;
+
+    @Bean
+    public CircuitBreaker geminiCircuitBreaker(MeterRegistry meterRegistry) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("gemini", slidingWindowSize, minimumCalls,
+                failureRateThreshold, openDurationMs, halfOpenProbes);
+        Gauge.builder("translation.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .tag("name", circuitBreaker.getName())
+                .description("0 = closed, 1 = open, 2 = half-open").register(meterRegistry);
+        return circuitBreaker;
+    }
+
+    /**
+     * Pipeline for interactive callers (POST /api/translate).
+     */
+    @Bean
+    @Primary
+    public TranslationServiceInterface translationService(TranslationRouter translationRouter,
+                                                          ShardedTranslationCache translationCache,
+                                                          TranslationMemory translationMemory,
+                                                          CircuitBreaker geminiCircuitBreaker,
+                                                          MeterRegistry meterRegistry) {
+        Bulkhead bulkhead = bulkhead("interactive", interactiveMaxConcurrent, interactiveMaxWaitMs, meterRegistry);
+        return pipeline(translationRouter, translationCache, translationMemory, geminiCircuitBreaker, bulkhead);
+    }
+
+    /**
+     * Pipeline for backlog processing from the Kafka request topic.
+     */
+    @Bean
+    public TranslationServiceInterface kafkaTranslationService(TranslationRouter translationRouter,
+                                                               ShardedTranslationCache translationCache,
+                                                               TranslationMemory translationMemory,
+                                                               CircuitBreaker geminiCircuitBreaker,
+                                                               MeterRegistry meterRegistry) {
+        Bulkhead bulkhead = bulkhead("kafka", kafkaMaxConcurrent, kafkaMaxWaitMs, meterRegistry);
+        return pipeline(translationRouter, translationCache, translationMemory, geminiCircuitBreaker, bulkhead);
+    }
+
+    private TranslationServiceInterface pipeline(TranslationRouter translationRouter,
+                                                 ShardedTranslationCache translationCache,
+                                                 TranslationMemory translationMemory,
+                                                 CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+        TranslationServiceInterface service = translationRouter;
+        service = new ResilientTranslationService(service, circuitBreaker, bulkhead);
+        service = new CoalescingTranslationService(service);
+        if (translationMemory.isEnabled()) {
+            service = new TranslationMemoryService(service, translationMemory);
+        }
+        if (cacheEnabled) {
+            service = new CachingTranslationService(service, translationCache, translationRouter.getModels());
+        }
+        return service;
+    }
+
+    private static Bulkhead bulkhead(String name, int maxConcurrent, long maxWaitMs, MeterRegistry meterRegistry) {
+        Bulkhead bulkhead = new Bulkhead(name, maxConcurrent, maxWaitMs);
+        Gauge.builder("translation.bulkhead.available", bulkhead, Bulkhead::getAvailable)
+                .tag("name", name).description("Free concurrent call slots").register(meterRegistry);
+        return bulkhead;
+    }
+}
@@ -0,0 +1,105 @@
+package com.docmgmt.translation.controller;
+
+import com.docmgmt.translation.job.BulkJob;
+import com.docmgmt.translation.job.BulkJobFormat;
+import com.docmgmt.translation.job.BulkJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Bulk translation jobs over uploaded NDJSON or CSV files of titles, see
+ * {@link BulkJobService} for how they run and {@link BulkJobFormat} for the file
+ * formats.
+ */
+@RestController
+@RequestMapping("/api/translate/jobs")
+public class BulkJobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkJobController.class);
+    private final BulkJobService bulkJobService;
+
+    public BulkJobController(BulkJobService bulkJobService) {
+        this.bulkJobService = bulkJobService;
+    }
+
+    /**
+     * Creates a job from the request body, which is streamed to disk as it arrives.
+     * The format is taken from the Content-Type: {@code application/x-ndjson} or
+     * {@code text/csv}. Answers 202 with the job, to be polled at its Location.
+     */
+    @PostMapping(consumes = {"application/x-ndjson", "application/jsonl", "text/csv"})
+    public ResponseEntity<?> createJob(InputStream body,
+                                       @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                       @RequestParam(defaultValue = "en") String sourceLanguage,
+                                       @RequestParam(defaultValue = "es") String targetLanguage) {
+        BulkJobFormat format = BulkJobFormat.ofContentType(contentType);
+        if (format == null) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(Map.of("error",
+                    "Upload text/csv or application/x-ndjson"));
+        }
+
+        try {
+            BulkJob job = bulkJobService.create(body, format, sourceLanguage, targetLanguage);
+            return ResponseEntity.accepted().location(URI.create("/api/translate/jobs/" + job.getId())).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            logger.error("Failed to store bulk job upload: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to store upload: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Answers the job's state and progress.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<BulkJob> getJob(@PathVariable String id) {
+        BulkJob job = bulkJobService.get(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Downloads the output of a completed job, 409 until it is.
+     */
+    @GetMapping("/{id}/output")
+    public ResponseEntity<Resource> downloadOutput(@PathVariable String id) {
+        BulkJob job = bulkJobService.get(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getState() != BulkJob.State.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(job.getFormat().getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(id + job.getFormat().getExtension()).build().toString())
+                .body(new FileSystemResource(bulkJobService.outputPath(job)));
+    }
+
+    /**
+     * Deletes a finished job and its files, 409 while it is queued or running.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteJob(@PathVariable String id) throws IOException {
+        BulkJob job = bulkJobService.get(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return bulkJobService.delete(job) ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.docmgmt.translation.controller;
+
+import com.docmgmt.translation.cache.PeerCacheCodec;
+import com.docmgmt.translation.cache.ShardedTranslationCache;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * The peer protocol of the {@link ShardedTranslationCache}, called by the other
+ * instances only; bodies are encoded by {@link PeerCacheCodec}. Not found while
+ * the cache isn't sharded, forbidden without the configured token.
+ */
+@RestController
+@RequestMapping("/internal/cache")
+public class PeerCacheController {
+
+    private final ShardedTranslationCache shardedTranslationCache;
+
+    public PeerCacheController(ShardedTranslationCache shardedTranslationCache) {
+        this.shardedTranslationCache = shardedTranslationCache;
+    }
+
+    /**
+     * Looks keys up in this instance's shard, answering their values in order.
+     */
+    @PostMapping(path = "/get", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> lookup(@RequestBody byte[] body,
+                                         @RequestHeader(name = ShardedTranslationCache.TOKEN_HEADER, required = false) String token,
+                                         @RequestHeader(name = ShardedTranslationCache.HANDOFF_HEADER, defaultValue = "false") boolean handoff) {
+        ResponseEntity<byte[]> refused = refuse(token);
+        if (refused != null) {
+            return refused;
+        }
+        try {
+            List<String> values = shardedTranslationCache.serveLookup(PeerCacheCodec.decodeStrings(body), handoff);
+            return ResponseEntity.ok(PeerCacheCodec.encodeStrings(values));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Stores translations in this instance's shard.
+     */
+    @PutMapping(consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> store(@RequestBody byte[] body,
+                                        @RequestHeader(name = ShardedTranslationCache.TOKEN_HEADER, required = false) String token) {
+        ResponseEntity<byte[]> refused = refuse(token);
+        if (refused != null) {
+            return refused;
+        }
+        try {
+            shardedTranslationCache.serveStore(PeerCacheCodec.decodeEntries(body));
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Answers the other instances' membership probes.
+     */
+    @GetMapping("/ping")
+    public ResponseEntity<byte[]> ping(@RequestHeader(name = ShardedTranslationCache.TOKEN_HEADER, required = false) String token) {
+        ResponseEntity<byte[]> refused = refuse(token);
+        return refused != null ? refused : ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<byte[]> refuse(String token) {
+        if (!shardedTranslationCache.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!shardedTranslationCache.authorizes(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return null;
+    }
+}
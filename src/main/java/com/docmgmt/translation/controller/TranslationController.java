@@ -3,16 +3,36 @@ package com.docmgmt.translation.controller;
 import com.docmgmt.translation.model.TranslationRequest;
 import com.docmgmt.translation.model.TranslationResponse;
 import com.docmgmt.translation.model.TranslationResponse.Status;
+import com.docmgmt.translation.service.DeadlineExceededException;
+import com.docmgmt.translation.service.Lane;
+import com.docmgmt.translation.service.LaneContext;
+import com.docmgmt.translation.service.StreamingTranslator;
+import com.docmgmt.translation.service.TranslationMemory;
+import com.docmgmt.translation.service.TranslationRequests;
 import com.docmgmt.translation.service.TranslationServiceInterface;
+import com.docmgmt.translation.service.TranslationUnavailableException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/translate")
@@ -20,32 +40,62 @@ public class TranslationController {
 
     private static final Logger logger = LoggerFactory.getLogger(TranslationController.class);
     private final TranslationServiceInterface translationService;
-    private final RestTemplate restTemplate;
+    private static final Duration MODELS_TIMEOUT = Duration.ofSeconds(10);
+    private final HttpClient httpClient;
+    private final AsyncTaskExecutor taskExecutor;
+    private final StreamingTranslator streamingTranslator;
+    private final TranslationMemory translationMemory;
+    private final long streamTimeoutMs;
     private final String apiKey;
 
     @Autowired
     public TranslationController(TranslationServiceInterface translationService, 
-                                @Value("${app.gemini.api-key}") String apiKey) {
+                                @Value("${app.gemini.api-key}") String apiKey,
+                                HttpClient geminiHttpClient,
+                                AsyncTaskExecutor translationTaskExecutor,
+                                StreamingTranslator streamingTranslator,
+                                TranslationMemory translationMemory,
+                                @Value("${app.streaming.timeout-ms:300000}") long streamTimeoutMs) {
         this.translationService = translationService;
         this.apiKey = apiKey;
-        this.restTemplate = new RestTemplate();
+        this.httpClient = geminiHttpClient;
+        this.taskExecutor = translationTaskExecutor;
+        this.streamingTranslator = streamingTranslator;
+        this.translationMemory = translationMemory;
+        this.streamTimeoutMs = streamTimeoutMs;
         logger.info("TranslationController initialized");
     }
 
+    /**
+     * Translates a title without holding a request thread while Gemini responds;
+     * the servlet request completes asynchronously when the future does.
+     *
+     * <p>With {@code targetLanguages} the title (and any {@code fields}) is translated
+     * into every listed language in one Gemini call, and the response holds a
+     * {@code translations} entry per language. Languages that failed are marked
+     * FAILED there while the others are still returned.
+     *
+     * <p>Calls wait for Gemini in the interactive lane, ahead of Kafka backlog. A
+     * request with a {@code deadline} that passes while waiting is answered 504.
+     */
     @PostMapping
-    public ResponseEntity<TranslationResponse> translateTitle(@RequestBody TranslationRequest request) {
+    public CompletableFuture<ResponseEntity<TranslationResponse>> translateTitle(@RequestBody TranslationRequest request) {
         logger.info("Received translation request for document: {}", request.getDocumentId());
         
-        try {
+        LaneContext context = LaneContext.of(Lane.INTERACTIVE, request.getDeadline());
+        CompletableFuture<TranslationResponse> translation;
+        if (TranslationRequests.isMultiTarget(request) || request.getFields() != null) {
+            // The multi-text calls are blocking, so they run on the translation executor
+            translation = CompletableFuture.supplyAsync(() -> context.call(() -> TranslationRequests.response(request,
+                    TranslationRequests.translate(translationService, request, TranslationRequests.texts(request)))),
+                    taskExecutor);
+        } else {
             // Call the translation service
-            String translatedTitle = translationService.translateText(
+            translation = context.call(() -> translationService.translateTextAsync(
                 request.getTitle(),
                 request.getSourceLanguage(),
                 request.getTargetLanguage()
-            );
-            
-            // Create response
-            TranslationResponse response = new TranslationResponse(
+            )).thenApply(translatedTitle -> new TranslationResponse(
                 request.getDocumentId(),
                 request.getTitle(),
                 translatedTitle,
@@ -54,12 +104,17 @@ public class TranslationController {
                 Status.COMPLETED,
                 null, // No error
                 LocalDateTime.now().toString()
-            );
+            ));
+        }
+
+        return translation.handle((response, error) -> {
+            if (error == null) {
+                logger.info("Successfully translated title for document: {}", request.getDocumentId());
+                return ResponseEntity.ok(response);
+            }
             
-            logger.info("Successfully translated title for document: {}", request.getDocumentId());
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Translation failed: {}", e.getMessage(), e);
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            logger.error("Translation failed: {}", cause.getMessage(), cause);
             
             // Create error response
             TranslationResponse errorResponse = new TranslationResponse(
@@ -69,23 +124,88 @@ public class TranslationController {
                 request.getSourceLanguage(),
                 request.getTargetLanguage(),
                 Status.FAILED,
-                e.getMessage(),
+                cause.getMessage(),
                 LocalDateTime.now().toString()
             );
             
+            // Open circuit or full bulkhead: the caller may retry later
+            if (cause instanceof TranslationUnavailableException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+            }
+            if (cause instanceof DeadlineExceededException) {
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(errorResponse);
+            }
             return ResponseEntity.internalServerError().body(errorResponse);
-        }
+        });
     }
     
+    /**
+     * Translates a long plain-text body (e.g. a document's content) and streams the
+     * translation back as server-sent events while it is produced. Each {@code chunk}
+     * event holds the next piece of the translation, in order, as
+     * {@code {"index": <chunk>, "text": <piece>}}; joining the texts gives the whole
+     * translation. The stream ends with a {@code done} event holding the number of
+     * chunks, or an {@code error} event if a chunk could not be translated.
+     */
+    @PostMapping(path = "/stream", consumes = MediaType.TEXT_PLAIN_VALUE, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter translateStream(@RequestBody String text,
+                                      @RequestParam(defaultValue = "en") String sourceLanguage,
+                                      @RequestParam(defaultValue = "es") String targetLanguage) {
+        logger.info("Received streaming translation request for {} characters", text.length());
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+
+        LaneContext.of(Lane.INTERACTIVE).call(() -> streamingTranslator.translate(text, sourceLanguage, targetLanguage, (chunk, piece) -> {
+            try {
+                emitter.send(SseEmitter.event().name("chunk").data(Map.of("index", chunk, "text", piece)));
+            } catch (IOException e) {
+                // The client went away; failing the sink stops the remaining chunks
+                throw new RuntimeException("Streaming response failed: " + e.getMessage(), e);
+            }
+        })).whenComplete((chunks, error) -> {
+            try {
+                if (error == null) {
+                    logger.info("Streamed translation in {} chunks", chunks);
+                    emitter.send(SseEmitter.event().name("done").data(Map.of("chunks", chunks)));
+                } else {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    logger.error("Streaming translation failed: {}", cause.getMessage());
+                    emitter.send(SseEmitter.event().name("error").data(Map.of("error", String.valueOf(cause.getMessage()))));
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Looks up past translations of texts similar to a text in the translation
+     * memory, most similar first. Their dates, numbers and IDs show as placeholders.
+     */
+    @GetMapping("/memory")
+    public List<TranslationMemory.Suggestion> findSimilarTranslations(@RequestParam String text,
+                                                                      @RequestParam(defaultValue = "en") String sourceLanguage,
+                                                                      @RequestParam(defaultValue = "es") String targetLanguage,
+                                                                      @RequestParam(defaultValue = "5") int limit) {
+        return translationMemory.findSimilar(text, sourceLanguage, targetLanguage, limit);
+    }
+
     @GetMapping("/models")
-    public ResponseEntity<String> listAvailableModels() {
-        try {
-            String listModelsUrl = "https://generativelanguage.googleapis.com/v1beta/models?key=" + apiKey;
-            ResponseEntity<String> response = restTemplate.getForEntity(listModelsUrl, String.class);
-            return ResponseEntity.ok(response.getBody());
-        } catch (Exception e) {
-            logger.error("Error fetching models: {}", e.getMessage());
-            return ResponseEntity.status(500).body("Error fetching models: " + e.getMessage());
-        }
+    public CompletableFuture<ResponseEntity<String>> listAvailableModels() {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("https://generativelanguage.googleapis.com/v1beta/models?key=" + apiKey))
+                .timeout(MODELS_TIMEOUT)
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    if (error == null && response.statusCode() / 100 == 2) {
+                        return ResponseEntity.ok(response.body());
+                    }
+                    String message = error != null ? error.getMessage() : "status " + response.statusCode();
+                    logger.error("Error fetching models: {}", message);
+                    return ResponseEntity.status(500).body("Error fetching models: " + message);
+                });
     }
 }
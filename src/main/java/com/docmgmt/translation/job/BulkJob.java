@@ -0,0 +1,165 @@
+package com.docmgmt.translation.job;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * A bulk translation job and how far it got. The job is saved as {@code job.json}
+ * in its directory after every batch written, and that copy is the checkpoint a
+ * restarted service resumes from: the input is read again from {@code inputOffset}
+ * and the output truncated to {@code outputBytes}, so no record is lost or written
+ * twice.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BulkJob {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private volatile String id;
+    private volatile BulkJobFormat format;
+    private volatile String sourceLanguage;
+    private volatile String targetLanguage;
+    private volatile State state;
+    private volatile long inputBytes;
+    private volatile long inputOffset;
+    private volatile long outputBytes;
+    private volatile long recordsProcessed;
+    private volatile long recordsFailed;
+    private volatile String createdAt;
+    private volatile String updatedAt;
+    private volatile String error;
+
+    public BulkJob() {
+    }
+
+    public BulkJob(String id, BulkJobFormat format, String sourceLanguage, String targetLanguage, long inputBytes,
+                   String createdAt) {
+        this.id = id;
+        this.format = format;
+        this.sourceLanguage = sourceLanguage;
+        this.targetLanguage = targetLanguage;
+        this.state = State.QUEUED;
+        this.inputBytes = inputBytes;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+    }
+
+    /**
+     * @return The share of the input read and written, in percent
+     */
+    public double getProgress() {
+        return inputBytes > 0 ? Math.min(100.0, 100.0 * inputOffset / inputBytes) : 100.0;
+    }
+
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public BulkJobFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(BulkJobFormat format) {
+        this.format = format;
+    }
+
+    public String getSourceLanguage() {
+        return sourceLanguage;
+    }
+
+    public void setSourceLanguage(String sourceLanguage) {
+        this.sourceLanguage = sourceLanguage;
+    }
+
+    public String getTargetLanguage() {
+        return targetLanguage;
+    }
+
+    public void setTargetLanguage(String targetLanguage) {
+        this.targetLanguage = targetLanguage;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public long getInputBytes() {
+        return inputBytes;
+    }
+
+    public void setInputBytes(long inputBytes) {
+        this.inputBytes = inputBytes;
+    }
+
+    public long getInputOffset() {
+        return inputOffset;
+    }
+
+    public void setInputOffset(long inputOffset) {
+        this.inputOffset = inputOffset;
+    }
+
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    public void setOutputBytes(long outputBytes) {
+        this.outputBytes = outputBytes;
+    }
+
+    public long getRecordsProcessed() {
+        return recordsProcessed;
+    }
+
+    public void setRecordsProcessed(long recordsProcessed) {
+        this.recordsProcessed = recordsProcessed;
+    }
+
+    public long getRecordsFailed() {
+        return recordsFailed;
+    }
+
+    public void setRecordsFailed(long recordsFailed) {
+        this.recordsFailed = recordsFailed;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(String updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
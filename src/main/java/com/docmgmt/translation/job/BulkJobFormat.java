@@ -0,0 +1,193 @@
+package com.docmgmt.translation.job;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File formats of bulk job uploads. The output file has the input's format, with a
+ * record per input record, in input order:
+ * <ul>
+ * <li>NDJSON: one {@code {"documentId": ..., "title": ...}} object per line in,
+ *     the same with {@code translatedTitle}, {@code status} and {@code error} out</li>
+ * <li>CSV: {@code documentId,title} rows in, quoted as in RFC 4180, optionally after
+ *     a header row; {@code documentId,title,translatedTitle,status,error} rows out</li>
+ * </ul>
+ */
+public enum BulkJobFormat {
+
+    NDJSON("application/x-ndjson", ".ndjson") {
+        @Override
+        BulkRecord parse(String line) {
+            JsonNode node;
+            try {
+                node = OBJECT_MAPPER.readTree(line);
+            } catch (JsonProcessingException e) {
+                return BulkRecord.failed(null, line, "Malformed JSON: " + e.getOriginalMessage());
+            }
+            String documentId = node.hasNonNull("documentId") ? node.get("documentId").asText() : null;
+            if (!node.hasNonNull("title") || node.get("title").asText().isBlank()) {
+                return BulkRecord.failed(documentId, null, "Record has no title");
+            }
+            return new BulkRecord(documentId, node.get("title").asText());
+        }
+
+        @Override
+        String header() {
+            return "";
+        }
+
+        @Override
+        void write(BulkRecord record, StringBuilder out) {
+            ObjectNode node = OBJECT_MAPPER.createObjectNode();
+            node.put("documentId", record.getDocumentId());
+            node.put("title", record.getTitle());
+            node.put("translatedTitle", record.getTranslatedTitle());
+            node.put("status", record.isFailed() ? "FAILED" : "COMPLETED");
+            if (record.isFailed()) {
+                node.put("error", record.getError());
+            }
+            out.append(node).append('\n');
+        }
+    },
+
+    CSV("text/csv", ".csv") {
+        @Override
+        BulkRecord parse(String line) {
+            List<String> fields = splitCsv(line);
+            if (fields == null) {
+                return BulkRecord.failed(null, line, "Malformed CSV: unbalanced quotes");
+            }
+            if (fields.get(0).equalsIgnoreCase("documentId")) {
+                return null; // Header row
+            }
+            String documentId = fields.size() > 1 ? fields.get(0) : null;
+            String title = fields.get(fields.size() > 1 ? 1 : 0);
+            if (title.isBlank()) {
+                return BulkRecord.failed(documentId, null, "Record has no title");
+            }
+            return new BulkRecord(documentId, title);
+        }
+
+        @Override
+        String header() {
+            return "documentId,title,translatedTitle,status,error\n";
+        }
+
+        @Override
+        void write(BulkRecord record, StringBuilder out) {
+            appendCsv(record.getDocumentId(), out).append(',');
+            appendCsv(record.getTitle(), out).append(',');
+            appendCsv(record.getTranslatedTitle(), out).append(',');
+            out.append(record.isFailed() ? "FAILED" : "COMPLETED").append(',');
+            appendCsv(record.getError(), out).append('\n');
+        }
+
+        @Override
+        boolean hasQuotedLineBreaks() {
+            return true;
+        }
+    };
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String contentType;
+    private final String extension;
+
+    BulkJobFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * @return The record on a line, failed if it is malformed, or null if the line holds no record
+     */
+    abstract BulkRecord parse(String line);
+
+    /**
+     * @return What the output file starts with
+     */
+    abstract String header();
+
+    abstract void write(BulkRecord record, StringBuilder out);
+
+    /**
+     * @return Whether a record may span lines, inside double quotes
+     */
+    boolean hasQuotedLineBreaks() {
+        return false;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @return The format of an upload's content type, or null if it is neither
+     */
+    public static BulkJobFormat ofContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String mediaType = contentType.split(";")[0].trim().toLowerCase();
+        if (mediaType.equals("text/csv")) {
+            return CSV;
+        }
+        if (mediaType.equals("application/x-ndjson") || mediaType.equals("application/jsonl")) {
+            return NDJSON;
+        }
+        return null;
+    }
+
+    /**
+     * @return The fields of a CSV record, or null if its quotes don't balance
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static StringBuilder appendCsv(String value, StringBuilder out) {
+        if (value == null) {
+            return out;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return out.append(value);
+        }
+        return out.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
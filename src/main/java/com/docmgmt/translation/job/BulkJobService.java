@@ -0,0 +1,464 @@
+package com.docmgmt.translation.job;
+
+import com.docmgmt.translation.service.GeminiApiException;
+import com.docmgmt.translation.service.Lane;
+import com.docmgmt.translation.service.LaneContext;
+import com.docmgmt.translation.service.TranslationServiceInterface;
+import com.docmgmt.translation.service.TranslationUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Runs bulk translation jobs over uploaded files of titles, for migrations too big
+ * for one request per title. An upload is streamed straight to
+ * {@code app.jobs.path/<id>/input.*}, then read back in batches of
+ * {@code app.jobs.batch-size} records, each translated with a single
+ * {@link TranslationServiceInterface#translateBatch} call on the Kafka pipeline, so
+ * titles seen before come from the cache and the translation memory and only the
+ * rest reach Gemini. Up to {@code app.jobs.parallel-batches} batches are translated
+ * at once and written to {@code output.*} in input order, which bounds the memory a
+ * job takes whatever the size of its file.
+ *
+ * <p>Calls wait for Gemini in the bulk lane, behind interactive and Kafka traffic.
+ * While Gemini is unavailable (open circuit or full bulkhead) or throttling, a batch
+ * waits {@code app.jobs.retry-delay-ms} and is sent again, so a job slows down with
+ * the quota instead of failing records. Titles Gemini answers badly are translated
+ * again one by one by the service; the titles of a batch that fails otherwise are
+ * written as FAILED.
+ *
+ * <p>After each batch the output is forced to disk and then the job checkpointed
+ * ({@link BulkJob}). Jobs not finished when the service stopped are resumed from
+ * their checkpoint on startup. {@code app.jobs.max-running} jobs run at a time; the
+ * others wait QUEUED.
+ */
+@Service
+public class BulkJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkJobService.class);
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final String JOB_FILE = "job.json";
+
+    private final TranslationServiceInterface translationService;
+    private final AsyncTaskExecutor executor;
+    private final Path root;
+    private final int batchSize;
+    private final int parallelBatches;
+    private final long maxUploadBytes;
+    private final long retryDelayMs;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, BulkJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService runner;
+    private final Counter completedRecords;
+    private final Counter failedRecords;
+
+    public BulkJobService(@Qualifier("kafkaTranslationService") TranslationServiceInterface translationService,
+                          AsyncTaskExecutor translationTaskExecutor,
+                          @Value("${app.jobs.path:data/jobs}") String path,
+                          @Value("${app.jobs.batch-size:500}") int batchSize,
+                          @Value("${app.jobs.parallel-batches:4}") int parallelBatches,
+                          @Value("${app.jobs.max-running:1}") int maxRunning,
+                          @Value("${app.jobs.max-upload-bytes:10737418240}") long maxUploadBytes,
+                          @Value("${app.jobs.retry-delay-ms:5000}") long retryDelayMs,
+                          MeterRegistry meterRegistry) {
+        this.translationService = translationService;
+        this.executor = translationTaskExecutor;
+        this.root = Paths.get(path);
+        this.batchSize = Math.max(1, batchSize);
+        this.parallelBatches = Math.max(1, parallelBatches);
+        this.maxUploadBytes = maxUploadBytes;
+        this.retryDelayMs = retryDelayMs;
+        this.runner = Executors.newFixedThreadPool(Math.max(1, maxRunning), runnable -> {
+            Thread thread = new Thread(runnable, "bulk-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.completedRecords = Counter.builder("translation.jobs.records").tag("status", "completed")
+                .description("Bulk job records written").register(meterRegistry);
+        this.failedRecords = Counter.builder("translation.jobs.records").tag("status", "failed")
+                .description("Bulk job records written").register(meterRegistry);
+    }
+
+    /**
+     * Loads the jobs found on disk and resumes those that weren't finished.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeJobs() {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<BulkJob> unfinished = new ArrayList<>();
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path directory : directories) {
+                Path jobFile = directory.resolve(JOB_FILE);
+                if (!Files.exists(jobFile)) {
+                    continue; // Upload interrupted before the job was created
+                }
+                try {
+                    BulkJob job = objectMapper.readValue(jobFile.toFile(), BulkJob.class);
+                    jobs.put(job.getId(), job);
+                    if (!job.isFinished()) {
+                        unfinished.add(job);
+                    }
+                } catch (IOException e) {
+                    logger.error("Skipping unreadable bulk job {}: {}", jobFile, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to list bulk jobs in {}: {}", root, e.getMessage(), e);
+        }
+
+        unfinished.sort(Comparator.comparing(BulkJob::getCreatedAt));
+        for (BulkJob job : unfinished) {
+            logger.info("Resuming bulk job {} at {} of {} bytes", job.getId(), job.getInputOffset(), job.getInputBytes());
+            runner.execute(() -> run(job));
+        }
+    }
+
+    /**
+     * Streams an upload to disk and queues a job translating it.
+     *
+     * @throws IllegalArgumentException If the upload is larger than {@code app.jobs.max-upload-bytes}
+     */
+    public BulkJob create(InputStream upload, BulkJobFormat format, String sourceLanguage, String targetLanguage)
+            throws IOException {
+        String id = UUID.randomUUID().toString();
+        Path directory = root.resolve(id);
+        Files.createDirectories(directory);
+        long inputBytes;
+        try {
+            inputBytes = copy(upload, directory.resolve("input" + format.getExtension()));
+        } catch (IOException | RuntimeException e) {
+            deleteDirectory(directory);
+            throw e;
+        }
+
+        BulkJob job = new BulkJob(id, format, sourceLanguage, targetLanguage, inputBytes, LocalDateTime.now().toString());
+        save(job);
+        jobs.put(id, job);
+        logger.info("Created bulk job {}: {} bytes of {} from {} to {}",
+                id, inputBytes, format, sourceLanguage, targetLanguage);
+        runner.execute(() -> run(job));
+        return job;
+    }
+
+    /**
+     * @return The job, or null if there is none with this ID
+     */
+    public BulkJob get(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * @return The job's output file; complete once the job is COMPLETED
+     */
+    public Path outputPath(BulkJob job) {
+        return root.resolve(job.getId()).resolve("output" + job.getFormat().getExtension());
+    }
+
+    /**
+     * Deletes a finished job and its files.
+     *
+     * @return false if the job is still queued or running
+     */
+    public boolean delete(BulkJob job) throws IOException {
+        if (!job.isFinished()) {
+            return false;
+        }
+        jobs.remove(job.getId());
+        deleteDirectory(root.resolve(job.getId()));
+        return true;
+    }
+
+    private long copy(InputStream upload, Path path) throws IOException {
+        long total = 0;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        try (ReadableByteChannel in = Channels.newChannel(upload);
+             FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            while (in.read(buffer) >= 0 || buffer.position() > 0) {
+                buffer.flip();
+                total += out.write(buffer);
+                buffer.compact();
+                if (total > maxUploadBytes) {
+                    throw new IllegalArgumentException("Upload is larger than " + maxUploadBytes + " bytes");
+                }
+            }
+            out.force(false);
+        }
+        return total;
+    }
+
+    private void run(BulkJob job) {
+        job.setState(BulkJob.State.RUNNING);
+        Path directory = root.resolve(job.getId());
+        BulkJobFormat format = job.getFormat();
+        try (RecordReader reader = new RecordReader(directory.resolve("input" + format.getExtension()),
+                job.getInputOffset(), format.hasQuotedLineBreaks());
+             OutputFile output = new OutputFile(outputPath(job), job.getOutputBytes())) {
+            save(job);
+            if (job.getOutputBytes() == 0) {
+                output.write(format.header());
+            }
+
+            Deque<Batch> window = new ArrayDeque<>();
+            long readOffset = job.getInputOffset();
+            boolean more = true;
+            while (true) {
+                while (more && window.size() < parallelBatches) {
+                    Batch batch = readBatch(reader, format);
+                    more = batch.more;
+                    if (batch.endOffset > readOffset) { // Empty at the end of the input, unless blank lines were read
+                        readOffset = batch.endOffset;
+                        batch.translation = executor.submit(() -> translate(job, batch.records));
+                        window.add(batch);
+                    }
+                }
+                Batch batch = window.poll();
+                if (batch == null) {
+                    break;
+                }
+                batch.translation.get();
+                write(job, batch, output);
+            }
+
+            job.setState(BulkJob.State.COMPLETED);
+            save(job);
+            logger.info("Bulk job {} completed: {} records, {} failed",
+                    job.getId(), job.getRecordsProcessed(), job.getRecordsFailed());
+        } catch (InterruptedException e) {
+            // Left RUNNING, so it resumes from its checkpoint on the next start
+            logger.info("Bulk job {} stopped after {} records", job.getId(), job.getRecordsProcessed());
+            Thread.currentThread().interrupt();
+        } catch (IOException | ExecutionException | RuntimeException e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            logger.error("Bulk job {} failed: {}", job.getId(), cause.getMessage(), cause);
+            job.setState(BulkJob.State.FAILED);
+            job.setError(cause.getMessage());
+            try {
+                save(job);
+            } catch (IOException saveError) {
+                logger.error("Failed to save bulk job {}: {}", job.getId(), saveError.getMessage());
+            }
+        }
+    }
+
+    private Batch readBatch(RecordReader reader, BulkJobFormat format) throws IOException {
+        Batch batch = new Batch();
+        String line;
+        while (batch.records.size() < batchSize && (line = reader.next()) != null) {
+            if (!line.isBlank()) {
+                BulkRecord record = format.parse(line);
+                if (record != null) {
+                    batch.records.add(record);
+                }
+            }
+        }
+        batch.more = batch.records.size() == batchSize;
+        batch.endOffset = reader.position();
+        return batch;
+    }
+
+    /**
+     * Translates the records of a batch not failed already, in a single call if possible.
+     */
+    private Void translate(BulkJob job, List<BulkRecord> records) {
+        List<BulkRecord> pending = records.stream().filter(BulkRecord::isPending).toList();
+        if (pending.isEmpty()) {
+            return null;
+        }
+        List<String> titles = pending.stream().map(BulkRecord::getTitle).toList();
+        try {
+            List<String> translations = whileUnavailable(() ->
+                    translationService.translateBatch(titles, job.getSourceLanguage(), job.getTargetLanguage()));
+            for (int i = 0; i < pending.size(); i++) {
+                pending.get(i).complete(translations.get(i));
+            }
+        } catch (RuntimeException e) {
+            // Titles Gemini answered badly were already translated again one by one; the call itself failed
+            logger.warn("Bulk job {} batch of {} titles failed: {}", job.getId(), pending.size(), e.getMessage());
+            for (BulkRecord record : pending) {
+                record.fail(e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Makes a call in the bulk lane, again after {@code app.jobs.retry-delay-ms} each
+     * time Gemini is unavailable or still throttling after the client's own retries.
+     */
+    private <T> T whileUnavailable(Supplier<T> call) {
+        LaneContext context = LaneContext.of(Lane.BULK);
+        while (true) {
+            try {
+                return context.call(call);
+            } catch (RuntimeException e) {
+                if (!(e instanceof TranslationUnavailableException) && !GeminiApiException.isThrottled(e)) {
+                    throw e;
+                }
+                logger.debug("Gemini unavailable for bulk job, retrying in {} ms: {}", retryDelayMs, e.getMessage());
+                try {
+                    Thread.sleep(retryDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a translated batch and checkpoints the job after it.
+     */
+    private void write(BulkJob job, Batch batch, OutputFile output) throws IOException {
+        StringBuilder out = new StringBuilder();
+        int failed = 0;
+        for (BulkRecord record : batch.records) {
+            job.getFormat().write(record, out);
+            if (record.isFailed()) {
+                failed++;
+            }
+        }
+        output.write(out);
+        output.sync();
+
+        job.setInputOffset(batch.endOffset);
+        job.setOutputBytes(output.position());
+        job.setRecordsProcessed(job.getRecordsProcessed() + batch.records.size());
+        job.setRecordsFailed(job.getRecordsFailed() + failed);
+        save(job);
+        completedRecords.increment(batch.records.size() - failed);
+        failedRecords.increment(failed);
+    }
+
+    /**
+     * Saves the job, replacing its previous checkpoint atomically.
+     */
+    private void save(BulkJob job) throws IOException {
+        job.setUpdatedAt(LocalDateTime.now().toString());
+        Path directory = root.resolve(job.getId());
+        Path temporary = directory.resolve(JOB_FILE + ".tmp");
+        objectMapper.writeValue(temporary.toFile(), job);
+        Files.move(temporary, directory.resolve(JOB_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    private static final class Batch {
+        private final List<BulkRecord> records = new ArrayList<>();
+        private long endOffset;
+        private boolean more;
+        private Future<Void> translation;
+    }
+
+    /**
+     * The output file, written through a 64 KB buffer from a given length on; what
+     * lies beyond it was written after the last checkpoint and is dropped.
+     */
+    private static final class OutputFile implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+        private OutputFile(Path path, long length) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.truncate(length);
+            channel.position(length);
+        }
+
+        private void write(CharSequence text) throws IOException {
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(text.toString());
+            while (bytes.hasRemaining()) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int length = Math.min(buffer.remaining(), bytes.remaining());
+                buffer.put(bytes.slice(bytes.position(), length));
+                bytes.position(bytes.position() + length);
+            }
+        }
+
+        /**
+         * Writes out the buffer and forces the file to disk.
+         */
+        private void sync() throws IOException {
+            flush();
+            channel.force(false);
+        }
+
+        private long position() throws IOException {
+            return channel.position() + buffer.position();
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
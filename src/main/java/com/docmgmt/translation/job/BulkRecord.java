@@ -0,0 +1,59 @@
+package com.docmgmt.translation.job;
+
+/**
+ * One record of a bulk job: a document's title and, once processed, its
+ * translation or the reason it has none.
+ */
+final class BulkRecord {
+
+    private final String documentId;
+    private final String title;
+    private String translatedTitle;
+    private String error;
+
+    BulkRecord(String documentId, String title) {
+        this.documentId = documentId;
+        this.title = title;
+    }
+
+    /**
+     * @return A record that failed before translation, e.g. because it couldn't be parsed
+     */
+    static BulkRecord failed(String documentId, String title, String error) {
+        BulkRecord record = new BulkRecord(documentId, title);
+        record.error = error;
+        return record;
+    }
+
+    String getDocumentId() {
+        return documentId;
+    }
+
+    String getTitle() {
+        return title;
+    }
+
+    String getTranslatedTitle() {
+        return translatedTitle;
+    }
+
+    String getError() {
+        return error;
+    }
+
+    boolean isFailed() {
+        return error != null;
+    }
+
+    boolean isPending() {
+        return translatedTitle == null && error == null;
+    }
+
+    void complete(String translatedTitle) {
+        this.translatedTitle = translatedTitle;
+    }
+
+    void fail(String error) {
+        this.error = error != null ? error : "Translation failed";
+    }
+}
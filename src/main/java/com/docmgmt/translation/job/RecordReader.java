@@ -0,0 +1,82 @@
+package com.docmgmt.translation.job;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads an uploaded file one record at a time from a byte offset, through a 64 KB
+ * buffer. A record is a line, or several for a format with line breaks inside
+ * quotes. The reader knows the file offset after each record it returns, which is
+ * what a job checkpoints.
+ */
+final class RecordReader implements Closeable {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+    private final boolean quotedLineBreaks;
+    private long position;
+
+    RecordReader(Path path, long offset, boolean quotedLineBreaks) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.channel.position(offset);
+        this.position = offset;
+        this.quotedLineBreaks = quotedLineBreaks;
+        buffer.flip();
+    }
+
+    /**
+     * @return The next record without its line break, possibly empty, or null at the end of the file
+     */
+    String next() throws IOException {
+        record.reset();
+        boolean quoted = false;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read < 0) {
+                    return record.size() > 0 ? decode() : null;
+                }
+            }
+            byte b = buffer.get();
+            position++;
+            if (b == '\n' && !quoted) {
+                return decode();
+            }
+            if (b == '"' && quotedLineBreaks) {
+                quoted = !quoted;
+            }
+            record.write(b);
+        }
+    }
+
+    /**
+     * @return The file offset after the last record returned
+     */
+    long position() {
+        return position;
+    }
+
+    private String decode() {
+        String text = record.toString(StandardCharsets.UTF_8);
+        if (text.endsWith("\r")) {
+            text = text.substring(0, text.length() - 1);
+        }
+        return text.startsWith("\uFEFF") ? text.substring(1) : text; // Byte order mark
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,236 @@
+package com.docmgmt.translation.kafka;
+
+import com.docmgmt.translation.service.GeminiRateGovernor;
+import com.docmgmt.translation.service.GeminiRateGovernors;
+import com.docmgmt.translation.service.Lane;
+import com.docmgmt.translation.service.TranslationScheduler;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops reading the request topic while the work it feeds can't keep up. Every
+ * {@code check-interval-ms} the pressure of each {@link Signal} is measured as a
+ * share of what it can bear; when one reaches {@code high-watermark}, every
+ * partition assigned to the request listener is paused, and once all are back at
+ * {@code low-watermark} the partitions paused here are resumed. Paused partitions
+ * are still polled, so the consumer keeps its group membership while the backlog
+ * waits on the broker instead of in memory, and the listener is never handed more
+ * than it can finish within {@code max.poll.interval.ms}.
+ *
+ * <p>The retry tiers are left alone: their partitions are paused and resumed by
+ * {@link RetryTopicConsumer} to wait out each record's delay.
+ */
+@Component
+@ConditionalOnProperty(name = "app.kafka.enabled", havingValue = "true", matchIfMissing = false)
+public class BackpressureController {
+
+    /**
+     * What the request topic is paused for.
+     */
+    public enum Signal {
+        /** The NORMAL or BULK scheduler lane, as a share of its {@code max-queued} calls */
+        LANES,
+        /** Pipelined records not finished yet, as a share of {@code app.kafka.max-in-flight} */
+        IN_FLIGHT,
+        /** Calls waiting for a Gemini permit, as a share of {@code governor-queue-ratio} times the permits */
+        GOVERNOR,
+        /** The longest running listener call, as a share of {@code poll-budget} of {@code max.poll.interval.ms} */
+        POLL
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(BackpressureController.class);
+
+    private final TranslationScheduler translationScheduler;
+    private final GeminiRateGovernors governors;
+    private final OffsetTracker offsetTracker;
+    private final KafkaListenerEndpointRegistry registry;
+    private final int maxInFlight;
+    private final double highWatermark;
+    private final double lowWatermark;
+    private final double governorQueueRatio;
+    private final long pollBudgetNanos;
+    private final Timer listenerTimer;
+    private final Map<Signal, Double> pressure = new ConcurrentHashMap<>();
+    private final Map<Thread, Long> listenerCalls = new ConcurrentHashMap<>();
+    private final Set<TopicPartition> paused = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "kafka-backpressure");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean pausing;
+
+    public BackpressureController(TranslationScheduler translationScheduler,
+                                  GeminiRateGovernors governors,
+                                  OffsetTracker offsetTracker,
+                                  KafkaListenerEndpointRegistry registry,
+                                  @Value("${app.kafka.max-in-flight:64}") int maxInFlight,
+                                  @Value("${app.kafka.backpressure.check-interval-ms:100}") long checkIntervalMs,
+                                  @Value("${app.kafka.backpressure.high-watermark:0.9}") double highWatermark,
+                                  @Value("${app.kafka.backpressure.low-watermark:0.5}") double lowWatermark,
+                                  @Value("${app.kafka.backpressure.governor-queue-ratio:2}") double governorQueueRatio,
+                                  @Value("${app.kafka.backpressure.poll-budget:0.5}") double pollBudget,
+                                  @Value("${app.kafka.max-poll-interval-ms:300000}") long maxPollIntervalMs,
+                                  MeterRegistry meterRegistry) {
+        this.translationScheduler = translationScheduler;
+        this.governors = governors;
+        this.offsetTracker = offsetTracker;
+        this.registry = registry;
+        this.maxInFlight = maxInFlight;
+        this.highWatermark = highWatermark;
+        this.lowWatermark = Math.min(lowWatermark, highWatermark);
+        this.governorQueueRatio = governorQueueRatio;
+        this.pollBudgetNanos = (long) (TimeUnit.MILLISECONDS.toNanos(maxPollIntervalMs) * pollBudget);
+        for (Signal signal : Signal.values()) {
+            pressure.put(signal, 0.0);
+            Gauge.builder("translation.kafka.backpressure", pressure, p -> p.get(signal))
+                    .tag("signal", signal.name())
+                    .description("Load on what the request topic feeds, as a share of what it can bear")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("translation.kafka.paused.partitions", paused, Set::size)
+                .description("Request topic partitions paused for backpressure").register(meterRegistry);
+        this.listenerTimer = Timer.builder("translation.kafka.listener.time")
+                .description("Time the request listener takes per poll, which must stay below max.poll.interval.ms")
+                .register(meterRegistry);
+        scheduler.scheduleWithFixedDelay(this::check, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Called by the request listener as it starts on a poll's records.
+     *
+     * @return The start time, to pass to {@link #listenerFinished}
+     */
+    long listenerStarted() {
+        long start = System.nanoTime();
+        listenerCalls.put(Thread.currentThread(), start);
+        return start;
+    }
+
+    /**
+     * Called by the request listener once it has handled a poll's records.
+     */
+    void listenerFinished(long start) {
+        listenerCalls.remove(Thread.currentThread());
+        long elapsed = System.nanoTime() - start;
+        listenerTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        if (elapsed > pollBudgetNanos) {
+            logger.warn("Request listener took {} ms for one poll, over its budget of {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), TimeUnit.NANOSECONDS.toMillis(pollBudgetNanos));
+        }
+    }
+
+    void check() {
+        try {
+            measure();
+            MessageListenerContainer container = registry.getListenerContainer(KafkaConsumer.LISTENER_ID);
+            Collection<TopicPartition> assigned = container != null ? container.getAssignedPartitions() : null;
+            if (assigned == null) {
+                return;
+            }
+
+            Signal highest = highest();
+            double level = pressure.get(highest);
+            if (level >= highWatermark && !pausing) {
+                logger.info("Backpressure from {} at {}%, pausing the request topic", highest, Math.round(level * 100));
+            } else if (level <= lowWatermark && pausing) {
+                logger.info("Backpressure eased, resuming {} request topic partitions", paused.size());
+            }
+            pausing = level >= highWatermark || (pausing && level > lowWatermark);
+
+            if (pausing) {
+                // Also catches partitions assigned since the last check
+                for (TopicPartition partition : assigned) {
+                    if (paused.add(partition)) {
+                        container.pausePartition(partition);
+                    }
+                }
+            } else {
+                // Including partitions revoked since, so their pause doesn't outlive a reassignment
+                for (TopicPartition partition : paused) {
+                    container.resumePartition(partition);
+                    paused.remove(partition);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to pause or resume request topic partitions: {}", e.getMessage(), e);
+        }
+    }
+
+    private void measure() {
+        pressure.put(Signal.LANES, Math.max(translationScheduler.utilization(Lane.NORMAL),
+                translationScheduler.utilization(Lane.BULK)));
+
+        // Until their response is acknowledged; past max-in-flight the workers would hold up the poll loop
+        pressure.put(Signal.IN_FLIGHT, (double) offsetTracker.pending() / maxInFlight);
+
+        double governorPressure = 0;
+        for (GeminiRateGovernor governor : governors.all()) {
+            governorPressure = Math.max(governorPressure,
+                    governor.getQueueDepth() / (governor.getConcurrencyLimit() * governorQueueRatio));
+        }
+        pressure.put(Signal.GOVERNOR, governorPressure);
+
+        long now = System.nanoTime();
+        long longestCall = 0;
+        for (long start : listenerCalls.values()) {
+            longestCall = Math.max(longestCall, now - start);
+        }
+        pressure.put(Signal.POLL, (double) longestCall / pollBudgetNanos);
+    }
+
+    private Signal highest() {
+        Signal highest = Signal.LANES;
+        for (Signal signal : Signal.values()) {
+            if (pressure.get(signal) > pressure.get(highest)) {
+                highest = signal;
+            }
+        }
+        return highest;
+    }
+
+    /**
+     * @return Whether the request topic is paused, which partitions, and the pressure of each signal
+     */
+    public Map<String, Object> describe() {
+        Map<String, Object> pressures = new LinkedHashMap<>();
+        for (Signal signal : Signal.values()) {
+            pressures.put(signal.name(), pressure.get(signal));
+        }
+        Set<String> partitions = new TreeSet<>();
+        paused.forEach(partition -> partitions.add(partition.toString()));
+
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("paused", pausing);
+        description.put("pausedPartitions", partitions);
+        description.put("pressure", pressures);
+        description.put("highWatermark", highWatermark);
+        description.put("lowWatermark", lowWatermark);
+        return description;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
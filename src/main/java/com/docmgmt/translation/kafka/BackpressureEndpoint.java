@@ -0,0 +1,37 @@
+package com.docmgmt.translation.kafka;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/backpressure}: whether this instance has paused the request
+ * topic and why ({@link BackpressureController}), and the group's lag and drain
+ * time with the instances needed to meet the drain target ({@link ConsumerLagMonitor}),
+ * for an orchestrator to scale on.
+ */
+@Component
+@Endpoint(id = "backpressure")
+@ConditionalOnProperty(name = "app.kafka.enabled", havingValue = "true", matchIfMissing = false)
+public class BackpressureEndpoint {
+
+    private final BackpressureController backpressureController;
+    private final ConsumerLagMonitor consumerLagMonitor;
+
+    public BackpressureEndpoint(BackpressureController backpressureController, ConsumerLagMonitor consumerLagMonitor) {
+        this.backpressureController = backpressureController;
+        this.consumerLagMonitor = consumerLagMonitor;
+    }
+
+    @ReadOperation
+    public Map<String, Object> backpressure() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("consumer", backpressureController.describe());
+        body.put("group", consumerLagMonitor.describe());
+        return body;
+    }
+}
@@ -0,0 +1,277 @@
+package com.docmgmt.translation.kafka;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ConsumerGroupDescription;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Measures how far the consumer group is behind on the request topic, as the signal
+ * for scaling instances. Every {@code interval-ms} the group's committed offsets and
+ * each partition's end offset are read from the broker. A partition's lag is the
+ * records between them; its consume and produce rates are averages of how fast
+ * each moved, and its drain time is the lag over the rate at which it shrinks,
+ * infinite while it doesn't.
+ *
+ * <p>The whole group is measured, whichever instance reads a partition, so every
+ * instance reports the same figures. The instances needed are those at which the
+ * group, consuming at its current rate per consumer, would keep up with producers
+ * and drain the lag within {@code drain-target-seconds}. While nothing is consumed,
+ * e.g. because Gemini is saturated and the topic paused, the current count is kept,
+ * as more instances wouldn't help. The figure only grows with the backlog; scaling
+ * in is left to the orchestrator's own utilization metrics.
+ */
+@Component
+@ConditionalOnProperty(name = "app.kafka.enabled", havingValue = "true", matchIfMissing = false)
+public class ConsumerLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsumerLagMonitor.class);
+
+    private final AdminClient admin;
+    private final String topic;
+    private final String groupId;
+    private final long intervalMs;
+    private final double alpha;
+    private final double drainTargetSeconds;
+    private final int concurrency;
+    private final MeterRegistry meterRegistry;
+    private final Map<Integer, PartitionLag> partitions = new ConcurrentSkipListMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "consumer-lag-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile long lag;
+    private volatile double consumeRate;
+    private volatile double produceRate;
+    private volatile int consumers;
+    private volatile int desiredInstances;
+
+    public ConsumerLagMonitor(KafkaAdmin kafkaAdmin,
+                              @Value("${app.topics.translation-request}") String topic,
+                              @Value("${spring.kafka.consumer.group-id}") String groupId,
+                              @Value("${app.kafka.lag.interval-ms:5000}") long intervalMs,
+                              @Value("${app.kafka.lag.ewma-alpha:0.3}") double alpha,
+                              @Value("${app.kafka.lag.drain-target-seconds:300}") double drainTargetSeconds,
+                              @Value("${app.kafka.concurrency:1}") int concurrency,
+                              MeterRegistry meterRegistry) {
+        this.admin = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+        this.topic = topic;
+        this.groupId = groupId;
+        this.intervalMs = intervalMs;
+        this.alpha = alpha;
+        this.drainTargetSeconds = drainTargetSeconds;
+        this.concurrency = Math.max(1, concurrency);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("translation.kafka.group.lag", this, monitor -> monitor.lag)
+                .description("Request topic records not yet consumed by the group").register(meterRegistry);
+        Gauge.builder("translation.kafka.group.drain.time", this, ConsumerLagMonitor::getDrainSeconds)
+                .baseUnit("seconds").description("Estimated time for the group to consume the request topic's lag")
+                .register(meterRegistry);
+        Gauge.builder("translation.kafka.group.consume.rate", this, monitor -> monitor.consumeRate)
+                .description("Request topic records consumed by the group per second").register(meterRegistry);
+        Gauge.builder("translation.kafka.group.produce.rate", this, monitor -> monitor.produceRate)
+                .description("Request topic records produced per second").register(meterRegistry);
+        Gauge.builder("translation.kafka.group.desired.instances", this, monitor -> monitor.desiredInstances)
+                .description("Instances needed to drain the lag within the drain target").register(meterRegistry);
+        scheduler.scheduleWithFixedDelay(this::sample, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void sample() {
+        try {
+            long now = System.nanoTime();
+            TopicDescription description = admin.describeTopics(List.of(topic)).allTopicNames()
+                    .get(intervalMs, TimeUnit.MILLISECONDS).get(topic);
+            List<TopicPartition> topicPartitions = new ArrayList<>();
+            description.partitions().forEach(info -> topicPartitions.add(new TopicPartition(topic, info.partition())));
+
+            Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(groupId)
+                    .partitionsToOffsetAndMetadata().get(intervalMs, TimeUnit.MILLISECONDS);
+            List<TopicPartition> uncommitted = new ArrayList<>();
+            for (TopicPartition partition : topicPartitions) {
+                if (committed.get(partition) == null) {
+                    uncommitted.add(partition);
+                }
+            }
+            Map<TopicPartition, Long> ends = offsets(topicPartitions, OffsetSpec.latest());
+            // The group starts a partition it never committed from its earliest record (auto-offset-reset)
+            Map<TopicPartition, Long> starts = uncommitted.isEmpty() ? Map.of() : offsets(uncommitted, OffsetSpec.earliest());
+
+            ConsumerGroupDescription group = admin.describeConsumerGroups(List.of(groupId)).all()
+                    .get(intervalMs, TimeUnit.MILLISECONDS).get(groupId);
+            // Members reading only the retry tiers don't count
+            int members = (int) group.members().stream()
+                    .filter(member -> member.assignment().topicPartitions().stream()
+                            .anyMatch(partition -> partition.topic().equals(topic)))
+                    .count();
+
+            long totalLag = 0;
+            double totalConsumeRate = 0;
+            double totalProduceRate = 0;
+            for (TopicPartition partition : topicPartitions) {
+                OffsetAndMetadata offset = committed.get(partition);
+                long position = offset != null ? offset.offset() : starts.getOrDefault(partition, 0L);
+                PartitionLag partitionLag = partitions.computeIfAbsent(partition.partition(), this::register);
+                partitionLag.update(ends.getOrDefault(partition, position), position, now, alpha);
+                totalLag += partitionLag.lag;
+                totalConsumeRate += partitionLag.consumeRate;
+                totalProduceRate += partitionLag.produceRate;
+            }
+            lag = totalLag;
+            consumeRate = totalConsumeRate;
+            produceRate = totalProduceRate;
+            consumers = members;
+            desiredInstances = desiredInstances(topicPartitions.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            logger.warn("Failed to measure the lag on {}: {}", topic, e.getMessage());
+        }
+    }
+
+    private Map<TopicPartition, Long> offsets(List<TopicPartition> topicPartitions, OffsetSpec spec)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Map<TopicPartition, OffsetSpec> request = new HashMap<>();
+        topicPartitions.forEach(partition -> request.put(partition, spec));
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        admin.listOffsets(request).all().get(intervalMs, TimeUnit.MILLISECONDS)
+                .forEach((partition, info) -> offsets.put(partition, info.offset()));
+        return offsets;
+    }
+
+    private int desiredInstances(int partitionCount) {
+        int current = (consumers + concurrency - 1) / concurrency;
+        if (consumers == 0 || consumeRate <= 0) {
+            return Math.max(current, lag > 0 ? 1 : 0);
+        }
+        double requiredRate = produceRate + lag / drainTargetSeconds;
+        int desiredConsumers = (int) Math.ceil(requiredRate / (consumeRate / consumers));
+        // Consumers beyond the partition count would sit idle
+        desiredConsumers = Math.max(consumers, Math.min(desiredConsumers, partitionCount));
+        return (desiredConsumers + concurrency - 1) / concurrency;
+    }
+
+    private PartitionLag register(int partition) {
+        PartitionLag partitionLag = new PartitionLag();
+        Gauge.builder("translation.kafka.lag", partitionLag, p -> p.lag)
+                .tag("partition", String.valueOf(partition))
+                .description("Request topic records not yet consumed by the group").register(meterRegistry);
+        Gauge.builder("translation.kafka.drain.time", partitionLag, PartitionLag::drainSeconds)
+                .tag("partition", String.valueOf(partition)).baseUnit("seconds")
+                .description("Estimated time to consume the partition's lag").register(meterRegistry);
+        return partitionLag;
+    }
+
+    /**
+     * @return The estimated time for the group to consume its lag, infinite while it isn't shrinking
+     */
+    public double getDrainSeconds() {
+        return drainSeconds(lag, consumeRate - produceRate);
+    }
+
+    private static double drainSeconds(long lag, double shrinkRate) {
+        if (lag == 0) {
+            return 0;
+        }
+        return shrinkRate > 0 ? lag / shrinkRate : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return The group's and each partition's lag, rates and drain time, as last measured;
+     *         a drain time is null while the lag isn't shrinking
+     */
+    public Map<String, Object> describe() {
+        Map<String, Object> byPartition = new LinkedHashMap<>();
+        partitions.forEach((partition, partitionLag) -> {
+            Map<String, Object> figures = new LinkedHashMap<>();
+            figures.put("lag", partitionLag.lag);
+            figures.put("consumeRate", partitionLag.consumeRate);
+            figures.put("produceRate", partitionLag.produceRate);
+            figures.put("drainSeconds", finite(partitionLag.drainSeconds()));
+            byPartition.put(String.valueOf(partition), figures);
+        });
+
+        double drainSeconds = getDrainSeconds();
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("topic", topic);
+        description.put("lag", lag);
+        description.put("consumeRate", consumeRate);
+        description.put("produceRate", produceRate);
+        description.put("drainSeconds", finite(drainSeconds));
+        description.put("drainTargetSeconds", drainTargetSeconds);
+        description.put("scaleOut", drainSeconds > drainTargetSeconds);
+        description.put("consumers", consumers);
+        description.put("desiredInstances", desiredInstances);
+        description.put("partitions", byPartition);
+        return description;
+    }
+
+    private static Double finite(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        admin.close(Duration.ofSeconds(1));
+    }
+
+    /**
+     * One partition's offsets at the last measurement and how fast they move. Written
+     * by the monitor's thread only.
+     */
+    static class PartitionLag {
+
+        volatile long lag;
+        volatile double consumeRate;
+        volatile double produceRate;
+        private long end = -1;
+        private long position;
+        private long measuredAt;
+        private boolean rated;
+
+        void update(long end, long position, long now, double alpha) {
+            if (this.end >= 0 && now > measuredAt) {
+                double seconds = (now - measuredAt) / 1e9;
+                double consumed = Math.max(0, position - this.position) / seconds;
+                double produced = Math.max(0, end - this.end) / seconds;
+                // The first rate seeds the averages, so they don't start from zero
+                consumeRate = rated ? consumeRate + alpha * (consumed - consumeRate) : consumed;
+                produceRate = rated ? produceRate + alpha * (produced - produceRate) : produced;
+                rated = true;
+            }
+            this.end = end;
+            this.position = position;
+            this.measuredAt = now;
+            lag = Math.max(0, end - position);
+        }
+
+        double drainSeconds() {
+            return ConsumerLagMonitor.drainSeconds(lag, consumeRate - produceRate);
+        }
+    }
+}
@@ -1,104 +1,568 @@
 package com.docmgmt.translation.kafka;
 
+import com.docmgmt.translation.cache.IdempotencyStore;
+import com.docmgmt.translation.concurrent.KeyOrderedExecutor;
 import com.docmgmt.translation.model.TranslationRequest;
 import com.docmgmt.translation.model.TranslationResponse;
 import com.docmgmt.translation.model.TranslationResponse.Status;
+import com.docmgmt.translation.service.DeadlineExceededException;
+import com.docmgmt.translation.service.Lane;
+import com.docmgmt.translation.service.LaneContext;
+import com.docmgmt.translation.service.MultiTargetTranslation;
+import com.docmgmt.translation.service.TranslationRequests;
 import com.docmgmt.translation.service.TranslationServiceInterface;
+import com.docmgmt.translation.service.TranslationUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.log.LogAccessor;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+/**
+ * Consumes translation requests from the request topic, as read by the
+ * {@link TranslationRequestDeserializer}; records it could not read go straight to
+ * the DLQ. Time between a record being produced and received
+ * ({@code translation.kafka.receive.lag}) and translation time by language pair and
+ * outcome ({@code translation.translate}) are published as metrics.
+ *
+ * <p>{@code app.kafka.dispatch-mode} selects how a poll is processed: {@code batch}
+ * translates each language pair in one Gemini call, {@code per-record} runs every
+ * record as its own key-ordered task and waits for the whole poll, and
+ * {@code pipelined} hands records to the key-ordered workers without waiting,
+ * committing each partition up to its lowest unfinished record via the
+ * {@link OffsetTracker}.
+ *
+ * <p>Requests found in the {@link IdempotencyStore} were translated before (the
+ * record is being redelivered) and are answered from there without calling Gemini.
+ * Requests whose deadline has passed are answered as FAILED, also without calling it.
+ *
+ * <p>Requests wait for Gemini in the lane of their priority ({@link Lane#of}):
+ * HIGH in the interactive lane, LOW in the bulk lane. A request whose deadline
+ * passes while it waits is answered as FAILED, like one that arrived too late.
+ *
+ * <p>The {@link BackpressureController} pauses the topic while the work it feeds
+ * can't keep up, and watches how long each poll's records take here.
+ */
 @Component
 @ConditionalOnProperty(name = "app.kafka.enabled", havingValue = "true", matchIfMissing = false)
 public class KafkaConsumer {
 
     private static final Logger logger = LoggerFactory.getLogger(KafkaConsumer.class);
-    
+    private static final LogAccessor logAccessor = new LogAccessor(KafkaConsumer.class);
+    static final String LISTENER_ID = "translation-request";
+    public static final String PER_RECORD = "per-record";
+    public static final String PIPELINED = "pipelined";
+
     private final TranslationServiceInterface translationService;
     private final KafkaProducer kafkaProducer;
-    
+    private final RetryTopicRouter retryTopicRouter;
+    private final KeyOrderedExecutor keyOrderedExecutor;
+    private final IdempotencyStore idempotencyStore;
+    private final OffsetTracker offsetTracker;
+    private final BackpressureController backpressureController;
+    private final String dispatchMode;
+    private final MeterRegistry meterRegistry;
+    private final Timer receiveLagTimer;
+
     @Autowired
-    public KafkaConsumer(TranslationServiceInterface translationService, KafkaProducer kafkaProducer) {
+    public KafkaConsumer(@Qualifier("kafkaTranslationService") TranslationServiceInterface translationService,
+                         KafkaProducer kafkaProducer,
+                         RetryTopicRouter retryTopicRouter,
+                         KeyOrderedExecutor keyOrderedTranslationExecutor,
+                         IdempotencyStore idempotencyStore,
+                         OffsetTracker offsetTracker,
+                         BackpressureController backpressureController,
+                         @Value("${app.kafka.dispatch-mode:batch}") String dispatchMode,
+                         MeterRegistry meterRegistry) {
         this.translationService = translationService;
         this.kafkaProducer = kafkaProducer;
-        logger.info("Kafka consumer initialized");
+        this.retryTopicRouter = retryTopicRouter;
+        this.keyOrderedExecutor = keyOrderedTranslationExecutor;
+        this.idempotencyStore = idempotencyStore;
+        this.offsetTracker = offsetTracker;
+        this.backpressureController = backpressureController;
+        this.dispatchMode = dispatchMode.toLowerCase();
+        this.meterRegistry = meterRegistry;
+        this.receiveLagTimer = Timer.builder("translation.kafka.receive.lag")
+                .description("Time from a request being produced to the listener receiving it")
+                .register(meterRegistry);
+        logger.info("Kafka consumer initialized (dispatch mode: {})", this.dispatchMode);
     }
 
     @KafkaListener(
-        topics = "${app.topics.translation-request}", 
+        id = LISTENER_ID,
+        topics = "${app.topics.translation-request}",
         containerFactory = "kafkaListenerContainerFactory",
         groupId = "${spring.kafka.consumer.group-id}"
     )
-    public void consumeSimpleMessage(String message) {
-        logger.info("Received translation request message: {}", message);
-        
+    public void consumeBatch(List<ConsumerRecord<String, TranslationRequest>> records, Consumer<?, ?> consumer) {
+        logger.info("Received batch of {} translation request messages", records.size());
+        long start = backpressureController.listenerStarted();
+        try {
+            dispatch(records, consumer);
+        } finally {
+            backpressureController.listenerFinished(start);
+        }
+    }
+
+    private void dispatch(List<ConsumerRecord<String, TranslationRequest>> records, Consumer<?, ?> consumer) {
+        if (PIPELINED.equals(dispatchMode)) {
+            dispatchPipelined(records, consumer);
+            return;
+        }
+        if (PER_RECORD.equals(dispatchMode)) {
+            dispatchPerRecord(records);
+            return;
+        }
+
+        // Group requests by lane and language pair so each group can go to Gemini in one call
+        TranslationRequest[] requests = readAll(records);
+        TranslationResponse[] responses = new TranslationResponse[requests.length];
+        Handoffs handoffs = new Handoffs();
+        Map<String, List<Integer>> indexesByGroup = new LinkedHashMap<>();
+        TreeSet<Integer> pending = new TreeSet<>();
+        for (int i = 0; i < requests.length; i++) {
+            if (requests[i] == null) {
+                ConsumerRecord<String, TranslationRequest> record = records.get(i);
+                handoffs.add(i, () -> sendToDlq(record));
+                continue;
+            }
+            TranslationResponse answered = localResponse(requests[i]);
+            if (answered != null) {
+                responses[i] = answered;
+            } else {
+                indexesByGroup.computeIfAbsent(Lane.of(requests[i].getPriority()) + " " + languagePair(requests[i]),
+                        k -> new ArrayList<>()).add(i);
+                pending.add(i);
+            }
+        }
+
+        for (List<Integer> group : indexesByGroup.values()) {
+            List<TranslationRequest> groupRequests = new ArrayList<>(group.size());
+            group.forEach(i -> groupRequests.add(requests[i]));
+            try {
+                List<TranslationResponse> answered = processTranslationRequests(groupRequests, group, handoffs);
+                for (int j = 0; j < answered.size(); j++) {
+                    responses[group.get(j)] = answered.get(j);
+                }
+                group.forEach(pending::remove);
+            } catch (TranslationUnavailableException e) {
+                deferFrom(pending.first(), responses, handoffs, e);
+            }
+        }
+
+        // Returns once every response and handoff is acknowledged; only then does the container commit the offsets
+        int sent = publish(requests.length, responses, handoffs);
+        logger.info("Sent {} translation responses for batch of {} messages", sent, records.size());
+    }
+
+    /**
+     * Translates each record as its own task on the key-ordered executor (one virtual
+     * thread per record when virtual threads are enabled). Records for the same
+     * document run in order; the poll's offsets are committed once all have finished.
+     */
+    private void dispatchPerRecord(List<ConsumerRecord<String, TranslationRequest>> records) {
+        TranslationRequest[] requests = readAll(records);
+        TranslationResponse[] responses = new TranslationResponse[requests.length];
+        boolean[] handled = new boolean[requests.length];
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(requests.length);
+        Handoffs handoffs = new Handoffs();
+        for (int i = 0; i < requests.length; i++) {
+            TranslationRequest request = requests[i];
+            int index = i;
+            if (request == null) {
+                ConsumerRecord<String, TranslationRequest> record = records.get(i);
+                handoffs.add(i, () -> sendToDlq(record));
+            } else {
+                tasks.add(keyOrderedExecutor.submit(request.getDocumentId(), () -> {
+                    responses[index] = processTranslationRequest(request, index, handoffs);
+                    handled[index] = true;
+                }));
+            }
+        }
+
+        // Wait for every task, including ones that were refused by the backend
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).handle((result, error) -> null).join();
+
+        // Defer the batch from the first record the backend refused, if any
+        for (int i = 0; i < requests.length; i++) {
+            if (requests[i] != null && !handled[i]) {
+                deferFrom(i, responses, handoffs, new TranslationUnavailableException("Translation backend unavailable"));
+            }
+        }
+
+        int sent = publish(requests.length, responses, handoffs);
+        logger.info("Sent {} translation responses for batch of {} messages", sent, records.size());
+    }
+
+    /**
+     * Hands each record to the key-ordered workers and returns without waiting, so
+     * the next poll overlaps with translation. A record counts as finished once its
+     * response, or its move to a retry tier or the DLQ, is acknowledged; offsets
+     * are committed up to the first unfinished record of each partition. While the
+     * workers are all busy, {@link KeyOrderedExecutor#submit} holds up the poll loop.
+     *
+     * <p>A record whose response or move could not be delivered, once the producer's
+     * resends are spent, or whose task failed, is marked for redelivery: on the next
+     * poll (or idle event) its partition is rewound to it and consumed again from
+     * there, records already answered being answered from the idempotency store.
+     */
+    private void dispatchPipelined(List<ConsumerRecord<String, TranslationRequest>> records, Consumer<?, ?> consumer) {
+        Set<TopicPartition> rewound = offsetTracker.rewindFailed(consumer);
+        TranslationRequest[] requests = readAll(records);
+        for (int i = 0; i < requests.length; i++) {
+            ConsumerRecord<String, TranslationRequest> record = records.get(i);
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            if (rewound.contains(partition)) {
+                continue; // Polled before the rewind, and consumed again after it
+            }
+            OffsetTracker.Tracked tracked = offsetTracker.register(partition, record.offset());
+            TranslationRequest request = requests[i];
+            if (request == null) {
+                finishOnceAcknowledged(List.of(sendToDlq(record)), tracked, record);
+                continue;
+            }
+
+            keyOrderedExecutor.submit(request.getDocumentId(), () -> {
+                boolean handedOff = false;
+                try {
+                    Handoffs moves = new Handoffs();
+                    List<CompletableFuture<Void>> handoffs = new ArrayList<>(1);
+                    TranslationResponse response;
+                    try {
+                        response = processTranslationRequest(request, 0, moves);
+                        handoffs.addAll(moves.publishAll());
+                    } catch (TranslationUnavailableException e) {
+                        // Nothing to redeliver from here; the retry tier waits out the open circuit
+                        handoffs.add(retryTopicRouter.scheduleRetry(request, 0, e));
+                        response = null;
+                    }
+                    if (response != null) {
+                        handoffs.add(kafkaProducer.sendTranslationResponse(response));
+                    }
+                    finishOnceAcknowledged(handoffs, tracked, record);
+                    handedOff = true;
+                } finally {
+                    if (!handedOff) {
+                        logger.error("Translating record {}-{}@{} failed unexpectedly, redelivering it",
+                                record.topic(), record.partition(), record.offset());
+                        tracked.redeliver();
+                    }
+                }
+            });
+        }
+        offsetTracker.commit(consumer);
+    }
+
+    /**
+     * Marks a pipelined record finished once what it was answered or moved with is on
+     * the broker, or for redelivery if that failed.
+     */
+    private static void finishOnceAcknowledged(List<CompletableFuture<Void>> handoffs, OffsetTracker.Tracked tracked,
+                                               ConsumerRecord<String, TranslationRequest> record) {
+        CompletableFuture.allOf(handoffs.toArray(new CompletableFuture[0])).whenComplete((result, error) -> {
+            if (error == null) {
+                tracked.finish();
+            } else {
+                logger.error("Record {}-{}@{} was not delivered onwards, redelivering it: {}",
+                        record.topic(), record.partition(), record.offset(), error.getMessage());
+                tracked.redeliver();
+            }
+        });
+    }
+
+    /**
+     * Rewinds partitions with records to redeliver, and commits work that finished,
+     * while no records were arriving.
+     */
+    @EventListener(condition = "event.listenerId.startsWith('" + LISTENER_ID + "')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        if (PIPELINED.equals(dispatchMode)) {
+            // Idle events are published on the consumer thread
+            offsetTracker.rewindFailed(event.getConsumer());
+            offsetTracker.commit(event.getConsumer());
+        }
+    }
+
+    /**
+     * @return The requests of the records, with null for each record that could not be
+     *         read; those go to the DLQ with {@link #sendToDlq}
+     */
+    private TranslationRequest[] readAll(List<ConsumerRecord<String, TranslationRequest>> records) {
+        TranslationRequest[] requests = new TranslationRequest[records.size()];
+        long receivedAt = System.currentTimeMillis();
+        for (int i = 0; i < requests.length; i++) {
+            ConsumerRecord<String, TranslationRequest> record = records.get(i);
+            receiveLagTimer.record(Math.max(0, receivedAt - record.timestamp()), TimeUnit.MILLISECONDS);
+            requests[i] = record.value();
+        }
+        return requests;
+    }
+
+    /**
+     * Publishes a record that could not be read straight to the DLQ; retrying can't
+     * fix a malformed message.
+     *
+     * @return Completes once the DLQ record is acknowledged
+     */
+    private CompletableFuture<Void> sendToDlq(ConsumerRecord<String, TranslationRequest> record) {
+        DeserializationException error = SerializationUtils.getExceptionFromHeader(record,
+                SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, logAccessor);
+        String message = error != null && error.getData() != null
+                ? new String(error.getData(), StandardCharsets.UTF_8) : null;
+        String reason = error == null ? "Empty message"
+                : error.getCause() != null ? error.getCause().getMessage() : error.getMessage();
+        logger.error("Unreadable translation request at {}-{}@{}: {}",
+                record.topic(), record.partition(), record.offset(), reason);
+        return retryTopicRouter.sendMalformedToDlq(record.key(), message, reason);
+    }
+
+    /**
+     * Waits until the records handed to the retry tiers or the DLQ are acknowledged,
+     * as their offsets are about to be committed.
+     *
+     * @throws ResponseDeliveryException If any could not be published
+     */
+    private static void awaitHandoffs(List<CompletableFuture<Void>> handoffs) {
         try {
-            // Parse the message format "docId:title"
-            String[] parts = message.split(":", 2);
-            
-            if (parts.length != 2) {
-                logger.error("Invalid message format. Expected 'docId:title', got: {}", message);
-                return;
+            CompletableFuture.allOf(handoffs.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw new ResponseDeliveryException("Failed to hand requests to the retry tiers or the DLQ", e.getCause());
+        }
+    }
+
+    /**
+     * Makes the moves and sends the responses of the records before {@code end}, the
+     * records whose offsets the container is about to commit, and waits until the
+     * broker has all of them.
+     *
+     * @return The number of responses sent
+     */
+    private int publish(int end, TranslationResponse[] responses, Handoffs handoffs) {
+        awaitHandoffs(handoffs.publishBefore(end));
+        List<TranslationResponse> settled = new ArrayList<>(end);
+        for (int i = 0; i < end; i++) {
+            if (responses[i] != null) {
+                settled.add(responses[i]);
             }
-            
-            // Create a TranslationRequest from the simple message
-            TranslationRequest request = new TranslationRequest();
-            request.setDocumentId(parts[0]); // UUID comes as string
-            request.setTitle(parts[1]);
-            request.setSourceLanguage("en"); // Default source language
-            request.setTargetLanguage("es"); // Default target language
-            
-            processTranslationRequest(request);
+        }
+        kafkaProducer.sendTranslationResponses(settled);
+        return settled.size();
+    }
+
+    /**
+     * Publishes what the records before {@code index} produced, then hands the rest of
+     * the batch back to the container: offsets before {@code index} are committed and
+     * the remaining records are redelivered once the error handler's back-off (the
+     * circuit breaker's open duration) has elapsed. Nothing is published for the
+     * records from {@code index} on, as the redelivery handles them again; those
+     * already translated are then answered from the idempotency store.
+     */
+    private void deferFrom(int index, TranslationResponse[] responses, Handoffs handoffs,
+                           TranslationUnavailableException cause) {
+        publish(index, responses, handoffs);
+        logger.warn("Deferring batch from record {}: {}", index, cause.getMessage());
+        throw new BatchListenerFailedException("Translation backend unavailable, deferring batch", cause, index);
+    }
+
+    /**
+     * Translates a group of requests sharing one language pair (or set of target
+     * languages), the texts of all of them in one batch. Titles Gemini answers badly
+     * are translated again one by one by the service, so one bad title doesn't fail
+     * its neighbours. If the call fails as a whole (throttled, unreachable) the
+     * requests go to the retry tiers rather than to Gemini once each, which would
+     * only add to the load; their moves are added to {@code handoffs}.
+     *
+     * @param indexes The index of each request's record in the poll
+     * @return The responses in the order of the requests, or none if they were scheduled for a retry
+     */
+    private List<TranslationResponse> processTranslationRequests(List<TranslationRequest> requests,
+                                                                 List<Integer> indexes, Handoffs handoffs) {
+        TranslationRequest first = requests.get(0);
+        List<List<String>> textsByRequest = new ArrayList<>(requests.size());
+        List<String> allTexts = new ArrayList<>(requests.size());
+        for (TranslationRequest request : requests) {
+            List<String> texts = TranslationRequests.texts(request);
+            textsByRequest.add(texts);
+            allTexts.addAll(texts);
+        }
+
+        MultiTargetTranslation translations;
+        long start = System.nanoTime();
+        try {
+            translations = LaneContext.forRequests(requests)
+                    .call(() -> TranslationRequests.translate(translationService, first, allTexts));
+        } catch (TranslationUnavailableException e) {
+            recordTranslation(first, "batch", "DEFERRED", start);
+            throw e;
+        } catch (DeadlineExceededException e) {
+            // The latest deadline of the group passed, so every one of them did
+            recordTranslation(first, "batch", "EXPIRED", start);
+            logger.warn("Deadlines for {} requests passed while waiting for Gemini, not translating them",
+                    requests.size());
+            return requests.stream().map(request -> TranslationRequests.failedResponse(request, "Deadline exceeded"))
+                    .toList();
         } catch (Exception e) {
-            logger.error("Error processing message: {}", e.getMessage(), e);
+            recordTranslation(first, "batch", Status.FAILED.name(), start);
+            logger.warn("Batch translation failed, scheduling {} requests for retry: {}",
+                    requests.size(), e.getMessage());
+            for (int i = 0; i < requests.size(); i++) {
+                TranslationRequest request = requests.get(i);
+                handoffs.add(indexes.get(i), () -> retryTopicRouter.scheduleRetry(request, 0, e));
+            }
+            return List.of();
+        }
+
+        recordTranslation(first, "batch", Status.COMPLETED.name(), start);
+        List<TranslationResponse> responses = new ArrayList<>(requests.size());
+        int offset = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            List<String> texts = textsByRequest.get(i);
+            responses.add(completedResponse(requests.get(i), texts,
+                    translations.slice(offset, offset + texts.size())));
+            offset += texts.size();
         }
+        return responses;
     }
-    
-    private void processTranslationRequest(TranslationRequest request) {
+
+    /**
+     * Translates one request. A failure is handed to the retry tiers rather than
+     * answered, so the main topic is never held up by it. A multi-target request
+     * for which only some languages failed is answered, with those languages FAILED.
+     *
+     * @param index The index of the request's record in the poll
+     * @param handoffs Gets the move to the retry tier, if the request was scheduled for a retry
+     * @return the response, or null if the request was scheduled for a retry
+     */
+    private TranslationResponse processTranslationRequest(TranslationRequest request, int index, Handoffs handoffs) {
+        TranslationResponse answered = localResponse(request);
+        if (answered != null) {
+            return answered;
+        }
+
+        long start = System.nanoTime();
         try {
-            // Translate the title using the translation service
-            String translatedTitle = translationService.translateText(
-                request.getTitle(),
-                request.getSourceLanguage(),
-                request.getTargetLanguage()
-            );
-            
-            // Create response with the translated title
-            TranslationResponse response = new TranslationResponse(
-                request.getDocumentId(),
-                request.getTitle(),
-                translatedTitle,
-                request.getSourceLanguage(),
-                request.getTargetLanguage(),
-                Status.COMPLETED,
-                null, // No error
-                LocalDateTime.now().toString()
-            );
-            
-            // Send response back to document service
-            kafkaProducer.sendTranslationResponse(response);
-            logger.info("Sent translation response for document: {}", request.getDocumentId());
+            List<String> texts = TranslationRequests.texts(request);
+            MultiTargetTranslation translations = LaneContext.forRequest(request)
+                    .call(() -> TranslationRequests.translate(translationService, request, texts));
+            recordTranslation(request, "single", Status.COMPLETED.name(), start);
+            return completedResponse(request, texts, translations);
+        } catch (DeadlineExceededException e) {
+            recordTranslation(request, "single", "EXPIRED", start);
+            logger.warn("Deadline for document {} passed while waiting for Gemini, not translating it",
+                    request.getDocumentId());
+            return TranslationRequests.failedResponse(request, "Deadline exceeded");
+        } catch (TranslationUnavailableException e) {
+            // Not a translation failure; the record is deferred instead of answered
+            recordTranslation(request, "single", "DEFERRED", start);
+            throw e;
         } catch (Exception e) {
-            // Create error response
-            TranslationResponse errorResponse = new TranslationResponse(
-                request.getDocumentId(),
-                request.getTitle(),
-                null, // No translated title
-                request.getSourceLanguage(),
-                request.getTargetLanguage(),
-                Status.FAILED,
-                e.getMessage(),
-                LocalDateTime.now().toString()
-            );
-            
-            // Send error response back to document service
-            kafkaProducer.sendTranslationResponse(errorResponse);
+            recordTranslation(request, "single", Status.FAILED.name(), start);
             logger.error("Error processing translation: {}", e.getMessage(), e);
+            handoffs.add(index, () -> retryTopicRouter.scheduleRetry(request, 0, e));
+            return null;
+        }
+    }
+
+    private void recordTranslation(TranslationRequest request, String mode, String outcome, long start) {
+        Timer.builder("translation.translate")
+                .tag("language.pair", languagePair(request))
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .description("Time spent translating requests from the request topic")
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static String languagePair(TranslationRequest request) {
+        return request.getSourceLanguage() + "->" + String.join(",", TranslationRequests.targets(request));
+    }
+
+    /**
+     * @return The response for a request that can be answered without translating it
+     *         (its deadline has passed, or every language was already translated), or
+     *         null if it can't
+     */
+    private TranslationResponse localResponse(TranslationRequest request) {
+        if (request.getDeadline() != null && request.getDeadline() < System.currentTimeMillis()) {
+            logger.warn("Deadline for document {} has passed, not translating it", request.getDocumentId());
+            return TranslationRequests.failedResponse(request, "Deadline exceeded");
+        }
+
+        List<String> texts = TranslationRequests.texts(request);
+        MultiTargetTranslation translations = new MultiTargetTranslation();
+        for (String targetLanguage : TranslationRequests.targets(request)) {
+            List<String> translated = idempotencyStore.find(request.getDocumentId(), request.getSourceLanguage(),
+                    targetLanguage, texts);
+            if (translated == null) {
+                return null;
+            }
+            translations.put(targetLanguage, translated);
+        }
+        logger.info("Document {} was already translated, answering without calling Gemini", request.getDocumentId());
+        return TranslationRequests.response(request, translations);
+    }
+
+    private TranslationResponse completedResponse(TranslationRequest request, List<String> texts,
+                                                  MultiTargetTranslation translations) {
+        translations.getTranslations().forEach((targetLanguage, translated) ->
+                idempotencyStore.record(request.getDocumentId(), request.getSourceLanguage(), targetLanguage, texts,
+                        translated));
+        return TranslationRequests.response(request, translations);
+    }
+
+    /**
+     * Moves of records to the retry tiers or the DLQ, by the index of their record in
+     * the poll. They are held back until it is known how much of the poll is settled:
+     * a batch deferred from a record is redelivered from there, and moving that
+     * record or a later one now would move it again on every redelivery.
+     */
+    private static final class Handoffs {
+
+        private final TreeMap<Integer, Supplier<CompletableFuture<Void>>> moves = new TreeMap<>();
+
+        synchronized void add(int index, Supplier<CompletableFuture<Void>> move) {
+            moves.put(index, move);
+        }
+
+        /**
+         * Makes the moves of the records before {@code end}.
+         *
+         * @return Each completes once its record is acknowledged
+         */
+        synchronized List<CompletableFuture<Void>> publishBefore(int end) {
+            return moves.headMap(end).values().stream().map(Supplier::get).toList();
+        }
+
+        synchronized List<CompletableFuture<Void>> publishAll() {
+            return moves.values().stream().map(Supplier::get).toList();
         }
     }
 }
@@ -1,35 +1,157 @@
 package com.docmgmt.translation.kafka;
 
 import com.docmgmt.translation.model.TranslationResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes translation responses. Sends are pipelined: the caller never waits on
+ * an individual send, at most {@code app.kafka.producer.max-in-flight} responses
+ * are awaiting acknowledgement at once, and a send the producer gave up on is
+ * re-queued up to {@code app.kafka.producer.max-resends} times before its delivery
+ * fails. Sends inside a listener transaction are never re-queued: they belong to
+ * that transaction, which is rolled back and redelivered instead.
+ *
+ * <p>Every response is counted in {@code translation.responses} by language pair
+ * and status, and the time until the broker acknowledges it is recorded in
+ * {@code translation.kafka.send}.
+ */
 @Service
 public class KafkaProducer {
 
     private static final Logger logger = LoggerFactory.getLogger(KafkaProducer.class);
-    
+    private static final long RESEND_BACKOFF_MS = 200;
+
     private final KafkaTemplate<String, Object> kafkaTemplate;
-    
+    private final MeterRegistry meterRegistry;
+    private final Semaphore inFlight;
+    private final int maxResends;
+    private final ScheduledExecutorService resendScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "translation-response-resend");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     @Value("${app.topics.translation-response}")
     private String translationResponseTopic;
-    
-    public KafkaProducer(KafkaTemplate<String, Object> kafkaTemplate) {
+
+    public KafkaProducer(KafkaTemplate<String, Object> kafkaTemplate, MeterRegistry meterRegistry,
+                         @Value("${app.kafka.producer.max-in-flight:1000}") int maxInFlight,
+                         @Value("${app.kafka.producer.max-resends:3}") int maxResends) {
         this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxResends = maxResends;
+        Gauge.builder("translation.kafka.send.in.flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Responses sent but not yet acknowledged").register(meterRegistry);
     }
-    
-    public void sendTranslationResponse(TranslationResponse response) {
+
+    /**
+     * Sends one response without waiting for it.
+     *
+     * @return Completes when the broker has acknowledged the response, or fails once resends are exhausted
+     */
+    public CompletableFuture<Void> sendTranslationResponse(TranslationResponse response) {
         logger.info("Sending translation response for document ID: {}", response.getDocumentId());
-        
+        return track(response);
+    }
+
+    /**
+     * Sends a batch of responses and returns once the broker has acknowledged all of
+     * them, so the caller can let its offsets be committed. The sends themselves are
+     * pipelined and batched by the producer.
+     *
+     * @throws ResponseDeliveryException If any response could not be delivered
+     */
+    public void sendTranslationResponses(List<TranslationResponse> responses) {
+        if (responses.isEmpty()) {
+            return;
+        }
+        logger.info("Sending {} translation responses", responses.size());
+
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>(responses.size());
+        for (TranslationResponse response : responses) {
+            deliveries.add(track(response));
+        }
         try {
-            // Send to document.translation.response topic
-            kafkaTemplate.send(translationResponseTopic, response.getDocumentId(), response);
-            logger.info("Translation response sent successfully");
-        } catch (Exception e) {
-            logger.error("Failed to send translation response: {}", e.getMessage(), e);
+            CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw new ResponseDeliveryException("Failed to deliver translation responses", e.getCause());
         }
+        logger.info("{} translation responses acknowledged", responses.size());
+    }
+
+    /**
+     * Takes an in-flight slot, blocking while the pipeline is full, and holds it
+     * until the response is delivered or given up on.
+     */
+    private CompletableFuture<Void> track(TranslationResponse response) {
+        inFlight.acquireUninterruptibly();
+        CompletableFuture<Void> delivery = new CompletableFuture<>();
+        delivery.whenComplete((result, error) -> inFlight.release());
+        Counter.builder("translation.responses")
+                .tag("language.pair", response.getSourceLanguage() + "->" + response.getTargetLanguage())
+                .tag("status", String.valueOf(response.getStatus()))
+                .description("Translation responses published")
+                .register(meterRegistry)
+                .increment();
+        // A send inside a transaction starts with its resends used up
+        send(response, kafkaTemplate.inTransaction() ? maxResends : 0, delivery);
+        return delivery;
+    }
+
+    private void send(TranslationResponse response, int resends, CompletableFuture<Void> delivery) {
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, Object>> future;
+        try {
+            future = kafkaTemplate.send(translationResponseTopic, response.getDocumentId(), response);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((result, error) -> {
+            Timer.builder("translation.kafka.send")
+                    .tag("topic", translationResponseTopic)
+                    .tag("outcome", error == null ? "success" : "failure")
+                    .description("Time until the broker acknowledged a response")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (error == null) {
+                delivery.complete(null);
+            } else if (resends < maxResends) {
+                logger.warn("Failed to send translation response for document {}, re-queueing ({} of {}): {}",
+                        response.getDocumentId(), resends + 1, maxResends, error.getMessage());
+                // Re-send off the producer's I/O thread, which must never block on a full buffer
+                resendScheduler.schedule(() -> send(response, resends + 1, delivery),
+                        RESEND_BACKOFF_MS * (resends + 1), TimeUnit.MILLISECONDS);
+            } else {
+                logger.error("Failed to send translation response for document {}: {}",
+                        response.getDocumentId(), error.getMessage(), error);
+                delivery.completeExceptionally(error);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resendScheduler.shutdownNow();
     }
 }
@@ -0,0 +1,208 @@
+package com.docmgmt.translation.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks records that are processed out of order, so offsets are only ever
+ * committed up to the lowest record of each partition that is not finished yet.
+ *
+ * <p>Records are registered on the consumer thread when they are handed to a
+ * worker and completed from any thread. {@link #commit} must be called on the
+ * consumer thread. On a rebalance the finished prefix of each revoked partition is
+ * committed before the partition is handed over; records still in progress are
+ * redelivered to the new owner.
+ *
+ * <p>A record that could not be finished is marked for redelivery instead, which
+ * holds its partition's commits at it. {@link #rewindFailed}, also on the consumer
+ * thread, then seeks that partition back to its first unfinished record and forgets
+ * the records in progress there, so they are all consumed again rather than the
+ * partition stalling until the next rebalance.
+ */
+@Component
+public class OffsetTracker implements ConsumerAwareRebalanceListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffsetTracker.class);
+
+    private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a record as in progress.
+     *
+     * @return The record, to mark finished or for redelivery
+     */
+    public Tracked register(TopicPartition partition, long offset) {
+        PartitionOffsets offsets = partitions.computeIfAbsent(partition, p -> new PartitionOffsets());
+        offsets.register(offset);
+        return new Tracked(offsets, offset);
+    }
+
+    /**
+     * Seeks every partition of this consumer holding a record marked for redelivery
+     * back to its first unfinished record, committing the records finished before it.
+     * Records of that partition still in progress are forgotten: they are consumed
+     * again, and marking them later does nothing.
+     *
+     * @return The partitions rewound, whose records already polled must be skipped
+     */
+    public Set<TopicPartition> rewindFailed(Consumer<?, ?> consumer) {
+        Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+        for (TopicPartition partition : consumer.assignment()) {
+            PartitionOffsets offsets = partitions.get(partition);
+            long offset = offsets != null ? offsets.takeRewind() : -1;
+            if (offset >= 0) {
+                partitions.remove(partition);
+                consumer.seek(partition, offset);
+                commits.put(partition, new OffsetAndMetadata(offset));
+                logger.warn("Rewound {} to offset {} to redeliver a record that could not be finished",
+                        partition, offset);
+            }
+        }
+        if (!commits.isEmpty()) {
+            consumer.commitAsync(commits, (offsets, error) -> {
+                if (error != null) {
+                    logger.warn("Failed to commit offsets {}: {}", offsets, error.getMessage());
+                }
+            });
+        }
+        return commits.keySet();
+    }
+
+    /**
+     * Commits, without blocking, every partition of this consumer whose committable
+     * offset has moved since the last commit.
+     */
+    public void commit(Consumer<?, ?> consumer) {
+        Map<TopicPartition, OffsetAndMetadata> commits = committable(consumer.assignment());
+        if (!commits.isEmpty()) {
+            consumer.commitAsync(commits, (offsets, error) -> {
+                if (error != null) {
+                    logger.warn("Failed to commit offsets {}: {}", offsets, error.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * @return The number of registered records not completed yet, across all partitions
+     */
+    public int pending() {
+        return partitions.values().stream().mapToInt(PartitionOffsets::pending).sum();
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+        Map<TopicPartition, OffsetAndMetadata> commits = committable(revoked);
+        if (!commits.isEmpty()) {
+            consumer.commitSync(commits);
+            logger.info("Committed {} before giving up the partitions", commits);
+        }
+        revoked.forEach(partitions::remove);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> lost) {
+        lost.forEach(partitions::remove);
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> committable(Collection<TopicPartition> assigned) {
+        Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+        for (TopicPartition partition : assigned) {
+            PartitionOffsets offsets = partitions.get(partition);
+            long offset = offsets != null ? offsets.takeCommittable() : -1;
+            if (offset >= 0) {
+                commits.put(partition, new OffsetAndMetadata(offset));
+            }
+        }
+        return commits;
+    }
+
+    /**
+     * A record registered as in progress. Marking it does nothing once its partition
+     * has been revoked or rewound.
+     */
+    public static final class Tracked {
+
+        private final PartitionOffsets offsets;
+        private final long offset;
+
+        private Tracked(PartitionOffsets offsets, long offset) {
+            this.offsets = offsets;
+            this.offset = offset;
+        }
+
+        /**
+         * Marks the record as finished, so offsets can be committed past it.
+         */
+        public void finish() {
+            offsets.complete(offset);
+        }
+
+        /**
+         * Marks the record for redelivery, by the next {@link #rewindFailed}.
+         */
+        public void redeliver() {
+            offsets.fail();
+        }
+    }
+
+    private static class PartitionOffsets {
+
+        private final TreeSet<Long> inProgress = new TreeSet<>();
+        private long next = -1;
+        private long committed = -1;
+        private boolean failed;
+
+        synchronized void register(long offset) {
+            inProgress.add(offset);
+            next = Math.max(next, offset + 1);
+        }
+
+        synchronized void complete(long offset) {
+            inProgress.remove(offset);
+        }
+
+        synchronized void fail() {
+            failed = true;
+        }
+
+        synchronized int pending() {
+            return inProgress.size();
+        }
+
+        /**
+         * @return The offset to rewind to (the first unfinished record), or -1 if no record failed
+         */
+        synchronized long takeRewind() {
+            if (!failed || inProgress.isEmpty()) {
+                return -1;
+            }
+            failed = false;
+            return inProgress.first();
+        }
+
+        /**
+         * @return The offset to commit (the next record to consume), or -1 if it hasn't moved
+         */
+        synchronized long takeCommittable() {
+            long offset = inProgress.isEmpty() ? next : inProgress.first();
+            if (offset <= committed) {
+                return -1;
+            }
+            committed = offset;
+            return offset;
+        }
+    }
+}
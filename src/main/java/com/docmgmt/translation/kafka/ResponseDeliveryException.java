@@ -0,0 +1,13 @@
+package com.docmgmt.translation.kafka;
+
+/**
+ * Thrown when translation responses could not be delivered to the response topic,
+ * or requests could not be handed to the retry tiers or the DLQ, so the offsets of
+ * the requests they answer must not be committed.
+ */
+public class ResponseDeliveryException extends RuntimeException {
+
+    public ResponseDeliveryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
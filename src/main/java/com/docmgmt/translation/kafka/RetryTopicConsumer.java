@@ -0,0 +1,159 @@
+package com.docmgmt.translation.kafka;
+
+import com.docmgmt.translation.model.TranslationRequest;
+import com.docmgmt.translation.service.CircuitBreaker;
+import com.docmgmt.translation.service.DeadlineExceededException;
+import com.docmgmt.translation.service.Lane;
+import com.docmgmt.translation.service.LaneContext;
+import com.docmgmt.translation.service.MultiTargetTranslation;
+import com.docmgmt.translation.service.TranslationRequests;
+import com.docmgmt.translation.service.TranslationServiceInterface;
+import com.docmgmt.translation.service.TranslationUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumes the retry tier topics written by {@link RetryTopicRouter}.
+ *
+ * <p>A record that is not due yet is not waited for: its partition is paused and
+ * rewound to that record, and resumed when the record becomes due. Other
+ * partitions and tiers keep flowing, and the consumer keeps polling, so a long
+ * tier never stalls a short one or triggers a rebalance. A record that could not
+ * be published to its next tier waits the same way, and is tried again.
+ */
+@Component
+@ConditionalOnProperty(name = "app.kafka.enabled", havingValue = "true", matchIfMissing = false)
+public class RetryTopicConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryTopicConsumer.class);
+    static final String LISTENER_ID = "translation-retry";
+    private static final long UNAVAILABLE_PAUSE_MS = 5000;
+
+    private final TranslationServiceInterface translationService;
+    private final KafkaProducer kafkaProducer;
+    private final RetryTopicRouter retryTopicRouter;
+    private final CircuitBreaker circuitBreaker;
+    private final KafkaListenerEndpointRegistry registry;
+    private final Set<TopicPartition> waitingPartitions = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "translation-retry-resume");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RetryTopicConsumer(@Qualifier("kafkaTranslationService") TranslationServiceInterface translationService,
+                              KafkaProducer kafkaProducer,
+                              RetryTopicRouter retryTopicRouter,
+                              CircuitBreaker geminiCircuitBreaker,
+                              KafkaListenerEndpointRegistry registry) {
+        this.translationService = translationService;
+        this.kafkaProducer = kafkaProducer;
+        this.retryTopicRouter = retryTopicRouter;
+        this.circuitBreaker = geminiCircuitBreaker;
+        this.registry = registry;
+    }
+
+    @KafkaListener(
+        id = LISTENER_ID,
+        topics = "#{@retryTopicRouter.topicNames}",
+        containerFactory = "jsonKafkaListenerContainerFactory",
+        groupId = "${spring.kafka.consumer.group-id}"
+    )
+    public void consumeRetry(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment,
+                             Consumer<?, ?> consumer) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        if (waitingPartitions.contains(partition)) {
+            // Rewound already; this record is redelivered once the partition resumes
+            return;
+        }
+
+        long waitMs = headerAsLong(record, RetryTopicRouter.DUE_AT_HEADER, 0) - System.currentTimeMillis();
+        if (waitMs > 0) {
+            pauseUntilDue(partition, record.offset(), waitMs, consumer);
+            return;
+        }
+
+        if (!(record.value() instanceof TranslationRequest request)) {
+            logger.error("Unexpected payload on {}: {}", record.topic(), record.value());
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        int attempt = (int) headerAsLong(record, RetryTopicRouter.ATTEMPT_HEADER, 1);
+        logger.info("Retrying translation for document {} (attempt {})", request.getDocumentId(), attempt);
+        try {
+            // Retries wait in the bulk lane, behind fresh requests
+            MultiTargetTranslation translations = LaneContext.of(Lane.BULK, request.getDeadline())
+                    .call(() -> TranslationRequests.translate(translationService, request, TranslationRequests.texts(request)));
+            kafkaProducer.sendTranslationResponse(TranslationRequests.response(request, translations))
+                    .join(); // Acknowledge the retry record only once its response is on the broker
+        } catch (DeadlineExceededException e) {
+            logger.warn("Deadline for document {} passed while retrying, not translating it", request.getDocumentId());
+            kafkaProducer.sendTranslationResponse(TranslationRequests.failedResponse(request, "Deadline exceeded")).join();
+        } catch (TranslationUnavailableException e) {
+            // The backend is refusing calls; wait without spending an attempt
+            long pauseMs = Math.max(circuitBreaker.remainingOpenMillis(), UNAVAILABLE_PAUSE_MS);
+            pauseUntilDue(partition, record.offset(), pauseMs, consumer);
+            return;
+        } catch (Exception e) {
+            try {
+                // Acknowledge the retry record only once the next tier (or the DLQ) has it
+                retryTopicRouter.scheduleRetry(request, attempt, e).join();
+            } catch (CompletionException publishError) {
+                pauseUntilDue(partition, record.offset(), UNAVAILABLE_PAUSE_MS, consumer);
+                return;
+            }
+        }
+        acknowledgment.acknowledge();
+    }
+
+    private void pauseUntilDue(TopicPartition partition, long offset, long waitMs, Consumer<?, ?> consumer) {
+        MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+        waitingPartitions.add(partition);
+        consumer.seek(partition, offset);
+        container.pausePartition(partition);
+        logger.debug("Pausing {} for {} ms until offset {} is due", partition, waitMs, offset);
+
+        scheduler.schedule(() -> {
+            waitingPartitions.remove(partition);
+            container.resumePartition(partition);
+        }, waitMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private static long headerAsLong(ConsumerRecord<?, ?> record, String name, long defaultValue) {
+        Header header = record.headers().lastHeader(name);
+        if (header == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.docmgmt.translation.kafka;
+
+import com.docmgmt.translation.model.TranslationRequest;
+import com.docmgmt.translation.model.TranslationResponse;
+import com.docmgmt.translation.model.TranslationResponse.Status;
+import com.docmgmt.translation.service.TranslationRequests;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Moves failed translation requests out of the main topic so it keeps flowing.
+ *
+ * <p>A failed request goes to the next retry tier topic
+ * ({@code <request topic>.retry-<delay ms>}), stamped with the time it becomes due.
+ * Tier delays grow exponentially from {@code app.retry.delay} by
+ * {@code app.retry.multiplier}, capped at {@code app.retry.max-delay}, for
+ * {@code app.retry.max-attempts} tiers. After the last tier the request is
+ * published to the DLQ topic with failure headers, and a FAILED response is sent
+ * so the document service is not left waiting.
+ *
+ * <p>Every method returns once the record is handed to the producer; the returned
+ * future completes when the broker has acknowledged it. Callers must not commit or
+ * acknowledge the record they are moving before then.
+ */
+@Component
+@ConditionalOnProperty(name = "app.kafka.enabled", havingValue = "true", matchIfMissing = false)
+public class RetryTopicRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryTopicRouter.class);
+
+    public static final String ATTEMPT_HEADER = "x-retry-attempt";
+    public static final String DUE_AT_HEADER = "x-retry-due-at";
+    public static final String ORIGINAL_TOPIC_HEADER = "x-original-topic";
+    public static final String EXCEPTION_CLASS_HEADER = "x-exception-class";
+    public static final String EXCEPTION_MESSAGE_HEADER = "x-exception-message";
+    public static final String FAILED_AT_HEADER = "x-failed-at";
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final KafkaProducer kafkaProducer;
+    private final String requestTopic;
+    private final String dlqTopic;
+    private final List<Long> delaysMs = new ArrayList<>();
+    private final List<String> topicNames = new ArrayList<>();
+
+    public RetryTopicRouter(KafkaTemplate<String, Object> kafkaTemplate,
+                            KafkaProducer kafkaProducer,
+                            @Value("${app.topics.translation-request}") String requestTopic,
+                            @Value("${app.topics.dlq}") String dlqTopic,
+                            @Value("${app.retry.max-attempts:3}") int maxAttempts,
+                            @Value("${app.retry.delay:5000}") long delayMs,
+                            @Value("${app.retry.multiplier:6}") double multiplier,
+                            @Value("${app.retry.max-delay:300000}") long maxDelayMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.kafkaProducer = kafkaProducer;
+        this.requestTopic = requestTopic;
+        this.dlqTopic = dlqTopic;
+
+        double delay = delayMs;
+        for (int i = 0; i < maxAttempts; i++) {
+            long tierDelay = Math.min(maxDelayMs, (long) delay);
+            delaysMs.add(tierDelay);
+            topicNames.add(requestTopic + ".retry-" + tierDelay);
+            delay *= multiplier;
+        }
+        logger.info("Retry tiers: {}, DLQ: {}", topicNames, dlqTopic);
+    }
+
+    /**
+     * @return The retry tier topics, in order; used by the retry listener and topic creation
+     */
+    public String[] getTopicNames() {
+        return topicNames.toArray(new String[0]);
+    }
+
+    /**
+     * Schedules another attempt for a request that failed.
+     *
+     * @param request The request that failed
+     * @param attempt The number of retries already made (0 when the main listener failed)
+     * @param cause Why the last attempt failed
+     * @return Completes once the retry record, or the DLQ record and FAILED response, are acknowledged
+     */
+    public CompletableFuture<Void> scheduleRetry(TranslationRequest request, int attempt, Exception cause) {
+        if (attempt >= topicNames.size()) {
+            return sendToDlq(request, attempt, cause);
+        }
+
+        String topic = topicNames.get(attempt);
+        long dueAt = System.currentTimeMillis() + delaysMs.get(attempt);
+        // Keyed by title, so retries of the same title are translated once
+        ProducerRecord<String, Object> record = new ProducerRecord<>(topic,
+                TranslationRequests.titleKey(request.getTitle(), request.getSourceLanguage()), request);
+        addFailureHeaders(record.headers(), attempt + 1, cause);
+        record.headers().add(DUE_AT_HEADER, String.valueOf(dueAt).getBytes(StandardCharsets.UTF_8));
+        logger.info("Scheduling retry {} for document {} on {}: {}",
+                attempt + 1, request.getDocumentId(), topic, cause.getMessage());
+        return send(record);
+    }
+
+    /**
+     * Publishes a request that exhausted its retries to the DLQ and answers it as FAILED.
+     *
+     * @return Completes once both the DLQ record and the response are acknowledged
+     */
+    public CompletableFuture<Void> sendToDlq(TranslationRequest request, int attempts, Exception cause) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(dlqTopic, request.getDocumentId(), request);
+        addFailureHeaders(record.headers(), attempts, cause);
+        CompletableFuture<Void> published = send(record);
+        logger.error("Translation for document {} failed after {} retries, sending it to {}: {}",
+                request.getDocumentId(), attempts, dlqTopic, cause.getMessage());
+
+        CompletableFuture<Void> answered = kafkaProducer.sendTranslationResponse(new TranslationResponse(
+            request.getDocumentId(),
+            request.getTitle(),
+            null, // No translated title
+            request.getSourceLanguage(),
+            request.getTargetLanguage(),
+            Status.FAILED,
+            cause.getMessage(),
+            LocalDateTime.now().toString()
+        ));
+        return CompletableFuture.allOf(published, answered);
+    }
+
+    /**
+     * Publishes a message that can never succeed (e.g. it cannot be parsed) straight to the DLQ.
+     *
+     * @return Completes once the DLQ record is acknowledged
+     */
+    public CompletableFuture<Void> sendMalformedToDlq(String key, String message, String reason) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(dlqTopic, key, message);
+        record.headers().add(ORIGINAL_TOPIC_HEADER, requestTopic.getBytes(StandardCharsets.UTF_8));
+        record.headers().add(EXCEPTION_MESSAGE_HEADER, reason.getBytes(StandardCharsets.UTF_8));
+        record.headers().add(FAILED_AT_HEADER, String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+        return send(record);
+    }
+
+    private CompletableFuture<Void> send(ProducerRecord<String, Object> record) {
+        CompletableFuture<Void> sent;
+        try {
+            sent = kafkaTemplate.send(record).thenApply(result -> null);
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        return sent.whenComplete((result, error) -> {
+            if (error != null) {
+                logger.error("Failed to publish to {} (key {}): {}", record.topic(), record.key(), error.getMessage());
+            }
+        });
+    }
+
+    private void addFailureHeaders(Headers headers, int attempt, Exception cause) {
+        headers.add(ATTEMPT_HEADER, String.valueOf(attempt).getBytes(StandardCharsets.UTF_8));
+        headers.add(ORIGINAL_TOPIC_HEADER, requestTopic.getBytes(StandardCharsets.UTF_8));
+        headers.add(EXCEPTION_CLASS_HEADER, cause.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        headers.add(EXCEPTION_MESSAGE_HEADER,
+                String.valueOf(cause.getMessage()).getBytes(StandardCharsets.UTF_8));
+        headers.add(FAILED_AT_HEADER, String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,165 @@
+package com.docmgmt.translation.kafka;
+
+import com.docmgmt.translation.model.TranslationRequest;
+import com.docmgmt.translation.model.TranslationRequest.Priority;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads translation requests from the request topic in either format:
+ *
+ * <ul>
+ *   <li>JSON (a message starting with {@code '{'}): the fields of {@link TranslationRequest},
+ *       read with a streaming parser. Unknown fields are skipped so producers can add
+ *       fields ahead of this service; a {@code version} newer than
+ *       {@link TranslationRequest#CURRENT_VERSION} is rejected. {@code deadline} is
+ *       epoch millis or an ISO-8601 instant.</li>
+ *   <li>Legacy {@code docId:title}, translated from {@code en} to {@code es}. The
+ *       message is split at the first colon byte without decoding it first.</li>
+ * </ul>
+ *
+ * Anything else fails with a {@link SerializationException}; wrapped in an
+ * {@code ErrorHandlingDeserializer} the listener receives it with the raw bytes.
+ * Parse time is published as {@code translation.kafka.parse}, tagged by format.
+ */
+public class TranslationRequestDeserializer implements Deserializer<TranslationRequest> {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Timer jsonParseTimer;
+    private final Timer legacyParseTimer;
+
+    public TranslationRequestDeserializer() {
+        this(null);
+    }
+
+    public TranslationRequestDeserializer(MeterRegistry meterRegistry) {
+        this.jsonParseTimer = meterRegistry != null ? parseTimer(meterRegistry, "json") : null;
+        this.legacyParseTimer = meterRegistry != null ? parseTimer(meterRegistry, "legacy") : null;
+    }
+
+    private static Timer parseTimer(MeterRegistry meterRegistry, String format) {
+        return Timer.builder("translation.kafka.parse").tag("format", format)
+                .description("Time spent parsing request messages").register(meterRegistry);
+    }
+
+    @Override
+    public TranslationRequest deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            throw new SerializationException("Empty translation request");
+        }
+
+        long start = System.nanoTime();
+        int first = 0;
+        while (first < data.length && Character.isWhitespace(data[first])) {
+            first++;
+        }
+        boolean json = first < data.length && data[first] == '{';
+        TranslationRequest request = json ? readJson(data) : readLegacy(data);
+
+        Timer timer = json ? jsonParseTimer : legacyParseTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return request;
+    }
+
+    private static TranslationRequest readLegacy(byte[] data) {
+        // ':' is ASCII, so it can never be part of a multi-byte UTF-8 character
+        int colon = 0;
+        while (colon < data.length && data[colon] != ':') {
+            colon++;
+        }
+        if (colon == 0 || colon == data.length) {
+            throw new SerializationException("Invalid message format. Expected 'docId:title'");
+        }
+
+        TranslationRequest request = new TranslationRequest();
+        request.setDocumentId(new String(data, 0, colon, StandardCharsets.UTF_8));
+        request.setTitle(new String(data, colon + 1, data.length - colon - 1, StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static TranslationRequest readJson(byte[] data) {
+        TranslationRequest request = new TranslationRequest();
+        try (JsonParser parser = JSON_FACTORY.createParser(data)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (field) {
+                    case "version" -> request.setVersion(parser.getIntValue());
+                    case "documentId" -> request.setDocumentId(parser.getValueAsString());
+                    case "title" -> request.setTitle(parser.getValueAsString());
+                    case "sourceLanguage" -> request.setSourceLanguage(parser.getValueAsString());
+                    case "targetLanguage" -> request.setTargetLanguage(parser.getValueAsString());
+                    case "targetLanguages" -> request.setTargetLanguages(readStrings(parser));
+                    case "priority" -> request.setPriority(Priority.valueOf(parser.getText().toUpperCase(Locale.ROOT)));
+                    case "deadline" -> request.setDeadline(value == JsonToken.VALUE_NUMBER_INT
+                            ? parser.getLongValue()
+                            : Instant.parse(parser.getText()).toEpochMilli());
+                    case "fields" -> request.setFields(readFields(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException | IllegalArgumentException | DateTimeParseException e) {
+            throw new SerializationException("Invalid translation request: " + e.getMessage(), e);
+        }
+
+        if (request.getVersion() > TranslationRequest.CURRENT_VERSION) {
+            throw new SerializationException("Unsupported translation request version " + request.getVersion());
+        }
+        if (request.getDocumentId() == null || request.getTitle() == null) {
+            throw new SerializationException("Translation request needs a documentId and a title");
+        }
+        return request;
+    }
+
+    private static List<String> readStrings(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new SerializationException("'targetLanguages' must be an array of strings");
+        }
+        List<String> values = new ArrayList<>();
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            if (token != JsonToken.VALUE_STRING) {
+                throw new SerializationException("'targetLanguages' must be an array of strings");
+            }
+            values.add(parser.getText());
+        }
+        return values;
+    }
+
+    private static Map<String, String> readFields(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new SerializationException("'fields' must be an object of strings");
+        }
+        Map<String, String> fields = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            if (parser.nextToken() != JsonToken.VALUE_STRING) {
+                throw new SerializationException("Field '" + name + "' must be a string");
+            }
+            fields.put(name, parser.getText());
+        }
+        return fields;
+    }
+}
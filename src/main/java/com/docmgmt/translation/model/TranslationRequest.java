@@ -4,14 +4,38 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A request to translate a document's title, and optionally more of its fields,
+ * into {@link #targetLanguage} or, when set, every one of {@link #targetLanguages}.
+ * On the request topic it is either the JSON form of this class (see
+ * {@link #CURRENT_VERSION}) or the legacy {@code docId:title} string.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class TranslationRequest {
+
+    /** The newest schema version this service understands. */
+    public static final int CURRENT_VERSION = 1;
+
+    private int version = CURRENT_VERSION;
     private String documentId;
     private String title;
     private String sourceLanguage = "en";
     private String targetLanguage = "es";
+    private List<String> targetLanguages; // Translate into all of these instead of targetLanguage
+    private Priority priority = Priority.NORMAL;
+    private Long deadline; // Epoch millis after which a translation is no longer wanted
+    private Map<String, String> fields; // Further fields to translate, by name
+
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
     
     // Adding explicit getter and setter methods to avoid Lombok issues
     
@@ -46,4 +70,44 @@ public class TranslationRequest {
     public void setTargetLanguage(String targetLanguage) {
         this.targetLanguage = targetLanguage;
     }
+    
+    public List<String> getTargetLanguages() {
+        return targetLanguages;
+    }
+    
+    public void setTargetLanguages(List<String> targetLanguages) {
+        this.targetLanguages = targetLanguages;
+    }
+    
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
+    
+    public Priority getPriority() {
+        return priority;
+    }
+    
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+    
+    public Long getDeadline() {
+        return deadline;
+    }
+    
+    public void setDeadline(Long deadline) {
+        this.deadline = deadline;
+    }
+    
+    public Map<String, String> getFields() {
+        return fields;
+    }
+    
+    public void setFields(Map<String, String> fields) {
+        this.fields = fields;
+    }
 }
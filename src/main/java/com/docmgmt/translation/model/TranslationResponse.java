@@ -3,6 +3,8 @@ package com.docmgmt.translation.model;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @NoArgsConstructor
 public class TranslationResponse {
@@ -14,12 +16,51 @@ public class TranslationResponse {
     private Status status;
     private String error;
     private String timestamp;
+    private Map<String, String> translatedFields; // Set when the request asked for further fields
+    private Map<String, TargetTranslation> translations; // By language, set when the request had targetLanguages
     
     public enum Status {
         COMPLETED,
         FAILED
     }
     
+    /**
+     * The outcome for one language of a multi-target request. Each language
+     * completes or fails on its own.
+     */
+    @Data
+    @NoArgsConstructor
+    public static class TargetTranslation {
+        private String translatedTitle;
+        private Map<String, String> translatedFields;
+        private Status status;
+        private String error;
+        
+        public TargetTranslation(String translatedTitle, Map<String, String> translatedFields,
+                                 Status status, String error) {
+            this.translatedTitle = translatedTitle;
+            this.translatedFields = translatedFields;
+            this.status = status;
+            this.error = error;
+        }
+        
+        public String getTranslatedTitle() {
+            return translatedTitle;
+        }
+        
+        public Map<String, String> getTranslatedFields() {
+            return translatedFields;
+        }
+        
+        public Status getStatus() {
+            return status;
+        }
+        
+        public String getError() {
+            return error;
+        }
+    }
+    
     // Explicit constructor that matches how it's being called in the code
     public TranslationResponse(String documentId, String originalTitle, String translatedTitle, 
                              String sourceLanguage, String targetLanguage, Status status, 
@@ -100,6 +141,22 @@ public class TranslationResponse {
         this.timestamp = timestamp;
     }
     
+    public Map<String, String> getTranslatedFields() {
+        return translatedFields;
+    }
+    
+    public void setTranslatedFields(Map<String, String> translatedFields) {
+        this.translatedFields = translatedFields;
+    }
+    
+    public Map<String, TargetTranslation> getTranslations() {
+        return translations;
+    }
+    
+    public void setTranslations(Map<String, TargetTranslation> translations) {
+        this.translations = translations;
+    }
+    
     /**
      * Determines if the translation was successful
      * @return true if status is COMPLETED, false otherwise
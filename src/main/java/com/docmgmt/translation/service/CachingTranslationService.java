@@ -0,0 +1,252 @@
+package com.docmgmt.translation.service;
+
+import com.docmgmt.translation.cache.TieredTranslationCache;
+import com.docmgmt.translation.cache.TranslationCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Decorator that serves repeated translations from a {@link TranslationCache}
+ * and only passes cache misses on to the wrapped service. Keys are built by
+ * {@link TieredTranslationCache#key}; texts of a batch are looked up and stored
+ * together.
+ *
+ * <p>A translation is stored under the Gemini model that produced it, as named in
+ * the {@link RoutingReport} of the call, and not stored at all if no Gemini model
+ * did: answers of the {@code local} stand-in, the translation memory or another
+ * caller's call are never cached. A text is looked up under every model routed
+ * to, and the first model listed with a translation of it answers.
+ */
+public class CachingTranslationService implements TranslationServiceInterface {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingTranslationService.class);
+
+    private final TranslationServiceInterface delegate;
+    private final TranslationCache cache;
+    private final List<String> models;
+
+    /**
+     * @param models The Gemini models translations are looked up under, in order of preference
+     */
+    public CachingTranslationService(TranslationServiceInterface delegate, TranslationCache cache,
+                                     List<String> models) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.models = List.copyOf(models);
+    }
+
+    @Override
+    public String translateText(String text, String sourceLanguage, String targetLanguage) {
+        String cached = lookup(text, sourceLanguage, targetLanguage);
+        if (cached != null) {
+            logger.debug("Translation cache hit for '{}'", text);
+            return cached;
+        }
+
+        RoutingReport report = RoutingReport.open();
+        String translatedText = report.call(() -> delegate.translateText(text, sourceLanguage, targetLanguage));
+        store(report, text, sourceLanguage, targetLanguage, translatedText);
+        return translatedText;
+    }
+
+    @Override
+    public CompletableFuture<String> translateTextAsync(String text, String sourceLanguage, String targetLanguage) {
+        String cached = lookup(text, sourceLanguage, targetLanguage);
+        if (cached != null) {
+            logger.debug("Translation cache hit for '{}'", text);
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        RoutingReport report = RoutingReport.open();
+        return report.call(() -> delegate.translateTextAsync(text, sourceLanguage, targetLanguage))
+                .thenApply(translatedText -> {
+                    store(report, text, sourceLanguage, targetLanguage, translatedText);
+                    return translatedText;
+                });
+    }
+
+    @Override
+    public CompletableFuture<String> translateTextStreaming(String text, String sourceLanguage, String targetLanguage,
+                                                            Consumer<String> onText) {
+        String cached = lookup(text, sourceLanguage, targetLanguage);
+        if (cached != null) {
+            logger.debug("Translation cache hit for '{}'", text);
+            onText.accept(cached);
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        RoutingReport report = RoutingReport.open();
+        return report.call(() -> delegate.translateTextStreaming(text, sourceLanguage, targetLanguage, onText))
+                .thenApply(translatedText -> {
+                    store(report, text, sourceLanguage, targetLanguage, translatedText);
+                    return translatedText;
+                });
+    }
+
+    /**
+     * Looks every text up in the cache and sends only the distinct misses to the
+     * wrapped service in a single batch.
+     */
+    @Override
+    public List<String> translateBatch(List<String> texts, String sourceLanguage, String targetLanguage) {
+        String[] translations = lookupAll(texts, sourceLanguage, List.of(targetLanguage))[0];
+        Map<String, List<Integer>> missPositions = new LinkedHashMap<>();
+        Map<String, String> missTexts = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            if (translations[i] == null) {
+                String normalized = TieredTranslationCache.normalize(texts.get(i));
+                missPositions.computeIfAbsent(normalized, k -> new ArrayList<>()).add(i);
+                missTexts.putIfAbsent(normalized, texts.get(i));
+            }
+        }
+
+        if (!missTexts.isEmpty()) {
+            logger.debug("Translation cache served {} of {} texts, translating {} distinct misses",
+                    texts.size() - missPositions.values().stream().mapToInt(List::size).sum(),
+                    texts.size(), missTexts.size());
+            List<String> keys = new ArrayList<>(missTexts.keySet());
+            List<String> sent = new ArrayList<>(missTexts.values());
+            RoutingReport report = RoutingReport.open();
+            List<String> translatedMisses =
+                    report.call(() -> delegate.translateBatch(sent, sourceLanguage, targetLanguage));
+            Map<String, String> translated = new LinkedHashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+                String translatedText = translatedMisses.get(i);
+                put(translated, report, sent.get(i), sourceLanguage, targetLanguage, translatedText);
+                for (int position : missPositions.get(keys.get(i))) {
+                    translations[position] = translatedText;
+                }
+            }
+            cache.putAll(translated);
+        }
+
+        return List.of(translations);
+    }
+
+    /**
+     * Serves every language whose texts are all cached, and sends the remaining
+     * languages to the wrapped service in a single call, with every text missed by
+     * at least one of them.
+     */
+    @Override
+    public MultiTargetTranslation translateMulti(List<String> texts, String sourceLanguage,
+                                                 List<String> targetLanguages) {
+        String[][] translations = lookupAll(texts, sourceLanguage, targetLanguages);
+        List<String> missTargets = new ArrayList<>();
+        TreeSet<Integer> missPositions = new TreeSet<>();
+        for (int t = 0; t < targetLanguages.size(); t++) {
+            boolean missed = false;
+            for (int i = 0; i < texts.size(); i++) {
+                if (translations[t][i] == null) {
+                    missPositions.add(i);
+                    missed = true;
+                }
+            }
+            if (missed) {
+                missTargets.add(targetLanguages.get(t));
+            }
+        }
+
+        MultiTargetTranslation translated = null;
+        RoutingReport report = RoutingReport.open();
+        if (!missTargets.isEmpty()) {
+            logger.debug("Translation cache served {} of {} languages, translating {} texts into {}",
+                    targetLanguages.size() - missTargets.size(), targetLanguages.size(), missPositions.size(), missTargets);
+            List<String> missTexts = new ArrayList<>(missPositions.size());
+            missPositions.forEach(i -> missTexts.add(texts.get(i)));
+            translated = report.call(() -> delegate.translateMulti(missTexts, sourceLanguage, missTargets));
+        }
+
+        MultiTargetTranslation result = new MultiTargetTranslation();
+        Map<String, String> translatedEntries = new LinkedHashMap<>();
+        for (int t = 0; t < targetLanguages.size(); t++) {
+            String targetLanguage = targetLanguages.get(t);
+            if (translated != null && missTargets.contains(targetLanguage)) {
+                List<String> translatedMisses = translated.get(targetLanguage);
+                if (translatedMisses == null) {
+                    result.fail(targetLanguage, translated.getErrors().get(targetLanguage));
+                    continue;
+                }
+                int j = 0;
+                for (int i : missPositions) {
+                    String translatedText = translatedMisses.get(j++);
+                    put(translatedEntries, report, texts.get(i), sourceLanguage, targetLanguage, translatedText);
+                    translations[t][i] = translatedText;
+                }
+            }
+            result.put(targetLanguage, List.of(translations[t]));
+        }
+        cache.putAll(translatedEntries);
+        return result;
+    }
+
+    private String lookup(String text, String sourceLanguage, String targetLanguage) {
+        return lookupAll(List.of(text), sourceLanguage, List.of(targetLanguage))[0][0];
+    }
+
+    /**
+     * Looks the texts up under every model in a single call.
+     *
+     * @return The cached translations by target language and text, null where there is none
+     */
+    private String[][] lookupAll(List<String> texts, String sourceLanguage, List<String> targetLanguages) {
+        String[][] translations = new String[targetLanguages.size()][texts.size()];
+        if (models.isEmpty()) {
+            return translations;
+        }
+
+        List<String> keys = new ArrayList<>(targetLanguages.size() * texts.size() * models.size());
+        for (String targetLanguage : targetLanguages) {
+            for (String text : texts) {
+                for (String model : models) {
+                    keys.add(TieredTranslationCache.key(text, sourceLanguage, targetLanguage, model));
+                }
+            }
+        }
+        Map<String, String> found = keys.size() == 1 ? single(keys.get(0)) : cache.getAll(keys);
+        int k = 0;
+        for (int t = 0; t < targetLanguages.size(); t++) {
+            for (int i = 0; i < texts.size(); i++) {
+                for (int m = 0; m < models.size(); m++) {
+                    String cached = found.get(keys.get(k++));
+                    if (translations[t][i] == null) {
+                        translations[t][i] = cached;
+                    }
+                }
+            }
+        }
+        return translations;
+    }
+
+    private Map<String, String> single(String key) {
+        String cached = cache.get(key);
+        return cached != null ? Map.of(key, cached) : Map.of();
+    }
+
+    private void store(RoutingReport report, String text, String sourceLanguage, String targetLanguage,
+                       String translatedText) {
+        String model = report.modelOf(text, sourceLanguage, targetLanguage);
+        if (model != null) {
+            cache.put(TieredTranslationCache.key(text, sourceLanguage, targetLanguage, model), translatedText);
+        }
+    }
+
+    /**
+     * Adds a translation to those to store, keyed on the model that produced it, if any.
+     */
+    private static void put(Map<String, String> entries, RoutingReport report, String text, String sourceLanguage,
+                            String targetLanguage, String translatedText) {
+        String model = report.modelOf(text, sourceLanguage, targetLanguage);
+        if (model != null) {
+            entries.put(TieredTranslationCache.key(text, sourceLanguage, targetLanguage, model), translatedText);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.docmgmt.translation.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Decorator that collapses concurrent identical translations into a single call
+ * on the wrapped service. The first caller for a (text, source, target) triple
+ * performs the translation; callers arriving while it is in flight wait on the
+ * same {@link CompletableFuture} and receive the same result or exception.
+ * Calls in different {@link Lane}s are kept apart, so an interactive caller never
+ * waits on a copy of its call queued in the bulk lane.
+ */
+public class CoalescingTranslationService implements TranslationServiceInterface {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingTranslationService.class);
+
+    private final TranslationServiceInterface delegate;
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    public CoalescingTranslationService(TranslationServiceInterface delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String translateText(String text, String sourceLanguage, String targetLanguage) {
+        return await(translateTextAsync(text, sourceLanguage, targetLanguage));
+    }
+
+    @Override
+    public CompletableFuture<String> translateTextAsync(String text, String sourceLanguage, String targetLanguage) {
+        String key = key(text, sourceLanguage, targetLanguage);
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            logger.debug("Joining in-flight translation for '{}'", text);
+            return existing;
+        }
+
+        try {
+            delegate.translateTextAsync(text, sourceLanguage, targetLanguage).whenComplete((translatedText, error) -> {
+                inFlight.remove(key, future);
+                if (error == null) {
+                    future.complete(translatedText);
+                } else {
+                    future.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Streamed translations are passed straight through: a caller joining another's
+     * stream would have missed the pieces already produced.
+     */
+    @Override
+    public CompletableFuture<String> translateTextStreaming(String text, String sourceLanguage, String targetLanguage,
+                                                            Consumer<String> onText) {
+        return delegate.translateTextStreaming(text, sourceLanguage, targetLanguage, onText);
+    }
+
+    /**
+     * Claims every text not already in flight, translates the claimed texts in one
+     * batch, and waits on the other callers' futures for the rest.
+     */
+    @Override
+    public List<String> translateBatch(List<String> texts, String sourceLanguage, String targetLanguage) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(texts.size());
+        Map<String, CompletableFuture<String>> claimed = new LinkedHashMap<>();
+        Map<String, String> claimedTexts = new LinkedHashMap<>();
+
+        for (String text : texts) {
+            String key = key(text, sourceLanguage, targetLanguage);
+            CompletableFuture<String> future = claimed.get(key);
+            if (future == null) {
+                CompletableFuture<String> candidate = new CompletableFuture<>();
+                future = inFlight.putIfAbsent(key, candidate);
+                if (future == null) {
+                    future = candidate;
+                    claimed.put(key, candidate);
+                    claimedTexts.put(key, text);
+                }
+            }
+            futures.add(future);
+        }
+
+        if (!claimed.isEmpty()) {
+            try {
+                List<String> translations = delegate.translateBatch(
+                        new ArrayList<>(claimedTexts.values()), sourceLanguage, targetLanguage);
+                int i = 0;
+                for (CompletableFuture<String> future : claimed.values()) {
+                    future.complete(translations.get(i++));
+                }
+            } catch (RuntimeException e) {
+                claimed.values().forEach(future -> future.completeExceptionally(e));
+            } finally {
+                claimed.forEach(inFlight::remove);
+            }
+        }
+
+        List<String> translations = new ArrayList<>(texts.size());
+        for (CompletableFuture<String> future : futures) {
+            translations.add(await(future));
+        }
+        return translations;
+    }
+
+    /**
+     * Multi-target calls are passed straight through; they are rarely identical, and
+     * their languages still share the cache.
+     */
+    @Override
+    public MultiTargetTranslation translateMulti(List<String> texts, String sourceLanguage,
+                                                 List<String> targetLanguages) {
+        return delegate.translateMulti(texts, sourceLanguage, targetLanguages);
+    }
+
+    private static String key(String text, String sourceLanguage, String targetLanguage) {
+        return LaneContext.current().getLane().name() + '|' + sourceLanguage + '|' + targetLanguage + '|' + text;
+    }
+
+    private static String await(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.docmgmt.translation.service;
+
+/**
+ * Thrown when a call's deadline passed while it was waiting for the backend, so it
+ * was dropped without being sent. Callers should report the translation as no
+ * longer wanted rather than retry it.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
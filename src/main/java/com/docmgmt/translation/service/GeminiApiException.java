@@ -0,0 +1,48 @@
+package com.docmgmt.translation.service;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the Gemini API answers with a non-2xx status.
+ */
+public class GeminiApiException extends RuntimeException {
+
+    private final int statusCode;
+    private final Duration retryAfter;
+
+    public GeminiApiException(int statusCode, Duration retryAfter) {
+        super("Translation API returned status: " + statusCode);
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return The delay requested by the {@code Retry-After} header, or null if none was sent
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * @return true for 429 and 503, the statuses Gemini uses when quota or capacity is exhausted
+     */
+    public boolean isThrottled() {
+        return statusCode == 429 || statusCode == 503;
+    }
+
+    /**
+     * @return Whether the error, or one it was caused by, is a throttled answer
+     */
+    public static boolean isThrottled(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof GeminiApiException apiError && apiError.isThrottled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,202 @@
+package com.docmgmt.translation.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes generateContent requests and decodes their responses without building
+ * Jackson trees.
+ *
+ * <p>Requests are a pre-serialized template with only the escaped prompt copied in,
+ * so encoding costs one array allocation besides the escaping itself. Responses are
+ * read with a streaming {@link JsonParser} straight from the response bytes; only
+ * the first candidate's text, its {@code finishReason} and the {@code usageMetadata}
+ * token counts are kept, and everything else is skipped.
+ */
+public class GeminiCodec {
+
+    private static final byte[] REQUEST_PREFIX = ascii("{\"contents\":[{\"parts\":[{\"text\":\"");
+    private static final byte[] TEXT_REQUEST_SUFFIX = ascii("\"}]}]}");
+    private static final byte[] JSON_REQUEST_SUFFIX =
+            ascii("\"}]}],\"generationConfig\":{\"responseMimeType\":\"application/json\"}}");
+    private static final String SCHEMA_REQUEST_SUFFIX =
+            "\"}]}],\"generationConfig\":{\"responseMimeType\":\"application/json\",\"responseSchema\":";
+
+    private final JsonFactory jsonFactory;
+
+    public GeminiCodec(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Serializes the generateContent request body for a prompt as UTF-8.
+     *
+     * @param prompt The prompt to send
+     * @param jsonOutput Whether to ask Gemini for a JSON response body
+     */
+    public byte[] encodeRequest(String prompt, boolean jsonOutput) {
+        return encode(prompt, jsonOutput ? JSON_REQUEST_SUFFIX : TEXT_REQUEST_SUFFIX);
+    }
+
+    /**
+     * Serializes a request for structured output: the response text is JSON
+     * conforming to {@code responseSchema}.
+     *
+     * @param prompt The prompt to send
+     * @param responseSchema The schema of the response, as JSON
+     */
+    public byte[] encodeRequest(String prompt, String responseSchema) {
+        return encode(prompt, (SCHEMA_REQUEST_SUFFIX + responseSchema + "}}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] encode(String prompt, byte[] suffix) {
+        byte[] text = JsonStringEncoder.getInstance().quoteAsUTF8(prompt);
+        byte[] body = new byte[REQUEST_PREFIX.length + text.length + suffix.length];
+        System.arraycopy(REQUEST_PREFIX, 0, body, 0, REQUEST_PREFIX.length);
+        System.arraycopy(text, 0, body, REQUEST_PREFIX.length, text.length);
+        System.arraycopy(suffix, 0, body, REQUEST_PREFIX.length + text.length, suffix.length);
+        return body;
+    }
+
+    /**
+     * Reads a generateContent response body.
+     *
+     * @throws IOException If the body is not valid JSON
+     */
+    public Response decodeResponse(byte[] body) throws IOException {
+        Response response = new Response();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("candidates".equals(field) && value == JsonToken.START_ARRAY) {
+                    readCandidates(parser, response);
+                } else if ("usageMetadata".equals(field) && value == JsonToken.START_OBJECT) {
+                    readUsage(parser, response);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return response;
+    }
+
+    private static void readCandidates(JsonParser parser, Response response) throws IOException {
+        boolean first = true;
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            if (first && token == JsonToken.START_OBJECT) {
+                readCandidate(parser, response);
+            } else {
+                parser.skipChildren();
+            }
+            first = false;
+        }
+    }
+
+    private static void readCandidate(JsonParser parser, Response response) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("content".equals(field) && value == JsonToken.START_OBJECT) {
+                readContent(parser, response);
+            } else if ("finishReason".equals(field) && value == JsonToken.VALUE_STRING) {
+                response.finishReason = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readContent(JsonParser parser, Response response) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("parts".equals(field) && value == JsonToken.START_ARRAY) {
+                readParts(parser, response);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readParts(JsonParser parser, Response response) throws IOException {
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            if (response.text == null && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    if (parser.nextToken() == JsonToken.VALUE_STRING && "text".equals(field)) {
+                        response.text = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readUsage(JsonParser parser, Response response) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NUMBER_INT && "promptTokenCount".equals(field)) {
+                response.promptTokenCount = parser.getIntValue();
+            } else if (value == JsonToken.VALUE_NUMBER_INT && "candidatesTokenCount".equals(field)) {
+                response.candidatesTokenCount = parser.getIntValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * The parts of a generateContent response the service uses.
+     */
+    public static class Response {
+
+        private String text;
+        private String finishReason;
+        private int promptTokenCount;
+        private int candidatesTokenCount;
+
+        /**
+         * @return The first part of the first candidate, or null if there is none
+         */
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * @return Why the first candidate stopped, e.g. STOP, MAX_TOKENS or SAFETY; null if absent
+         */
+        public String getFinishReason() {
+            return finishReason;
+        }
+
+        public int getPromptTokenCount() {
+            return promptTokenCount;
+        }
+
+        public int getCandidatesTokenCount() {
+            return candidatesTokenCount;
+        }
+    }
+}
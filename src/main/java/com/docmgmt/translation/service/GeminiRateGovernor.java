@@ -0,0 +1,249 @@
+package com.docmgmt.translation.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client-side admission control for one Gemini model.
+ *
+ * <p>Callers queue for a {@link Permit} instead of failing. A permit is granted
+ * when both token buckets (requests per minute and estimated tokens per minute)
+ * have capacity and fewer than the current concurrency limit are in flight.
+ * Waiting callers are served by priority lane, as decided by the
+ * {@link TranslationScheduler}, rather than in arrival order. The
+ * limit adapts AIMD-style: it grows by roughly one per round of successful calls
+ * and halves when Gemini throttles, in which case dispatching also pauses for
+ * the {@code Retry-After} delay.
+ */
+public class GeminiRateGovernor {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiRateGovernor.class);
+    private static final Duration DEFAULT_THROTTLE_PAUSE = Duration.ofSeconds(1);
+
+    public enum Outcome {
+        SUCCESS,
+        THROTTLED,
+        FAILED
+    }
+
+    private final String model;
+    private final TokenBucket requestBucket;
+    private final TokenBucket tokenBucket;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final ScheduledExecutorService scheduler;
+    private final TranslationScheduler lanes;
+    private final LaneQueue<Waiter> queue;
+    private final AtomicLong throttledCount = new AtomicLong();
+
+    private double concurrencyLimit;
+    private int inFlight;
+    private long pausedUntilNanos;
+    private boolean dispatchScheduled;
+
+    public GeminiRateGovernor(String model, int requestsPerMinute, int tokensPerMinute,
+                              int minConcurrency, int maxConcurrency, ScheduledExecutorService scheduler,
+                              TranslationScheduler lanes) {
+        this.model = model;
+        this.requestBucket = new TokenBucket(requestsPerMinute);
+        this.tokenBucket = new TokenBucket(tokensPerMinute);
+        this.minConcurrency = Math.max(1, minConcurrency);
+        this.maxConcurrency = Math.max(this.minConcurrency, maxConcurrency);
+        this.concurrencyLimit = this.maxConcurrency;
+        this.scheduler = scheduler;
+        this.lanes = lanes;
+        this.queue = lanes.newQueue();
+    }
+
+    /**
+     * Rough token estimate for a prompt and its answer: about four characters per
+     * token, doubled because a translation is about as long as its input.
+     */
+    public static int estimateTokens(String prompt) {
+        return 2 * (prompt.length() / 4 + 1);
+    }
+
+    /**
+     * Queues for a permit in the current thread's lane ({@link LaneContext#current}).
+     */
+    public CompletableFuture<Permit> acquire(int estimatedTokens) {
+        return acquire(estimatedTokens, LaneContext.current());
+    }
+
+    /**
+     * Queues for a permit. The returned future completes once the call may be sent,
+     * or fails with {@link DeadlineExceededException} if the context's deadline
+     * passes first, or right away with {@link TranslationUnavailableException} if the
+     * lane is full. Cancelling the future gives up the place in the queue.
+     */
+    public CompletableFuture<Permit> acquire(int estimatedTokens, LaneContext context) {
+        if (!lanes.admits(context.getLane())) {
+            return CompletableFuture.failedFuture(new TranslationUnavailableException(
+                    "Too many " + context.getLane().name().toLowerCase() + " calls waiting for Gemini model " + model));
+        }
+        Waiter waiter = new Waiter(Math.max(1, estimatedTokens));
+        synchronized (this) {
+            queue.add(waiter, context, System.nanoTime());
+        }
+        dispatch();
+        return waiter.future;
+    }
+
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    public synchronized int getConcurrencyLimit() {
+        return (int) concurrencyLimit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public long getThrottledCount() {
+        return throttledCount.get();
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    private void release(Outcome outcome, Duration retryAfter) {
+        synchronized (this) {
+            inFlight--;
+            if (outcome == Outcome.SUCCESS) {
+                concurrencyLimit = Math.min(maxConcurrency, concurrencyLimit + 1.0 / concurrencyLimit);
+            } else if (outcome == Outcome.THROTTLED) {
+                throttledCount.incrementAndGet();
+                concurrencyLimit = Math.max(minConcurrency, concurrencyLimit / 2);
+                Duration pause = retryAfter != null ? retryAfter : DEFAULT_THROTTLE_PAUSE;
+                pausedUntilNanos = Math.max(pausedUntilNanos, System.nanoTime() + pause.toNanos());
+                logger.warn("Gemini model {} throttled, concurrency limit now {}, pausing {} ms",
+                        model, (int) concurrencyLimit, pause.toMillis());
+            }
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        List<Waiter> granted = new ArrayList<>();
+        List<Waiter> expired = new ArrayList<>();
+        synchronized (this) {
+            queue.expire(System.nanoTime(), expired);
+            while (queue.size() > 0 && inFlight < (int) concurrencyLimit) {
+                long now = System.nanoTime();
+                if (now < pausedUntilNanos) {
+                    scheduleDispatch(pausedUntilNanos - now);
+                    break;
+                }
+
+                Waiter next = queue.peek();
+                if (next.future.isDone()) { // Cancelled while queued
+                    queue.poll(now);
+                    continue;
+                }
+                long waitNanos = Math.max(requestBucket.nanosUntilAvailable(1, now),
+                        tokenBucket.nanosUntilAvailable(next.tokens, now));
+                if (waitNanos > 0) {
+                    scheduleDispatch(waitNanos);
+                    break;
+                }
+
+                requestBucket.take(1);
+                tokenBucket.take(next.tokens);
+                queue.poll(now);
+                inFlight++;
+                granted.add(next);
+            }
+        }
+
+        // Complete outside the lock: completion runs the caller's HTTP send
+        for (Waiter waiter : expired) {
+            waiter.future.completeExceptionally(
+                    new DeadlineExceededException("Deadline passed while waiting for Gemini model " + model));
+        }
+        for (Waiter waiter : granted) {
+            Permit permit = new Permit();
+            if (!waiter.future.complete(permit)) { // Cancelled since
+                permit.release(Outcome.FAILED, null);
+            }
+        }
+    }
+
+    private void scheduleDispatch(long delayNanos) {
+        if (!dispatchScheduled) {
+            dispatchScheduled = true;
+            scheduler.schedule(() -> {
+                synchronized (this) {
+                    dispatchScheduled = false;
+                }
+                dispatch();
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Permission to send one request. Must be released exactly once with the outcome.
+     */
+    public final class Permit {
+
+        private boolean released;
+
+        public void release(Outcome outcome, Duration retryAfter) {
+            synchronized (GeminiRateGovernor.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            GeminiRateGovernor.this.release(outcome, retryAfter);
+        }
+    }
+
+    private static final class Waiter {
+        private final int tokens;
+        private final CompletableFuture<Permit> future = new CompletableFuture<>();
+
+        private Waiter(int tokens) {
+            this.tokens = tokens;
+        }
+    }
+
+    /**
+     * Per-minute token bucket holding at most one minute of quota. Not thread-safe;
+     * guarded by the governor's lock.
+     */
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double refillPerNano;
+        private double available;
+        private long lastRefillNanos = System.nanoTime();
+
+        private TokenBucket(int perMinute) {
+            this.capacity = perMinute;
+            this.refillPerNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.available = perMinute;
+        }
+
+        private long nanosUntilAvailable(int amount, long now) {
+            available = Math.min(capacity, available + (now - lastRefillNanos) * refillPerNano);
+            lastRefillNanos = now;
+            // A request bigger than the whole bucket waits for a full bucket instead of forever
+            double needed = Math.min(amount, capacity) - available;
+            return needed <= 0 ? 0 : (long) Math.ceil(needed / refillPerNano);
+        }
+
+        private void take(int amount) {
+            available -= Math.min(amount, capacity);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.docmgmt.translation.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Holds one {@link GeminiRateGovernor} per Gemini model. Limits are read from
+ * {@code app.gemini.limits[<model>].*}, falling back to {@code app.gemini.limits.default.*}.
+ * Each governor's queue depth, concurrency limit and in-flight count are
+ * exported as {@code gemini.governor.*} gauges tagged with the model.
+ */
+@Component
+public class GeminiRateGovernors {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiRateGovernors.class);
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final TranslationScheduler translationScheduler;
+    private final Map<String, GeminiRateGovernor> governors = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gemini-governor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public GeminiRateGovernors(Environment environment, MeterRegistry meterRegistry,
+                               TranslationScheduler translationScheduler) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.translationScheduler = translationScheduler;
+    }
+
+    public GeminiRateGovernor forModel(String model) {
+        return governors.computeIfAbsent(model, this::create);
+    }
+
+    /**
+     * @return The governors of every model called so far
+     */
+    public Collection<GeminiRateGovernor> all() {
+        return governors.values();
+    }
+
+    private GeminiRateGovernor create(String model) {
+        int rpm = limit(model, "rpm", 1000);
+        int tpm = limit(model, "tpm", 1000000);
+        int minConcurrency = limit(model, "min-concurrency", 1);
+        int maxConcurrency = limit(model, "max-concurrency", 32);
+        logger.info("Gemini governor for {}: {} RPM, {} TPM, concurrency {}..{}",
+                model, rpm, tpm, minConcurrency, maxConcurrency);
+
+        GeminiRateGovernor governor = new GeminiRateGovernor(model, rpm, tpm, minConcurrency, maxConcurrency, scheduler,
+                translationScheduler);
+        Gauge.builder("gemini.governor.queue.depth", governor, GeminiRateGovernor::getQueueDepth)
+                .tag("model", model).description("Calls waiting for a Gemini permit").register(meterRegistry);
+        Gauge.builder("gemini.governor.concurrency.limit", governor, GeminiRateGovernor::getConcurrencyLimit)
+                .tag("model", model).description("Current adaptive concurrency limit").register(meterRegistry);
+        Gauge.builder("gemini.governor.in.flight", governor, GeminiRateGovernor::getInFlight)
+                .tag("model", model).description("Permits currently held").register(meterRegistry);
+        FunctionCounter.builder("gemini.governor.throttled", governor, GeminiRateGovernor::getThrottledCount)
+                .tag("model", model).description("Calls answered with 429 or 503").register(meterRegistry);
+        return governor;
+    }
+
+    private int limit(String model, String name, int defaultValue) {
+        Integer fallback = environment.getProperty("app.gemini.limits.default." + name, Integer.class, defaultValue);
+        return environment.getProperty("app.gemini.limits[" + model + "]." + name, Integer.class, fallback);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,17 @@
+package com.docmgmt.translation.service;
+
+/**
+ * Thrown when the Gemini API answers with a 2xx status but the body holds no
+ * translation that can be read. Unlike a failed call, asking again, per item for a
+ * batch, may well succeed.
+ */
+public class GeminiResponseException extends RuntimeException {
+
+    public GeminiResponseException(String message) {
+        super(message);
+    }
+
+    public GeminiResponseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,101 @@
+package com.docmgmt.translation.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * Reads the lines of a streamGenerateContent response sent as server-sent events
+ * ({@code alt=sse}). Every {@code data:} line holds a complete response whose
+ * candidate text continues the text of the ones before it; each piece is passed
+ * on as it arrives.
+ *
+ * <p>After a line fails to parse, or {@code onText} throws (e.g. because the
+ * client went away), the rest of the stream is read but ignored, so the response
+ * still completes and its permit is released.
+ */
+class GeminiStreamSubscriber implements Flow.Subscriber<String> {
+
+    private static final String DATA_PREFIX = "data:";
+
+    private final GeminiCodec codec;
+    private final Consumer<String> onText;
+    private final StringBuilder text = new StringBuilder();
+    private String finishReason;
+    private int promptTokenCount;
+    private int candidatesTokenCount;
+    private Exception error;
+
+    GeminiStreamSubscriber(GeminiCodec codec, Consumer<String> onText) {
+        this.codec = codec;
+        this.onText = onText;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(String line) {
+        if (error != null || !line.startsWith(DATA_PREFIX)) {
+            return;
+        }
+        String data = line.substring(DATA_PREFIX.length()).trim();
+        if (data.isEmpty()) {
+            return;
+        }
+
+        try {
+            GeminiCodec.Response response = codec.decodeResponse(data.getBytes(StandardCharsets.UTF_8));
+            if (response.getFinishReason() != null) {
+                finishReason = response.getFinishReason();
+            }
+            // Usage is reported as running totals
+            promptTokenCount = Math.max(promptTokenCount, response.getPromptTokenCount());
+            candidatesTokenCount = Math.max(candidatesTokenCount, response.getCandidatesTokenCount());
+            if (response.getText() != null && !response.getText().isEmpty()) {
+                text.append(response.getText());
+                onText.accept(response.getText());
+            }
+        } catch (IOException | RuntimeException e) {
+            error = e;
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        // The response body future fails with the same error
+    }
+
+    @Override
+    public void onComplete() {
+    }
+
+    /**
+     * @return The text streamed so far
+     */
+    String getText() {
+        return text.toString();
+    }
+
+    String getFinishReason() {
+        return finishReason;
+    }
+
+    int getPromptTokenCount() {
+        return promptTokenCount;
+    }
+
+    int getCandidatesTokenCount() {
+        return candidatesTokenCount;
+    }
+
+    /**
+     * @return What stopped the stream from being read, or null if it was read to the end
+     */
+    Exception getError() {
+        return error;
+    }
+}
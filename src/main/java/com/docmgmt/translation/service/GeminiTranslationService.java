@@ -3,39 +3,106 @@ package com.docmgmt.translation.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 
 /**
- * Primary translation service implementation that uses Google's Gemini API
- * for high-quality translations.
+ * Translation service implementation that uses Google's Gemini API
+ * for high-quality translations. Callers use the decorated pipeline built in
+ * {@link com.docmgmt.translation.config.TranslationServiceConfig}.
+ *
+ * <p>Publishes {@code gemini.permit.wait}, {@code gemini.http.requests} (tagged with
+ * the HTTP status), {@code gemini.response.parse} and the {@code gemini.tokens}
+ * usage reported in each response's {@code usageMetadata}.
  */
 @Service
-@Primary
 public class GeminiTranslationService implements TranslationServiceInterface {
 
     private static final Logger logger = LoggerFactory.getLogger(GeminiTranslationService.class);
     private String apiKey;
-    private final RestTemplate restTemplate;
+    private final String baseUrl;
+    private final int batchSize;
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+    private final GeminiRateGovernors governors;
+    private final GeminiRateGovernor governor;
+    private final int maxThrottleRetries;
     private final ObjectMapper objectMapper;
-    private static final String GEMINI_API_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-1.5-flash:generateContent";
+    private final GeminiCodec codec;
+    private final String model;
+    private final String generateContentUrl;
+    private final String streamGenerateContentUrl;
+    private final MeterRegistry meterRegistry;
+    private final Timer permitWaitTimer;
+    private final Timer responseParseTimer;
+    private final Counter promptTokens;
+    private final Counter candidateTokens;
     private static final String ENV_FILE_PATH = "c:\\Users\\hp\\Desktop\\dms_micros\\trans_service\\.env";
 
-    public GeminiTranslationService(@Value("${app.gemini.api-key:}") String configApiKey) {
-        this.restTemplate = new RestTemplate();
+    public GeminiTranslationService(@Value("${app.gemini.api-key:}") String configApiKey,
+                                    @Value("${app.gemini.base-url:https://generativelanguage.googleapis.com/v1beta/models/}") String baseUrl,
+                                    @Value("${app.gemini.model:gemini-1.5-flash}") String model,
+                                    @Value("${app.gemini.batch-size:50}") int batchSize,
+                                    @Value("${app.gemini.http.read-timeout-ms:30000}") long readTimeoutMs,
+                                    @Value("${app.gemini.max-throttle-retries:5}") int maxThrottleRetries,
+                                    HttpClient geminiHttpClient,
+                                    GeminiRateGovernors governors,
+                                    MeterRegistry meterRegistry) {
+        this.model = model;
+        this.baseUrl = baseUrl;
+        this.generateContentUrl = baseUrl + model + ":generateContent";
+        this.streamGenerateContentUrl = baseUrl + model + ":streamGenerateContent";
+        this.batchSize = Math.max(1, batchSize);
+        this.httpClient = geminiHttpClient;
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        this.governors = governors;
+        this.governor = governors.forModel(model);
+        this.maxThrottleRetries = maxThrottleRetries;
         this.objectMapper = new ObjectMapper();
+        this.codec = new GeminiCodec(objectMapper.getFactory());
+        this.meterRegistry = meterRegistry;
+        this.permitWaitTimer = Timer.builder("gemini.permit.wait").tag("model", model)
+                .description("Time spent queued for a rate governor permit").register(meterRegistry);
+        this.responseParseTimer = Timer.builder("gemini.response.parse").tag("model", model)
+                .description("Time spent parsing generateContent responses").register(meterRegistry);
+        this.promptTokens = Counter.builder("gemini.tokens").tag("model", model).tag("type", "prompt")
+                .description("Tokens reported in usageMetadata").register(meterRegistry);
+        this.candidateTokens = Counter.builder("gemini.tokens").tag("model", model).tag("type", "candidates")
+                .description("Tokens reported in usageMetadata").register(meterRegistry);
         
         // Try to load API key from different sources
         this.apiKey = configApiKey;
@@ -53,7 +120,23 @@ public class GeminiTranslationService implements TranslationServiceInterface {
             logger.info("GeminiTranslationService initialized with API key: {}...", this.apiKey.substring(0, 8));
         }
         
-        logger.info("GeminiTranslationService is the PRIMARY translation implementation");
+        logger.info("GeminiTranslationService using model {}", model);
+    }
+
+    /**
+     * @return The Gemini model this service sends requests to
+     */
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * @param baseUrl The endpoint to send to, or null for this service's
+     * @return A service sending to another model with the same key, client and settings
+     */
+    public GeminiTranslationService forModel(String model, String baseUrl) {
+        return new GeminiTranslationService(apiKey, baseUrl != null ? baseUrl : this.baseUrl, model, batchSize,
+                readTimeout.toMillis(), maxThrottleRetries, httpClient, governors, meterRegistry);
     }
     
     private String loadApiKeyFromEnvFile() {
@@ -86,63 +169,495 @@ public class GeminiTranslationService implements TranslationServiceInterface {
 
     @Override
     public String translateText(String text, String sourceLanguage, String targetLanguage) {
+        return await(translateTextAsync(text, sourceLanguage, targetLanguage));
+    }
+
+    @Override
+    public CompletableFuture<String> translateTextAsync(String text, String sourceLanguage, String targetLanguage) {
+        return translateTextAsync(text, sourceLanguage, targetLanguage, LaneContext.current());
+    }
+
+    private CompletableFuture<String> translateTextAsync(String text, String sourceLanguage, String targetLanguage,
+                                                         LaneContext context) {
         logger.info("Translating text from {} to {} using Gemini API: '{}'", 
                 sourceLanguage, targetLanguage, text);
         
+        CompletableFuture<String> result = new CompletableFuture<>();
+        CompletableFuture<String> generated =
+                generateContentAsync(createTranslationPrompt(text, sourceLanguage, targetLanguage), false, context);
+        result.whenComplete((translatedText, error) -> {
+            if (result.isCancelled()) {
+                generated.cancel(true);
+            }
+        });
+        generated.whenComplete((translatedText, error) -> {
+            if (error == null) {
+                logger.debug("Translation result: '{}'", translatedText);
+                result.complete(translatedText);
+            } else {
+                result.completeExceptionally(translationFailure(error));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return What a failed call completes its caller with: the error itself if the
+     *         call was never sent or is no longer wanted, else the error wrapped as a
+     *         translation failure
+     */
+    private static Throwable translationFailure(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof DeadlineExceededException
+                || cause instanceof TranslationUnavailableException
+                || cause instanceof CancellationException) {
+            // Never sent, or no longer wanted; not a translation failure
+            return cause;
+        }
+        logger.error("Translation failed: {}", cause.getMessage(), cause);
+        return new RuntimeException("Translation failed: " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Translates with streamGenerateContent ({@code alt=sse}), passing each piece of
+     * the translation on as Gemini generates it. The call queues for a permit and is
+     * retried when throttled like any other; a throttled call never produced text.
+     */
+    @Override
+    public CompletableFuture<String> translateTextStreaming(String text, String sourceLanguage, String targetLanguage,
+                                                            Consumer<String> onText) {
+        logger.info("Streaming translation of {} characters from {} to {} using Gemini API",
+                text.length(), sourceLanguage, targetLanguage);
         if (apiKey == null || apiKey.trim().isEmpty()) {
-            throw new RuntimeException("Gemini API key is not configured. Set GEMINI_API_KEY environment variable.");
+            return CompletableFuture.failedFuture(
+                    new RuntimeException("Gemini API key is not configured. Set GEMINI_API_KEY environment variable."));
         }
-        
+
+        String prompt = createTranslationPrompt(text, sourceLanguage, targetLanguage);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(streamGenerateContentUrl + "?alt=sse&key=" + apiKey))
+                .timeout(readTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(codec.encodeRequest(prompt, false)))
+                .build();
+        // A fresh subscriber per response, so a throttled attempt leaves nothing behind
+        HttpResponse.BodyHandler<GeminiStreamSubscriber> bodyHandler = info -> info.statusCode() / 100 == 2
+                ? HttpResponse.BodySubscribers.fromLineSubscriber(new GeminiStreamSubscriber(codec, onText),
+                        Function.identity(), StandardCharsets.UTF_8, null)
+                : HttpResponse.BodySubscribers.replacing(null);
+        GovernedCall call = new GovernedCall();
+        sendGoverned(request, GeminiRateGovernor.estimateTokens(prompt), LaneContext.current(), 0, bodyHandler,
+                this::extractStreamedText, call);
+        return call;
+    }
+
+    /**
+     * Translates the texts in micro-batches of {@code app.gemini.batch-size}, sending
+     * each micro-batch as a single JSON array prompt. The micro-batches are sent
+     * concurrently. Items that come back missing or malformed are retried
+     * individually through {@link #translateTextAsync}; a micro-batch whose call
+     * fails (throttled past its retries, unavailable, past its deadline, unreachable)
+     * fails the batch, since one call per item would only add to the load.
+     */
+    @Override
+    public List<String> translateBatch(List<String> texts, String sourceLanguage, String targetLanguage) {
+        logger.info("Translating batch of {} texts from {} to {} using Gemini API",
+                texts.size(), sourceLanguage, targetLanguage);
+
+        LaneContext context = LaneContext.current();
+        List<CompletableFuture<List<String>>> chunks = new ArrayList<>();
+        for (int from = 0; from < texts.size(); from += batchSize) {
+            List<String> chunk = texts.subList(from, Math.min(from + batchSize, texts.size()));
+            chunks.add(translateChunkAsync(chunk, sourceLanguage, targetLanguage, context));
+        }
+
+        List<String> translations = new ArrayList<>(texts.size());
+        for (CompletableFuture<List<String>> chunk : chunks) {
+            translations.addAll(await(chunk));
+        }
+        return translations;
+    }
+
+    private CompletableFuture<List<String>> translateChunkAsync(List<String> texts, String sourceLanguage,
+                                                                String targetLanguage, LaneContext context) {
+        if (texts.size() == 1) {
+            return translateTextAsync(texts.get(0), sourceLanguage, targetLanguage, context).thenApply(List::of);
+        }
+
+        CompletableFuture<String> batchResponse;
         try {
-            // Create the request body JSON structure
-            ObjectNode requestBody = objectMapper.createObjectNode();
-            ArrayNode contentsArray = objectMapper.createArrayNode();
-            ObjectNode content = objectMapper.createObjectNode();
-            ArrayNode partsArray = objectMapper.createArrayNode();
-            
-            ObjectNode textPart = objectMapper.createObjectNode();
-            textPart.put("text", createTranslationPrompt(text, sourceLanguage, targetLanguage));
-            
-            partsArray.add(textPart);
-            content.set("parts", partsArray);
-            contentsArray.add(content);
-            requestBody.set("contents", contentsArray);
-            
-            // Build the URL with API key
-            String url = GEMINI_API_URL + "?key=" + apiKey;
-            
-            // Set headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            // Create HTTP entity with headers and body
-            HttpEntity<String> requestEntity = new HttpEntity<>(objectMapper.writeValueAsString(requestBody), headers);
-            
-            // Make the API call
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, requestEntity, String.class);
-            
-            // Process the response
-            if (response.getStatusCode().is2xxSuccessful()) {
-                JsonNode responseJson = objectMapper.readTree(response.getBody());
-                if (responseJson.has("candidates") && responseJson.get("candidates").size() > 0) {
-                    JsonNode candidate = responseJson.get("candidates").get(0);
-                    if (candidate.has("content") && candidate.get("content").has("parts")) {
-                        String translatedText = candidate.get("content").get("parts").get(0).get("text").asText().trim();
-                        logger.debug("Translation result: '{}'", translatedText);
-                        return translatedText;
-                    }
+            batchResponse = generateContentAsync(createBatchTranslationPrompt(texts, sourceLanguage, targetLanguage), true,
+                    context);
+        } catch (JsonProcessingException e) {
+            batchResponse = CompletableFuture.failedFuture(e);
+        }
+
+        return batchResponse.handle((body, error) -> {
+            JsonNode results = null;
+            if (error != null) {
+                if (!(unwrap(error) instanceof GeminiResponseException)) {
+                    return CompletableFuture.<List<String>>failedFuture(translationFailure(error));
                 }
-                throw new RuntimeException("Unable to extract translation from response: " + responseJson);
+                logger.warn("Batch translation returned no usable response, falling back to per-item calls: {}",
+                        unwrap(error).getMessage());
             } else {
-                throw new RuntimeException("Translation API returned status: " + response.getStatusCode().value());
+                try {
+                    results = objectMapper.readTree(body);
+                } catch (JsonProcessingException e) {
+                    logger.warn("Batch translation returned malformed JSON, falling back to per-item calls: {}", e.getMessage());
+                }
             }
-        } catch (Exception e) {
-            logger.error("Translation failed: {}", e.getMessage(), e);
-            throw new RuntimeException("Translation failed: " + e.getMessage(), e);
+
+            if (results != null && (!results.isArray() || results.size() != texts.size())) {
+                logger.warn("Batch translation returned {} results for {} texts, falling back to per-item calls",
+                        results.isArray() ? results.size() : "no", texts.size());
+                results = null;
+            }
+
+            List<CompletableFuture<String>> translations = new ArrayList<>(texts.size());
+            for (int i = 0; i < texts.size(); i++) {
+                JsonNode result = results != null ? results.get(i) : null;
+                if (result != null && result.isTextual() && !result.asText().isBlank()) {
+                    translations.add(CompletableFuture.completedFuture(result.asText().trim()));
+                } else {
+                    translations.add(translateTextAsync(texts.get(i), sourceLanguage, targetLanguage, context));
+                }
+            }
+            return CompletableFuture.allOf(translations.toArray(new CompletableFuture[0]))
+                    .thenApply(done -> translations.stream().map(CompletableFuture::join).toList());
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * Asks for every target language in one structured-output call per micro-batch,
+     * so the source texts are sent, and paid for as input tokens, once rather than
+     * once per language. A micro-batch holds {@code app.gemini.batch-size} divided by
+     * the number of languages texts, keeping the response about the size of a
+     * single-language batch. Languages missing from the answer or answered with the
+     * wrong number of strings are translated again on their own; a language that
+     * still fails is reported in the result without failing the others. A call that
+     * fails as a whole fails the translation, like a failed {@link #translateBatch}.
+     */
+    @Override
+    public MultiTargetTranslation translateMulti(List<String> texts, String sourceLanguage,
+                                                 List<String> targetLanguages) {
+        logger.info("Translating batch of {} texts from {} to {} using Gemini API",
+                texts.size(), sourceLanguage, targetLanguages);
+
+        LaneContext context = LaneContext.current();
+        int chunkSize = Math.max(1, batchSize / targetLanguages.size());
+        List<CompletableFuture<MultiTargetTranslation>> chunks = new ArrayList<>();
+        for (int from = 0; from < texts.size(); from += chunkSize) {
+            List<String> chunk = texts.subList(from, Math.min(from + chunkSize, texts.size()));
+            chunks.add(translateMultiChunkAsync(chunk, sourceLanguage, targetLanguages, context));
         }
+
+        MultiTargetTranslation translations = new MultiTargetTranslation();
+        for (CompletableFuture<MultiTargetTranslation> chunk : chunks) {
+            translations.append(await(chunk));
+        }
+        return translations;
+    }
+
+    private CompletableFuture<MultiTargetTranslation> translateMultiChunkAsync(List<String> texts, String sourceLanguage,
+                                                                               List<String> targetLanguages,
+                                                                               LaneContext context) {
+        CompletableFuture<String> multiResponse;
+        try {
+            String prompt = createMultiTargetTranslationPrompt(texts, sourceLanguage, targetLanguages);
+            multiResponse = generateContentAsync(prompt,
+                    codec.encodeRequest(prompt, createMultiTargetSchema(targetLanguages)), context);
+        } catch (JsonProcessingException e) {
+            multiResponse = CompletableFuture.failedFuture(e);
+        }
+
+        return multiResponse.handle((body, error) -> {
+            JsonNode results = null;
+            if (error != null) {
+                if (!(unwrap(error) instanceof GeminiResponseException)) {
+                    return CompletableFuture.<MultiTargetTranslation>failedFuture(translationFailure(error));
+                }
+                logger.warn("Multi-target translation returned no usable response, falling back to one call per language: {}",
+                        unwrap(error).getMessage());
+            } else {
+                try {
+                    results = objectMapper.readTree(body);
+                } catch (JsonProcessingException e) {
+                    logger.warn("Multi-target translation returned malformed JSON, falling back to one call per language: {}",
+                            e.getMessage());
+                }
+            }
+
+            Map<String, CompletableFuture<List<String>>> byLanguage = new LinkedHashMap<>();
+            for (String targetLanguage : targetLanguages) {
+                List<String> translated = results != null ? textArray(results.get(targetLanguage), texts.size()) : null;
+                if (translated != null) {
+                    byLanguage.put(targetLanguage, CompletableFuture.completedFuture(translated));
+                } else {
+                    if (results != null) {
+                        logger.warn("Multi-target translation returned no usable {} translations, translating it on its own",
+                                targetLanguage);
+                    }
+                    byLanguage.put(targetLanguage, translateChunkAsync(texts, sourceLanguage, targetLanguage, context));
+                }
+            }
+            return CompletableFuture.allOf(byLanguage.values().stream()
+                            .map(future -> future.handle((result, languageError) -> null))
+                            .toArray(CompletableFuture[]::new))
+                    .thenApply(done -> {
+                        MultiTargetTranslation translations = new MultiTargetTranslation();
+                        byLanguage.forEach((targetLanguage, future) -> {
+                            try {
+                                translations.put(targetLanguage, future.join());
+                            } catch (CompletionException e) {
+                                translations.fail(targetLanguage, unwrap(e).getMessage());
+                            }
+                        });
+                        return translations;
+                    });
+        }).thenCompose(Function.identity());
     }
 
-    private String createTranslationPrompt(String text, String sourceLanguage, String targetLanguage) {
+    /**
+     * @return The strings of a JSON array of {@code size} non-blank strings, or null if it is anything else
+     */
+    private static List<String> textArray(JsonNode node, int size) {
+        if (node == null || !node.isArray() || node.size() != size) {
+            return null;
+        }
+        List<String> texts = new ArrayList<>(size);
+        for (JsonNode item : node) {
+            if (!item.isTextual() || item.asText().isBlank()) {
+                return null;
+            }
+            texts.add(item.asText().trim());
+        }
+        return texts;
+    }
+
+    /**
+     * Sends a single generateContent request without blocking and completes with
+     * the text of the first candidate.
+     *
+     * @param prompt The prompt to send
+     * @param jsonOutput Whether to ask Gemini for a JSON response body
+     */
+    private CompletableFuture<String> generateContentAsync(String prompt, boolean jsonOutput, LaneContext context) {
+        return generateContentAsync(prompt, codec.encodeRequest(prompt, jsonOutput), context);
+    }
+
+    private CompletableFuture<String> generateContentAsync(String prompt, byte[] requestBody, LaneContext context) {
+        if (apiKey == null || apiKey.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(
+                    new RuntimeException("Gemini API key is not configured. Set GEMINI_API_KEY environment variable."));
+        }
+        
+        HttpRequest request = HttpRequest.newBuilder(URI.create(generateContentUrl + "?key=" + apiKey))
+                .timeout(readTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(requestBody))
+                .build();
+        
+        GovernedCall call = new GovernedCall();
+        sendGoverned(request, GeminiRateGovernor.estimateTokens(prompt), context, 0,
+                HttpResponse.BodyHandlers.ofByteArray(), this::extractCandidateText, call);
+        return call;
+    }
+
+    /**
+     * Sends the request once the model's governor grants a permit. A 429/503 answer
+     * releases the permit as throttled, which shrinks the concurrency limit and pauses
+     * the governor for the Retry-After delay, and the request queues again instead of
+     * failing, up to {@code app.gemini.max-throttle-retries} times. Every attempt
+     * queues in the lane of the call it belongs to.
+     *
+     * @param extractor Reads the translation from a response, throwing {@link GeminiApiException} for an error status
+     * @param call Completed with the translation
+     */
+    private <T> void sendGoverned(HttpRequest request, int estimatedTokens, LaneContext context, int attempt,
+                                  HttpResponse.BodyHandler<T> bodyHandler,
+                                  Function<HttpResponse<T>, String> extractor, GovernedCall call) {
+        long queuedAt = System.nanoTime();
+        CompletableFuture<GeminiRateGovernor.Permit> acquired = governor.acquire(estimatedTokens, context);
+        if (!call.track(acquired)) {
+            return;
+        }
+        acquired.whenComplete((permit, acquireError) -> {
+            if (acquireError != null) {
+                call.completeExceptionally(unwrap(acquireError));
+                return;
+            }
+            long sentAt = System.nanoTime();
+            permitWaitTimer.record(sentAt - queuedAt, TimeUnit.NANOSECONDS);
+            // Make the API call; the response is handled on the client's executor
+            CompletableFuture<HttpResponse<T>> exchange = httpClient.sendAsync(request, bodyHandler);
+            call.track(exchange);
+            exchange.whenComplete((response, error) -> {
+                recordHttpRequest(response, error, sentAt);
+                if (error != null) {
+                    permit.release(GeminiRateGovernor.Outcome.FAILED, null);
+                    call.completeExceptionally(unwrap(error));
+                    return;
+                }
+                try {
+                    String text = extractor.apply(response);
+                    permit.release(GeminiRateGovernor.Outcome.SUCCESS, null);
+                    call.complete(text);
+                } catch (GeminiApiException e) {
+                    if (!e.isThrottled()) {
+                        permit.release(GeminiRateGovernor.Outcome.FAILED, null);
+                        call.completeExceptionally(e);
+                        return;
+                    }
+                    permit.release(GeminiRateGovernor.Outcome.THROTTLED, e.getRetryAfter());
+                    if (attempt >= maxThrottleRetries) {
+                        call.completeExceptionally(e);
+                        return;
+                    }
+                    logger.debug("Gemini returned {}, queueing retry {} of {}",
+                            e.getStatusCode(), attempt + 1, maxThrottleRetries);
+                    sendGoverned(request, estimatedTokens, context, attempt + 1, bodyHandler, extractor, call);
+                } catch (RuntimeException e) {
+                    permit.release(GeminiRateGovernor.Outcome.SUCCESS, null);
+                    call.completeExceptionally(e);
+                }
+            });
+        });
+    }
+
+    /**
+     * A call sent through the governor, throttled retries included. Cancelling it
+     * gives up its place in the governor's queue, or aborts its HTTP exchange once
+     * sent, so a hedged call that lost doesn't hold a permit.
+     */
+    private static final class GovernedCall extends CompletableFuture<String> {
+
+        private CompletableFuture<?> step;
+
+        /**
+         * @return Whether the call goes on with this step; false if it was cancelled, and the step with it
+         */
+        synchronized boolean track(CompletableFuture<?> next) {
+            if (isCancelled()) {
+                next.cancel(true);
+                return false;
+            }
+            step = next;
+            return true;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            CompletableFuture<?> current;
+            synchronized (this) {
+                current = step;
+            }
+            if (cancelled && current != null) {
+                current.cancel(true);
+            }
+            return cancelled;
+        }
+    }
+
+    private void recordHttpRequest(HttpResponse<?> response, Throwable error, long sentAt) {
+        String status = error != null ? unwrap(error).getClass().getSimpleName() : String.valueOf(response.statusCode());
+        Timer.builder("gemini.http.requests")
+                .tag("model", model)
+                .tag("status", status)
+                .description("Gemini generateContent round trips")
+                .register(meterRegistry)
+                .record(System.nanoTime() - sentAt, TimeUnit.NANOSECONDS);
+    }
+
+    private String extractCandidateText(HttpResponse<byte[]> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new GeminiApiException(response.statusCode(), parseRetryAfter(response));
+        }
+        return parseCandidateText(response.body());
+    }
+
+    private String extractStreamedText(HttpResponse<GeminiStreamSubscriber> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new GeminiApiException(response.statusCode(), parseRetryAfter(response));
+        }
+        GeminiStreamSubscriber stream = response.body();
+        promptTokens.increment(stream.getPromptTokenCount());
+        candidateTokens.increment(stream.getCandidatesTokenCount());
+        if (stream.getError() != null) {
+            throw new RuntimeException("Streamed translation was interrupted: " + stream.getError().getMessage(),
+                    stream.getError());
+        }
+        String text = stream.getText();
+        if (text.isBlank()) {
+            throw new RuntimeException("Unable to extract translation from streamed response (finish reason: "
+                    + stream.getFinishReason() + ")");
+        }
+        if (stream.getFinishReason() != null && !"STOP".equals(stream.getFinishReason())) {
+            logger.warn("Gemini stopped generating early: {}", stream.getFinishReason());
+        }
+        return text.trim();
+    }
+
+    /**
+     * Extracts the text of the first candidate from a generateContent response body.
+     */
+    String parseCandidateText(byte[] body) {
+        return responseParseTimer.record(() -> readCandidateText(body));
+    }
+
+    private String readCandidateText(byte[] body) {
+        GeminiCodec.Response response;
+        try {
+            response = codec.decodeResponse(body);
+        } catch (IOException e) {
+            throw new GeminiResponseException("Unable to parse translation response: " + e.getMessage(), e);
+        }
+        promptTokens.increment(response.getPromptTokenCount());
+        candidateTokens.increment(response.getCandidatesTokenCount());
+        if (response.getText() == null) {
+            throw new GeminiResponseException("Unable to extract translation from response (finish reason: "
+                    + response.getFinishReason() + ")");
+        }
+        if (response.getFinishReason() != null && !"STOP".equals(response.getFinishReason())) {
+            logger.warn("Gemini stopped generating early: {}", response.getFinishReason());
+        }
+        return response.getText().trim();
+    }
+
+    /**
+     * Reads the Retry-After header, given either in seconds or as an HTTP date.
+     */
+    private static Duration parseRetryAfter(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After").map(value -> {
+            try {
+                return Duration.ofSeconds(Long.parseLong(value.trim()));
+            } catch (NumberFormatException e) {
+                try {
+                    Instant retryAt = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                    return Duration.between(Instant.now(), retryAt);
+                } catch (DateTimeParseException ignored) {
+                    return null;
+                }
+            }
+        }).orElse(null);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    static String createTranslationPrompt(String text, String sourceLanguage, String targetLanguage) {
         return String.format(
             "Translate the following text from %s to %s. Return ONLY the translated text with no additional comments or formatting:\n\n\"%s\"", 
             sourceLanguage, 
@@ -150,4 +665,44 @@ public class GeminiTranslationService implements TranslationServiceInterface {
             text
         );
     }
+
+    private String createBatchTranslationPrompt(List<String> texts, String sourceLanguage, String targetLanguage)
+            throws JsonProcessingException {
+        return String.format(
+            "Translate each string in the following JSON array from %s to %s. Return ONLY a JSON array of the translated strings, " +
+            "with exactly %d elements in the same order as the input:\n\n%s",
+            sourceLanguage,
+            targetLanguage,
+            texts.size(),
+            objectMapper.writeValueAsString(texts)
+        );
+    }
+
+    private String createMultiTargetTranslationPrompt(List<String> texts, String sourceLanguage,
+                                                      List<String> targetLanguages) throws JsonProcessingException {
+        return String.format(
+            "Translate each string in the following JSON array from %s into each of these languages: %s. " +
+            "Return ONLY a JSON object with one key per language code, each holding a JSON array of the translated " +
+            "strings with exactly %d elements in the same order as the input:\n\n%s",
+            sourceLanguage,
+            String.join(", ", targetLanguages),
+            texts.size(),
+            objectMapper.writeValueAsString(texts)
+        );
+    }
+
+    /**
+     * @return The response schema for a multi-target prompt: an object with a required
+     *         array of strings per language
+     */
+    private String createMultiTargetSchema(List<String> targetLanguages) throws JsonProcessingException {
+        ObjectNode schema = objectMapper.createObjectNode().put("type", "OBJECT");
+        ObjectNode properties = schema.putObject("properties");
+        ArrayNode required = schema.putArray("required");
+        for (String targetLanguage : targetLanguages) {
+            properties.putObject(targetLanguage).put("type", "ARRAY").putObject("items").put("type", "STRING");
+            required.add(targetLanguage);
+        }
+        return objectMapper.writeValueAsString(schema);
+    }
 }
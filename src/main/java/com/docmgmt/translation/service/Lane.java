@@ -0,0 +1,44 @@
+package com.docmgmt.translation.service;
+
+import com.docmgmt.translation.model.TranslationRequest;
+
+/**
+ * The priority lanes calls wait in for a Gemini permit, highest priority first.
+ * The {@link TranslationScheduler} serves them by weight, so lower lanes are slowed
+ * down rather than starved.
+ */
+public enum Lane {
+
+    /** Callers waiting on the answer: REST requests and HIGH priority records. */
+    INTERACTIVE,
+
+    /** Records from the request topic. */
+    NORMAL,
+
+    /** Backfills (LOW priority records) and retries. */
+    BULK;
+
+    /**
+     * @return The lane for a request from the request topic
+     */
+    public static Lane of(TranslationRequest.Priority priority) {
+        if (priority == null) {
+            return NORMAL;
+        }
+        switch (priority) {
+            case HIGH:
+                return INTERACTIVE;
+            case LOW:
+                return BULK;
+            default:
+                return NORMAL;
+        }
+    }
+
+    /**
+     * @return The next lane down, or this one if it is the lowest
+     */
+    public Lane lower() {
+        return this == BULK ? BULK : values()[ordinal() + 1];
+    }
+}
@@ -0,0 +1,104 @@
+package com.docmgmt.translation.service;
+
+import com.docmgmt.translation.model.TranslationRequest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The lane, and optional deadline, of the translation calls made by the current
+ * thread. Entry points set it around their calls into the translation pipeline with
+ * {@link #call}; the Gemini client reads it when a call enters the service and
+ * queues every request of that call in its lane. Calls made without a context go to
+ * the NORMAL lane without a deadline.
+ */
+public final class LaneContext {
+
+    private static final LaneContext DEFAULT = new LaneContext(Lane.NORMAL, null);
+    private static final ThreadLocal<LaneContext> CURRENT = new ThreadLocal<>();
+
+    private final Lane lane;
+    private final Long deadline;
+
+    private LaneContext(Lane lane, Long deadline) {
+        this.lane = lane;
+        this.deadline = deadline;
+    }
+
+    public static LaneContext of(Lane lane) {
+        return new LaneContext(lane, null);
+    }
+
+    /**
+     * @param deadline Epoch millis after which the call is dropped, or null
+     */
+    public static LaneContext of(Lane lane, Long deadline) {
+        return new LaneContext(lane, deadline);
+    }
+
+    /**
+     * @return The context for translating a request from the request topic
+     */
+    public static LaneContext forRequest(TranslationRequest request) {
+        return new LaneContext(Lane.of(request.getPriority()), request.getDeadline());
+    }
+
+    /**
+     * @return The context for translating requests of the same lane together, with
+     *         the latest of their deadlines, or none if one of them has none
+     */
+    public static LaneContext forRequests(List<TranslationRequest> requests) {
+        Long deadline = Long.MIN_VALUE;
+        for (TranslationRequest request : requests) {
+            if (request.getDeadline() == null) {
+                deadline = null;
+                break;
+            }
+            deadline = Math.max(deadline, request.getDeadline());
+        }
+        return new LaneContext(Lane.of(requests.get(0).getPriority()), deadline);
+    }
+
+    public static LaneContext current() {
+        LaneContext context = CURRENT.get();
+        return context != null ? context : DEFAULT;
+    }
+
+    /**
+     * Runs a call with this context as the current one.
+     */
+    public <T> T call(Supplier<T> call) {
+        LaneContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public Lane getLane() {
+        return lane;
+    }
+
+    /**
+     * @return The deadline in epoch millis, or null
+     */
+    public Long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @return The deadline on the {@link System#nanoTime} clock, or Long.MAX_VALUE without one
+     */
+    long deadlineNanos(long nowNanos) {
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return nowNanos + (deadline - System.currentTimeMillis()) * 1_000_000L;
+    }
+}
@@ -0,0 +1,166 @@
+package com.docmgmt.translation.service;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The calls waiting in one governor, in one queue per {@link Lane}. Lanes are
+ * served by smooth weighted round robin: with weights 8, 3 and 1 and all lanes
+ * waiting, 8 of every 12 calls come from INTERACTIVE, spread evenly rather than in
+ * bursts. Within a lane, calls go earliest deadline first, then first come first
+ * served. Not thread-safe; guarded by the governor's lock.
+ */
+class LaneQueue<T> {
+
+    private static final long DOWNGRADE_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final Comparator<Entry<?>> ORDER = Comparator.<Entry<?>>comparingLong(entry -> entry.deadlineNanos)
+            .thenComparingLong(entry -> entry.sequence);
+
+    private final TranslationScheduler scheduler;
+    private final Map<Lane, PriorityQueue<Entry<T>>> lanes = new EnumMap<>(Lane.class);
+    private final Map<Lane, Long> credits = new EnumMap<>(Lane.class);
+    private long sequence;
+    private int size;
+    private long lastDowngradeCheckNanos = System.nanoTime();
+
+    LaneQueue(TranslationScheduler scheduler) {
+        this.scheduler = scheduler;
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane, new PriorityQueue<>(ORDER));
+            credits.put(lane, 0L);
+        }
+    }
+
+    void add(T value, LaneContext context, long nowNanos) {
+        Entry<T> entry = new Entry<>(value, context.getLane(), context.deadlineNanos(nowNanos), nowNanos, sequence++);
+        lanes.get(entry.lane).add(entry);
+        scheduler.queued(entry.lane, 1);
+        size++;
+    }
+
+    /**
+     * @return The call that {@link #poll} would take next, or null if none is waiting
+     */
+    T peek() {
+        Lane lane = nextLane();
+        return lane != null ? lanes.get(lane).peek().value : null;
+    }
+
+    /**
+     * Takes the next call, charging its lane for the turn.
+     */
+    T poll(long nowNanos) {
+        Lane next = nextLane();
+        if (next == null) {
+            return null;
+        }
+        long totalWeight = 0;
+        for (Lane lane : Lane.values()) {
+            if (lanes.get(lane).isEmpty()) {
+                credits.put(lane, 0L);
+            } else {
+                credits.put(lane, credits.get(lane) + scheduler.weight(lane));
+                totalWeight += scheduler.weight(lane);
+            }
+        }
+        credits.put(next, credits.get(next) - totalWeight);
+
+        Entry<T> entry = lanes.get(next).poll();
+        scheduler.queued(next, -1);
+        scheduler.recordWait(entry.enteredLane, nowNanos - entry.queuedAtNanos);
+        size--;
+        return entry.value;
+    }
+
+    /**
+     * Drops the calls whose deadline has passed and moves calls that waited past
+     * their lane's target wait down a lane.
+     *
+     * @param dropped Receives the calls dropped
+     */
+    void expire(long nowNanos, List<T> dropped) {
+        for (Lane lane : Lane.values()) {
+            PriorityQueue<Entry<T>> queue = lanes.get(lane);
+            while (!queue.isEmpty() && queue.peek().deadlineNanos <= nowNanos) {
+                Entry<T> entry = queue.poll();
+                scheduler.queued(lane, -1);
+                scheduler.recordDropped(entry.enteredLane);
+                size--;
+                dropped.add(entry.value);
+            }
+        }
+
+        if (nowNanos - lastDowngradeCheckNanos < DOWNGRADE_CHECK_INTERVAL_NANOS) {
+            return;
+        }
+        lastDowngradeCheckNanos = nowNanos;
+        // Bottom up, so a call is moved at most one lane per check
+        for (int i = Lane.values().length - 2; i >= 0; i--) {
+            Lane lane = Lane.values()[i];
+            long targetWaitNanos = scheduler.targetWaitNanos(lane);
+            if (targetWaitNanos <= 0) {
+                continue;
+            }
+            for (Iterator<Entry<T>> entries = lanes.get(lane).iterator(); entries.hasNext(); ) {
+                Entry<T> entry = entries.next();
+                if (nowNanos - entry.laneEnteredAtNanos > targetWaitNanos) {
+                    entries.remove();
+                    entry.lane = lane.lower();
+                    entry.laneEnteredAtNanos = nowNanos;
+                    lanes.get(entry.lane).add(entry);
+                    scheduler.queued(lane, -1);
+                    scheduler.queued(entry.lane, 1);
+                    scheduler.recordDowngraded(lane);
+                }
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return The waiting lane with the most credit after this turn's weights are
+     *         added, the higher priority lane on a tie, or null if none is waiting
+     */
+    private Lane nextLane() {
+        Lane next = null;
+        long best = Long.MIN_VALUE;
+        for (Lane lane : Lane.values()) {
+            if (!lanes.get(lane).isEmpty()) {
+                long credit = credits.get(lane) + scheduler.weight(lane);
+                if (credit > best) {
+                    best = credit;
+                    next = lane;
+                }
+            }
+        }
+        return next;
+    }
+
+    private static final class Entry<T> {
+        private final T value;
+        private final Lane enteredLane;
+        private final long deadlineNanos;
+        private final long queuedAtNanos;
+        private final long sequence;
+        private Lane lane;
+        private long laneEnteredAtNanos;
+
+        private Entry(T value, Lane lane, long deadlineNanos, long queuedAtNanos, long sequence) {
+            this.value = value;
+            this.enteredLane = lane;
+            this.lane = lane;
+            this.deadlineNanos = deadlineNanos;
+            this.queuedAtNanos = queuedAtNanos;
+            this.laneEnteredAtNanos = queuedAtNanos;
+            this.sequence = sequence;
+        }
+    }
+}
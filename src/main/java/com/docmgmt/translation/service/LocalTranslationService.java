@@ -0,0 +1,42 @@
+package com.docmgmt.translation.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process stand-in for a translation backend, for tests and local runs without
+ * a Gemini key. It "translates" by prefixing the text with the target language,
+ * {@code "Invoice" → "[es] Invoice"}, after a fixed delay.
+ */
+public class LocalTranslationService implements TranslationServiceInterface {
+
+    private final long latencyMs;
+    private final ScheduledExecutorService scheduler;
+
+    public LocalTranslationService(long latencyMs, ScheduledExecutorService scheduler) {
+        this.latencyMs = latencyMs;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public String translateText(String text, String sourceLanguage, String targetLanguage) {
+        try {
+            return translateTextAsync(text, sourceLanguage, targetLanguage).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> translateTextAsync(String text, String sourceLanguage, String targetLanguage) {
+        String translatedText = "[" + targetLanguage + "] " + text;
+        if (latencyMs <= 0) {
+            return CompletableFuture.completedFuture(translatedText);
+        }
+        CompletableFuture<String> result = new CompletableFuture<>();
+        scheduler.schedule(() -> result.complete(translatedText), latencyMs, TimeUnit.MILLISECONDS);
+        return result;
+    }
+}
@@ -0,0 +1,180 @@
+package com.docmgmt.translation.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory index for finding texts similar to a given one. Each text is reduced
+ * to a MinHash signature over its character trigrams, which estimates the Jaccard
+ * similarity of two texts' trigram sets, and the signatures are bucketed by bands
+ * (locality-sensitive hashing) so a query only compares against texts that share
+ * at least one band instead of every text indexed.
+ */
+public class MinHashIndex {
+
+    private static final int SHINGLE_CHARS = 3;
+    private static final int BANDS = 16;
+    private static final int ROWS = 4;
+    private static final int HASHES = BANDS * ROWS;
+
+    private final int maxEntries;
+    private final Map<String, int[]> signatures = new HashMap<>();
+    private final Map<Long, List<String>> buckets = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param maxEntries The most texts indexed; later ones are not added
+     */
+    public MinHashIndex(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * A text found similar to the query.
+     */
+    public static final class Match {
+
+        private final String id;
+        private final double similarity;
+
+        Match(String id, double similarity) {
+            this.id = id;
+            this.similarity = similarity;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * @return The estimated Jaccard similarity of the two texts' trigrams, from 0 to 1
+         */
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    /**
+     * Indexes a text under an ID. An ID already indexed keeps its text.
+     *
+     * @return Whether the text was added, false if the ID was there or the index is full
+     */
+    public boolean add(String id, String text) {
+        int[] signature = signature(text);
+        lock.writeLock().lock();
+        try {
+            if (signatures.size() >= maxEntries || signatures.containsKey(id)) {
+                return false;
+            }
+            signatures.put(id, signature);
+            for (int band = 0; band < BANDS; band++) {
+                buckets.computeIfAbsent(bucket(signature, band), b -> new ArrayList<>(1)).add(id);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the indexed texts similar to a text, most similar first.
+     *
+     * @param text The text to look for
+     * @param threshold The least similarity to return
+     * @param limit The most matches to return
+     * @param filter Which IDs may be returned
+     */
+    public List<Match> query(String text, double threshold, int limit, Predicate<String> filter) {
+        int[] signature = signature(text);
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Set<String> seen = new HashSet<>();
+            for (int band = 0; band < BANDS; band++) {
+                List<String> candidates = buckets.get(bucket(signature, band));
+                if (candidates == null) {
+                    continue;
+                }
+                for (String id : candidates) {
+                    if (!seen.add(id) || !filter.test(id)) {
+                        continue;
+                    }
+                    double similarity = similarity(signature, signatures.get(id));
+                    if (similarity >= threshold) {
+                        matches.add(new Match(id, similarity));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort((a, b) -> Double.compare(b.similarity, a.similarity));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return signatures.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int[] signature(String text) {
+        String padded = ' ' + text.toLowerCase(Locale.ROOT) + ' ';
+        int[] signature = new int[HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        int shingles = Math.max(1, padded.length() - SHINGLE_CHARS + 1);
+        for (int start = 0; start < shingles; start++) {
+            int shingle = padded.substring(start, Math.min(padded.length(), start + SHINGLE_CHARS)).hashCode();
+            for (int i = 0; i < HASHES; i++) {
+                // One hash function per row, derived from the shingle hash with a different seed
+                int hash = mix(shingle + i * 0x9E3779B9);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private static long bucket(int[] signature, int band) {
+        int hash = 1;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            hash = 31 * hash + signature[row];
+        }
+        return ((long) band << 32) | (hash & 0xFFFFFFFFL);
+    }
+
+    private static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / HASHES;
+    }
+
+    /**
+     * The MurmurHash3 finalizer, spreading every input bit over the whole hash.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
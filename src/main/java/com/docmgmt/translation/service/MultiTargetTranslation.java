@@ -0,0 +1,73 @@
+package com.docmgmt.translation.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The translations of one list of texts into several target languages. Each
+ * language either has a translation for every text, in the order of the texts, or
+ * failed with an error, independently of the others.
+ */
+public class MultiTargetTranslation {
+
+    private final Map<String, List<String>> translations = new LinkedHashMap<>();
+    private final Map<String, String> errors = new LinkedHashMap<>();
+
+    public void put(String targetLanguage, List<String> translatedTexts) {
+        translations.put(targetLanguage, translatedTexts);
+        errors.remove(targetLanguage);
+    }
+
+    public void fail(String targetLanguage, String error) {
+        translations.remove(targetLanguage);
+        errors.put(targetLanguage, error);
+    }
+
+    /**
+     * @return The translations into a language, or null if it failed or wasn't asked for
+     */
+    public List<String> get(String targetLanguage) {
+        return translations.get(targetLanguage);
+    }
+
+    /**
+     * @return The languages translated successfully, with their translations
+     */
+    public Map<String, List<String>> getTranslations() {
+        return Collections.unmodifiableMap(translations);
+    }
+
+    /**
+     * @return The languages that failed, with the reason
+     */
+    public Map<String, String> getErrors() {
+        return Collections.unmodifiableMap(errors);
+    }
+
+    /**
+     * Appends the translations of the texts following this one's; a language that
+     * failed in either fails in the result.
+     */
+    public void append(MultiTargetTranslation next) {
+        next.errors.forEach(this::fail);
+        next.translations.forEach((targetLanguage, translatedTexts) -> {
+            if (!errors.containsKey(targetLanguage)) {
+                translations.computeIfAbsent(targetLanguage, k -> new ArrayList<>()).addAll(translatedTexts);
+            }
+        });
+    }
+
+    /**
+     * @return The translations of the texts from {@code from} (inclusive) to {@code to} (exclusive)
+     */
+    public MultiTargetTranslation slice(int from, int to) {
+        MultiTargetTranslation slice = new MultiTargetTranslation();
+        translations.forEach((targetLanguage, translatedTexts) ->
+                slice.translations.put(targetLanguage, translatedTexts.subList(from, to)));
+        slice.errors.putAll(errors);
+        return slice;
+    }
+}
@@ -0,0 +1,193 @@
+package com.docmgmt.translation.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Replaces the variable parts of a text (dates, numbers and IDs such as
+ * {@code #1234} or {@code INV-2024-001}) with numbered placeholders, so texts built
+ * from the same template share one translation memory entry:
+ * {@code "Invoice #1234 – March"} becomes {@code "Invoice {I0} – March"}.
+ *
+ * <p>A translation is turned into a template the same way, by finding each value
+ * of its source in it. That only works if every value was copied into the
+ * translation unchanged, exactly once; otherwise there is no template.
+ */
+public final class PlaceholderNormalizer {
+
+    private static final Pattern TOKEN = Pattern.compile("#?[\\p{L}\\d]+(?:[-_/.,:][\\p{L}\\d]+)*");
+    private static final Pattern DATE = Pattern.compile("\\d{4}-\\d{1,2}-\\d{1,2}|\\d{1,2}[./-]\\d{1,2}[./-]\\d{2,4}");
+    private static final Pattern NUMBER = Pattern.compile("\\d+(?:[.,]\\d+)*");
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{[DIN](\\d+)}");
+    private static final int MIN_ID_DIGITS = 3;
+
+    private PlaceholderNormalizer() {
+    }
+
+    /**
+     * A text with its values replaced by placeholders.
+     */
+    public static final class Normalized {
+
+        private final String template;
+        private final List<String> values;
+
+        Normalized(String template, List<String> values) {
+            this.template = template;
+            this.values = values;
+        }
+
+        public String getTemplate() {
+            return template;
+        }
+
+        /**
+         * @return The values replaced, in the order of their placeholders
+         */
+        public List<String> getValues() {
+            return values;
+        }
+    }
+
+    /**
+     * Normalizes a text: Unicode NFC, collapsed whitespace and placeholders for its
+     * values.
+     *
+     * @return The normalized text, or null for a text that contains placeholder braces itself
+     */
+    public static Normalized normalize(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFC).trim().replaceAll("\\s+", " ");
+        if (normalized.indexOf('{') >= 0 || normalized.indexOf('}') >= 0) {
+            return null;
+        }
+
+        StringBuilder template = new StringBuilder(normalized.length());
+        List<String> values = new ArrayList<>();
+        Matcher token = TOKEN.matcher(normalized);
+        int last = 0;
+        while (token.find()) {
+            char kind = kind(token.group());
+            if (kind == 0) {
+                continue;
+            }
+            template.append(normalized, last, token.start()).append('{').append(kind).append(values.size()).append('}');
+            values.add(token.group());
+            last = token.end();
+        }
+        template.append(normalized, last, normalized.length());
+        return new Normalized(template.toString(), List.copyOf(values));
+    }
+
+    /**
+     * Turns the translation of a normalized text into a template by replacing its
+     * values with their placeholders.
+     *
+     * @return The translated template, or null if some value doesn't appear in the translation exactly once
+     */
+    public static String templateOf(String translation, Normalized source) {
+        if (translation.indexOf('{') >= 0 || translation.indexOf('}') >= 0) {
+            return null;
+        }
+        List<String> values = source.getValues();
+        int[] positions = new int[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            positions[i] = findOnce(translation, values.get(i));
+            if (positions[i] < 0) {
+                return null;
+            }
+        }
+
+        Integer[] order = new Integer[values.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(positions[a], positions[b]));
+        Matcher placeholders = PLACEHOLDER.matcher(source.getTemplate());
+        String[] placeholder = new String[values.size()];
+        while (placeholders.find()) {
+            placeholder[Integer.parseInt(placeholders.group(1))] = placeholders.group();
+        }
+
+        StringBuilder template = new StringBuilder(translation.length());
+        int last = 0;
+        for (int i : order) {
+            if (positions[i] < last) {
+                return null; // Two values overlap in the translation
+            }
+            template.append(translation, last, positions[i]).append(placeholder[i]);
+            last = positions[i] + values.get(i).length();
+        }
+        template.append(translation, last, translation.length());
+        return template.toString();
+    }
+
+    /**
+     * Fills a template's placeholders with values.
+     *
+     * @return The text, or null if the template refers to a value that isn't there
+     */
+    public static String restore(String template, List<String> values) {
+        Matcher placeholder = PLACEHOLDER.matcher(template);
+        StringBuilder text = new StringBuilder(template.length() + 16);
+        int last = 0;
+        while (placeholder.find()) {
+            int index = Integer.parseInt(placeholder.group(1));
+            if (index >= values.size()) {
+                return null;
+            }
+            text.append(template, last, placeholder.start()).append(values.get(index));
+            last = placeholder.end();
+        }
+        text.append(template, last, template.length());
+        return text.toString();
+    }
+
+    /**
+     * @return D for a date, N for a number, I for an ID, or 0 for a word to keep
+     */
+    private static char kind(String token) {
+        if (DATE.matcher(token).matches()) {
+            return 'D';
+        }
+        if (NUMBER.matcher(token).matches()) {
+            return 'N';
+        }
+        int digits = 0;
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.isDigit(token.charAt(i))) {
+                digits++;
+            }
+        }
+        if (digits > 0 && (token.charAt(0) == '#' || digits >= MIN_ID_DIGITS)) {
+            return 'I';
+        }
+        return 0;
+    }
+
+    /**
+     * @return The position of the only occurrence of a value as a whole token, or -1
+     */
+    private static int findOnce(String text, String value) {
+        int found = -1;
+        for (int at = text.indexOf(value); at >= 0; at = text.indexOf(value, at + 1)) {
+            int end = at + value.length();
+            boolean whole = (at == 0 || !isTokenChar(text.charAt(at - 1)))
+                    && (end == text.length() || !isTokenChar(text.charAt(end)));
+            if (whole) {
+                if (found >= 0) {
+                    return -1;
+                }
+                found = at;
+            }
+        }
+        return found;
+    }
+
+    private static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '#';
+    }
+}
@@ -0,0 +1,161 @@
+package com.docmgmt.translation.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Decorator that guards the wrapped backend with a shared {@link CircuitBreaker}
+ * and a per-caller {@link Bulkhead}. While the circuit is open, or when the
+ * bulkhead is full, calls fail immediately with
+ * {@link TranslationUnavailableException} instead of waiting on a backend that is
+ * already struggling.
+ */
+public class ResilientTranslationService implements TranslationServiceInterface {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilientTranslationService.class);
+
+    private final TranslationServiceInterface delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    public ResilientTranslationService(TranslationServiceInterface delegate, CircuitBreaker circuitBreaker,
+                                       Bulkhead bulkhead) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public String translateText(String text, String sourceLanguage, String targetLanguage) {
+        acquire(bulkhead.tryAcquire());
+        try {
+            String translatedText = delegate.translateText(text, sourceLanguage, targetLanguage);
+            circuitBreaker.onSuccess();
+            return translatedText;
+        } catch (RuntimeException e) {
+            onFailure(e);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> translateTextAsync(String text, String sourceLanguage, String targetLanguage) {
+        return guardAsync(() -> delegate.translateTextAsync(text, sourceLanguage, targetLanguage));
+    }
+
+    @Override
+    public CompletableFuture<String> translateTextStreaming(String text, String sourceLanguage, String targetLanguage,
+                                                            Consumer<String> onText) {
+        return guardAsync(() -> delegate.translateTextStreaming(text, sourceLanguage, targetLanguage, onText));
+    }
+
+    /**
+     * Holds a bulkhead slot, without waiting for one, until the call completes.
+     */
+    private CompletableFuture<String> guardAsync(Supplier<CompletableFuture<String>> call) {
+        try {
+            acquire(bulkhead.tryAcquireNow());
+        } catch (TranslationUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<String> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            onFailure(e);
+            bulkhead.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((translatedText, error) -> {
+            if (error == null) {
+                circuitBreaker.onSuccess();
+            } else {
+                onFailure(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+            bulkhead.release();
+        });
+    }
+
+    /**
+     * A batch holds one bulkhead slot and counts as one call for the circuit breaker.
+     */
+    @Override
+    public List<String> translateBatch(List<String> texts, String sourceLanguage, String targetLanguage) {
+        acquire(bulkhead.tryAcquire());
+        try {
+            List<String> translations = delegate.translateBatch(texts, sourceLanguage, targetLanguage);
+            circuitBreaker.onSuccess();
+            return translations;
+        } catch (RuntimeException e) {
+            onFailure(e);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * A multi-target call also holds one slot and counts as one call; it is a failure
+     * for the circuit breaker only if every language failed.
+     */
+    @Override
+    public MultiTargetTranslation translateMulti(List<String> texts, String sourceLanguage,
+                                                 List<String> targetLanguages) {
+        acquire(bulkhead.tryAcquire());
+        try {
+            MultiTargetTranslation translations = delegate.translateMulti(texts, sourceLanguage, targetLanguages);
+            if (translations.getTranslations().isEmpty()) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            return translations;
+        } catch (RuntimeException e) {
+            onFailure(e);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Counts a failed call against the circuit, unless it never reached the backend:
+     * it was turned away or dropped while queued for it, or cancelled as no longer
+     * wanted. Such a call still hands back its permission, or a HALF_OPEN circuit
+     * would run out of probes.
+     */
+    private void onFailure(Throwable error) {
+        if (error instanceof TranslationUnavailableException || error instanceof DeadlineExceededException
+                || error instanceof CancellationException) {
+            circuitBreaker.onIgnored();
+        } else {
+            circuitBreaker.onFailure();
+        }
+    }
+
+    /**
+     * Checks the circuit after the bulkhead slot was (or wasn't) obtained, releasing
+     * the slot again if the circuit refuses the call.
+     */
+    private void acquire(boolean bulkheadAcquired) {
+        if (!bulkheadAcquired) {
+            logger.warn("Bulkhead {} is full ({} concurrent calls)", bulkhead.getName(), bulkhead.getMaxConcurrentCalls());
+            throw new TranslationUnavailableException("Too many concurrent " + bulkhead.getName() + " translations");
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.release();
+            throw new TranslationUnavailableException("Translation backend unavailable, circuit "
+                    + circuitBreaker.getName() + " is open for another " + circuitBreaker.remainingOpenMillis() + " ms");
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.docmgmt.translation.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Which Gemini model the {@link TranslationRouter} had answer each text translated
+ * by the calls made by the current thread. The decorators that keep translations,
+ * the cache and the translation memory, set one around their calls into the
+ * pipeline with {@link #call} and keep a translation only if the report names the
+ * model that produced it. Texts answered by the {@code local} stand-in, or by
+ * another caller's call joined on the way, are never reported.
+ */
+public final class RoutingReport {
+
+    private static final ThreadLocal<RoutingReport> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, String> models = new ConcurrentHashMap<>();
+
+    private RoutingReport() {
+    }
+
+    /**
+     * @return The report of the calls the current thread is making, or a new one
+     *         if it isn't making any, so decorators stacked on each other share one
+     */
+    public static RoutingReport open() {
+        RoutingReport report = CURRENT.get();
+        return report != null ? report : new RoutingReport();
+    }
+
+    /**
+     * @return The report of the calls the current thread is making, or null
+     */
+    static RoutingReport current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs a call with this report as the current one.
+     */
+    public <T> T call(Supplier<T> call) {
+        RoutingReport previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * @param model The Gemini model that translated the text, or null for the stand-in
+     */
+    void answered(String model, String text, String sourceLanguage, String targetLanguage) {
+        if (model != null) {
+            models.put(key(text, sourceLanguage, targetLanguage), model);
+        }
+    }
+
+    /**
+     * @return The Gemini model that translated the text, or null if none did during the calls
+     */
+    public String modelOf(String text, String sourceLanguage, String targetLanguage) {
+        return models.get(key(text, sourceLanguage, targetLanguage));
+    }
+
+    private static String key(String text, String sourceLanguage, String targetLanguage) {
+        return sourceLanguage + '|' + targetLanguage + '|' + text;
+    }
+}
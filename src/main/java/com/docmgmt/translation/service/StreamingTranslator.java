@@ -0,0 +1,229 @@
+package com.docmgmt.translation.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Translates long texts (document bodies) as a stream. The text is split into
+ * chunks by {@link TextChunker}, at most {@code app.streaming.max-parallel-chunks}
+ * chunks are translated at once with
+ * {@link TranslationServiceInterface#translateTextStreaming}, and the translation
+ * is handed to the caller in document order as it is produced. The first chunk's
+ * translation starts flowing as soon as Gemini starts answering it, while later
+ * chunks are translated in the meantime and held until their turn.
+ *
+ * <p>Each chunk goes through the interactive pipeline on its own, so chunks seen
+ * before (boilerplate paragraphs) come from the cache.
+ */
+@Service
+public class StreamingTranslator {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingTranslator.class);
+
+    private final TranslationServiceInterface translationService;
+    private final AsyncTaskExecutor executor;
+    private final int chunkChars;
+    private final int maxParallelChunks;
+
+    public StreamingTranslator(TranslationServiceInterface translationService,
+                               AsyncTaskExecutor translationTaskExecutor,
+                               @Value("${app.streaming.chunk-chars:2000}") int chunkChars,
+                               @Value("${app.streaming.max-parallel-chunks:4}") int maxParallelChunks) {
+        this.translationService = translationService;
+        this.executor = translationTaskExecutor;
+        this.chunkChars = Math.max(1, chunkChars);
+        this.maxParallelChunks = Math.max(1, maxParallelChunks);
+    }
+
+    /**
+     * Receives the translation of a stream, one piece at a time and in order.
+     */
+    @FunctionalInterface
+    public interface Sink {
+
+        /**
+         * @param chunk The index of the chunk the piece belongs to
+         * @param text The piece of translated text; joining all pieces gives the translation
+         */
+        void accept(int chunk, String text);
+    }
+
+    /**
+     * Starts translating a text. The sink is called on the translation executor and
+     * may block; if it throws, the stream is abandoned.
+     *
+     * @return Completes with the number of chunks once every piece was passed to the sink,
+     *         or fails with the first translation or sink error
+     */
+    public CompletableFuture<Integer> translate(String text, String sourceLanguage, String targetLanguage, Sink sink) {
+        List<String> chunks = TextChunker.chunk(text, chunkChars, Locale.forLanguageTag(sourceLanguage));
+        logger.info("Streaming translation of {} characters from {} to {} in {} chunks",
+                text.length(), sourceLanguage, targetLanguage, chunks.size());
+        ChunkStream stream = new ChunkStream(chunks, sourceLanguage, targetLanguage, sink);
+        stream.start();
+        return stream.result;
+    }
+
+    private class ChunkStream {
+
+        private final List<String> chunks;
+        private final String sourceLanguage;
+        private final String targetLanguage;
+        private final Sink sink;
+        // Chunks are started from completion threads, so the caller's lane is carried along
+        private final LaneContext context = LaneContext.current();
+        private final StringBuilder[] held;
+        private final boolean[] finished;
+        private final AtomicInteger nextToStart = new AtomicInteger();
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+        private int current; // The chunk whose pieces go straight to the sink
+        private CompletableFuture<Void> delivery = CompletableFuture.completedFuture(null);
+
+        ChunkStream(List<String> chunks, String sourceLanguage, String targetLanguage, Sink sink) {
+            this.chunks = chunks;
+            this.sourceLanguage = sourceLanguage;
+            this.targetLanguage = targetLanguage;
+            this.sink = sink;
+            this.held = new StringBuilder[chunks.size()];
+            this.finished = new boolean[chunks.size()];
+            for (int i = 0; i < held.length; i++) {
+                held[i] = new StringBuilder();
+            }
+        }
+
+        void start() {
+            if (chunks.isEmpty()) {
+                result.complete(0);
+                return;
+            }
+            for (int i = 0; i < maxParallelChunks; i++) {
+                startNext();
+            }
+        }
+
+        private void startNext() {
+            int index = nextToStart.getAndIncrement();
+            if (index >= chunks.size() || result.isDone()) {
+                return;
+            }
+
+            String chunk = chunks.get(index);
+            String source = chunk.strip();
+            if (source.isEmpty()) {
+                emit(index, chunk);
+                finish(index);
+                return;
+            }
+            int leading = chunk.indexOf(source);
+            emit(index, chunk.substring(0, leading));
+
+            // Translations come back trimmed; keep the chunk's own surrounding whitespace instead
+            WhitespaceTrimmer trimmer = new WhitespaceTrimmer();
+            CompletableFuture<String> translation;
+            try {
+                translation = context.call(() -> translationService.translateTextStreaming(source, sourceLanguage,
+                        targetLanguage, piece -> emit(index, trimmer.next(piece))));
+            } catch (RuntimeException e) {
+                translation = CompletableFuture.failedFuture(e);
+            }
+            translation.whenComplete((translatedText, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    logger.warn("Chunk {} of {} failed, abandoning the stream: {}", index, chunks.size(), cause.getMessage());
+                    result.completeExceptionally(cause);
+                    return;
+                }
+                emit(index, chunk.substring(leading + source.length()));
+                finish(index);
+            });
+        }
+
+        private synchronized void emit(int index, String piece) {
+            if (piece.isEmpty()) {
+                return;
+            }
+            if (index == current) {
+                deliver(index, piece);
+            } else {
+                held[index].append(piece);
+            }
+        }
+
+        private void finish(int index) {
+            synchronized (this) {
+                finished[index] = true;
+                while (current < chunks.size() && finished[current]) {
+                    current++;
+                    if (current < chunks.size() && held[current].length() > 0) {
+                        deliver(current, held[current].toString());
+                        held[current] = null;
+                    }
+                }
+                if (current == chunks.size()) {
+                    delivery.whenComplete((done, error) -> {
+                        if (error == null) {
+                            result.complete(chunks.size());
+                        } else {
+                            result.completeExceptionally(error);
+                        }
+                    });
+                }
+            }
+            startNext();
+        }
+
+        /**
+         * Queues a piece for the sink behind the pieces before it. Must hold the lock.
+         */
+        private void deliver(int index, String piece) {
+            delivery = delivery.thenRunAsync(() -> {
+                if (!result.isCompletedExceptionally()) {
+                    sink.accept(index, piece);
+                }
+            }, executor);
+            delivery.exceptionally(error -> {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Drops leading whitespace and holds back trailing whitespace from a streamed
+     * translation, so only whitespace between words is passed on.
+     */
+    private static class WhitespaceTrimmer {
+
+        private final StringBuilder pendingWhitespace = new StringBuilder();
+        private boolean started;
+
+        synchronized String next(String piece) {
+            StringBuilder out = new StringBuilder(piece.length());
+            for (int i = 0; i < piece.length(); i++) {
+                char c = piece.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    if (started) {
+                        pendingWhitespace.append(c);
+                    }
+                } else {
+                    out.append(pendingWhitespace);
+                    pendingWhitespace.setLength(0);
+                    out.append(c);
+                    started = true;
+                }
+            }
+            return out.toString();
+        }
+    }
+}
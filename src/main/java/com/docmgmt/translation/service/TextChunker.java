@@ -0,0 +1,95 @@
+package com.docmgmt.translation.service;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits long text into chunks that can be translated independently. Chunks end
+ * at sentence boundaries, and preferably at paragraph breaks, and include the
+ * whitespace that follows them, so joining the chunks gives back the text exactly.
+ * A single sentence longer than the limit is split at whitespace.
+ */
+public final class TextChunker {
+
+    private TextChunker() {
+    }
+
+    /**
+     * @param text The text to split
+     * @param maxChars The most characters in one chunk
+     * @param locale The language of the text, for its sentence rules
+     * @return The chunks, in order
+     */
+    public static List<String> chunk(String text, int maxChars, Locale locale) {
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String sentence : sentences(text, locale)) {
+            for (String piece : split(sentence, maxChars)) {
+                if (current.length() > 0 && current.length() + piece.length() > maxChars) {
+                    chunks.add(current.toString());
+                    current.setLength(0);
+                }
+                current.append(piece);
+                // Close a reasonably full chunk at the end of a paragraph
+                if (current.length() >= maxChars / 2 && endsParagraph(piece)) {
+                    chunks.add(current.toString());
+                    current.setLength(0);
+                }
+            }
+        }
+        if (current.length() > 0) {
+            chunks.add(current.toString());
+        }
+        return chunks;
+    }
+
+    /**
+     * @return The sentences of the text, each with the whitespace following it
+     */
+    public static List<String> sentences(String text, Locale locale) {
+        List<String> sentences = new ArrayList<>();
+        BreakIterator boundaries = BreakIterator.getSentenceInstance(locale);
+        boundaries.setText(text);
+        int start = boundaries.first();
+        for (int end = boundaries.next(); end != BreakIterator.DONE; start = end, end = boundaries.next()) {
+            sentences.add(text.substring(start, end));
+        }
+        return sentences;
+    }
+
+    private static List<String> split(String sentence, int maxChars) {
+        if (sentence.length() <= maxChars) {
+            return List.of(sentence);
+        }
+        List<String> pieces = new ArrayList<>();
+        int start = 0;
+        while (sentence.length() - start > maxChars) {
+            int end = start + maxChars;
+            while (end > start + 1 && !Character.isWhitespace(sentence.charAt(end - 1))) {
+                end--;
+            }
+            if (end == start + 1) {
+                end = start + maxChars; // No whitespace at all, cut anywhere but inside a character
+                if (Character.isHighSurrogate(sentence.charAt(end - 1))) {
+                    end--;
+                }
+            }
+            pieces.add(sentence.substring(start, end));
+            start = end;
+        }
+        pieces.add(sentence.substring(start));
+        return pieces;
+    }
+
+    private static boolean endsParagraph(String piece) {
+        int newlines = 0;
+        for (int i = piece.length() - 1; i >= 0 && Character.isWhitespace(piece.charAt(i)); i--) {
+            if (piece.charAt(i) == '\n' && ++newlines == 2) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
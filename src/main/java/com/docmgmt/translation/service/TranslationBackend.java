@@ -0,0 +1,158 @@
+package com.docmgmt.translation.service;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * One backend the {@link TranslationRouter} sends to, and what it has learned about
+ * it from live calls: exponentially weighted moving averages of its latency and
+ * error rate, and the 95th percentile of its last 128 latencies. Latency is only
+ * learned from single-text calls, whose sizes are comparable; errors from every call.
+ * Calls that were cancelled, dropped at their deadline or turned away before being
+ * sent say nothing about the backend and are not counted.
+ */
+final class TranslationBackend {
+
+    private static final int LATENCY_WINDOW = 128;
+    private static final int PERCENTILE_REFRESH = 16;
+
+    private final String name;
+    private final String model;
+    private final TranslationServiceInterface service;
+    private final double cost;
+    private final double alpha;
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private long calls;
+    private int latencySamples;
+    private double latencyNanos;
+    private double errorRate;
+    private long p95Nanos;
+
+    /**
+     * @param model The Gemini model behind the backend, or null for the local stand-in
+     * @param initialLatencyMs Latency assumed until the first sample
+     * @param alpha Weight of each new sample in the moving averages
+     */
+    TranslationBackend(String name, String model, TranslationServiceInterface service, double cost,
+                       long initialLatencyMs, double alpha) {
+        this.name = name;
+        this.model = model;
+        this.service = service;
+        this.cost = cost;
+        this.alpha = alpha;
+        this.latencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, initialLatencyMs));
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return The Gemini model behind the backend, or null for the local stand-in
+     */
+    String getModel() {
+        return model;
+    }
+
+    TranslationServiceInterface getService() {
+        return service;
+    }
+
+    double getCost() {
+        return cost;
+    }
+
+    synchronized long getCalls() {
+        return calls;
+    }
+
+    synchronized double getLatencyMs() {
+        return latencyNanos / 1_000_000.0;
+    }
+
+    synchronized double getErrorRate() {
+        return errorRate;
+    }
+
+    /**
+     * @return Routing weight: the success rate squared over the latency, so errors
+     *         weigh more than slowness
+     */
+    synchronized double getWeight() {
+        double successRate = 1 - errorRate;
+        return successRate * successRate / Math.max(1, latencyNanos / 1_000_000.0);
+    }
+
+    /**
+     * @return The 95th percentile latency of recent calls, or -1 with fewer than {@code minSamples} of them
+     */
+    synchronized long getP95Nanos(int minSamples) {
+        return latencySamples >= Math.max(1, minSamples) ? p95Nanos : -1;
+    }
+
+    /**
+     * Translates one text in a lane context, learning its latency.
+     */
+    CompletableFuture<String> translateTextAsync(String text, String sourceLanguage, String targetLanguage,
+                                                 LaneContext context) {
+        long start = System.nanoTime();
+        CompletableFuture<String> call;
+        try {
+            call = context.call(() -> service.translateTextAsync(text, sourceLanguage, targetLanguage));
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((translatedText, error) -> record(error, System.nanoTime() - start, true));
+        return call;
+    }
+
+    /**
+     * Runs a call that isn't timed, learning only whether it failed.
+     */
+    <T> T call(Supplier<T> call) {
+        try {
+            T result = call.get();
+            record(null, 0, false);
+            return result;
+        } catch (RuntimeException e) {
+            record(e, 0, false);
+            throw e;
+        }
+    }
+
+    /**
+     * Learns whether an asynchronous call that isn't timed failed.
+     */
+    <T> CompletableFuture<T> track(CompletableFuture<T> call) {
+        call.whenComplete((result, error) -> record(error, 0, false));
+        return call;
+    }
+
+    private synchronized void record(Throwable error, long elapsedNanos, boolean timed) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof CancellationException || error instanceof DeadlineExceededException
+                || error instanceof TranslationUnavailableException) {
+            return;
+        }
+        calls++;
+        errorRate += alpha * ((error != null ? 1 : 0) - errorRate);
+        if (error != null || !timed) {
+            return;
+        }
+
+        latencyNanos = latencySamples == 0 ? elapsedNanos : latencyNanos + alpha * (elapsedNanos - latencyNanos);
+        latencies[latencySamples % LATENCY_WINDOW] = elapsedNanos;
+        latencySamples++;
+        if (latencySamples <= PERCENTILE_REFRESH || latencySamples % PERCENTILE_REFRESH == 0) {
+            long[] window = Arrays.copyOf(latencies, Math.min(latencySamples, LATENCY_WINDOW));
+            Arrays.sort(window);
+            p95Nanos = window[(int) Math.ceil(window.length * 0.95) - 1];
+        }
+    }
+}
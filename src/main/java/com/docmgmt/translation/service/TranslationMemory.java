@@ -0,0 +1,233 @@
+package com.docmgmt.translation.service;
+
+import com.docmgmt.translation.cache.DiskKeyValueStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent translation memory: past source → target pairs stored as templates,
+ * with their dates, numbers and IDs replaced by placeholders
+ * ({@link PlaceholderNormalizer}). A text whose template was translated before is
+ * translated locally by filling in its own values, so
+ * {@code "Invoice #5678 – March"} is answered from the translation of
+ * {@code "Invoice #1234 – March"}. A longer text is also looked up sentence by
+ * sentence, and answered if every sentence is known.
+ *
+ * <p>The source templates are also indexed by {@link MinHashIndex} for fuzzy
+ * lookup of similar past translations; those are only suggested, never used as
+ * the translation. Entries are kept whichever model produced them.
+ */
+@Component
+public class TranslationMemory implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslationMemory.class);
+
+    private final DiskKeyValueStore store;
+    private final MinHashIndex index;
+    private final double fuzzyThreshold;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder fuzzyHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public TranslationMemory(@Value("${app.memory.enabled:true}") boolean enabled,
+                             @Value("${app.memory.path:data/translation-memory.db}") String path,
+                             @Value("${app.memory.max-bytes:134217728}") long maxBytes,
+                             @Value("${app.memory.fuzzy.threshold:0.7}") double fuzzyThreshold,
+                             @Value("${app.memory.fuzzy.max-entries:200000}") int fuzzyMaxEntries) {
+        this.fuzzyThreshold = fuzzyThreshold;
+        this.index = new MinHashIndex(fuzzyMaxEntries);
+
+        DiskKeyValueStore opened = null;
+        if (enabled) {
+            try {
+                opened = new DiskKeyValueStore(Paths.get(path), maxBytes);
+                for (String key : opened.keys()) {
+                    index.add(key, sourceTemplate(key));
+                }
+                logger.info("Translation memory opened at {} with {} entries", path, opened.size());
+            } catch (IOException e) {
+                logger.error("Could not open translation memory at {}, every miss goes to Gemini: {}",
+                        path, e.getMessage(), e);
+            }
+        }
+        this.store = opened;
+    }
+
+    /**
+     * A past translation similar to a looked up text.
+     */
+    public static final class Suggestion {
+
+        private final String sourceTemplate;
+        private final String translatedTemplate;
+        private final double similarity;
+
+        Suggestion(String sourceTemplate, String translatedTemplate, double similarity) {
+            this.sourceTemplate = sourceTemplate;
+            this.translatedTemplate = translatedTemplate;
+            this.similarity = similarity;
+        }
+
+        public String getSourceTemplate() {
+            return sourceTemplate;
+        }
+
+        public String getTranslatedTemplate() {
+            return translatedTemplate;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    /**
+     * @return The translation of a text built from known templates, or null if it must be translated
+     */
+    public String lookup(String text, String sourceLanguage, String targetLanguage) {
+        if (store == null) {
+            return null;
+        }
+        PlaceholderNormalizer.Normalized normalized = PlaceholderNormalizer.normalize(text);
+        String translated = normalized != null ? translate(normalized, sourceLanguage, targetLanguage) : null;
+        if (translated == null) {
+            translated = translateSentences(text, sourceLanguage, targetLanguage);
+        }
+
+        if (translated != null) {
+            hits.increment();
+        } else if (normalized != null && !index.query(normalized.getTemplate(), fuzzyThreshold, 1,
+                id -> id.startsWith(prefix(sourceLanguage, targetLanguage))).isEmpty()) {
+            fuzzyHits.increment();
+        } else {
+            misses.increment();
+        }
+        return translated;
+    }
+
+    /**
+     * Remembers a translation, if each value of the text appears unchanged in it.
+     * A template already known keeps its first translation.
+     */
+    public void learn(String text, String sourceLanguage, String targetLanguage, String translatedText) {
+        if (store == null || translatedText == null) {
+            return;
+        }
+        PlaceholderNormalizer.Normalized normalized = PlaceholderNormalizer.normalize(text);
+        if (normalized == null) {
+            return;
+        }
+        String translatedTemplate = PlaceholderNormalizer.templateOf(translatedText.strip(), normalized);
+        if (translatedTemplate == null) {
+            logger.debug("Not learning '{}': its values were not copied into the translation", text);
+            return;
+        }
+        String key = key(sourceLanguage, targetLanguage, normalized.getTemplate());
+        if (store.get(key) == null) {
+            store.put(key, translatedTemplate);
+            index.add(key, normalized.getTemplate());
+        }
+    }
+
+    /**
+     * Finds past translations of texts similar to a text, most similar first.
+     */
+    public List<Suggestion> findSimilar(String text, String sourceLanguage, String targetLanguage, int limit) {
+        List<Suggestion> suggestions = new ArrayList<>();
+        PlaceholderNormalizer.Normalized normalized = PlaceholderNormalizer.normalize(text);
+        if (store == null || normalized == null) {
+            return suggestions;
+        }
+        String prefix = prefix(sourceLanguage, targetLanguage);
+        for (MinHashIndex.Match match : index.query(normalized.getTemplate(), fuzzyThreshold, limit,
+                id -> id.startsWith(prefix))) {
+            String translatedTemplate = store.get(match.getId());
+            if (translatedTemplate != null) { // Gone if the store was cleared when full
+                suggestions.add(new Suggestion(sourceTemplate(match.getId()), translatedTemplate, match.getSimilarity()));
+            }
+        }
+        return suggestions;
+    }
+
+    private String translate(PlaceholderNormalizer.Normalized normalized, String sourceLanguage, String targetLanguage) {
+        String translatedTemplate = store.get(key(sourceLanguage, targetLanguage, normalized.getTemplate()));
+        return translatedTemplate != null ? PlaceholderNormalizer.restore(translatedTemplate, normalized.getValues()) : null;
+    }
+
+    /**
+     * Translates a text of several sentences if every sentence is known, keeping the
+     * whitespace between them.
+     */
+    private String translateSentences(String text, String sourceLanguage, String targetLanguage) {
+        List<String> sentences = TextChunker.sentences(text.strip(), Locale.forLanguageTag(sourceLanguage));
+        if (sentences.size() < 2) {
+            return null;
+        }
+        StringBuilder translated = new StringBuilder(text.length());
+        for (String sentence : sentences) {
+            String core = sentence.strip();
+            PlaceholderNormalizer.Normalized normalized = PlaceholderNormalizer.normalize(core);
+            String translatedSentence = normalized != null ? translate(normalized, sourceLanguage, targetLanguage) : null;
+            if (translatedSentence == null) {
+                return null;
+            }
+            translated.append(translatedSentence).append(sentence, sentence.indexOf(core) + core.length(), sentence.length());
+        }
+        return translated.toString().strip();
+    }
+
+    private static String key(String sourceLanguage, String targetLanguage, String template) {
+        return prefix(sourceLanguage, targetLanguage) + template;
+    }
+
+    private static String prefix(String sourceLanguage, String targetLanguage) {
+        return sourceLanguage + '|' + targetLanguage + '|';
+    }
+
+    private static String sourceTemplate(String key) {
+        return key.substring(key.indexOf('|', key.indexOf('|') + 1) + 1);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("translation.memory.lookups", hits, LongAdder::sum)
+                .tag("result", "hit").description("Translation memory lookups").register(registry);
+        FunctionCounter.builder("translation.memory.lookups", fuzzyHits, LongAdder::sum)
+                .tag("result", "fuzzy").description("Translation memory lookups").register(registry);
+        FunctionCounter.builder("translation.memory.lookups", misses, LongAdder::sum)
+                .tag("result", "miss").description("Translation memory lookups").register(registry);
+        if (store != null) {
+            Gauge.builder("translation.memory.size", store, DiskKeyValueStore::size)
+                    .description("Templates remembered").register(registry);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close translation memory: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.docmgmt.translation.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Decorator that answers texts built from templates already translated from the
+ * {@link TranslationMemory}, with their own dates, numbers and IDs filled in, and
+ * passes only the texts it can't answer on to the wrapped service. Every
+ * translation coming back from a Gemini model, as named in the {@link RoutingReport}
+ * of the call, is remembered for the texts that follow; answers of the
+ * {@code local} stand-in or of another caller's call are not.
+ */
+public class TranslationMemoryService implements TranslationServiceInterface {
+
+    private final TranslationServiceInterface delegate;
+    private final TranslationMemory memory;
+
+    public TranslationMemoryService(TranslationServiceInterface delegate, TranslationMemory memory) {
+        this.delegate = delegate;
+        this.memory = memory;
+    }
+
+    @Override
+    public String translateText(String text, String sourceLanguage, String targetLanguage) {
+        String remembered = memory.lookup(text, sourceLanguage, targetLanguage);
+        if (remembered != null) {
+            return remembered;
+        }
+
+        RoutingReport report = RoutingReport.open();
+        String translatedText = report.call(() -> delegate.translateText(text, sourceLanguage, targetLanguage));
+        learn(report, text, sourceLanguage, targetLanguage, translatedText);
+        return translatedText;
+    }
+
+    @Override
+    public CompletableFuture<String> translateTextAsync(String text, String sourceLanguage, String targetLanguage) {
+        String remembered = memory.lookup(text, sourceLanguage, targetLanguage);
+        if (remembered != null) {
+            return CompletableFuture.completedFuture(remembered);
+        }
+
+        RoutingReport report = RoutingReport.open();
+        return report.call(() -> delegate.translateTextAsync(text, sourceLanguage, targetLanguage))
+                .thenApply(translatedText -> {
+                    learn(report, text, sourceLanguage, targetLanguage, translatedText);
+                    return translatedText;
+                });
+    }
+
+    @Override
+    public CompletableFuture<String> translateTextStreaming(String text, String sourceLanguage, String targetLanguage,
+                                                            Consumer<String> onText) {
+        String remembered = memory.lookup(text, sourceLanguage, targetLanguage);
+        if (remembered != null) {
+            onText.accept(remembered);
+            return CompletableFuture.completedFuture(remembered);
+        }
+
+        RoutingReport report = RoutingReport.open();
+        return report.call(() -> delegate.translateTextStreaming(text, sourceLanguage, targetLanguage, onText))
+                .thenApply(translatedText -> {
+                    learn(report, text, sourceLanguage, targetLanguage, translatedText);
+                    return translatedText;
+                });
+    }
+
+    /**
+     * Answers what it can from memory and sends the rest to the wrapped service in a
+     * single batch.
+     */
+    @Override
+    public List<String> translateBatch(List<String> texts, String sourceLanguage, String targetLanguage) {
+        String[] translations = new String[texts.size()];
+        List<Integer> missPositions = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            translations[i] = memory.lookup(texts.get(i), sourceLanguage, targetLanguage);
+            if (translations[i] == null) {
+                missPositions.add(i);
+            }
+        }
+
+        if (!missPositions.isEmpty()) {
+            List<String> missTexts = new ArrayList<>(missPositions.size());
+            missPositions.forEach(i -> missTexts.add(texts.get(i)));
+            RoutingReport report = RoutingReport.open();
+            List<String> translatedMisses =
+                    report.call(() -> delegate.translateBatch(missTexts, sourceLanguage, targetLanguage));
+            for (int j = 0; j < missPositions.size(); j++) {
+                int i = missPositions.get(j);
+                translations[i] = translatedMisses.get(j);
+                learn(report, texts.get(i), sourceLanguage, targetLanguage, translations[i]);
+            }
+        }
+
+        return List.of(translations);
+    }
+
+    /**
+     * Answers every language whose texts are all in memory, and sends the remaining
+     * languages to the wrapped service in a single call, with every text missed by
+     * at least one of them.
+     */
+    @Override
+    public MultiTargetTranslation translateMulti(List<String> texts, String sourceLanguage,
+                                                 List<String> targetLanguages) {
+        String[][] translations = new String[targetLanguages.size()][texts.size()];
+        List<String> missTargets = new ArrayList<>();
+        TreeSet<Integer> missPositions = new TreeSet<>();
+        for (int t = 0; t < targetLanguages.size(); t++) {
+            boolean missed = false;
+            for (int i = 0; i < texts.size(); i++) {
+                translations[t][i] = memory.lookup(texts.get(i), sourceLanguage, targetLanguages.get(t));
+                if (translations[t][i] == null) {
+                    missPositions.add(i);
+                    missed = true;
+                }
+            }
+            if (missed) {
+                missTargets.add(targetLanguages.get(t));
+            }
+        }
+
+        MultiTargetTranslation translated = null;
+        RoutingReport report = RoutingReport.open();
+        if (!missTargets.isEmpty()) {
+            List<String> missTexts = new ArrayList<>(missPositions.size());
+            missPositions.forEach(i -> missTexts.add(texts.get(i)));
+            translated = report.call(() -> delegate.translateMulti(missTexts, sourceLanguage, missTargets));
+        }
+
+        MultiTargetTranslation result = new MultiTargetTranslation();
+        for (int t = 0; t < targetLanguages.size(); t++) {
+            String targetLanguage = targetLanguages.get(t);
+            if (translated != null && missTargets.contains(targetLanguage)) {
+                List<String> translatedMisses = translated.get(targetLanguage);
+                if (translatedMisses == null) {
+                    result.fail(targetLanguage, translated.getErrors().get(targetLanguage));
+                    continue;
+                }
+                int j = 0;
+                for (int i : missPositions) {
+                    translations[t][i] = translatedMisses.get(j++);
+                    learn(report, texts.get(i), sourceLanguage, targetLanguage, translations[t][i]);
+                }
+            }
+            result.put(targetLanguage, List.of(translations[t]));
+        }
+        return result;
+    }
+
+    private void learn(RoutingReport report, String text, String sourceLanguage, String targetLanguage,
+                       String translatedText) {
+        if (report.modelOf(text, sourceLanguage, targetLanguage) != null) {
+            memory.learn(text, sourceLanguage, targetLanguage, translatedText);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.docmgmt.translation.service;
+
+import com.docmgmt.translation.cache.HashRing;
+import com.docmgmt.translation.cache.TieredTranslationCache;
+import com.docmgmt.translation.model.TranslationRequest;
+import com.docmgmt.translation.model.TranslationResponse;
+import com.docmgmt.translation.model.TranslationResponse.Status;
+import com.docmgmt.translation.model.TranslationResponse.TargetTranslation;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Translates a {@link TranslationRequest} (its title, its further fields and all of
+ * its target languages) and builds the {@link TranslationResponse} for it. Shared
+ * by the REST controller and the Kafka listeners so every entry point answers
+ * the same request the same way.
+ */
+public final class TranslationRequests {
+
+    private TranslationRequests() {
+    }
+
+    /**
+     * @return The texts to translate for a request: its title, then the values of its fields
+     */
+    public static List<String> texts(TranslationRequest request) {
+        Map<String, String> fields = request.getFields();
+        if (fields == null || fields.isEmpty()) {
+            return List.of(request.getTitle());
+        }
+        List<String> texts = new ArrayList<>(1 + fields.size());
+        texts.add(request.getTitle());
+        texts.addAll(fields.values());
+        return texts;
+    }
+
+    /**
+     * @return The Kafka record key for a request with this title: a hash of the title,
+     *         normalized as for the cache, and its source language. Requests for the
+     *         same title then share a partition, and so an instance, whose coalescing
+     *         turns concurrent duplicates into one Gemini call.
+     */
+    public static String titleKey(String title, String sourceLanguage) {
+        return Long.toHexString(HashRing.hash(sourceLanguage + '|' + TieredTranslationCache.normalize(title)));
+    }
+
+    /**
+     * @return Whether the request lists its target languages in {@code targetLanguages}
+     */
+    public static boolean isMultiTarget(TranslationRequest request) {
+        return request.getTargetLanguages() != null && !request.getTargetLanguages().isEmpty();
+    }
+
+    /**
+     * @return The languages to translate a request into
+     */
+    public static List<String> targets(TranslationRequest request) {
+        return isMultiTarget(request) ? request.getTargetLanguages() : List.of(request.getTargetLanguage());
+    }
+
+    /**
+     * Translates texts from the request's source language into all of its target
+     * languages, in a single call on the service either way. A single-target request
+     * fails as a whole; a multi-target one only fails if every language did.
+     */
+    public static MultiTargetTranslation translate(TranslationServiceInterface translationService,
+                                                   TranslationRequest request, List<String> texts) {
+        String sourceLanguage = request.getSourceLanguage();
+        if (isMultiTarget(request)) {
+            MultiTargetTranslation translations =
+                    translationService.translateMulti(texts, sourceLanguage, request.getTargetLanguages());
+            if (translations.getTranslations().isEmpty()) {
+                throw new RuntimeException("Translation failed for every target language: " + translations.getErrors());
+            }
+            return translations;
+        }
+
+        String targetLanguage = request.getTargetLanguage();
+        MultiTargetTranslation translations = new MultiTargetTranslation();
+        translations.put(targetLanguage, texts.size() == 1
+                ? List.of(translationService.translateText(texts.get(0), sourceLanguage, targetLanguage))
+                : translationService.translateBatch(texts, sourceLanguage, targetLanguage));
+        return translations;
+    }
+
+    /**
+     * Builds a COMPLETED response from the translations of {@link #texts}. A
+     * single-target request gets {@code translatedTitle} and {@code translatedFields};
+     * a multi-target one gets a {@code translations} entry per language, FAILED for
+     * the languages that failed.
+     */
+    public static TranslationResponse response(TranslationRequest request, MultiTargetTranslation translations) {
+        if (!isMultiTarget(request)) {
+            List<String> translated = translations.get(request.getTargetLanguage());
+            TranslationResponse response = response(request, request.getTargetLanguage(), translated.get(0), null);
+            response.setTranslatedFields(translatedFields(request, translated));
+            return response;
+        }
+
+        Map<String, TargetTranslation> byLanguage = new LinkedHashMap<>();
+        for (String targetLanguage : request.getTargetLanguages()) {
+            List<String> translated = translations.get(targetLanguage);
+            byLanguage.put(targetLanguage, translated != null
+                    ? new TargetTranslation(translated.get(0), translatedFields(request, translated), Status.COMPLETED, null)
+                    : new TargetTranslation(null, null, Status.FAILED, translations.getErrors().get(targetLanguage)));
+        }
+        List<String> failed = new ArrayList<>(translations.getErrors().keySet());
+        TranslationResponse response = response(request, String.join(",", request.getTargetLanguages()), null,
+                failed.isEmpty() ? null : "Translation failed for " + String.join(", ", failed));
+        response.setTranslations(byLanguage);
+        return response;
+    }
+
+    /**
+     * Builds a FAILED response for a request that won't be translated.
+     */
+    public static TranslationResponse failedResponse(TranslationRequest request, String error) {
+        TranslationResponse response = response(request, String.join(",", targets(request)), null, error);
+        response.setStatus(Status.FAILED);
+        return response;
+    }
+
+    private static TranslationResponse response(TranslationRequest request, String targetLanguage,
+                                                String translatedTitle, String error) {
+        return new TranslationResponse(
+            request.getDocumentId(),
+            request.getTitle(),
+            translatedTitle,
+            request.getSourceLanguage(),
+            targetLanguage,
+            Status.COMPLETED,
+            error,
+            LocalDateTime.now().toString()
+        );
+    }
+
+    private static Map<String, String> translatedFields(TranslationRequest request, List<String> translated) {
+        Map<String, String> fields = request.getFields();
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+        Map<String, String> translatedFields = new LinkedHashMap<>();
+        int i = 1;
+        for (String name : fields.keySet()) {
+            translatedFields.put(name, translated.get(i++));
+        }
+        return translatedFields;
+    }
+}
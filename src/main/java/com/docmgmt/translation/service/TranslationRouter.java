@@ -0,0 +1,428 @@
+package com.docmgmt.translation.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Routes translations between several backends: Gemini models or endpoints, and the
+ * {@link LocalTranslationService} stand-in for tests. The backends are listed by name
+ * in {@code app.routing.backends}; each is the Gemini model of that name unless
+ * configured otherwise under {@code app.routing.backend[<name>]}:
+ * <ul>
+ * <li>{@code type}: {@code gemini} or {@code local}</li>
+ * <li>{@code model} and {@code base-url}: the Gemini model and endpoint, by default
+ *     the name and {@code app.gemini.base-url}</li>
+ * <li>{@code cost}: relative price of a call</li>
+ * <li>{@code latency-ms}: the local stand-in's delay</li>
+ * </ul>
+ *
+ * <p>Texts of at most {@code app.routing.short-text-chars} characters, titles mostly,
+ * go to the cheapest backend whose error rate is below {@code app.routing.max-error-rate},
+ * the fastest of equally cheap ones. Other texts are spread at random by weight,
+ * learned from each backend's latency and error rate ({@link TranslationBackend}), so
+ * a backend that slows down or fails loses its share within a few calls. Every
+ * backend keeps a small share, enough to notice when it recovers.
+ *
+ * <p>A single text still unanswered after its backend's observed p95 latency is sent
+ * again to the best other backend, and the first answer wins; the other call is
+ * cancelled. A call that fails is sent to the other backend straight away. Hedges are
+ * limited to {@code app.routing.hedge.max-ratio} of calls, so a slowdown everywhere
+ * doesn't double the load, and calls in the bulk lane are never hedged. Batches and
+ * streamed translations go to a single backend.
+ *
+ * <p>The Gemini model that answered each text is noted in the caller's
+ * {@link RoutingReport}, for the cache and the translation memory to keep the
+ * translation under; the stand-in's answers are not.
+ */
+@Component
+public class TranslationRouter implements TranslationServiceInterface {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslationRouter.class);
+    private static final double EXPLORATION_SHARE = 0.02;
+    private static final double MAX_SAVED_HEDGES = 10;
+
+    private final List<TranslationBackend> backends = new ArrayList<>();
+    private final int shortTextChars;
+    private final double maxErrorRate;
+    private final boolean hedgeEnabled;
+    private final long hedgeMinDelayNanos;
+    private final int hedgeMinSamples;
+    private final double hedgeMaxRatio;
+    private final Counter slowHedges;
+    private final Counter failedHedges;
+    private final Counter hedgeWins;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "translation-router");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private double hedgeBudget;
+
+    public TranslationRouter(GeminiTranslationService geminiTranslationService, Environment environment,
+                             MeterRegistry meterRegistry) {
+        this.shortTextChars = environment.getProperty("app.routing.short-text-chars", Integer.class, 120);
+        this.maxErrorRate = environment.getProperty("app.routing.max-error-rate", Double.class, 0.5);
+        this.hedgeEnabled = environment.getProperty("app.routing.hedge.enabled", Boolean.class, true);
+        this.hedgeMinDelayNanos = TimeUnit.MILLISECONDS.toNanos(
+                environment.getProperty("app.routing.hedge.min-delay-ms", Long.class, 50L));
+        this.hedgeMinSamples = environment.getProperty("app.routing.hedge.min-samples", Integer.class, 20);
+        this.hedgeMaxRatio = environment.getProperty("app.routing.hedge.max-ratio", Double.class, 0.1);
+        long initialLatencyMs = environment.getProperty("app.routing.initial-latency-ms", Long.class, 1000L);
+        double alpha = environment.getProperty("app.routing.ewma-alpha", Double.class, 0.2);
+
+        String names = environment.getProperty("app.routing.backends", geminiTranslationService.getModel());
+        for (String name : names.split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            String prefix = "app.routing.backend[" + name + "].";
+            double cost = environment.getProperty(prefix + "cost", Double.class, 1.0);
+            String model = null;
+            TranslationServiceInterface service;
+            if ("local".equals(environment.getProperty(prefix + "type", "gemini"))) {
+                service = new LocalTranslationService(environment.getProperty(prefix + "latency-ms", Long.class, 0L),
+                        scheduler);
+                logger.info("Routing backend {}: local stand-in, cost {}", name, cost);
+            } else {
+                model = environment.getProperty(prefix + "model", name);
+                String baseUrl = environment.getProperty(prefix + "base-url");
+                service = model.equals(geminiTranslationService.getModel()) && baseUrl == null
+                        ? geminiTranslationService
+                        : geminiTranslationService.forModel(model, baseUrl);
+                logger.info("Routing backend {}: Gemini model {}, cost {}", name, model, cost);
+            }
+
+            TranslationBackend backend = new TranslationBackend(name, model, service, cost, initialLatencyMs, alpha);
+            backends.add(backend);
+            Gauge.builder("translation.routing.latency", backend, TranslationBackend::getLatencyMs)
+                    .tag("backend", name).baseUnit("milliseconds")
+                    .description("Moving average of single-text call latency").register(meterRegistry);
+            Gauge.builder("translation.routing.error.rate", backend, TranslationBackend::getErrorRate)
+                    .tag("backend", name).description("Moving average of the share of calls failing").register(meterRegistry);
+            FunctionCounter.builder("translation.routing.calls", backend, TranslationBackend::getCalls)
+                    .tag("backend", name).description("Calls answered or failed by the backend").register(meterRegistry);
+        }
+        if (backends.isEmpty()) {
+            throw new IllegalStateException("app.routing.backends lists no backend");
+        }
+
+        this.slowHedges = Counter.builder("translation.routing.hedges").tag("reason", "slow")
+                .description("Calls sent again to another backend").register(meterRegistry);
+        this.failedHedges = Counter.builder("translation.routing.hedges").tag("reason", "failed")
+                .description("Calls sent again to another backend").register(meterRegistry);
+        this.hedgeWins = Counter.builder("translation.routing.hedge.wins")
+                .description("Hedged calls answered by the second backend").register(meterRegistry);
+    }
+
+    @Override
+    public String translateText(String text, String sourceLanguage, String targetLanguage) {
+        try {
+            return translateTextAsync(text, sourceLanguage, targetLanguage).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> translateTextAsync(String text, String sourceLanguage, String targetLanguage) {
+        LaneContext context = LaneContext.current();
+        RoutingReport report = RoutingReport.current();
+        TranslationBackend primary = route(text.length());
+        TranslationBackend alternative = hedgeEnabled && context.getLane() != Lane.BULK ? alternativeTo(primary) : null;
+        if (alternative == null) {
+            return primary.translateTextAsync(text, sourceLanguage, targetLanguage, context)
+                    .thenApply(translatedText -> {
+                        report(report, primary, text, sourceLanguage, targetLanguage);
+                        return translatedText;
+                    });
+        }
+
+        depositHedge();
+        HedgedCall call = new HedgedCall(text, sourceLanguage, targetLanguage, context, report, alternative);
+        call.send(primary, false);
+        long hedgeDelayNanos = primary.getP95Nanos(hedgeMinSamples);
+        if (hedgeDelayNanos >= 0) {
+            call.schedule(Math.max(hedgeMinDelayNanos, hedgeDelayNanos));
+        }
+        return call.result;
+    }
+
+    @Override
+    public CompletableFuture<String> translateTextStreaming(String text, String sourceLanguage, String targetLanguage,
+                                                            Consumer<String> onText) {
+        RoutingReport report = RoutingReport.current();
+        TranslationBackend backend = route(text.length());
+        return backend.track(backend.getService().translateTextStreaming(text, sourceLanguage, targetLanguage, onText))
+                .thenApply(translatedText -> {
+                    report(report, backend, text, sourceLanguage, targetLanguage);
+                    return translatedText;
+                });
+    }
+
+    @Override
+    public List<String> translateBatch(List<String> texts, String sourceLanguage, String targetLanguage) {
+        TranslationBackend backend = route(longest(texts));
+        List<String> translations =
+                backend.call(() -> backend.getService().translateBatch(texts, sourceLanguage, targetLanguage));
+        RoutingReport report = RoutingReport.current();
+        for (String text : texts) {
+            report(report, backend, text, sourceLanguage, targetLanguage);
+        }
+        return translations;
+    }
+
+    @Override
+    public MultiTargetTranslation translateMulti(List<String> texts, String sourceLanguage,
+                                                 List<String> targetLanguages) {
+        TranslationBackend backend = route(longest(texts));
+        MultiTargetTranslation translations =
+                backend.call(() -> backend.getService().translateMulti(texts, sourceLanguage, targetLanguages));
+        RoutingReport report = RoutingReport.current();
+        for (String targetLanguage : translations.getTranslations().keySet()) {
+            for (String text : texts) {
+                report(report, backend, text, sourceLanguage, targetLanguage);
+            }
+        }
+        return translations;
+    }
+
+    /**
+     * @return The Gemini models routed to, in the order of {@code app.routing.backends}
+     */
+    public List<String> getModels() {
+        Set<String> models = new LinkedHashSet<>();
+        for (TranslationBackend backend : backends) {
+            if (backend.getModel() != null) {
+                models.add(backend.getModel());
+            }
+        }
+        return List.copyOf(models);
+    }
+
+    private static void report(RoutingReport report, TranslationBackend backend, String text, String sourceLanguage,
+                               String targetLanguage) {
+        if (report != null) {
+            report.answered(backend.getModel(), text, sourceLanguage, targetLanguage);
+        }
+    }
+
+    /**
+     * Picks the backend for texts of up to {@code textLength} characters.
+     */
+    private TranslationBackend route(int textLength) {
+        if (backends.size() == 1) {
+            return backends.get(0);
+        }
+
+        if (textLength <= shortTextChars) {
+            TranslationBackend cheapest = null;
+            for (TranslationBackend backend : backends) {
+                if (backend.getErrorRate() < maxErrorRate && (cheapest == null
+                        || backend.getCost() < cheapest.getCost()
+                        || backend.getCost() == cheapest.getCost() && backend.getLatencyMs() < cheapest.getLatencyMs())) {
+                    cheapest = backend;
+                }
+            }
+            if (cheapest != null) {
+                return cheapest;
+            }
+        }
+
+        double[] weights = new double[backends.size()];
+        double maxWeight = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = backends.get(i).getWeight();
+            maxWeight = Math.max(maxWeight, weights[i]);
+        }
+        double totalWeight = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = Math.max(weights[i], maxWeight * EXPLORATION_SHARE);
+            totalWeight += weights[i];
+        }
+        double pick = ThreadLocalRandom.current().nextDouble(totalWeight);
+        for (int i = 0; i < weights.length - 1; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return backends.get(i);
+            }
+        }
+        return backends.get(weights.length - 1);
+    }
+
+    /**
+     * @return The backend with the highest weight other than {@code primary}, or null if there is none
+     */
+    private TranslationBackend alternativeTo(TranslationBackend primary) {
+        TranslationBackend best = null;
+        for (TranslationBackend backend : backends) {
+            if (backend != primary && (best == null || backend.getWeight() > best.getWeight())) {
+                best = backend;
+            }
+        }
+        return best;
+    }
+
+    private static int longest(List<String> texts) {
+        int longest = 0;
+        for (String text : texts) {
+            longest = Math.max(longest, text.length());
+        }
+        return longest;
+    }
+
+    private synchronized void depositHedge() {
+        hedgeBudget = Math.min(MAX_SAVED_HEDGES, hedgeBudget + hedgeMaxRatio);
+    }
+
+    private synchronized boolean takeHedge() {
+        if (hedgeBudget < 1) {
+            return false;
+        }
+        hedgeBudget--;
+        return true;
+    }
+
+    /**
+     * One text sent to a backend and, if it is slow or fails, to one other.
+     */
+    private final class HedgedCall {
+
+        private final String text;
+        private final String sourceLanguage;
+        private final String targetLanguage;
+        private final LaneContext context;
+        private final RoutingReport report;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final List<CompletableFuture<String>> attempts = new ArrayList<>(2);
+        private TranslationBackend alternative;
+        private ScheduledFuture<?> timer;
+        private int pending;
+        private boolean answered;
+        private Throwable error;
+
+        private HedgedCall(String text, String sourceLanguage, String targetLanguage, LaneContext context,
+                           RoutingReport report, TranslationBackend alternative) {
+            this.text = text;
+            this.sourceLanguage = sourceLanguage;
+            this.targetLanguage = targetLanguage;
+            this.context = context;
+            this.report = report;
+            this.alternative = alternative;
+            // Whoever completes the result, the calls still running are no longer wanted
+            result.whenComplete((translatedText, resultError) -> {
+                List<CompletableFuture<String>> running;
+                synchronized (this) {
+                    if (timer != null) {
+                        timer.cancel(false);
+                    }
+                    running = new ArrayList<>(attempts);
+                }
+                running.forEach(attempt -> attempt.cancel(true));
+            });
+        }
+
+        private void send(TranslationBackend backend, boolean hedge) {
+            synchronized (this) {
+                pending++;
+            }
+            CompletableFuture<String> attempt =
+                    backend.translateTextAsync(text, sourceLanguage, targetLanguage, context);
+            synchronized (this) {
+                attempts.add(attempt);
+            }
+            if (result.isDone()) {
+                attempt.cancel(true);
+            }
+            attempt.whenComplete((translatedText, attemptError) -> {
+                if (attemptError == null) {
+                    synchronized (this) {
+                        if (answered) {
+                            return;
+                        }
+                        answered = true;
+                    }
+                    // Before completing, so whoever keeps the translation finds its model
+                    report(report, backend, text, sourceLanguage, targetLanguage);
+                    if (result.complete(translatedText) && hedge) {
+                        hedgeWins.increment();
+                    }
+                    return;
+                }
+                synchronized (this) {
+                    pending--;
+                    if (error == null) {
+                        error = attemptError instanceof CompletionException && attemptError.getCause() != null
+                                ? attemptError.getCause() : attemptError;
+                    }
+                    if (error instanceof DeadlineExceededException) {
+                        alternative = null; // Too late for any backend
+                    }
+                }
+                hedge(true);
+            });
+        }
+
+        private void schedule(long delayNanos) {
+            ScheduledFuture<?> scheduled = scheduler.schedule(() -> hedge(false), delayNanos, TimeUnit.NANOSECONDS);
+            synchronized (this) {
+                timer = scheduled;
+            }
+            if (result.isDone()) {
+                scheduled.cancel(false);
+            }
+        }
+
+        /**
+         * Sends the text to the alternative backend, if not done already, or fails the
+         * call if nothing is left running.
+         *
+         * @param failed Whether the first backend failed, rather than being slow
+         */
+        private void hedge(boolean failed) {
+            TranslationBackend backend = null;
+            boolean exhausted;
+            synchronized (this) {
+                if (alternative != null && !result.isDone() && (failed || takeHedge())) {
+                    backend = alternative;
+                    alternative = null;
+                }
+                exhausted = backend == null && pending == 0 && error != null;
+            }
+
+            if (backend != null) {
+                (failed ? failedHedges : slowHedges).increment();
+                logger.debug("Hedging translation to {} after {} ({} characters)", backend.getName(),
+                        failed ? "a failure" : "the p95 latency", text.length());
+                send(backend, true);
+            } else if (exhausted) {
+                result.completeExceptionally(error);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,151 @@
+package com.docmgmt.translation.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Central scheduling policy for calls waiting on Gemini. Every
+ * {@link GeminiRateGovernor} queues its calls in a {@link LaneQueue} created here,
+ * one priority queue per {@link Lane}, and takes the next call to send by the lanes'
+ * weights. Within a lane the call with the earliest deadline goes first.
+ *
+ * <p>Lanes are configured under {@code app.scheduler.lanes.<lane>}:
+ * <ul>
+ * <li>{@code weight}: the lane's share of permits while several lanes are waiting</li>
+ * <li>{@code target-wait-ms}: calls waiting longer than this are moved down a lane,
+ *     so work that has already missed its lane's target doesn't hold up fresh work
+ *     that can still meet it (0 = never)</li>
+ * <li>{@code max-queued}: when this many calls wait in the lane, it is full.
+ *     A full INTERACTIVE lane turns new calls away; while the NORMAL or BULK lane
+ *     is full, Kafka consumption is paused instead</li>
+ * </ul>
+ * Calls whose deadline passes while queued are dropped with
+ * {@link DeadlineExceededException}. Time spent queued per lane is published as
+ * {@code translation.scheduler.wait}.
+ */
+@Component
+public class TranslationScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslationScheduler.class);
+
+    private final Map<Lane, Settings> settings = new EnumMap<>(Lane.class);
+    private final Map<Lane, AtomicInteger> depth = new EnumMap<>(Lane.class);
+    private final Map<Lane, Timer> waitTimers = new EnumMap<>(Lane.class);
+    private final Map<Lane, Counter> dropped = new EnumMap<>(Lane.class);
+    private final Map<Lane, Counter> downgraded = new EnumMap<>(Lane.class);
+
+    public TranslationScheduler(Environment environment, MeterRegistry meterRegistry) {
+        settings.put(Lane.INTERACTIVE, settings(environment, Lane.INTERACTIVE, 8, 2000, 256));
+        settings.put(Lane.NORMAL, settings(environment, Lane.NORMAL, 3, 30000, 32));
+        settings.put(Lane.BULK, settings(environment, Lane.BULK, 1, 0, 16));
+
+        for (Lane lane : Lane.values()) {
+            String tag = name(lane);
+            AtomicInteger queued = new AtomicInteger();
+            depth.put(lane, queued);
+            Gauge.builder("translation.scheduler.queue.depth", queued, AtomicInteger::get)
+                    .tag("lane", tag).description("Calls waiting for a Gemini permit").register(meterRegistry);
+            waitTimers.put(lane, Timer.builder("translation.scheduler.wait").tag("lane", tag)
+                    .description("Time calls spent queued for a Gemini permit, by the lane they entered")
+                    .register(meterRegistry));
+            dropped.put(lane, Counter.builder("translation.scheduler.dropped").tag("lane", tag)
+                    .description("Calls dropped because their deadline passed while queued").register(meterRegistry));
+            downgraded.put(lane, Counter.builder("translation.scheduler.downgraded").tag("lane", tag)
+                    .description("Calls moved down from this lane after waiting past its target").register(meterRegistry));
+            Settings laneSettings = settings.get(lane);
+            logger.info("Scheduler lane {}: weight {}, target wait {} ms, max queued {}", tag,
+                    laneSettings.weight, TimeUnit.NANOSECONDS.toMillis(laneSettings.targetWaitNanos), laneSettings.maxQueued);
+        }
+    }
+
+    /**
+     * Creates the queue for one governor.
+     */
+    <T> LaneQueue<T> newQueue() {
+        return new LaneQueue<>(this);
+    }
+
+    /**
+     * @return Whether a new call may queue in a lane
+     */
+    public boolean admits(Lane lane) {
+        return lane != Lane.INTERACTIVE || !isFull(lane);
+    }
+
+    /**
+     * @return Whether a lane holds at least its {@code max-queued} calls
+     */
+    public boolean isFull(Lane lane) {
+        return depth(lane) >= settings.get(lane).maxQueued;
+    }
+
+    /**
+     * @return A lane's depth as a share of its {@code max-queued} calls, 1 when full
+     */
+    public double utilization(Lane lane) {
+        return (double) depth(lane) / Math.max(1, settings.get(lane).maxQueued);
+    }
+
+    public int depth(Lane lane) {
+        return depth.get(lane).get();
+    }
+
+    int weight(Lane lane) {
+        return settings.get(lane).weight;
+    }
+
+    long targetWaitNanos(Lane lane) {
+        return settings.get(lane).targetWaitNanos;
+    }
+
+    void queued(Lane lane, int delta) {
+        depth.get(lane).addAndGet(delta);
+    }
+
+    void recordWait(Lane lane, long waitNanos) {
+        waitTimers.get(lane).record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordDropped(Lane lane) {
+        dropped.get(lane).increment();
+    }
+
+    void recordDowngraded(Lane lane) {
+        downgraded.get(lane).increment();
+    }
+
+    private static Settings settings(Environment environment, Lane lane, int weight, long targetWaitMs, int maxQueued) {
+        String prefix = "app.scheduler.lanes." + name(lane) + ".";
+        return new Settings(
+                Math.max(1, environment.getProperty(prefix + "weight", Integer.class, weight)),
+                TimeUnit.MILLISECONDS.toNanos(environment.getProperty(prefix + "target-wait-ms", Long.class, targetWaitMs)),
+                Math.max(1, environment.getProperty(prefix + "max-queued", Integer.class, maxQueued)));
+    }
+
+    private static String name(Lane lane) {
+        return lane.name().toLowerCase();
+    }
+
+    private static final class Settings {
+        private final int weight;
+        private final long targetWaitNanos;
+        private final int maxQueued;
+
+        private Settings(int weight, long targetWaitNanos, int maxQueued) {
+            this.weight = weight;
+            this.targetWaitNanos = targetWaitNanos;
+            this.maxQueued = maxQueued;
+        }
+    }
+}
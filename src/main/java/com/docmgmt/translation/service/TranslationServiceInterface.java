@@ -1,17 +1,104 @@
 package com.docmgmt.translation.service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 /**
  * Interface for translation services
  */
 public interface TranslationServiceInterface {
-    
+
     /**
      * Translates text from source language to target language
-     * 
+     *
      * @param text The text to translate
      * @param sourceLanguage The source language code (e.g., "en")
      * @param targetLanguage The target language code (e.g., "es")
      * @return The translated text
      */
     String translateText(String text, String sourceLanguage, String targetLanguage);
-}
\ No newline at end of file
+
+    /**
+     * Translates text without blocking the calling thread. The default
+     * implementation runs {@link #translateText} on the common pool;
+     * implementations backed by a non-blocking client should override it, and
+     * abort the call if the returned future is cancelled.
+     *
+     * @param text The text to translate
+     * @param sourceLanguage The source language code (e.g., "en")
+     * @param targetLanguage The target language code (e.g., "es")
+     * @return A future completing with the translated text
+     */
+    default CompletableFuture<String> translateTextAsync(String text, String sourceLanguage, String targetLanguage) {
+        return CompletableFuture.supplyAsync(() -> translateText(text, sourceLanguage, targetLanguage));
+    }
+
+    /**
+     * Translates text without blocking, handing the translation to {@code onText} in
+     * pieces as the backend produces them. The pieces are passed one at a time, in
+     * order, possibly on a backend thread, so {@code onText} must not block. The
+     * default implementation passes the whole translation as a single piece;
+     * implementations backed by a streaming API should override it.
+     *
+     * @param text The text to translate
+     * @param sourceLanguage The source language code (e.g., "en")
+     * @param targetLanguage The target language code (e.g., "es")
+     * @param onText Receives the pieces of the translation
+     * @return A future completing with the whole translated text
+     */
+    default CompletableFuture<String> translateTextStreaming(String text, String sourceLanguage, String targetLanguage,
+                                                             Consumer<String> onText) {
+        return translateTextAsync(text, sourceLanguage, targetLanguage).thenApply(translatedText -> {
+            onText.accept(translatedText);
+            return translatedText;
+        });
+    }
+
+    /**
+     * Translates several texts sharing the same language pair. The default
+     * implementation translates each text on its own; implementations that can
+     * pack many texts into a single backend call should override it.
+     *
+     * @param texts The texts to translate
+     * @param sourceLanguage The source language code (e.g., "en")
+     * @param targetLanguage The target language code (e.g., "es")
+     * @return The translated texts, in the same order as {@code texts}
+     */
+    default List<String> translateBatch(List<String> texts, String sourceLanguage, String targetLanguage) {
+        List<String> translations = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            translations.add(translateText(text, sourceLanguage, targetLanguage));
+        }
+        return translations;
+    }
+
+    /**
+     * Translates several texts into several target languages. A language that fails
+     * is reported in the result without failing the others. The default
+     * implementation translates into each language with {@link #translateBatch};
+     * implementations that can ask for all languages in a single backend call
+     * should override it.
+     *
+     * @param texts The texts to translate
+     * @param sourceLanguage The source language code (e.g., "en")
+     * @param targetLanguages The target language codes (e.g., "es", "de")
+     * @return The translations by target language, each in the same order as {@code texts}
+     * @throws TranslationUnavailableException If the backend refused the call as a whole
+     */
+    default MultiTargetTranslation translateMulti(List<String> texts, String sourceLanguage,
+                                                  List<String> targetLanguages) {
+        MultiTargetTranslation translations = new MultiTargetTranslation();
+        for (String targetLanguage : targetLanguages) {
+            try {
+                translations.put(targetLanguage, translateBatch(texts, sourceLanguage, targetLanguage));
+            } catch (TranslationUnavailableException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                translations.fail(targetLanguage, e.getMessage());
+            }
+        }
+        return translations;
+    }
+}
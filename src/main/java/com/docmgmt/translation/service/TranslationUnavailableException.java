@@ -0,0 +1,13 @@
+package com.docmgmt.translation.service;
+
+/**
+ * Thrown without calling the backend when it is known to be unhealthy (open
+ * circuit) or the caller's bulkhead has no free slot. Callers should defer the
+ * work rather than report the translation as failed.
+ */
+public class TranslationUnavailableException extends RuntimeException {
+
+    public TranslationUnavailableException(String message) {
+        super(message);
+    }
+}
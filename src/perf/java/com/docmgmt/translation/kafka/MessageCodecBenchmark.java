@@ -0,0 +1,81 @@
+package com.docmgmt.translation.kafka;
+
+import com.docmgmt.translation.model.TranslationRequest;
+import com.docmgmt.translation.model.TranslationResponse;
+import com.docmgmt.translation.model.TranslationResponse.Status;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Kafka-side codecs: reading a request in the legacy
+ * {@code docId:title} and the JSON format with {@link TranslationRequestDeserializer},
+ * and serializing a {@link TranslationResponse} with the same {@link JsonSerializer}
+ * the producer uses.
+ *
+ * <p>Run with {@code mvn -Pperf test-compile exec:exec -Djmh.args="MessageCodecBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageCodecBenchmark {
+
+    private static final String TOPIC = "translation-response";
+
+    private byte[] legacyMessage;
+    private byte[] jsonMessage;
+    private TranslationRequestDeserializer deserializer;
+    private TranslationResponse response;
+    private JsonSerializer<TranslationResponse> serializer;
+
+    @Setup
+    public void setUp() {
+        legacyMessage = "3f2b9c4e-8a1d-4f6b-9e2a-7c5d1b0a9f34:Annual financial report: 2024 results"
+                .getBytes(StandardCharsets.UTF_8);
+        jsonMessage = ("{\"version\":1,\"documentId\":\"3f2b9c4e-8a1d-4f6b-9e2a-7c5d1b0a9f34\","
+                + "\"title\":\"Annual financial report: 2024 results\",\"sourceLanguage\":\"en\","
+                + "\"targetLanguage\":\"es\",\"priority\":\"HIGH\",\"deadline\":1714564800000,"
+                + "\"fields\":{\"summary\":\"Revenue grew in every region.\"}}")
+                .getBytes(StandardCharsets.UTF_8);
+        deserializer = new TranslationRequestDeserializer();
+        response = new TranslationResponse("3f2b9c4e-8a1d-4f6b-9e2a-7c5d1b0a9f34",
+                "Annual financial report: 2024 results", "Informe financiero anual: resultados de 2024",
+                "en", "es", Status.COMPLETED, null, "2024-05-01T12:00:00.000");
+        serializer = new JsonSerializer<>();
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+    }
+
+    @Benchmark
+    public TranslationRequest deserializeLegacy() {
+        return deserializer.deserialize(TOPIC, legacyMessage);
+    }
+
+    @Benchmark
+    public TranslationRequest deserializeJson() {
+        return deserializer.deserialize(TOPIC, jsonMessage);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() {
+        return serializer.serialize(TOPIC, response);
+    }
+}
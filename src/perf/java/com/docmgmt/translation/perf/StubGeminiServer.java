@@ -0,0 +1,203 @@
+package com.docmgmt.translation.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for the Gemini generateContent endpoint. It "translates" by
+ * prefixing the text with {@code [xx] }, answering batch prompts with a JSON array
+ * of the same size and multi-target prompts (with a {@code responseSchema}) with an
+ * array per language prefixed with {@code [<language>] }, so the service's single,
+ * batch and multi-target paths all work against it. streamGenerateContent calls
+ * get the same answer as server-sent events, a few pieces at a time.
+ * Responses are delayed by a configurable latency, and 500 errors and 429
+ * throttling (with {@code Retry-After}) can be injected at given rates.
+ *
+ * <p>Point the service at it with {@code app.gemini.base-url=http://localhost:<port>/v1beta/models/}.
+ */
+public class StubGeminiServer implements AutoCloseable {
+
+    /** A typical single-text response, for parser benchmarks. */
+    public static final String CANNED_RESPONSE = "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"Informe financiero anual\"}],"
+            + "\"role\":\"model\"},\"finishReason\":\"STOP\",\"index\":0}],"
+            + "\"usageMetadata\":{\"promptTokenCount\":31,\"candidatesTokenCount\":5,\"totalTokenCount\":36}}";
+
+    private static final String BATCH_MARKER = "\n\n[";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile long latencyMs;
+    private volatile double errorRate;
+    private volatile double throttleRate;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    public StubGeminiServer(int port, long latencyMs) throws IOException {
+        this.latencyMs = latencyMs;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-gemini");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/v1beta/models/";
+    }
+
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public void setThrottleRate(double throttleRate) {
+        this.throttleRate = throttleRate;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getThrottled() {
+        return throttled.sum();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        JsonNode request;
+        try (InputStream body = exchange.getRequestBody()) {
+            request = objectMapper.readTree(body);
+        }
+
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < throttleRate) {
+            throttled.increment();
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            respond(exchange, 429, "{\"error\":{\"code\":429,\"status\":\"RESOURCE_EXHAUSTED\"}}".getBytes(StandardCharsets.UTF_8));
+        } else if (roll < throttleRate + errorRate) {
+            errors.increment();
+            respond(exchange, 500, "{\"error\":{\"code\":500,\"status\":\"INTERNAL\"}}".getBytes(StandardCharsets.UTF_8));
+        } else if (exchange.getRequestURI().getPath().endsWith(":streamGenerateContent")) {
+            respondStream(exchange, response(request));
+        } else {
+            respond(exchange, 200, objectMapper.writeValueAsBytes(response(request)));
+        }
+    }
+
+    private ObjectNode response(JsonNode request) throws IOException {
+        String prompt = request.path("contents").path(0).path("parts").path(0).path("text").asText();
+        boolean jsonOutput = "application/json".equals(request.path("generationConfig").path("responseMimeType").asText());
+
+        String text;
+        int arrayStart = prompt.lastIndexOf(BATCH_MARKER);
+        JsonNode schema = request.path("generationConfig").path("responseSchema").path("properties");
+        if (jsonOutput && arrayStart >= 0 && schema.isObject()) {
+            JsonNode items = objectMapper.readTree(prompt.substring(arrayStart + 2));
+            ObjectNode translations = objectMapper.createObjectNode();
+            for (Iterator<String> languages = schema.fieldNames(); languages.hasNext(); ) {
+                String language = languages.next();
+                ArrayNode translated = translations.putArray(language);
+                items.forEach(item -> translated.add("[" + language + "] " + item.asText()));
+            }
+            text = objectMapper.writeValueAsString(translations);
+        } else if (jsonOutput && arrayStart >= 0) {
+            ArrayNode translations = objectMapper.createArrayNode();
+            for (JsonNode item : objectMapper.readTree(prompt.substring(arrayStart + 2))) {
+                translations.add("[xx] " + item.asText());
+            }
+            text = objectMapper.writeValueAsString(translations);
+        } else {
+            int quote = prompt.indexOf("\n\n\"");
+            text = "[xx] " + (quote >= 0 ? prompt.substring(quote + 3, prompt.length() - 1) : prompt);
+        }
+
+        ObjectNode response = objectMapper.createObjectNode();
+        ObjectNode candidate = response.putArray("candidates").addObject();
+        candidate.putObject("content").put("role", "model").putArray("parts").addObject().put("text", text);
+        candidate.put("finishReason", "STOP").put("index", 0);
+        int promptTokens = prompt.length() / 4 + 1;
+        int candidateTokens = text.length() / 4 + 1;
+        response.putObject("usageMetadata")
+                .put("promptTokenCount", promptTokens)
+                .put("candidatesTokenCount", candidateTokens)
+                .put("totalTokenCount", promptTokens + candidateTokens);
+        return response;
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Sends a response as three events, each with the next third of the text; only
+     * the last one has the finish reason and the usage.
+     */
+    private void respondStream(HttpExchange exchange, ObjectNode response) throws IOException {
+        ObjectNode candidate = (ObjectNode) response.path("candidates").path(0);
+        ObjectNode part = (ObjectNode) candidate.path("content").path("parts").path(0);
+        String text = part.path("text").asText();
+        JsonNode usage = response.remove("usageMetadata");
+        String finishReason = candidate.remove("finishReason").asText();
+
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            int pieces = 3;
+            for (int i = 0; i < pieces; i++) {
+                part.put("text", text.substring(text.length() * i / pieces, text.length() * (i + 1) / pieces));
+                if (i == pieces - 1) {
+                    candidate.put("finishReason", finishReason);
+                    response.set("usageMetadata", usage);
+                }
+                out.write(("data: " + objectMapper.writeValueAsString(response) + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,225 @@
+package com.docmgmt.translation.perf;
+
+import com.docmgmt.translation.TranslationServiceApplication;
+import com.docmgmt.translation.service.TranslationRequests;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test of the request topic to response topic flow. It starts an
+ * embedded Kafka broker, a {@link StubGeminiServer} and the application, drives
+ * {@code docId:title} messages onto the request topic at a fixed rate, and reports
+ * throughput and end-to-end latency percentiles from the moment a request is
+ * produced until its response is read back.
+ *
+ * <p>Run with {@code mvn -Pperf test-compile exec:exec@load-test -Dload.args="--rate=500 --duration=60"}.
+ * Options (defaults in brackets): {@code --rate} records/sec [200], {@code --duration} seconds [60],
+ * {@code --warmup} seconds excluded from the results [10], {@code --partitions} [3],
+ * {@code --latency-ms} stub Gemini latency [200], {@code --error-rate} [0],
+ * {@code --throttle-rate} share of 429s [0], {@code --drain-timeout} seconds [60].
+ * Any other {@code --name=value} argument is passed to the application, e.g.
+ * {@code --app.kafka.dispatch-mode=per-record}.
+ */
+public class TranslationLoadTest {
+
+    private static final String REQUEST_TOPIC = "document.translation.request";
+    private static final String RESPONSE_TOPIC = "document.translation.response";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Long> sentAt = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> measured = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    // Written by the response reader thread only, read after it has stopped
+    private long[] latencies = new long[1 << 16];
+    private int latencyCount;
+    private long completed;
+    private long failed;
+    private long firstMeasuredSend = Long.MAX_VALUE;
+    private long lastMeasuredResponse;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            String[] option = arg.startsWith("--") ? arg.substring(2).split("=", 2) : new String[0];
+            if (option.length == 2 && !option[0].contains(".")) {
+                options.put(option[0], option[1]);
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+        new TranslationLoadTest().run(options, applicationArgs.toArray(new String[0]));
+        System.exit(0);
+    }
+
+    private void run(Map<String, String> options, String[] applicationArgs) throws Exception {
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int partitions = Integer.parseInt(options.getOrDefault("partitions", "3"));
+        long drainTimeoutMs = TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("drain-timeout", "60")));
+
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, partitions, REQUEST_TOPIC, RESPONSE_TOPIC);
+        broker.afterPropertiesSet();
+        StubGeminiServer stub = new StubGeminiServer(0, Long.parseLong(options.getOrDefault("latency-ms", "200")));
+        stub.setErrorRate(Double.parseDouble(options.getOrDefault("error-rate", "0")));
+        stub.setThrottleRate(Double.parseDouble(options.getOrDefault("throttle-rate", "0")));
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.kafka.bootstrap-servers", broker.getBrokersAsString());
+        properties.put("app.kafka.enabled", "true");
+        properties.put("app.topics.translation-request", REQUEST_TOPIC);
+        properties.put("app.topics.translation-response", RESPONSE_TOPIC);
+        properties.put("app.topics.partitions", partitions);
+        properties.put("app.gemini.base-url", stub.getBaseUrl());
+        properties.put("app.gemini.api-key", "load-test");
+        // Measure the service, not the client-side quota or a cache warmed by earlier runs
+        properties.put("app.gemini.limits.default.rpm", 1000000);
+        properties.put("app.gemini.limits.default.tpm", 100000000);
+        properties.put("app.cache.disk.enabled", "false");
+        ConfigurableApplicationContext application = new SpringApplicationBuilder(TranslationServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .run(applicationArgs);
+
+        Thread reader = new Thread(() -> readResponses(broker.getBrokersAsString()), "load-test-reader");
+        reader.start();
+
+        System.out.printf("Producing %d records/sec for %d s (%d s warm-up) on %d partitions%n",
+                rate, durationSeconds, warmupSeconds, partitions);
+        long sent = produce(broker.getBrokersAsString(), rate, durationSeconds, warmupSeconds);
+
+        long drainDeadline = System.currentTimeMillis() + drainTimeoutMs;
+        while (!sentAt.isEmpty() && System.currentTimeMillis() < drainDeadline) {
+            Thread.sleep(100);
+        }
+        running = false;
+        reader.join();
+
+        report(sent, stub);
+        application.close();
+        stub.close();
+        broker.destroy();
+    }
+
+    private long produce(String bootstrapServers, int rate, int durationSeconds, int warmupSeconds) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long warmupEnd = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long sent = 0;
+        try (KafkaProducer<String, String> producer = new KafkaProducer<>(config)) {
+            for (long due = start; due < end; due += intervalNanos) {
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                String documentId = UUID.randomUUID().toString();
+                long now = System.nanoTime();
+                if (now >= warmupEnd) {
+                    measured.put(documentId, Boolean.TRUE);
+                }
+                sentAt.put(documentId, now);
+                String title = "Quarterly report " + sent;
+                // Keyed by title as the document service should, see TranslationRequests.titleKey
+                producer.send(new ProducerRecord<>(REQUEST_TOPIC, TranslationRequests.titleKey(title, "en"),
+                        documentId + ":" + title));
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    private void readResponses(String bootstrapServers) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, "load-test-" + UUID.randomUUID());
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+
+        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(config)) {
+            consumer.subscribe(List.of(RESPONSE_TOPIC));
+            while (running) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(100))) {
+                    long now = System.nanoTime();
+                    JsonNode response;
+                    try {
+                        response = objectMapper.readTree(record.value());
+                    } catch (Exception e) {
+                        continue;
+                    }
+                    String documentId = response.path("documentId").asText();
+                    Long start = sentAt.remove(documentId);
+                    if (start == null || measured.remove(documentId) == null) {
+                        continue;
+                    }
+                    if ("COMPLETED".equals(response.path("status").asText())) {
+                        completed++;
+                    } else {
+                        failed++;
+                    }
+                    if (latencyCount == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, latencyCount * 2);
+                    }
+                    latencies[latencyCount++] = now - start;
+                    firstMeasuredSend = Math.min(firstMeasuredSend, start);
+                    lastMeasuredResponse = now;
+                }
+            }
+        }
+    }
+
+    private void report(long sent, StubGeminiServer stub) {
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        double seconds = latencyCount > 0 ? (lastMeasuredResponse - firstMeasuredSend) / 1e9 : 0;
+
+        System.out.println();
+        System.out.printf("Sent:        %d (%d after warm-up)%n", sent, latencyCount + measured.size());
+        System.out.printf("Responses:   %d completed, %d failed, %d missing%n", completed, failed, measured.size());
+        System.out.printf("Throughput:  %.1f records/sec%n", seconds > 0 ? latencyCount / seconds : 0);
+        System.out.printf("Latency ms:  p50 %.1f  p99 %.1f  p999 %.1f  max %.1f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999), percentile(sorted, 1.0));
+        System.out.printf("Gemini stub: %d requests, %d errors, %d throttled%n",
+                stub.getRequests(), stub.getErrors(), stub.getThrottled());
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,87 @@
+package com.docmgmt.translation.service;
+
+import com.docmgmt.translation.perf.StubGeminiServer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link GeminiCodec} with the Jackson tree model it replaced: building
+ * the request as an {@code ObjectNode} tree and serializing it to a String, and
+ * reading the response String back into a tree to pull out the candidate text.
+ *
+ * <p>Run with {@code mvn -Pperf test-compile exec:exec -Djmh.args="GeminiCodecBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeminiCodecBenchmark {
+
+    @Param({"Annual financial report",
+            "Quarterly compliance review of supplier onboarding procedures for the EMEA region, including data retention and audit trail requirements"})
+    public String title;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GeminiCodec codec = new GeminiCodec(objectMapper.getFactory());
+    private String prompt;
+    private String responseString;
+    private byte[] responseBytes;
+
+    @Setup
+    public void setUp() {
+        prompt = GeminiTranslationService.createTranslationPrompt(title, "en", "es");
+        responseString = StubGeminiServer.CANNED_RESPONSE;
+        responseBytes = responseString.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String encodeRequestTree() throws JsonProcessingException {
+        ObjectNode requestBody = objectMapper.createObjectNode();
+        ArrayNode contentsArray = objectMapper.createArrayNode();
+        ObjectNode content = objectMapper.createObjectNode();
+        ArrayNode partsArray = objectMapper.createArrayNode();
+        ObjectNode textPart = objectMapper.createObjectNode();
+        textPart.put("text", prompt);
+        partsArray.add(textPart);
+        content.set("parts", partsArray);
+        contentsArray.add(content);
+        requestBody.set("contents", contentsArray);
+        return objectMapper.writeValueAsString(requestBody);
+    }
+
+    @Benchmark
+    public byte[] encodeRequestTemplate() {
+        return codec.encodeRequest(prompt, false);
+    }
+
+    @Benchmark
+    public String decodeResponseTree() throws JsonProcessingException {
+        JsonNode responseJson = objectMapper.readTree(responseString);
+        return responseJson.get("candidates").get(0).get("content").get("parts").get(0).get("text").asText();
+    }
+
+    @Benchmark
+    public String decodeResponseStreaming() throws IOException {
+        return codec.decodeResponse(responseBytes).getText();
+    }
+}
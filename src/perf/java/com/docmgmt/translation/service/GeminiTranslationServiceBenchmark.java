@@ -0,0 +1,84 @@
+package com.docmgmt.translation.service;
+
+import com.docmgmt.translation.perf.StubGeminiServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-call CPU and allocation cost of the Gemini client: prompt
+ * building and response handling, plus a full {@code translateText} round trip
+ * against {@link StubGeminiServer}. The codec on its own is compared with the
+ * Jackson tree model in {@link GeminiCodecBenchmark}.
+ *
+ * <p>Run with {@code mvn -Pperf test-compile exec:exec -Djmh.args="GeminiTranslationServiceBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeminiTranslationServiceBenchmark {
+
+    @Param({"Annual financial report",
+            "Quarterly compliance review of supplier onboarding procedures for the EMEA region, including data retention and audit trail requirements"})
+    public String title;
+
+    private StubGeminiServer stub;
+    private GeminiTranslationService service;
+    private byte[] responseBody;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        stub = new StubGeminiServer(0, 0);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StandardEnvironment environment = new StandardEnvironment();
+        GeminiRateGovernors governors = new GeminiRateGovernors(environment, meterRegistry,
+                new TranslationScheduler(environment, meterRegistry));
+        service = new GeminiTranslationService("bench-key", stub.getBaseUrl(), "gemini-1.5-flash",
+                50, 30000, 5, httpClient, governors, meterRegistry);
+        responseBody = StubGeminiServer.CANNED_RESPONSE.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stub.close();
+    }
+
+    @Benchmark
+    public String createPrompt() {
+        return GeminiTranslationService.createTranslationPrompt(title, "en", "es");
+    }
+
+    @Benchmark
+    public String parseResponse() {
+        return service.parseCandidateText(responseBody);
+    }
+
+    @Benchmark
+    public String translateTextRoundTrip() {
+        return service.translateText(title, "en", "es");
+    }
+}
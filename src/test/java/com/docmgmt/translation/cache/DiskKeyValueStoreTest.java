@@ -0,0 +1,131 @@
+package com.docmgmt.translation.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiskKeyValueStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void returnsTheLatestValueOfAKey() throws IOException {
+        try (DiskKeyValueStore store = new DiskKeyValueStore(dir.resolve("store.db"), 1 << 20)) {
+            store.put("en|es|Invoice", "Factura");
+            store.put("en|de|Invoice", "Rechnung");
+            store.put("en|es|Invoice", "Factura nueva");
+
+            assertThat(store.get("en|es|Invoice")).isEqualTo("Factura nueva");
+            assertThat(store.get("en|de|Invoice")).isEqualTo("Rechnung");
+            assertThat(store.get("en|fr|Invoice")).isNull();
+            assertThat(store.size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void recoversEntriesAfterReopening() throws IOException {
+        Path path = dir.resolve("store.db");
+        try (DiskKeyValueStore store = new DiskKeyValueStore(path, 1 << 20)) {
+            store.put("a", "Año");
+            store.put("b", "Überweisung");
+            store.put("a", "Año nuevo");
+        }
+
+        try (DiskKeyValueStore store = new DiskKeyValueStore(path, 1 << 20)) {
+            assertThat(store.keys()).containsExactlyInAnyOrder("a", "b");
+            assertThat(store.get("a")).isEqualTo("Año nuevo");
+            assertThat(store.get("b")).isEqualTo("Überweisung");
+        }
+    }
+
+    @Test
+    void truncatesATornRecordOnOpen() throws IOException {
+        Path path = dir.resolve("store.db");
+        long intactBytes;
+        try (DiskKeyValueStore store = new DiskKeyValueStore(path, 1 << 20)) {
+            store.put("a", "1");
+            store.put("b", "2");
+            intactBytes = store.fileBytes();
+        }
+        // A record cut short by a crash: its header promises more bytes than follow
+        Files.write(path, ByteBuffer.allocate(10).putInt(1).putInt(100).put((byte) 'c').array(),
+                StandardOpenOption.APPEND);
+
+        try (DiskKeyValueStore store = new DiskKeyValueStore(path, 1 << 20)) {
+            assertThat(store.fileBytes()).isEqualTo(intactBytes);
+            assertThat(store.keys()).containsExactlyInAnyOrder("a", "b");
+
+            store.put("c", "3");
+            assertThat(store.get("c")).isEqualTo("3");
+        }
+        try (DiskKeyValueStore store = new DiskKeyValueStore(path, 1 << 20)) {
+            assertThat(store.get("c")).isEqualTo("3");
+        }
+    }
+
+    @Test
+    void compactsOverwrittenRecords() throws IOException {
+        Path path = dir.resolve("store.db");
+        try (DiskKeyValueStore store = new DiskKeyValueStore(path, 1000)) {
+            store.put("kept", "unchanged");
+            for (int i = 0; i < 200; i++) {
+                store.put("k", String.format("value-%04d", i));
+            }
+
+            assertThat(store.fileBytes()).isLessThanOrEqualTo(1000);
+            assertThat(store.get("k")).isEqualTo("value-0199");
+            assertThat(store.get("kept")).isEqualTo("unchanged");
+            assertThat(Files.exists(dir.resolve("store.db.compact"))).isFalse();
+        }
+
+        try (DiskKeyValueStore store = new DiskKeyValueStore(path, 1000)) {
+            assertThat(store.get("k")).isEqualTo("value-0199");
+            assertThat(store.get("kept")).isEqualTo("unchanged");
+        }
+    }
+
+    @Test
+    void startsOverWhenMostOfTheFileIsLive() throws IOException {
+        try (DiskKeyValueStore store = new DiskKeyValueStore(dir.resolve("store.db"), 1000)) {
+            for (int i = 0; i < 60; i++) {
+                store.put(String.format("key-%02d", i), "translated");
+            }
+
+            assertThat(store.fileBytes()).isLessThanOrEqualTo(1000);
+            assertThat(store.size()).isLessThan(60);
+            assertThat(store.get("key-00")).isNull();
+            assertThat(store.get("key-59")).isEqualTo("translated");
+        }
+    }
+
+    @Test
+    void evictsTheOldestEntriesWhenMostOfTheFileIsLive() throws IOException {
+        Path path = dir.resolve("store.db");
+        try (DiskKeyValueStore store = new DiskKeyValueStore(path, 1000, true)) {
+            for (int i = 0; i < 60; i++) {
+                store.put(String.format("key-%02d", i), "translated");
+                // Rewritten, so it is as new as the latest entry
+                store.put("key-00", "retranslated");
+            }
+
+            assertThat(store.fileBytes()).isLessThanOrEqualTo(1000);
+            assertThat(store.size()).isBetween(20, 59);
+            assertThat(store.get("key-00")).isEqualTo("retranslated");
+            assertThat(store.get("key-01")).isNull();
+            assertThat(store.get("key-59")).isEqualTo("translated");
+        }
+
+        try (DiskKeyValueStore store = new DiskKeyValueStore(path, 1000, true)) {
+            assertThat(store.get("key-00")).isEqualTo("retranslated");
+            assertThat(store.get("key-59")).isEqualTo("translated");
+        }
+    }
+}
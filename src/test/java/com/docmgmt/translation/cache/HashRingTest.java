@@ -0,0 +1,55 @@
+package com.docmgmt.translation.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashRingTest {
+
+    private static final List<String> MEMBERS = List.of("http://a:8083", "http://b:8083", "http://c:8083");
+
+    @Test
+    void buildsTheSameRingWhateverTheMemberOrder() {
+        HashRing ring = new HashRing(MEMBERS, 128);
+        HashRing reversed = new HashRing(List.of(MEMBERS.get(2), MEMBERS.get(1), MEMBERS.get(0)), 128);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(reversed.owner("key-" + i)).isEqualTo(ring.owner("key-" + i));
+        }
+    }
+
+    @Test
+    void spreadsKeysEvenly() {
+        HashRing ring = new HashRing(MEMBERS, 128);
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < 30_000; i++) {
+            owned.merge(ring.owner("gemini-1.5-flash|en|es|Invoice #" + i), 1, Integer::sum);
+        }
+
+        assertThat(owned).containsOnlyKeys(MEMBERS);
+        assertThat(owned.values()).allSatisfy(count -> assertThat(count).isBetween(7_000, 13_000));
+    }
+
+    @Test
+    void movesOnlyTheKeysOfAMemberThatLeft() {
+        HashRing ring = new HashRing(MEMBERS, 128);
+        HashRing withoutB = new HashRing(List.of(MEMBERS.get(0), MEMBERS.get(2)), 128);
+
+        for (int i = 0; i < 10_000; i++) {
+            String key = "key-" + i;
+            String owner = ring.owner(key);
+            if (!owner.equals(MEMBERS.get(1))) {
+                assertThat(withoutB.owner(key)).isEqualTo(owner);
+            }
+        }
+    }
+
+    @Test
+    void hasNoOwnerWithoutMembers() {
+        assertThat(new HashRing(List.of(), 128).owner("key")).isNull();
+    }
+}
@@ -0,0 +1,60 @@
+package com.docmgmt.translation.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void findsTheTranslationsRecordedForTheSameRequest() {
+        String path = dir.resolve("processed.db").toString();
+        IdempotencyStore store = new IdempotencyStore(true, path, 1 << 20);
+        store.record("doc-1", "en", "es", List.of("Invoice", "Due on Friday", ""), List.of("Factura", "Vence el viernes", ""));
+        store.close();
+
+        IdempotencyStore reopened = new IdempotencyStore(true, path, 1 << 20);
+        try {
+            assertThat(reopened.find("doc-1", "en", "es", List.of("Invoice", "Due on Friday", "")))
+                    .containsExactly("Factura", "Vence el viernes", "");
+            assertThat(reopened.find("doc-1", "en", "fr", List.of("Invoice", "Due on Friday", ""))).isNull();
+            assertThat(reopened.find("doc-1", "de", "es", List.of("Invoice", "Due on Friday", ""))).isNull();
+            assertThat(reopened.find("doc-1", "en", "es", List.of("Invoice", "Due on Monday", ""))).isNull();
+            assertThat(reopened.find("doc-2", "en", "es", List.of("Invoice", "Due on Friday", ""))).isNull();
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void forgetsTheOldestRequestsWhenFull() {
+        IdempotencyStore store = new IdempotencyStore(true, dir.resolve("processed.db").toString(), 4096);
+        try {
+            for (int i = 0; i < 100; i++) {
+                store.record("doc-" + i, "en", "es", List.of("Invoice " + i), List.of("Factura " + i));
+            }
+
+            assertThat(store.find("doc-0", "en", "es", List.of("Invoice 0"))).isNull();
+            assertThat(store.find("doc-99", "en", "es", List.of("Invoice 99"))).containsExactly("Factura 99");
+            assertThat(store.find("doc-90", "en", "es", List.of("Invoice 90"))).containsExactly("Factura 90");
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void remembersNothingWhenDisabled() {
+        IdempotencyStore store = new IdempotencyStore(false, dir.resolve("processed.db").toString(), 1 << 20);
+        store.record("doc-1", "en", "es", List.of("Invoice"), List.of("Factura"));
+
+        assertThat(store.find("doc-1", "en", "es", List.of("Invoice"))).isNull();
+        store.close();
+    }
+}
@@ -0,0 +1,49 @@
+package com.docmgmt.translation.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PeerCacheCodecTest {
+
+    @Test
+    void roundTripsStringsWithMisses() {
+        List<String> strings = Arrays.asList("Factura", null, "", "Überweisung – 請求書");
+
+        assertThat(PeerCacheCodec.decodeStrings(PeerCacheCodec.encodeStrings(strings))).isEqualTo(strings);
+        assertThat(PeerCacheCodec.decodeStrings(PeerCacheCodec.encodeStrings(List.of()))).isEmpty();
+    }
+
+    @Test
+    void roundTripsEntriesInOrder() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("gemini-1.5-flash|en|es|Invoice", "Factura");
+        entries.put("gemini-1.5-flash|en|ja|Invoice", "請求書");
+
+        assertThat(PeerCacheCodec.decodeEntries(PeerCacheCodec.encodeEntries(entries)))
+                .containsExactlyEntriesOf(entries);
+    }
+
+    @Test
+    void rejectsMalformedBodies() {
+        byte[] valid = PeerCacheCodec.encodeStrings(List.of("Factura"));
+
+        assertThatThrownBy(() -> PeerCacheCodec.decodeStrings(new byte[0]))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PeerCacheCodec.decodeStrings(Arrays.copyOf(valid, valid.length - 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PeerCacheCodec.decodeStrings(ByteBuffer.allocate(8).putInt(1_000_000).array()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PeerCacheCodec.decodeStrings(ByteBuffer.allocate(8).putInt(1).putInt(-2).array()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PeerCacheCodec.decodeEntries(PeerCacheCodec.encodeStrings(Arrays.asList("key", null))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
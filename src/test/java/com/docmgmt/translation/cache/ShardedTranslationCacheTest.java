@@ -0,0 +1,52 @@
+package com.docmgmt.translation.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedTranslationCacheTest {
+
+    private static final String MEMBERS = "http://localhost:18083,http://localhost:18084";
+
+    private final TieredTranslationCache local = new TieredTranslationCache(1 << 20, false, "unused", 0);
+
+    @Test
+    void refusesToShardWithoutAToken() {
+        assertThatThrownBy(() -> cache(MEMBERS, ""))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("app.cache.peers.token");
+    }
+
+    @Test
+    void authorizesOnlyRequestsCarryingTheToken() {
+        ShardedTranslationCache cache = cache(MEMBERS, "s3cret");
+        try {
+            assertThat(cache.isEnabled()).isTrue();
+            assertThat(cache.authorizes("s3cret")).isTrue();
+            assertThat(cache.authorizes("wrong")).isFalse();
+            assertThat(cache.authorizes("")).isFalse();
+            assertThat(cache.authorizes(null)).isFalse();
+        } finally {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    void needsNoTokenWithoutPeers() {
+        ShardedTranslationCache cache = cache("", "");
+        try {
+            assertThat(cache.isEnabled()).isFalse();
+            assertThat(cache.authorizes("")).isFalse();
+            cache.put("key", "Factura");
+            assertThat(cache.get("key")).isEqualTo("Factura");
+        } finally {
+            cache.shutdown();
+        }
+    }
+
+    private ShardedTranslationCache cache(String members, String token) {
+        return new ShardedTranslationCache(local, members, "http://localhost:18083", token, 16, 100, 60_000, 0,
+                1 << 20);
+    }
+}
@@ -0,0 +1,48 @@
+package com.docmgmt.translation.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredTranslationCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void keysIgnoreWhitespaceAndUnicodeForm() {
+        String composed = TieredTranslationCache.key("Café  report ", "en", "es", "gemini-1.5-flash");
+        String decomposed = TieredTranslationCache.key(" Café report", "en", "es", "gemini-1.5-flash");
+
+        assertThat(composed).isEqualTo(decomposed);
+        assertThat(composed).isNotEqualTo(TieredTranslationCache.key("Café report", "en", "es", "gemini-1.5-pro"));
+    }
+
+    @Test
+    void servesTranslationsFromDiskAfterARestart() {
+        String path = dir.resolve("cache.db").toString();
+        TieredTranslationCache cache = new TieredTranslationCache(1 << 20, true, path, 1 << 20);
+        cache.put("key", "Informe anual");
+        cache.close();
+
+        TieredTranslationCache restarted = new TieredTranslationCache(1 << 20, true, path, 1 << 20);
+        try {
+            assertThat(restarted.get("key")).isEqualTo("Informe anual");
+            assertThat(restarted.get("other")).isNull();
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void keepsTranslationsInHeapWithoutDisk() {
+        TieredTranslationCache cache = new TieredTranslationCache(1 << 20, false, dir.resolve("unused.db").toString(),
+                1 << 20);
+        cache.put("key", "Informe anual");
+
+        assertThat(cache.get("key")).isEqualTo("Informe anual");
+    }
+}
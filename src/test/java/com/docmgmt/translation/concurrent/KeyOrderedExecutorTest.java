@@ -0,0 +1,104 @@
+package com.docmgmt.translation.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyOrderedExecutorTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void runsTasksOfOneKeyInSubmissionOrder() throws Exception {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor(pool, 64);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int task = i;
+            futures.add(executor.submit("doc-42", () -> {
+                sleep(ThreadLocalRandom.current().nextInt(3));
+                order.add(task);
+            }));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertThat(order).isSorted().hasSize(50);
+    }
+
+    @Test
+    void keepsGoingAfterAFailedTask() throws Exception {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor(pool, 8);
+        CompletableFuture<Void> failed = executor.submit("doc-42", () -> {
+            throw new IllegalStateException("Translation failed");
+        });
+        CompletableFuture<Void> next = executor.submit("doc-42", () -> { });
+
+        next.get(5, TimeUnit.SECONDS);
+        assertThat(failed).isCompletedExceptionally();
+        assertThat(executor.inFlight()).isZero();
+    }
+
+    @Test
+    void runsTasksOfDifferentKeysInParallel() throws Exception {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor(pool, 8);
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        Runnable task = () -> {
+            bothRunning.countDown();
+            await(bothRunning);
+        };
+
+        CompletableFuture<Void> first = executor.submit("doc-1", task);
+        CompletableFuture<Void> second = executor.submit("doc-2", task);
+
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void blocksSubmittersBeyondTheLimit() throws Exception {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor(pool, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit("doc-1", () -> await(release));
+        executor.submit("doc-2", () -> await(release));
+        assertThat(executor.inFlight()).isEqualTo(2);
+
+        CompletableFuture<CompletableFuture<Void>> third = CompletableFuture.supplyAsync(
+                () -> executor.submit("doc-3", () -> { }));
+        Thread.sleep(100);
+        assertThat(third).isNotDone();
+
+        release.countDown();
+        third.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
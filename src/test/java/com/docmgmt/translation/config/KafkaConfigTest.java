@@ -0,0 +1,74 @@
+package com.docmgmt.translation.config;
+
+import com.docmgmt.translation.kafka.OffsetTracker;
+import com.docmgmt.translation.model.TranslationRequest;
+import com.docmgmt.translation.service.TranslationUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.backoff.FixedBackOff;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class KafkaConfigTest {
+
+    private final KafkaConfig config = new KafkaConfig();
+
+    @Test
+    void deferredBatchesWaitOutTheOpenCircuitForAsLongAsItTakes() {
+        ReflectionTestUtils.setField(config, "circuitOpenDurationMs", 30_000L);
+        Exception deferral = new ListenerExecutionFailedException("Listener failed", new BatchListenerFailedException(
+                "Translation backend unavailable, deferring batch", new TranslationUnavailableException("Circuit open"), 3));
+
+        assertThat(config.deferralBackOff(null, deferral)).isInstanceOfSatisfying(FixedBackOff.class, backOff -> {
+            assertThat(backOff.getInterval()).isEqualTo(30_000L);
+            assertThat(backOff.getMaxAttempts()).isEqualTo(FixedBackOff.UNLIMITED_ATTEMPTS);
+        });
+    }
+
+    @Test
+    void otherFailuresGetTheBoundedBackOff() {
+        Exception failure = new ListenerExecutionFailedException("Listener failed",
+                new IllegalStateException("Failed to deliver translation responses"));
+
+        assertThat(config.deferralBackOff(null, failure)).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"per-record", "pipelined"})
+    void rejectsExactlyOnceWithWorkerDispatchModes(String dispatchMode) {
+        exactlyOnce(dispatchMode);
+
+        assertThatThrownBy(() -> config.kafkaListenerContainerFactory(requestConsumerFactory(), new OffsetTracker()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("dispatch-mode=batch");
+    }
+
+    @Test
+    void runsBatchDispatchInTheListenerTransaction() {
+        exactlyOnce("batch");
+
+        assertThat(config.kafkaListenerContainerFactory(requestConsumerFactory(), new OffsetTracker())
+                .getContainerProperties().getTransactionManager()).isNotNull();
+    }
+
+    private void exactlyOnce(String dispatchMode) {
+        ReflectionTestUtils.setField(config, "bootstrapServers", "localhost:9092");
+        ReflectionTestUtils.setField(config, "dlqTopic", "translation-request.dlq");
+        ReflectionTestUtils.setField(config, "producerCompression", "lz4");
+        ReflectionTestUtils.setField(config, "transactionIdPrefix", "translation-tx-");
+        ReflectionTestUtils.setField(config, "exactlyOnce", true);
+        ReflectionTestUtils.setField(config, "dispatchMode", dispatchMode);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConsumerFactory<String, TranslationRequest> requestConsumerFactory() {
+        return mock(ConsumerFactory.class);
+    }
+}
@@ -0,0 +1,69 @@
+package com.docmgmt.translation.job;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkJobFormatTest {
+
+    @Test
+    void parsesCsvRowsQuotedAsInRfc4180() {
+        BulkRecord record = BulkJobFormat.CSV.parse("doc-1,\"Invoice, \"\"final\"\"\nfor March\"");
+
+        assertThat(record.getDocumentId()).isEqualTo("doc-1");
+        assertThat(record.getTitle()).isEqualTo("Invoice, \"final\"\nfor March");
+        assertThat(record.isPending()).isTrue();
+    }
+
+    @Test
+    void readsACsvRowWithOnlyATitle() {
+        BulkRecord record = BulkJobFormat.CSV.parse("Invoice");
+
+        assertThat(record.getDocumentId()).isNull();
+        assertThat(record.getTitle()).isEqualTo("Invoice");
+    }
+
+    @Test
+    void skipsTheCsvHeaderAndFailsMalformedRows() {
+        assertThat(BulkJobFormat.CSV.parse("documentId,title")).isNull();
+        assertThat(BulkJobFormat.CSV.parse("doc-1,\"Invoice").getError()).contains("unbalanced quotes");
+        assertThat(BulkJobFormat.CSV.parse("doc-1, ").getError()).isEqualTo("Record has no title");
+    }
+
+    @Test
+    void writesCsvThatReadsBackTheSame() {
+        BulkRecord record = new BulkRecord("doc-1", "Invoice, \"final\"");
+        record.complete("Factura, \"final\"");
+        StringBuilder out = new StringBuilder();
+
+        BulkJobFormat.CSV.write(record, out);
+
+        assertThat(out).hasToString("doc-1,\"Invoice, \"\"final\"\"\",\"Factura, \"\"final\"\"\",COMPLETED,\n");
+    }
+
+    @Test
+    void parsesNdjsonObjectsAndFailsMalformedOnes() {
+        BulkRecord record = BulkJobFormat.NDJSON.parse("{\"documentId\":\"doc-1\",\"title\":\"Invoice\",\"extra\":1}");
+
+        assertThat(record.getDocumentId()).isEqualTo("doc-1");
+        assertThat(record.getTitle()).isEqualTo("Invoice");
+        assertThat(BulkJobFormat.NDJSON.parse("{\"documentId\":").getError()).startsWith("Malformed JSON");
+        assertThat(BulkJobFormat.NDJSON.parse("{\"documentId\":\"doc-2\"}").getError()).isEqualTo("Record has no title");
+    }
+
+    @Test
+    void writesNdjsonWithTheStatusAndError() throws Exception {
+        BulkRecord record = BulkRecord.failed("doc-1", "Invoice", "Gemini refused");
+        StringBuilder out = new StringBuilder();
+
+        BulkJobFormat.NDJSON.write(record, out);
+
+        assertThat(out.charAt(out.length() - 1)).isEqualTo('\n');
+        JsonNode node = new ObjectMapper().readTree(out.toString());
+        assertThat(node.get("documentId").asText()).isEqualTo("doc-1");
+        assertThat(node.get("status").asText()).isEqualTo("FAILED");
+        assertThat(node.get("error").asText()).isEqualTo("Gemini refused");
+    }
+}
@@ -0,0 +1,164 @@
+package com.docmgmt.translation.job;
+
+import com.docmgmt.translation.service.GeminiApiException;
+import com.docmgmt.translation.service.TranslationServiceInterface;
+import com.docmgmt.translation.service.TranslationUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkJobServiceTest {
+
+    @TempDir
+    Path root;
+
+    private final TranslationServiceInterface translationService = mock(TranslationServiceInterface.class);
+    private final ExecutorService translationThreads = Executors.newCachedThreadPool();
+    private final List<BulkJobService> services = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        services.forEach(BulkJobService::shutdown);
+        translationThreads.shutdownNow();
+    }
+
+    @Test
+    void translatesAJobInBatchesAndWritesTheOutputInInputOrder() throws Exception {
+        answerWithPrefix();
+        BulkJobService service = service();
+
+        BulkJob job = service.create(upload("documentId,title\ndoc-1,Invoice\ndoc-2,\"Report, final\"\ndoc-3,Letter\n"),
+                BulkJobFormat.CSV, "en", "es");
+
+        awaitFinished(job);
+        assertThat(job.getState()).isEqualTo(BulkJob.State.COMPLETED);
+        assertThat(job.getRecordsProcessed()).isEqualTo(3);
+        assertThat(job.getProgress()).isEqualTo(100.0);
+        assertThat(Files.readString(service.outputPath(job))).isEqualTo("""
+                documentId,title,translatedTitle,status,error
+                doc-1,Invoice,es:Invoice,COMPLETED,
+                doc-2,"Report, final","es:Report, final",COMPLETED,
+                doc-3,Letter,es:Letter,COMPLETED,
+                """);
+    }
+
+    @Test
+    void sendsABatchAgainWhileGeminiIsUnavailable() throws Exception {
+        when(translationService.translateBatch(anyList(), eq("en"), eq("es")))
+                .thenThrow(new TranslationUnavailableException("Circuit open"))
+                .thenThrow(new GeminiApiException(429, Duration.ZERO))
+                .thenReturn(List.of("Factura"));
+        BulkJobService service = service();
+
+        BulkJob job = service.create(upload("{\"documentId\":\"doc-1\",\"title\":\"Invoice\"}\n"),
+                BulkJobFormat.NDJSON, "en", "es");
+
+        awaitFinished(job);
+        assertThat(job.getState()).isEqualTo(BulkJob.State.COMPLETED);
+        assertThat(job.getRecordsFailed()).isZero();
+        assertThat(Files.readString(service.outputPath(job))).contains("\"translatedTitle\":\"Factura\"");
+        verify(translationService, times(3)).translateBatch(anyList(), eq("en"), eq("es"));
+    }
+
+    @Test
+    void writesTheRecordsOfABatchThatFailedOtherwiseAsFailed() throws Exception {
+        when(translationService.translateBatch(anyList(), eq("en"), eq("es")))
+                .thenThrow(new IllegalArgumentException("Bad request"));
+        BulkJobService service = service();
+
+        BulkJob job = service.create(upload("doc-1,Invoice\ndoc-2,Report\n"), BulkJobFormat.CSV, "en", "es");
+
+        awaitFinished(job);
+        assertThat(job.getState()).isEqualTo(BulkJob.State.COMPLETED);
+        assertThat(job.getRecordsFailed()).isEqualTo(2);
+        assertThat(Files.readAllLines(service.outputPath(job))).last().isEqualTo("doc-2,Report,,FAILED,Bad request");
+        verify(translationService).translateBatch(anyList(), eq("en"), eq("es"));
+    }
+
+    @Test
+    void resumesAStoppedJobFromItsCheckpointWithoutWritingARecordTwice() throws Exception {
+        CountDownLatch stuck = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(translationService.translateBatch(anyList(), eq("en"), eq("es"))).thenAnswer(invocation -> {
+            List<String> titles = invocation.getArgument(0);
+            if (titles.contains("Report")) {
+                stuck.countDown();
+                release.await();
+            }
+            return titles.stream().map(title -> "es:" + title).toList();
+        });
+        BulkJobService first = service();
+        BulkJob stopped = first.create(upload("doc-1,Invoice\ndoc-2,Letter\ndoc-3,Report\ndoc-4,Memo\n"),
+                BulkJobFormat.CSV, "en", "es");
+
+        // Killed while the second batch is translated, with part of it written past the checkpoint
+        assertThat(stuck.await(10, TimeUnit.SECONDS)).isTrue();
+        first.shutdown();
+        release.countDown();
+        Files.writeString(first.outputPath(stopped), "doc-3,Report,es:Rep", StandardOpenOption.APPEND);
+
+        BulkJobService second = service();
+        second.resumeJobs();
+        BulkJob resumed = second.get(stopped.getId());
+
+        awaitFinished(resumed);
+        assertThat(resumed.getState()).isEqualTo(BulkJob.State.COMPLETED);
+        assertThat(resumed.getRecordsProcessed()).isEqualTo(4);
+        assertThat(Files.readString(second.outputPath(resumed))).isEqualTo("""
+                documentId,title,translatedTitle,status,error
+                doc-1,Invoice,es:Invoice,COMPLETED,
+                doc-2,Letter,es:Letter,COMPLETED,
+                doc-3,Report,es:Report,COMPLETED,
+                doc-4,Memo,es:Memo,COMPLETED,
+                """);
+    }
+
+    private BulkJobService service() {
+        BulkJobService service = new BulkJobService(translationService, new TaskExecutorAdapter(translationThreads),
+                root.toString(), 2, 1, 1, 1 << 20, 1, new SimpleMeterRegistry());
+        services.add(service);
+        return service;
+    }
+
+    private void answerWithPrefix() {
+        when(translationService.translateBatch(anyList(), eq("en"), eq("es"))).thenAnswer(invocation -> {
+            List<String> titles = invocation.getArgument(0);
+            return titles.stream().map(title -> "es:" + title).toList();
+        });
+    }
+
+    private static ByteArrayInputStream upload(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void awaitFinished(BulkJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(job.isFinished()).as("job finished").isTrue();
+    }
+}
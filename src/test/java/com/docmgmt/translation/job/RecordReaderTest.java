@@ -0,0 +1,65 @@
+package com.docmgmt.translation.job;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecordReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsLinesAndKnowsTheOffsetAfterEach() throws IOException {
+        Path path = write("﻿doc-1,Rechnung\r\n\ndoc-2,Überweisung");
+
+        try (RecordReader reader = new RecordReader(path, 0, false)) {
+            assertThat(reader.next()).isEqualTo("doc-1,Rechnung");
+            long afterFirst = reader.position();
+            assertThat(afterFirst).isEqualTo("﻿doc-1,Rechnung\r\n".getBytes(StandardCharsets.UTF_8).length);
+            assertThat(reader.next()).isEmpty();
+            assertThat(reader.next()).isEqualTo("doc-2,Überweisung");
+            assertThat(reader.next()).isNull();
+            assertThat(reader.position()).isEqualTo(Files.size(path));
+        }
+    }
+
+    @Test
+    void resumesFromAnOffset() throws IOException {
+        Path path = write("doc-1,Invoice\ndoc-2,Report\ndoc-3,Letter\n");
+        long offset;
+        try (RecordReader reader = new RecordReader(path, 0, false)) {
+            reader.next();
+            offset = reader.position();
+        }
+
+        try (RecordReader reader = new RecordReader(path, offset, false)) {
+            assertThat(reader.next()).isEqualTo("doc-2,Report");
+            assertThat(reader.next()).isEqualTo("doc-3,Letter");
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void keepsLineBreaksInsideQuotesInOneRecord() throws IOException {
+        Path path = write("doc-1,\"Invoice\nfor March\"\ndoc-2,Report\n");
+
+        try (RecordReader reader = new RecordReader(path, 0, true)) {
+            assertThat(reader.next()).isEqualTo("doc-1,\"Invoice\nfor March\"");
+            assertThat(reader.next()).isEqualTo("doc-2,Report");
+        }
+        try (RecordReader reader = new RecordReader(path, 0, false)) {
+            assertThat(reader.next()).isEqualTo("doc-1,\"Invoice");
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(dir.resolve("input"), content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,145 @@
+package com.docmgmt.translation.kafka;
+
+import com.docmgmt.translation.service.GeminiRateGovernor;
+import com.docmgmt.translation.service.GeminiRateGovernors;
+import com.docmgmt.translation.service.Lane;
+import com.docmgmt.translation.service.TranslationScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BackpressureControllerTest {
+
+    private static final TopicPartition P0 = new TopicPartition("translation-request", 0);
+    private static final TopicPartition P1 = new TopicPartition("translation-request", 1);
+    private static final TopicPartition P2 = new TopicPartition("translation-request", 2);
+
+    private final TranslationScheduler translationScheduler = mock(TranslationScheduler.class);
+    private final GeminiRateGovernors governors = mock(GeminiRateGovernors.class);
+    private final GeminiRateGovernor governor = mock(GeminiRateGovernor.class);
+    private final OffsetTracker offsetTracker = mock(OffsetTracker.class);
+    private final KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+    private BackpressureController controller;
+
+    @BeforeEach
+    void assignPartitions() {
+        when(governors.all()).thenReturn(List.of(governor));
+        when(governor.getConcurrencyLimit()).thenReturn(4);
+        when(registry.getListenerContainer(KafkaConsumer.LISTENER_ID)).thenReturn(container);
+        when(container.getAssignedPartitions()).thenReturn(List.of(P0, P1));
+        // Checked by hand only: the scheduled check is an hour away
+        controller = new BackpressureController(translationScheduler, governors, offsetTracker, registry,
+                64, 3_600_000, 0.9, 0.5, 2, 0.5, 40, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void shutdown() {
+        controller.shutdown();
+    }
+
+    @Test
+    void pausesAtTheHighWatermarkAndResumesOnlyBelowTheLowOne() {
+        lanes(0.95);
+        controller.check();
+        verify(container).pausePartition(P0);
+        verify(container).pausePartition(P1);
+
+        // Between the watermarks the topic stays paused
+        lanes(0.7);
+        controller.check();
+        verify(container, never()).resumePartition(any());
+        assertThat(controller.describe()).containsEntry("paused", true);
+
+        lanes(0.4);
+        controller.check();
+        verify(container).resumePartition(P0);
+        verify(container).resumePartition(P1);
+        assertThat(controller.describe()).containsEntry("paused", false);
+
+        // And between them again it stays running
+        clearInvocations(container);
+        lanes(0.7);
+        controller.check();
+        verify(container, never()).pausePartition(any());
+    }
+
+    @Test
+    void pausesPartitionsAssignedWhilePausedAndResumesRevokedOnes() {
+        lanes(0.95);
+        controller.check();
+
+        when(container.getAssignedPartitions()).thenReturn(List.of(P1, P2));
+        controller.check();
+        verify(container).pausePartition(P2);
+        assertThat(controller.describe().get("pausedPartitions")).asString().contains("translation-request-2");
+
+        lanes(0.1);
+        controller.check();
+        // P0 went to another consumer while paused; its pause must not outlive the reassignment
+        verify(container).resumePartition(P0);
+        verify(container).resumePartition(P1);
+        verify(container).resumePartition(P2);
+    }
+
+    @Test
+    void measuresEachSignalAsAShareOfWhatItCanBear() {
+        when(offsetTracker.pending()).thenReturn(32);
+        when(governor.getQueueDepth()).thenReturn(4);
+        lanes(0.25);
+
+        controller.check();
+
+        assertThat(pressure()).containsEntry("LANES", 0.25)
+                .containsEntry("IN_FLIGHT", 0.5)
+                .containsEntry("GOVERNOR", 0.5);
+        verify(container, never()).pausePartition(any());
+    }
+
+    @Test
+    void pausesForCallsQueuedOnAGovernor() {
+        when(governor.getQueueDepth()).thenReturn(8);
+
+        controller.check();
+
+        assertThat(pressure()).containsEntry("GOVERNOR", 1.0);
+        verify(container).pausePartition(P0);
+    }
+
+    @Test
+    void pausesWhileAListenerCallRunsPastItsShareOfThePollInterval() throws InterruptedException {
+        long start = controller.listenerStarted();
+        Thread.sleep(30); // Past the budget of half of 40 ms
+        controller.check();
+        verify(container).pausePartition(P0);
+
+        controller.listenerFinished(start);
+        controller.check();
+        verify(container).resumePartition(P0);
+    }
+
+    private void lanes(double utilization) {
+        when(translationScheduler.utilization(Lane.NORMAL)).thenReturn(utilization);
+        when(translationScheduler.utilization(Lane.BULK)).thenReturn(utilization / 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Double> pressure() {
+        return (Map<String, Double>) controller.describe().get("pressure");
+    }
+}
@@ -0,0 +1,60 @@
+package com.docmgmt.translation.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ConsumerLagMonitorTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final ConsumerLagMonitor.PartitionLag partition = new ConsumerLagMonitor.PartitionLag();
+
+    @Test
+    void seedsTheRatesWithTheFirstMeasuredMove() {
+        partition.update(100, 0, 0, 0.3);
+        assertThat(partition.lag).isEqualTo(100);
+        assertThat(partition.consumeRate).isZero();
+
+        partition.update(200, 50, SECOND, 0.3);
+
+        assertThat(partition.consumeRate).isEqualTo(50.0);
+        assertThat(partition.produceRate).isEqualTo(100.0);
+        assertThat(partition.lag).isEqualTo(150);
+        // Growing, so it never drains at this rate
+        assertThat(partition.drainSeconds()).isInfinite();
+    }
+
+    @Test
+    void averagesLaterMovesAndEstimatesTheDrainTime() {
+        partition.update(100, 0, 0, 0.3);
+        partition.update(200, 50, SECOND, 0.3);
+
+        partition.update(220, 200, 2 * SECOND, 0.3);
+
+        assertThat(partition.consumeRate).isCloseTo(50 + 0.3 * (150 - 50), within(1e-9));
+        assertThat(partition.produceRate).isCloseTo(100 + 0.3 * (20 - 100), within(1e-9));
+        assertThat(partition.lag).isEqualTo(20);
+        assertThat(partition.drainSeconds()).isCloseTo(20 / (80.0 - 76.0), within(1e-9));
+    }
+
+    @Test
+    void takesNoTimeToDrainWithoutLag() {
+        partition.update(100, 100, 0, 0.3);
+        partition.update(100, 100, SECOND, 0.3);
+
+        assertThat(partition.drainSeconds()).isZero();
+    }
+
+    @Test
+    void ignoresOffsetsGoingBackwards() {
+        partition.update(100, 80, 0, 0.3);
+
+        // E.g. the group's offsets were reset
+        partition.update(100, 10, SECOND, 0.3);
+
+        assertThat(partition.consumeRate).isZero();
+        assertThat(partition.lag).isEqualTo(90);
+    }
+}
@@ -0,0 +1,196 @@
+package com.docmgmt.translation.kafka;
+
+import com.docmgmt.translation.cache.IdempotencyStore;
+import com.docmgmt.translation.concurrent.KeyOrderedExecutor;
+import com.docmgmt.translation.model.TranslationRequest;
+import com.docmgmt.translation.model.TranslationResponse;
+import com.docmgmt.translation.service.TranslationServiceInterface;
+import com.docmgmt.translation.service.TranslationUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class KafkaConsumerTest {
+
+    private static final String TOPIC = "translation-request";
+
+    @TempDir
+    Path directory;
+
+    private final TranslationServiceInterface translationService = mock(TranslationServiceInterface.class);
+    private final KafkaProducer kafkaProducer = mock(KafkaProducer.class);
+    private final RetryTopicRouter retryTopicRouter = mock(RetryTopicRouter.class);
+    private final Consumer<?, ?> consumer = mock(Consumer.class);
+    private final List<TranslationResponse> sent = new ArrayList<>();
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void collectResponses() {
+        idempotencyStore = new IdempotencyStore(true, directory.resolve("processed.db").toString(), 1 << 20);
+        doAnswer(invocation -> sent.addAll(invocation.getArgument(0)))
+                .when(kafkaProducer).sendTranslationResponses(anyList());
+        when(retryTopicRouter.scheduleRetry(any(), anyInt(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(retryTopicRouter.sendMalformedToDlq(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void close() {
+        idempotencyStore.close();
+    }
+
+    @Test
+    void translatesEachLaneAndLanguagePairInOneCall() {
+        when(translationService.translateBatch(List.of("Invoice", "Report"), "en", "es"))
+                .thenReturn(List.of("Factura", "Informe"));
+        when(translationService.translateText("Invoice", "en", "fr")).thenReturn("Facture");
+        when(translationService.translateText("Urgent", "en", "es")).thenReturn("Urgente");
+
+        consumer("batch").consumeBatch(records(
+                request("doc-1", "Invoice", "es"),
+                request("doc-2", "Invoice", "fr"),
+                request("doc-3", "Report", "es"),
+                request("doc-4", "Urgent", "es", TranslationRequest.Priority.HIGH)), consumer);
+
+        assertThat(sent).extracting(TranslationResponse::getDocumentId)
+                .containsExactly("doc-1", "doc-2", "doc-3", "doc-4");
+        assertThat(sent).extracting(TranslationResponse::getTranslatedTitle)
+                .containsExactly("Factura", "Facture", "Informe", "Urgente");
+    }
+
+    @Test
+    void answersRequestsAlreadyTranslatedFromTheIdempotencyStore() {
+        idempotencyStore.record("doc-1", "en", "es", List.of("Invoice"), List.of("Factura"));
+
+        consumer("batch").consumeBatch(records(request("doc-1", "Invoice", "es")), consumer);
+
+        verifyNoInteractions(translationService);
+        assertThat(sent).extracting(TranslationResponse::getTranslatedTitle).containsExactly("Factura");
+    }
+
+    @Test
+    void translatesAgainADocumentResentWithAnotherSourceLanguage() {
+        idempotencyStore.record("doc-1", "en", "es", List.of("Invoice"), List.of("Factura"));
+        TranslationRequest request = request("doc-1", "Invoice", "es");
+        request.setSourceLanguage("fr");
+        when(translationService.translateText("Invoice", "fr", "es")).thenReturn("Factura (fr)");
+
+        consumer("batch").consumeBatch(records(request), consumer);
+
+        assertThat(sent).extracting(TranslationResponse::getTranslatedTitle).containsExactly("Factura (fr)");
+    }
+
+    @Test
+    void defersTheBatchFromTheFirstRecordNotTranslated() {
+        when(translationService.translateText("Invoice", "en", "es")).thenReturn("Factura");
+        when(translationService.translateText("Report", "en", "fr"))
+                .thenThrow(new TranslationUnavailableException("Circuit open"));
+
+        assertThatThrownBy(() -> consumer("batch").consumeBatch(records(
+                request("doc-1", "Invoice", "es"),
+                request("doc-2", "Report", "fr")), consumer))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getIndex()).isEqualTo(1));
+        assertThat(sent).extracting(TranslationResponse::getDocumentId).containsExactly("doc-1");
+    }
+
+    @Test
+    void leavesTheRecordsFromTheDeferredOneToTheRedelivery() {
+        when(translationService.translateText("Invoice", "en", "de")).thenThrow(new RuntimeException("Bad request"));
+        when(translationService.translateBatch(List.of("Invoice", "Report"), "en", "es"))
+                .thenReturn(List.of("Factura", "Informe"));
+        when(translationService.translateText("Invoice", "en", "fr"))
+                .thenThrow(new TranslationUnavailableException("Circuit open"));
+        List<ConsumerRecord<String, TranslationRequest>> records = records(
+                request("doc-1", "Invoice", "de"),
+                request("doc-2", "Invoice", "es"),
+                request("doc-3", "Invoice", "fr"),
+                request("doc-4", "Report", "es"));
+        records.add(new ConsumerRecord<>(TOPIC, 0, 4, "doc-5", null));
+
+        assertThatThrownBy(() -> consumer("batch").consumeBatch(records, consumer))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getIndex()).isEqualTo(2));
+        assertThat(sent).extracting(TranslationResponse::getDocumentId).containsExactly("doc-2");
+        verify(retryTopicRouter).scheduleRetry(eq(records.get(0).value()), eq(0), any(Exception.class));
+        verify(retryTopicRouter, never()).sendMalformedToDlq(any(), any(), any());
+    }
+
+    @Test
+    void leavesTheRecordsFromTheFirstDeferredOneToTheRedeliveryPerRecord() {
+        when(translationService.translateText("Invoice", "en", "es")).thenReturn("Factura");
+        when(translationService.translateText("Invoice", "en", "fr"))
+                .thenThrow(new TranslationUnavailableException("Circuit open"));
+        when(translationService.translateText("Invoice", "en", "de")).thenThrow(new RuntimeException("Bad request"));
+
+        assertThatThrownBy(() -> consumer(KafkaConsumer.PER_RECORD).consumeBatch(records(
+                request("doc-1", "Invoice", "es"),
+                request("doc-2", "Invoice", "fr"),
+                request("doc-3", "Invoice", "de")), consumer))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getIndex()).isEqualTo(1));
+        assertThat(sent).extracting(TranslationResponse::getDocumentId).containsExactly("doc-1");
+        verify(retryTopicRouter, never()).scheduleRetry(any(), anyInt(), any());
+    }
+
+    @Test
+    void schedulesAFailedGroupForRetryInsteadOfAnsweringIt() {
+        when(translationService.translateText("Invoice", "en", "es")).thenThrow(new RuntimeException("Bad request"));
+
+        consumer("batch").consumeBatch(records(request("doc-1", "Invoice", "es")), consumer);
+
+        verify(retryTopicRouter).scheduleRetry(any(TranslationRequest.class), eq(0), any(Exception.class));
+        assertThat(sent).isEmpty();
+    }
+
+    private KafkaConsumer consumer(String dispatchMode) {
+        return new KafkaConsumer(translationService, kafkaProducer, retryTopicRouter,
+                new KeyOrderedExecutor(Runnable::run, 16), idempotencyStore, new OffsetTracker(),
+                mock(BackpressureController.class), dispatchMode, new SimpleMeterRegistry());
+    }
+
+    private static List<ConsumerRecord<String, TranslationRequest>> records(TranslationRequest... requests) {
+        List<ConsumerRecord<String, TranslationRequest>> records = new ArrayList<>(requests.length);
+        for (int i = 0; i < requests.length; i++) {
+            records.add(new ConsumerRecord<>(TOPIC, 0, i, requests[i].getDocumentId(), requests[i]));
+        }
+        return records;
+    }
+
+    private static TranslationRequest request(String documentId, String title, String targetLanguage) {
+        return request(documentId, title, targetLanguage, TranslationRequest.Priority.NORMAL);
+    }
+
+    private static TranslationRequest request(String documentId, String title, String targetLanguage,
+                                              TranslationRequest.Priority priority) {
+        TranslationRequest request = new TranslationRequest();
+        request.setDocumentId(documentId);
+        request.setTitle(title);
+        request.setSourceLanguage("en");
+        request.setTargetLanguage(targetLanguage);
+        request.setPriority(priority);
+        return request;
+    }
+}
@@ -0,0 +1,134 @@
+package com.docmgmt.translation.kafka;
+
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffsetTrackerTest {
+
+    private static final TopicPartition P0 = new TopicPartition("translation-topic", 0);
+    private static final TopicPartition P1 = new TopicPartition("translation-topic", 1);
+
+    private final OffsetTracker tracker = new OffsetTracker();
+    private final MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+
+    @BeforeEach
+    void assign() {
+        consumer.assign(List.of(P0, P1));
+        consumer.updateBeginningOffsets(Map.of(P0, 0L, P1, 0L));
+    }
+
+    @Test
+    void commitsUpToTheLowestUnfinishedRecord() {
+        OffsetTracker.Tracked first = tracker.register(P0, 0);
+        OffsetTracker.Tracked second = tracker.register(P0, 1);
+        OffsetTracker.Tracked third = tracker.register(P0, 2);
+
+        third.finish();
+        second.finish();
+        tracker.commit(consumer);
+        assertThat(committed(P0)).isEqualTo(0);
+
+        first.finish();
+        tracker.commit(consumer);
+        assertThat(committed(P0)).isEqualTo(3);
+        assertThat(tracker.pending()).isZero();
+    }
+
+    @Test
+    void tracksPartitionsSeparately() {
+        OffsetTracker.Tracked slow = tracker.register(P0, 0);
+        tracker.register(P1, 0).finish();
+        tracker.register(P1, 1).finish();
+
+        tracker.commit(consumer);
+        assertThat(committed(P0)).isEqualTo(0);
+        assertThat(committed(P1)).isEqualTo(2);
+        assertThat(tracker.pending()).isEqualTo(1);
+
+        slow.finish();
+        tracker.commit(consumer);
+        assertThat(committed(P0)).isEqualTo(1);
+    }
+
+    @Test
+    void commitsTheFinishedPrefixOfRevokedPartitions() {
+        tracker.register(P0, 0).finish();
+        OffsetTracker.Tracked running = tracker.register(P0, 1);
+        tracker.register(P0, 2).finish();
+
+        tracker.onPartitionsRevokedBeforeCommit(consumer, List.of(P0));
+        assertThat(committed(P0)).isEqualTo(1);
+        assertThat(tracker.pending()).isZero();
+
+        // Redelivered to the partition's new owner
+        running.finish();
+        tracker.commit(consumer);
+        assertThat(committed(P0)).isEqualTo(1);
+    }
+
+    @Test
+    void rewindsAPartitionToItsFirstUnfinishedRecord() {
+        OffsetTracker.Tracked first = tracker.register(P0, 10);
+        OffsetTracker.Tracked second = tracker.register(P0, 11);
+        OffsetTracker.Tracked third = tracker.register(P0, 12);
+        first.finish();
+        third.redeliver();
+
+        Set<TopicPartition> rewound = tracker.rewindFailed(consumer);
+
+        assertThat(rewound).containsExactly(P0);
+        assertThat(consumer.position(P0)).isEqualTo(11);
+        assertThat(committed(P0)).isEqualTo(11);
+        assertThat(tracker.pending()).isZero();
+
+        // Records of the rewound partition are consumed again, so marking the old ones does nothing
+        second.finish();
+        third.finish();
+        tracker.commit(consumer);
+        assertThat(committed(P0)).isEqualTo(11);
+    }
+
+    @Test
+    void holdsCommitsAtARecordToRedeliver() {
+        OffsetTracker.Tracked failed = tracker.register(P0, 5);
+        tracker.register(P0, 6).finish();
+        failed.redeliver();
+
+        tracker.commit(consumer);
+        assertThat(committed(P0)).isEqualTo(5);
+    }
+
+    @Test
+    void leavesPartitionsWithoutFailuresAlone() {
+        tracker.register(P0, 3).finish();
+        OffsetTracker.Tracked running = tracker.register(P1, 7);
+        tracker.register(P1, 8).redeliver();
+        consumer.seek(P0, 4);
+
+        assertThat(tracker.rewindFailed(consumer)).containsExactly(P1);
+        assertThat(consumer.position(P0)).isEqualTo(4);
+        assertThat(consumer.position(P1)).isEqualTo(7);
+
+        // The rewound partition is tracked afresh
+        running.finish();
+        tracker.register(P1, 7).finish();
+        tracker.commit(consumer);
+        assertThat(committed(P1)).isEqualTo(8);
+        assertThat(committed(P0)).isEqualTo(4);
+    }
+
+    private Long committed(TopicPartition partition) {
+        OffsetAndMetadata committed = consumer.committed(Set.of(partition)).get(partition);
+        return committed != null ? committed.offset() : null;
+    }
+}
@@ -0,0 +1,133 @@
+package com.docmgmt.translation.kafka;
+
+import com.docmgmt.translation.model.TranslationRequest;
+import com.docmgmt.translation.model.TranslationResponse;
+import com.docmgmt.translation.service.CircuitBreaker;
+import com.docmgmt.translation.service.TranslationServiceInterface;
+import com.docmgmt.translation.service.TranslationUnavailableException;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RetryTopicConsumerTest {
+
+    private static final String TIER = "translation-request.retry-5000";
+    private static final TopicPartition PARTITION = new TopicPartition(TIER, 0);
+
+    private final TranslationServiceInterface translationService = mock(TranslationServiceInterface.class);
+    private final KafkaProducer kafkaProducer = mock(KafkaProducer.class);
+    private final RetryTopicRouter retryTopicRouter = mock(RetryTopicRouter.class);
+    private final CircuitBreaker circuitBreaker = mock(CircuitBreaker.class);
+    private final KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+    private final Consumer<?, ?> consumer = mock(Consumer.class);
+    private final Acknowledgment acknowledgment = mock(Acknowledgment.class);
+    private final RetryTopicConsumer retryTopicConsumer =
+            new RetryTopicConsumer(translationService, kafkaProducer, retryTopicRouter, circuitBreaker, registry);
+
+    @BeforeEach
+    void acknowledgeEverything() {
+        when(registry.getListenerContainer(RetryTopicConsumer.LISTENER_ID)).thenReturn(container);
+        when(kafkaProducer.sendTranslationResponse(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(retryTopicRouter.scheduleRetry(any(), anyInt(), any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void shutdown() {
+        retryTopicConsumer.shutdown();
+    }
+
+    @Test
+    void pausesAndRewindsThePartitionUntilTheRecordIsDue() {
+        retryTopicConsumer.consumeRetry(record(7, System.currentTimeMillis() + 1000, 1), acknowledgment, consumer);
+        // Already fetched behind the waiting record; it is redelivered after the rewind
+        retryTopicConsumer.consumeRetry(record(8, 0, 1), acknowledgment, consumer);
+
+        verify(consumer).seek(PARTITION, 7);
+        verify(container).pausePartition(PARTITION);
+        verifyNoInteractions(translationService, acknowledgment);
+        verify(container, timeout(5000)).resumePartition(PARTITION);
+    }
+
+    @Test
+    void answersADueRecordAndAcknowledgesIt() {
+        when(translationService.translateText("Invoice", "en", "es")).thenReturn("Factura");
+
+        retryTopicConsumer.consumeRetry(record(7, System.currentTimeMillis() - 1, 1), acknowledgment, consumer);
+
+        verify(kafkaProducer).sendTranslationResponse(any(TranslationResponse.class));
+        verify(acknowledgment).acknowledge();
+        verify(container, never()).pausePartition(any());
+    }
+
+    @Test
+    void movesAFailedRetryToTheNextTierBeforeAcknowledgingIt() {
+        RuntimeException failure = new RuntimeException("Bad gateway");
+        when(translationService.translateText("Invoice", "en", "es")).thenThrow(failure);
+
+        ConsumerRecord<String, Object> record = record(7, 0, 2);
+        retryTopicConsumer.consumeRetry(record, acknowledgment, consumer);
+
+        verify(retryTopicRouter).scheduleRetry((TranslationRequest) record.value(), 2, failure);
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void leavesARetryTheNextTierDidNotTakeUnacknowledged() {
+        when(translationService.translateText("Invoice", "en", "es")).thenThrow(new RuntimeException("Bad gateway"));
+        when(retryTopicRouter.scheduleRetry(any(), anyInt(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker down")));
+
+        retryTopicConsumer.consumeRetry(record(7, 0, 2), acknowledgment, consumer);
+
+        verify(acknowledgment, never()).acknowledge();
+        verify(consumer).seek(PARTITION, 7);
+        verify(container).pausePartition(PARTITION);
+    }
+
+    @Test
+    void waitsOutAnOpenCircuitWithoutSpendingAnAttempt() {
+        when(translationService.translateText("Invoice", "en", "es"))
+                .thenThrow(new TranslationUnavailableException("Circuit open"));
+        when(circuitBreaker.remainingOpenMillis()).thenReturn(60_000L);
+
+        retryTopicConsumer.consumeRetry(record(7, 0, 1), acknowledgment, consumer);
+
+        verify(retryTopicRouter, never()).scheduleRetry(any(), anyInt(), any());
+        verify(acknowledgment, never()).acknowledge();
+        verify(consumer).seek(PARTITION, 7);
+        verify(container).pausePartition(PARTITION);
+        verify(container, never()).resumePartition(eq(PARTITION));
+    }
+
+    private static ConsumerRecord<String, Object> record(long offset, long dueAt, int attempt) {
+        TranslationRequest request = new TranslationRequest();
+        request.setDocumentId("doc-1");
+        request.setTitle("Invoice");
+        request.setSourceLanguage("en");
+        request.setTargetLanguage("es");
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>(TIER, 0, offset, "doc-1", request);
+        record.headers().add(RetryTopicRouter.ATTEMPT_HEADER, String.valueOf(attempt).getBytes(StandardCharsets.UTF_8));
+        record.headers().add(RetryTopicRouter.DUE_AT_HEADER, String.valueOf(dueAt).getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
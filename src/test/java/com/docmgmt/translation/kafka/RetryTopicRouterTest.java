@@ -0,0 +1,122 @@
+package com.docmgmt.translation.kafka;
+
+import com.docmgmt.translation.model.TranslationRequest;
+import com.docmgmt.translation.model.TranslationResponse;
+import com.docmgmt.translation.model.TranslationResponse.Status;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RetryTopicRouterTest {
+
+    private static final String TOPIC = "translation-request";
+    private static final String DLQ = "translation-request.dlq";
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final KafkaProducer kafkaProducer = mock(KafkaProducer.class);
+    private final RetryTopicRouter router = new RetryTopicRouter(kafkaTemplate, kafkaProducer, TOPIC, DLQ,
+            4, 5000, 6, 300_000);
+
+    @BeforeEach
+    void acknowledgeEverything() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        when(kafkaProducer.sendTranslationResponse(any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void namesATierPerAttemptWithEscalatingDelaysUpToTheCap() {
+        assertThat(router.getTopicNames()).containsExactly(
+                TOPIC + ".retry-5000", TOPIC + ".retry-30000", TOPIC + ".retry-180000", TOPIC + ".retry-300000");
+    }
+
+    @Test
+    void stampsARetryWithItsAttemptAndWhenItIsDue() {
+        long before = System.currentTimeMillis();
+
+        assertThat(router.scheduleRetry(request(), 1, new RuntimeException("Bad gateway"))).isCompleted();
+
+        ProducerRecord<String, Object> record = sent();
+        assertThat(record.topic()).isEqualTo(TOPIC + ".retry-30000");
+        assertThat(header(record, RetryTopicRouter.ATTEMPT_HEADER)).isEqualTo("2");
+        assertThat(Long.parseLong(header(record, RetryTopicRouter.DUE_AT_HEADER)))
+                .isBetween(before + 30_000, System.currentTimeMillis() + 30_000);
+        assertThat(header(record, RetryTopicRouter.EXCEPTION_MESSAGE_HEADER)).isEqualTo("Bad gateway");
+        verify(kafkaProducer, never()).sendTranslationResponse(any());
+    }
+
+    @Test
+    void movesARequestThatExhaustedEveryTierToTheDlqAndAnswersItAsFailed() {
+        TranslationRequest request = request();
+
+        assertThat(router.scheduleRetry(request, 4, new IllegalStateException("Still failing"))).isCompleted();
+
+        ProducerRecord<String, Object> record = sent();
+        assertThat(record.topic()).isEqualTo(DLQ);
+        assertThat(record.key()).isEqualTo("doc-1");
+        assertThat(record.value()).isSameAs(request);
+        assertThat(header(record, RetryTopicRouter.ATTEMPT_HEADER)).isEqualTo("4");
+        assertThat(header(record, RetryTopicRouter.ORIGINAL_TOPIC_HEADER)).isEqualTo(TOPIC);
+        assertThat(header(record, RetryTopicRouter.EXCEPTION_CLASS_HEADER))
+                .isEqualTo(IllegalStateException.class.getName());
+        assertThat(header(record, RetryTopicRouter.EXCEPTION_MESSAGE_HEADER)).isEqualTo("Still failing");
+        assertThat(record.headers().lastHeader(RetryTopicRouter.DUE_AT_HEADER)).isNull();
+
+        ArgumentCaptor<TranslationResponse> response = ArgumentCaptor.forClass(TranslationResponse.class);
+        verify(kafkaProducer).sendTranslationResponse(response.capture());
+        assertThat(response.getValue().getStatus()).isEqualTo(Status.FAILED);
+        assertThat(response.getValue().getError()).isEqualTo("Still failing");
+    }
+
+    @Test
+    void sendsAMalformedMessageStraightToTheDlq() {
+        assertThat(router.sendMalformedToDlq("doc-1", "{not json", "Unreadable payload")).isCompleted();
+
+        ProducerRecord<String, Object> record = sent();
+        assertThat(record.topic()).isEqualTo(DLQ);
+        assertThat(record.value()).isEqualTo("{not json");
+        assertThat(header(record, RetryTopicRouter.EXCEPTION_MESSAGE_HEADER)).isEqualTo("Unreadable payload");
+        assertThat(header(record, RetryTopicRouter.ORIGINAL_TOPIC_HEADER)).isEqualTo(TOPIC);
+    }
+
+    @Test
+    void failsTheHandoffWhenTheBrokerDoesNotTakeIt() {
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker down")));
+
+        assertThat(router.scheduleRetry(request(), 0, new RuntimeException("Bad gateway")))
+                .isCompletedExceptionally();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProducerRecord<String, Object> sent() {
+        ArgumentCaptor<ProducerRecord<String, Object>> record = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(record.capture());
+        return record.getValue();
+    }
+
+    private static String header(ProducerRecord<?, ?> record, String name) {
+        return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+
+    private static TranslationRequest request() {
+        TranslationRequest request = new TranslationRequest();
+        request.setDocumentId("doc-1");
+        request.setTitle("Invoice");
+        request.setSourceLanguage("en");
+        request.setTargetLanguage("es");
+        return request;
+    }
+}
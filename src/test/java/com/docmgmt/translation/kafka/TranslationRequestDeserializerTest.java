@@ -0,0 +1,75 @@
+package com.docmgmt.translation.kafka;
+
+import com.docmgmt.translation.model.TranslationRequest;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TranslationRequestDeserializerTest {
+
+    private final TranslationRequestDeserializer deserializer = new TranslationRequestDeserializer();
+
+    @Test
+    void readsLegacyMessagesSplitAtTheFirstColon() {
+        TranslationRequest request = read("42:Año fiscal: resumen");
+
+        assertThat(request.getDocumentId()).isEqualTo("42");
+        assertThat(request.getTitle()).isEqualTo("Año fiscal: resumen");
+        assertThat(request.getSourceLanguage()).isEqualTo("en");
+        assertThat(request.getTargetLanguage()).isEqualTo("es");
+    }
+
+    @Test
+    void readsEveryJsonField() {
+        TranslationRequest request = read("""
+                 {"version":1, "documentId":"42", "title":"Annual Financial Report",
+                  "sourceLanguage":"en", "targetLanguage":"de", "targetLanguages":["de","fr"],
+                  "priority":"high", "deadline":"2024-05-01T12:00:00Z",
+                  "fields":{"summary":"Revenue grew."}}""");
+
+        assertThat(request.getDocumentId()).isEqualTo("42");
+        assertThat(request.getTitle()).isEqualTo("Annual Financial Report");
+        assertThat(request.getTargetLanguage()).isEqualTo("de");
+        assertThat(request.getTargetLanguages()).containsExactly("de", "fr");
+        assertThat(request.getPriority()).isEqualTo(TranslationRequest.Priority.HIGH);
+        assertThat(request.getDeadline()).isEqualTo(1714564800000L);
+        assertThat(request.getFields()).isEqualTo(Map.of("summary", "Revenue grew."));
+    }
+
+    @Test
+    void skipsUnknownFieldsAndNulls() {
+        TranslationRequest request = read("""
+                {"documentId":"42", "tenant":{"id":7, "tags":["a"]}, "title":"Report",
+                 "deadline":1714564800000, "priority":null, "targetLanguages":null}""");
+
+        assertThat(request.getTitle()).isEqualTo("Report");
+        assertThat(request.getDeadline()).isEqualTo(1714564800000L);
+        assertThat(request.getPriority()).isEqualTo(TranslationRequest.Priority.NORMAL);
+        assertThat(request.getTargetLanguages()).isNull();
+    }
+
+    @Test
+    void rejectsMalformedRequests() {
+        for (String message : List.of("", "no colon", ":title only", "{\"documentId\":\"42\"}",
+                "{\"version\":2, \"documentId\":\"42\", \"title\":\"Report\"}",
+                "{\"documentId\":\"42\", \"title\":\"Report\", \"priority\":\"URGENT\"}",
+                "{\"documentId\":\"42\", \"title\":\"Report\", \"deadline\":\"tomorrow\"}",
+                "{\"documentId\":\"42\", \"title\":\"Report\", \"targetLanguages\":\"de\"}",
+                "{\"documentId\":\"42\", \"title\":\"Report\", \"fields\":{\"summary\":1}}",
+                "{\"documentId\":\"42\", \"title\":")) {
+            assertThatThrownBy(() -> read(message)).as(message).isInstanceOf(SerializationException.class);
+        }
+        assertThatThrownBy(() -> deserializer.deserialize("translation-topic", null))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    private TranslationRequest read(String message) {
+        return deserializer.deserialize("translation-topic", message.getBytes(StandardCharsets.UTF_8));
+    }
+}
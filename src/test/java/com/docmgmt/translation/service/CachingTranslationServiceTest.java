@@ -0,0 +1,91 @@
+package com.docmgmt.translation.service;
+
+import com.docmgmt.translation.cache.TieredTranslationCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingTranslationServiceTest {
+
+    private final GeminiTranslationService gemini = mock(GeminiTranslationService.class);
+    private final TieredTranslationCache cache = new TieredTranslationCache(1 << 20, false, "unused", 0);
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("app.routing.backends", "gemini-test,stand-in")
+            .withProperty("app.routing.backend[stand-in].type", "local")
+            .withProperty("app.routing.hedge.enabled", "false");
+    private TranslationRouter router;
+
+    @AfterEach
+    void shutdown() {
+        if (router != null) {
+            router.shutdown();
+        }
+    }
+
+    @Test
+    void cachesTranslationsUnderTheModelThatAnswered() {
+        environment.setProperty("app.routing.backend[stand-in].cost", "10");
+        when(gemini.translateTextAsync("Invoice", "en", "es")).thenReturn(CompletableFuture.completedFuture("Factura"));
+        CachingTranslationService service = service();
+
+        assertThat(service.translateTextAsync("Invoice", "en", "es").join()).isEqualTo("Factura");
+        assertThat(cache.get(TieredTranslationCache.key("Invoice", "en", "es", "gemini-test"))).isEqualTo("Factura");
+    }
+
+    @Test
+    void neverCachesTheStandInsAnswers() {
+        environment.setProperty("app.routing.backend[stand-in].cost", "0.1");
+        CachingTranslationService service = service();
+
+        assertThat(service.translateTextAsync("Invoice", "en", "es").join()).isEqualTo("[es] Invoice");
+        assertThat(service.translateBatch(List.of("Report"), "en", "es")).containsExactly("[es] Report");
+        assertThat(cache.get(TieredTranslationCache.key("Invoice", "en", "es", "gemini-test"))).isNull();
+        assertThat(cache.get(TieredTranslationCache.key("Report", "en", "es", "gemini-test"))).isNull();
+    }
+
+    @Test
+    void servesBatchesFromEveryModelRoutedTo() {
+        environment.setProperty("app.routing.backend[stand-in].cost", "10");
+        cache.put(TieredTranslationCache.key("Invoice", "en", "es", "gemini-test"), "Factura");
+        when(gemini.translateBatch(eq(List.of("Report")), anyString(), anyString())).thenReturn(List.of("Informe"));
+        CachingTranslationService service = service();
+
+        assertThat(service.translateBatch(List.of("Invoice", "Report", "Report "), "en", "es"))
+                .containsExactly("Factura", "Informe", "Informe");
+        assertThat(cache.get(TieredTranslationCache.key("Report", "en", "es", "gemini-test"))).isEqualTo("Informe");
+    }
+
+    @Test
+    void memoryLearnsOnlyWhatGeminiTranslated() {
+        environment.setProperty("app.routing.backend[stand-in].cost", "0.1");
+        TranslationMemory memory = mock(TranslationMemory.class);
+        router = router();
+        TranslationMemoryService service = new TranslationMemoryService(router, memory);
+
+        assertThat(service.translateBatch(List.of("Invoice #1234"), "en", "es")).containsExactly("[es] Invoice #1234");
+        verify(memory, never()).learn(anyString(), anyString(), anyString(), anyString());
+    }
+
+    private CachingTranslationService service() {
+        router = router();
+        assertThat(router.getModels()).containsExactly("gemini-test");
+        return new CachingTranslationService(router, cache, router.getModels());
+    }
+
+    private TranslationRouter router() {
+        when(gemini.getModel()).thenReturn("gemini-test");
+        return new TranslationRouter(gemini, environment, new SimpleMeterRegistry());
+    }
+}
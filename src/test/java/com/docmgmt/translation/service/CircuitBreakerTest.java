@@ -0,0 +1,107 @@
+package com.docmgmt.translation.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensOnceTheFailureRateReachesTheThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 4, 50, 60_000, 1);
+        call(breaker, false);
+        call(breaker, false);
+        call(breaker, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        call(breaker, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        assertThat(breaker.remainingOpenMillis()).isPositive();
+    }
+
+    @Test
+    void forgetsFailuresThatLeftTheWindow() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 4, 4, 75, 60_000, 1);
+        call(breaker, true);
+        call(breaker, true);
+        for (int i = 0; i < 4; i++) {
+            call(breaker, false);
+        }
+        call(breaker, true);
+        call(breaker, true);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void closesAfterEveryProbeSucceeds() {
+        CircuitBreaker breaker = openBreaker(2);
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void reopensWhenAProbeFails() {
+        CircuitBreaker breaker = openBreaker(2);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void probesThatNeverReachedTheBackendGiveTheirSlotBack() {
+        CircuitBreaker breaker = openBreaker(2);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+
+        // Both probes dropped in the queue: without their slots back the circuit would stay HALF_OPEN for good
+        breaker.onIgnored();
+        breaker.onIgnored();
+        breaker.onIgnored();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void ignoredCallsDoNotCountWhileClosed() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 4, 2, 50, 60_000, 1);
+        for (int i = 0; i < 10; i++) {
+            assertThat(breaker.tryAcquirePermission()).isTrue();
+            breaker.onIgnored();
+        }
+        call(breaker, true);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private static CircuitBreaker openBreaker(int halfOpenProbes) {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 1, 50, 0, halfOpenProbes);
+        call(breaker, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+    private static void call(CircuitBreaker breaker, boolean failure) {
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        if (failure) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+    }
+}
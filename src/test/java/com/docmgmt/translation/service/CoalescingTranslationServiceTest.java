@@ -0,0 +1,116 @@
+package com.docmgmt.translation.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoalescingTranslationServiceTest {
+
+    private final StubService delegate = new StubService();
+    private final CoalescingTranslationService service = new CoalescingTranslationService(delegate);
+
+    @Test
+    void sharesOneCallBetweenIdenticalTranslations() {
+        CompletableFuture<String> first = service.translateTextAsync("Invoice", "en", "es");
+        CompletableFuture<String> second = service.translateTextAsync("Invoice", "en", "es");
+
+        assertThat(delegate.calls).containsExactly("Invoice");
+        delegate.pending.get(0).complete("Factura");
+        assertThat(first.join()).isEqualTo("Factura");
+        assertThat(second.join()).isEqualTo("Factura");
+    }
+
+    @Test
+    void keepsDifferentLanguagesAndLanesApart() {
+        service.translateTextAsync("Invoice", "en", "es");
+        service.translateTextAsync("Invoice", "en", "de");
+        LaneContext.of(Lane.BULK).call(() -> service.translateTextAsync("Invoice", "en", "es"));
+
+        assertThat(delegate.calls).hasSize(3);
+    }
+
+    @Test
+    void failsEveryCallerAndForgetsTheFailedCall() {
+        CompletableFuture<String> first = service.translateTextAsync("Invoice", "en", "es");
+        CompletableFuture<String> second = service.translateTextAsync("Invoice", "en", "es");
+        delegate.pending.get(0).completeExceptionally(new IllegalStateException("Gemini failed"));
+
+        assertThatThrownBy(first::join).isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(second::join).hasCauseInstanceOf(IllegalStateException.class);
+
+        service.translateTextAsync("Invoice", "en", "es");
+        assertThat(delegate.calls).hasSize(2);
+    }
+
+    @Test
+    void forgetsACallThatThrowsBeforeStarting() {
+        delegate.throwOnCall = new TranslationUnavailableException("Bulkhead full");
+        assertThatThrownBy(() -> service.translateTextAsync("Invoice", "en", "es").join())
+                .hasCauseInstanceOf(TranslationUnavailableException.class);
+
+        delegate.throwOnCall = null;
+        CompletableFuture<String> retried = service.translateTextAsync("Invoice", "en", "es");
+        delegate.pending.get(0).complete("Factura");
+        assertThat(retried.join()).isEqualTo("Factura");
+    }
+
+    @Test
+    void batchSendsDistinctTextsAndJoinsTranslationsInFlight() throws Exception {
+        CompletableFuture<String> inFlight = service.translateTextAsync("Invoice", "en", "es");
+        CompletableFuture<List<String>> batch = CompletableFuture.supplyAsync(
+                () -> service.translateBatch(List.of("Report", "Invoice", "Report"), "en", "es"));
+
+        // The batch translates its own text and then waits on the call already in flight
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (delegate.batches.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(delegate.batches).containsExactly(List.of("Report"));
+        assertThat(batch).isNotDone();
+
+        delegate.pending.get(0).complete("Factura");
+        assertThat(batch.get(5, TimeUnit.SECONDS)).containsExactly("[es] Report", "Factura", "[es] Report");
+        assertThat(inFlight.join()).isEqualTo("Factura");
+    }
+
+    private static final class StubService implements TranslationServiceInterface {
+
+        private final List<String> calls = new ArrayList<>();
+        private final List<CompletableFuture<String>> pending = new ArrayList<>();
+        private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+        private RuntimeException throwOnCall;
+
+        @Override
+        public String translateText(String text, String sourceLanguage, String targetLanguage) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public synchronized CompletableFuture<String> translateTextAsync(String text, String sourceLanguage,
+                                                                         String targetLanguage) {
+            if (throwOnCall != null) {
+                throw throwOnCall;
+            }
+            calls.add(text);
+            CompletableFuture<String> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        }
+
+        @Override
+        public synchronized List<String> translateBatch(List<String> texts, String sourceLanguage,
+                                                        String targetLanguage) {
+            batches.add(List.copyOf(texts));
+            return texts.stream().map(text -> "[" + targetLanguage + "] " + text).toList();
+        }
+    }
+}
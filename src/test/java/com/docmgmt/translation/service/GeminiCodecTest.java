@@ -0,0 +1,80 @@
+package com.docmgmt.translation.service;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeminiCodecTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String PROMPT = "Translate \"Rechnung\" \\ Überweisung\n\tinto 日本語 😀";
+
+    private final GeminiCodec codec = new GeminiCodec(objectMapper.getFactory());
+
+    @Test
+    void encodesThePromptSoItReadsBackUnchanged() throws IOException {
+        JsonNode text = objectMapper.readTree(codec.encodeRequest(PROMPT, false));
+        JsonNode json = objectMapper.readTree(codec.encodeRequest(PROMPT, true));
+
+        assertThat(text.path("contents").path(0).path("parts").path(0).path("text").asText()).isEqualTo(PROMPT);
+        assertThat(text.has("generationConfig")).isFalse();
+        assertThat(json.path("contents").path(0).path("parts").path(0).path("text").asText()).isEqualTo(PROMPT);
+        assertThat(json.path("generationConfig").path("responseMimeType").asText()).isEqualTo("application/json");
+    }
+
+    @Test
+    void encodesTheResponseSchemaAsJson() throws IOException {
+        String schema = "{\"type\":\"OBJECT\",\"properties\":{\"es\":{\"type\":\"ARRAY\",\"items\":{\"type\":\"STRING\"}}}}";
+
+        JsonNode request = objectMapper.readTree(codec.encodeRequest(PROMPT, schema));
+
+        assertThat(request.path("contents").path(0).path("parts").path(0).path("text").asText()).isEqualTo(PROMPT);
+        assertThat(request.path("generationConfig").path("responseMimeType").asText()).isEqualTo("application/json");
+        assertThat(request.path("generationConfig").path("responseSchema")).isEqualTo(objectMapper.readTree(schema));
+    }
+
+    @Test
+    void decodesTheFirstPartOfTheFirstCandidateAndTheUsage() throws IOException {
+        String body = """
+                {"candidates":[
+                  {"content":{"role":"model","parts":[{"text":"%s"},{"text":"second part"}]},
+                   "safetyRatings":[{"category":"HARM_CATEGORY_HARASSMENT","probability":"NEGLIGIBLE"}],
+                   "finishReason":"STOP","index":0},
+                  {"content":{"parts":[{"text":"second candidate"}]},"finishReason":"MAX_TOKENS"}],
+                 "usageMetadata":{"promptTokenCount":12,"candidatesTokenCount":7,"totalTokenCount":19},
+                 "modelVersion":"gemini-test"}
+                """.formatted(new String(JsonStringEncoder.getInstance().quoteAsString(PROMPT)));
+
+        GeminiCodec.Response response = codec.decodeResponse(body.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(response.getText()).isEqualTo(PROMPT);
+        assertThat(response.getFinishReason()).isEqualTo("STOP");
+        assertThat(response.getPromptTokenCount()).isEqualTo(12);
+        assertThat(response.getCandidatesTokenCount()).isEqualTo(7);
+    }
+
+    @Test
+    void decodesABlockedPromptWithoutCandidates() throws IOException {
+        byte[] body = "{\"promptFeedback\":{\"blockReason\":\"SAFETY\"}}".getBytes(StandardCharsets.UTF_8);
+
+        GeminiCodec.Response response = codec.decodeResponse(body);
+
+        assertThat(response.getText()).isNull();
+        assertThat(response.getFinishReason()).isNull();
+    }
+
+    @Test
+    void rejectsABodyThatIsNotAJsonObject() {
+        assertThatThrownBy(() -> codec.decodeResponse("[]".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> codec.decodeResponse("Service Unavailable".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,135 @@
+package com.docmgmt.translation.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeminiRateGovernorTest {
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private final MockEnvironment environment = new MockEnvironment();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void queuesCallsBeyondTheConcurrencyLimit() {
+        GeminiRateGovernor governor = governor(1000, 2);
+        CompletableFuture<GeminiRateGovernor.Permit> first = governor.acquire(10);
+        CompletableFuture<GeminiRateGovernor.Permit> second = governor.acquire(10);
+        CompletableFuture<GeminiRateGovernor.Permit> third = governor.acquire(10);
+
+        assertThat(first).isCompleted();
+        assertThat(second).isCompleted();
+        assertThat(third).isNotDone();
+        assertThat(governor.getQueueDepth()).isEqualTo(1);
+
+        first.join().release(GeminiRateGovernor.Outcome.SUCCESS, null);
+        assertThat(third).isCompleted();
+        assertThat(governor.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void releasingAPermitTwiceFreesOneSlot() {
+        GeminiRateGovernor governor = governor(1000, 1);
+        GeminiRateGovernor.Permit permit = governor.acquire(10).join();
+        CompletableFuture<GeminiRateGovernor.Permit> second = governor.acquire(10);
+        CompletableFuture<GeminiRateGovernor.Permit> third = governor.acquire(10);
+
+        permit.release(GeminiRateGovernor.Outcome.FAILED, null);
+        permit.release(GeminiRateGovernor.Outcome.FAILED, null);
+
+        assertThat(second).isCompleted();
+        assertThat(third).isNotDone();
+        assertThat(governor.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void halvesTheLimitAndPausesWhenThrottled() throws Exception {
+        GeminiRateGovernor governor = governor(1000, 4);
+        GeminiRateGovernor.Permit[] permits = new GeminiRateGovernor.Permit[4];
+        for (int i = 0; i < permits.length; i++) {
+            permits[i] = governor.acquire(10).join();
+        }
+        CompletableFuture<GeminiRateGovernor.Permit> waiting = governor.acquire(10);
+
+        permits[0].release(GeminiRateGovernor.Outcome.THROTTLED, Duration.ofMillis(200));
+        permits[1].release(GeminiRateGovernor.Outcome.SUCCESS, null);
+        permits[2].release(GeminiRateGovernor.Outcome.SUCCESS, null);
+
+        assertThat(governor.getConcurrencyLimit()).isEqualTo(2);
+        assertThat(governor.getThrottledCount()).isEqualTo(1);
+        assertThat(waiting).isNotDone();
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    @Test
+    void givesUpTheQueuePlaceOfACancelledCall() {
+        GeminiRateGovernor governor = governor(1000, 1);
+        GeminiRateGovernor.Permit permit = governor.acquire(10).join();
+        CompletableFuture<GeminiRateGovernor.Permit> cancelled = governor.acquire(10);
+        CompletableFuture<GeminiRateGovernor.Permit> next = governor.acquire(10);
+
+        cancelled.cancel(true);
+        permit.release(GeminiRateGovernor.Outcome.SUCCESS, null);
+
+        assertThat(next).isCompleted();
+        assertThat(governor.getInFlight()).isEqualTo(1);
+        assertThat(governor.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void dropsACallWhoseDeadlinePassedWhileQueued() throws Exception {
+        GeminiRateGovernor governor = governor(1000, 1);
+        GeminiRateGovernor.Permit permit = governor.acquire(10).join();
+        CompletableFuture<GeminiRateGovernor.Permit> expiring =
+                governor.acquire(10, LaneContext.of(Lane.NORMAL, System.currentTimeMillis() + 20));
+
+        Thread.sleep(50);
+        permit.release(GeminiRateGovernor.Outcome.SUCCESS, null);
+
+        assertThatThrownBy(expiring::join).hasCauseInstanceOf(DeadlineExceededException.class);
+        assertThat(governor.getInFlight()).isZero();
+    }
+
+    @Test
+    void turnsCallsAwayWhenTheInteractiveLaneIsFull() {
+        environment.setProperty("app.scheduler.lanes.interactive.max-queued", "1");
+        GeminiRateGovernor governor = governor(1000, 1);
+        LaneContext interactive = LaneContext.of(Lane.INTERACTIVE);
+        governor.acquire(10, interactive);
+        governor.acquire(10, interactive);
+
+        assertThatThrownBy(() -> governor.acquire(10, interactive).join())
+                .hasCauseInstanceOf(TranslationUnavailableException.class);
+        assertThat(governor.acquire(10, LaneContext.of(Lane.BULK))).isNotDone();
+    }
+
+    @Test
+    void waitsForTheRequestBucketToRefill() {
+        GeminiRateGovernor governor = governor(2, 8);
+        governor.acquire(10).join().release(GeminiRateGovernor.Outcome.SUCCESS, null);
+        governor.acquire(10).join().release(GeminiRateGovernor.Outcome.SUCCESS, null);
+
+        // The third request of the minute waits about 30 seconds for the bucket
+        assertThat(governor.acquire(10)).isNotDone();
+        assertThat(governor.getInFlight()).isZero();
+    }
+
+    private GeminiRateGovernor governor(int requestsPerMinute, int maxConcurrency) {
+        TranslationScheduler lanes = new TranslationScheduler(environment, new SimpleMeterRegistry());
+        return new GeminiRateGovernor("gemini-test", requestsPerMinute, 1_000_000, 1, maxConcurrency, executor, lanes);
+    }
+}
@@ -0,0 +1,76 @@
+package com.docmgmt.translation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeminiStreamSubscriberTest {
+
+    private final List<String> pieces = new ArrayList<>();
+    private final GeminiStreamSubscriber subscriber =
+            new GeminiStreamSubscriber(new GeminiCodec(new ObjectMapper().getFactory()), pieces::add);
+
+    @Test
+    void passesOnTheTextOfEveryDataLineInOrder() {
+        stream(
+                ": keep-alive",
+                "data: " + event("La factura", null, 10, 2),
+                "",
+                "event: message",
+                "data:" + event(" vence el", null, 10, 5),
+                "data: ",
+                "data: " + event(" viernes.", "STOP", 10, 7));
+
+        assertThat(pieces).containsExactly("La factura", " vence el", " viernes.");
+        assertThat(subscriber.getText()).isEqualTo("La factura vence el viernes.");
+        assertThat(subscriber.getFinishReason()).isEqualTo("STOP");
+        assertThat(subscriber.getPromptTokenCount()).isEqualTo(10);
+        assertThat(subscriber.getCandidatesTokenCount()).isEqualTo(7);
+        assertThat(subscriber.getError()).isNull();
+    }
+
+    @Test
+    void ignoresTheRestOfTheStreamAfterALineFailsToParse() {
+        stream(
+                "data: " + event("La factura", null, 10, 2),
+                "data: {\"candidates\":[",
+                "data: " + event(" vence", "STOP", 10, 5));
+
+        assertThat(pieces).containsExactly("La factura");
+        assertThat(subscriber.getFinishReason()).isNull();
+        assertThat(subscriber.getError()).isNotNull();
+    }
+
+    @Test
+    void ignoresTheRestOfTheStreamAfterTheConsumerFails() {
+        GeminiStreamSubscriber failing = new GeminiStreamSubscriber(new GeminiCodec(new ObjectMapper().getFactory()),
+                piece -> {
+                    throw new IllegalStateException("Client went away");
+                });
+
+        failing.onNext("data: " + event("La factura", null, 10, 2));
+        failing.onNext("data: " + event(" vence", "STOP", 10, 5));
+        failing.onComplete();
+
+        assertThat(failing.getError()).isInstanceOf(IllegalStateException.class);
+        assertThat(failing.getFinishReason()).isNull();
+    }
+
+    private void stream(String... lines) {
+        for (String line : lines) {
+            subscriber.onNext(line);
+        }
+        subscriber.onComplete();
+    }
+
+    private static String event(String text, String finishReason, int promptTokens, int candidateTokens) {
+        return "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + text + "\"}]}"
+                + (finishReason != null ? ",\"finishReason\":\"" + finishReason + "\"" : "") + "}],"
+                + "\"usageMetadata\":{\"promptTokenCount\":" + promptTokens
+                + ",\"candidatesTokenCount\":" + candidateTokens + "}}";
+    }
+}
@@ -0,0 +1,290 @@
+package com.docmgmt.translation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.net.ssl.SSLSession;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GeminiTranslationServiceTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient = mock(HttpClient.class);
+    private final MockEnvironment environment = new MockEnvironment();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GeminiRateGovernors governors =
+            new GeminiRateGovernors(environment, meterRegistry, new TranslationScheduler(environment, meterRegistry));
+    private final List<String> prompts = Collections.synchronizedList(new ArrayList<>());
+    private final List<JsonNode> requests = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void shutdown() {
+        governors.shutdown();
+    }
+
+    @Test
+    void packsEachMicroBatchIntoOneCall() {
+        answer(prompt -> isBatch(prompt) ? ok(batchTexts(prompt).stream().map(text -> "es:" + text).toList())
+                : ok("es:" + itemText(prompt)));
+
+        List<String> translations = service(2).translateBatch(List.of("a", "b", "c", "d", "e"), "en", "es");
+
+        assertThat(translations).containsExactly("es:a", "es:b", "es:c", "es:d", "es:e");
+        // Two micro-batches of two, and the odd text out on its own
+        assertThat(prompts).filteredOn(GeminiTranslationServiceTest::isBatch).hasSize(2);
+        assertThat(prompts).filteredOn(prompt -> !isBatch(prompt)).hasSize(1);
+    }
+
+    @Test
+    void fallsBackToPerItemCallsWhenTheCountIsWrong() {
+        answer(prompt -> isBatch(prompt) ? ok(List.of("es:a")) : ok("es:" + itemText(prompt)));
+
+        List<String> translations = service(10).translateBatch(List.of("a", "b"), "en", "es");
+
+        assertThat(translations).containsExactly("es:a", "es:b");
+        assertThat(prompts).filteredOn(prompt -> !isBatch(prompt)).extracting(GeminiTranslationServiceTest::itemText)
+                .containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void retriesOnlyTheItemsThatCameBackBlank() {
+        answer(prompt -> isBatch(prompt) ? ok(List.of("es:a", " ")) : ok("es:" + itemText(prompt)));
+
+        List<String> translations = service(10).translateBatch(List.of("a", "b"), "en", "es");
+
+        assertThat(translations).containsExactly("es:a", "es:b");
+        assertThat(prompts).filteredOn(prompt -> !isBatch(prompt)).extracting(GeminiTranslationServiceTest::itemText)
+                .containsExactly("b");
+    }
+
+    @Test
+    void fallsBackToPerItemCallsWhenTheAnswerIsNotJson() {
+        answer(prompt -> isBatch(prompt) ? ok("Sorry, I can't do that") : ok("es:" + itemText(prompt)));
+
+        List<String> translations = service(10).translateBatch(List.of("a", "b"), "en", "es");
+
+        assertThat(translations).containsExactly("es:a", "es:b");
+        assertThat(prompts).hasSize(3);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {429, 503})
+    void failsAThrottledBatchWithoutPerItemCalls(int status) {
+        answer(prompt -> new StubResponse(status, new byte[0]));
+
+        assertThatThrownBy(() -> service(10).translateBatch(List.of("a", "b"), "en", "es"))
+                .hasRootCauseInstanceOf(GeminiApiException.class)
+                .hasMessageContaining(String.valueOf(status));
+        assertThat(prompts).hasSize(1);
+    }
+
+    @Test
+    void asksForEveryLanguageInOneStructuredCallPerMicroBatch() {
+        answer(prompt -> ok(Map.of(
+                "es", batchTexts(prompt).stream().map(text -> "es:" + text).toList(),
+                "fr", batchTexts(prompt).stream().map(text -> "fr:" + text).toList())));
+
+        MultiTargetTranslation translations = service(4).translateMulti(List.of("a", "b", "c"), "en", List.of("es", "fr"));
+
+        assertThat(translations.get("es")).containsExactly("es:a", "es:b", "es:c");
+        assertThat(translations.get("fr")).containsExactly("fr:a", "fr:b", "fr:c");
+        assertThat(translations.getErrors()).isEmpty();
+        // A batch of four holds two texts in each of two languages
+        assertThat(prompts).hasSize(2).allMatch(GeminiTranslationServiceTest::isMulti);
+        JsonNode schema = requests.get(0).path("generationConfig").path("responseSchema");
+        assertThat(schema.path("required")).extracting(JsonNode::asText).containsExactly("es", "fr");
+        assertThat(schema.path("properties").path("fr").path("type").asText()).isEqualTo("ARRAY");
+        assertThat(schema.path("properties").path("fr").path("items").path("type").asText()).isEqualTo("STRING");
+    }
+
+    @Test
+    void translatesALanguageMissingFromTheAnswerOnItsOwn() {
+        answer(prompt -> isMulti(prompt) ? ok(Map.of("es", List.of("es:a", "es:b"), "fr", List.of("fr:a")))
+                : ok(batchTexts(prompt).stream().map(text -> target(prompt) + ":" + text).toList()));
+
+        MultiTargetTranslation translations = service(10).translateMulti(List.of("a", "b"), "en", List.of("es", "fr"));
+
+        assertThat(translations.get("es")).containsExactly("es:a", "es:b");
+        assertThat(translations.get("fr")).containsExactly("fr:a", "fr:b");
+        assertThat(prompts).filteredOn(prompt -> !isMulti(prompt)).extracting(GeminiTranslationServiceTest::target)
+                .containsExactly("fr");
+    }
+
+    @Test
+    void reportsALanguageThatStillFailsWithoutFailingTheOthers() {
+        answer(prompt -> isMulti(prompt) ? ok(Map.of("es", List.of("es:a", "es:b")))
+                : new StubResponse(400, "{\"error\":{\"message\":\"Unsupported language\"}}".getBytes(StandardCharsets.UTF_8)));
+
+        MultiTargetTranslation translations = service(10).translateMulti(List.of("a", "b"), "en", List.of("es", "xx"));
+
+        assertThat(translations.get("es")).containsExactly("es:a", "es:b");
+        assertThat(translations.get("xx")).isNull();
+        assertThat(translations.getErrors()).containsOnlyKeys("xx");
+    }
+
+    @Test
+    void fallsBackToOneCallPerLanguageWhenTheAnswerIsNotJson() {
+        answer(prompt -> isMulti(prompt) ? ok("Sorry, I can't do that")
+                : ok(batchTexts(prompt).stream().map(text -> target(prompt) + ":" + text).toList()));
+
+        MultiTargetTranslation translations = service(10).translateMulti(List.of("a", "b"), "en", List.of("es", "fr"));
+
+        assertThat(translations.get("es")).containsExactly("es:a", "es:b");
+        assertThat(translations.get("fr")).containsExactly("fr:a", "fr:b");
+        assertThat(prompts).filteredOn(prompt -> !isMulti(prompt)).extracting(GeminiTranslationServiceTest::target)
+                .containsExactlyInAnyOrder("es", "fr");
+    }
+
+    private GeminiTranslationService service(int batchSize) {
+        return new GeminiTranslationService("test-api-key", "http://gemini.test/", "gemini-test", batchSize, 1000, 0,
+                httpClient, governors, meterRegistry);
+    }
+
+    /**
+     * Answers every call with the response for its prompt.
+     */
+    private void answer(Function<String, HttpResponse<byte[]>> responder) {
+        when(httpClient.sendAsync(any(), any())).thenAnswer(invocation -> {
+            JsonNode request = body(invocation.getArgument(0));
+            String prompt = request.path("contents").path(0).path("parts").path(0).path("text").asText();
+            requests.add(request);
+            prompts.add(prompt);
+            return CompletableFuture.completedFuture(responder.apply(prompt));
+        });
+    }
+
+    private static boolean isBatch(String prompt) {
+        return prompt.startsWith("Translate each string") && !isMulti(prompt);
+    }
+
+    private static boolean isMulti(String prompt) {
+        return prompt.contains("into each of these languages");
+    }
+
+    /**
+     * @return The target language of a single-language prompt
+     */
+    private static String target(String prompt) {
+        int from = prompt.indexOf(" to ") + 4;
+        return prompt.substring(from, prompt.indexOf('.', from));
+    }
+
+    private static List<String> batchTexts(String prompt) {
+        try {
+            return List.of(objectMapper.readValue(prompt.substring(prompt.lastIndexOf("\n\n") + 2), String[].class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String itemText(String prompt) {
+        return prompt.substring(prompt.lastIndexOf("\n\n\"") + 3, prompt.length() - 1);
+    }
+
+    private static StubResponse ok(Object text) {
+        try {
+            String candidate = text instanceof String ? (String) text : objectMapper.writeValueAsString(text);
+            Map<String, Object> body = Map.of("candidates", List.of(Map.of(
+                    "content", Map.of("parts", List.of(Map.of("text", candidate))),
+                    "finishReason", "STOP")));
+            return new StubResponse(200, objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return The body of a generateContent request, read back from its publisher
+     */
+    private static JsonNode body(HttpRequest request) throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        CompletableFuture<Void> read = new CompletableFuture<>();
+        request.bodyPublisher().orElseThrow().subscribe(new Flow.Subscriber<ByteBuffer>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                body.writeBytes(bytes);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                read.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                read.complete(null);
+            }
+        });
+        read.join();
+        return objectMapper.readTree(body.toString(StandardCharsets.UTF_8));
+    }
+
+    private record StubResponse(int statusCode, byte[] body) implements HttpResponse<byte[]> {
+
+        @Override
+        public HttpRequest request() {
+            return null;
+        }
+
+        @Override
+        public Optional<HttpResponse<byte[]>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(Map.of(), (name, value) -> true);
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return URI.create("http://gemini.test/");
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_2;
+        }
+    }
+}
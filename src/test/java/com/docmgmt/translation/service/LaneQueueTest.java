@@ -0,0 +1,110 @@
+package com.docmgmt.translation.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LaneQueueTest {
+
+    private final MockEnvironment environment = new MockEnvironment();
+
+    @Test
+    void servesLanesByWeightWithoutBursts() {
+        TranslationScheduler scheduler = scheduler();
+        LaneQueue<Lane> queue = scheduler.newQueue();
+        long now = System.nanoTime();
+        for (Lane lane : Lane.values()) {
+            for (int i = 0; i < 24; i++) {
+                queue.add(lane, LaneContext.of(lane), now);
+            }
+        }
+
+        List<Lane> served = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            served.add(queue.poll(now));
+        }
+
+        // Default weights 8, 3 and 1
+        assertThat(Collections.frequency(served, Lane.INTERACTIVE)).isEqualTo(8);
+        assertThat(Collections.frequency(served, Lane.NORMAL)).isEqualTo(3);
+        assertThat(Collections.frequency(served, Lane.BULK)).isEqualTo(1);
+        assertThat(served.subList(0, 4)).contains(Lane.NORMAL);
+        assertThat(queue.size()).isEqualTo(60);
+    }
+
+    @Test
+    void servesALaneAloneWhenTheOthersAreEmpty() {
+        LaneQueue<String> queue = scheduler().newQueue();
+        long now = System.nanoTime();
+        queue.add("first", LaneContext.of(Lane.BULK), now);
+        queue.add("second", LaneContext.of(Lane.BULK), now);
+
+        assertThat(queue.poll(now)).isEqualTo("first");
+        assertThat(queue.poll(now)).isEqualTo("second");
+        assertThat(queue.poll(now)).isNull();
+    }
+
+    @Test
+    void servesTheEarliestDeadlineFirstWithinALane() {
+        LaneQueue<String> queue = scheduler().newQueue();
+        long now = System.nanoTime();
+        long inAMinute = System.currentTimeMillis() + 60_000;
+        queue.add("no deadline", LaneContext.of(Lane.NORMAL), now);
+        queue.add("later", LaneContext.of(Lane.NORMAL, inAMinute + 1000), now);
+        queue.add("sooner", LaneContext.of(Lane.NORMAL, inAMinute), now);
+        queue.add("no deadline either", LaneContext.of(Lane.NORMAL), now);
+
+        assertThat(queue.peek()).isEqualTo("sooner");
+        assertThat(List.of(queue.poll(now), queue.poll(now), queue.poll(now), queue.poll(now)))
+                .containsExactly("sooner", "later", "no deadline", "no deadline either");
+    }
+
+    @Test
+    void dropsCallsWhoseDeadlinePassed() {
+        TranslationScheduler scheduler = scheduler();
+        LaneQueue<String> queue = scheduler.newQueue();
+        long now = System.nanoTime();
+        queue.add("expiring", LaneContext.of(Lane.NORMAL, System.currentTimeMillis() + 10), now);
+        queue.add("waiting", LaneContext.of(Lane.NORMAL), now);
+
+        List<String> dropped = new ArrayList<>();
+        queue.expire(now + TimeUnit.MILLISECONDS.toNanos(50), dropped);
+
+        assertThat(dropped).containsExactly("expiring");
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(scheduler.depth(Lane.NORMAL)).isEqualTo(1);
+    }
+
+    @Test
+    void movesCallsDownALaneAfterTheirTargetWait() {
+        environment.setProperty("app.scheduler.lanes.interactive.target-wait-ms", "100");
+        environment.setProperty("app.scheduler.lanes.normal.target-wait-ms", "100");
+        TranslationScheduler scheduler = scheduler();
+        LaneQueue<String> queue = scheduler.newQueue();
+        long now = System.nanoTime();
+        queue.add("stale", LaneContext.of(Lane.INTERACTIVE), now);
+
+        queue.expire(now + TimeUnit.MILLISECONDS.toNanos(200), new ArrayList<>());
+        assertThat(scheduler.depth(Lane.INTERACTIVE)).isZero();
+        assertThat(scheduler.depth(Lane.NORMAL)).isEqualTo(1);
+
+        // One lane per check, and only once it waited past the next lane's target too
+        queue.expire(now + TimeUnit.MILLISECONDS.toNanos(250), new ArrayList<>());
+        assertThat(scheduler.depth(Lane.NORMAL)).isEqualTo(1);
+        queue.expire(now + TimeUnit.MILLISECONDS.toNanos(400), new ArrayList<>());
+        assertThat(scheduler.depth(Lane.BULK)).isEqualTo(1);
+        assertThat(queue.poll(now)).isEqualTo("stale");
+        assertThat(scheduler.depth(Lane.BULK)).isZero();
+    }
+
+    private TranslationScheduler scheduler() {
+        return new TranslationScheduler(environment, new SimpleMeterRegistry());
+    }
+}
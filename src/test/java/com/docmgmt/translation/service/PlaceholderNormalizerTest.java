@@ -0,0 +1,58 @@
+package com.docmgmt.translation.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlaceholderNormalizerTest {
+
+    @Test
+    void replacesDatesNumbersAndIds() {
+        PlaceholderNormalizer.Normalized normalized =
+                PlaceholderNormalizer.normalize("  Invoice #1234   for INV-2024-001 due 2024-03-01, total 1,250.50 in Q3 ");
+
+        assertThat(normalized.getTemplate()).isEqualTo("Invoice {I0} for {I1} due {D2}, total {N3} in Q3");
+        assertThat(normalized.getValues()).containsExactly("#1234", "INV-2024-001", "2024-03-01", "1,250.50");
+    }
+
+    @Test
+    void sharesOneTemplateBetweenTextsOfTheSameShape() {
+        assertThat(PlaceholderNormalizer.normalize("Invoice #1234 – March").getTemplate())
+                .isEqualTo(PlaceholderNormalizer.normalize("Invoice #98765 – March").getTemplate())
+                .isEqualTo("Invoice {I0} – March");
+    }
+
+    @Test
+    void leavesTextsWithBracesAlone() {
+        assertThat(PlaceholderNormalizer.normalize("Template {I0} for #1234")).isNull();
+    }
+
+    @Test
+    void templatesATranslationWithItsValuesMoved() {
+        PlaceholderNormalizer.Normalized source = PlaceholderNormalizer.normalize("Invoice #1234 due 2024-03-01");
+
+        assertThat(PlaceholderNormalizer.templateOf("Factura #1234 con vencimiento 2024-03-01", source))
+                .isEqualTo("Factura {I0} con vencimiento {D1}");
+        assertThat(PlaceholderNormalizer.templateOf("Am 2024-03-01 fällig: Rechnung #1234", source))
+                .isEqualTo("Am {D1} fällig: Rechnung {I0}");
+    }
+
+    @Test
+    void refusesTranslationsThatDidNotCopyEveryValueOnce() {
+        PlaceholderNormalizer.Normalized source = PlaceholderNormalizer.normalize("Invoice #1234 for 250");
+
+        assertThat(PlaceholderNormalizer.templateOf("Factura 1234 por 250", source)).isNull();
+        assertThat(PlaceholderNormalizer.templateOf("Factura #1234 por 250 (250)", source)).isNull();
+        assertThat(PlaceholderNormalizer.templateOf("Factura #12345 por 250", source)).isNull();
+        assertThat(PlaceholderNormalizer.templateOf("Factura {I0} #1234 por 250", source)).isNull();
+    }
+
+    @Test
+    void restoresTemplatesWithOtherValues() {
+        assertThat(PlaceholderNormalizer.restore("Am {D1} fällig: Rechnung {I0}", List.of("#5678", "2024-04-01")))
+                .isEqualTo("Am 2024-04-01 fällig: Rechnung #5678");
+        assertThat(PlaceholderNormalizer.restore("Rechnung {I2}", List.of("#5678"))).isNull();
+    }
+}
@@ -0,0 +1,66 @@
+package com.docmgmt.translation.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResilientTranslationServiceTest {
+
+    private final TranslationServiceInterface delegate = mock(TranslationServiceInterface.class);
+    private final Bulkhead bulkhead = new Bulkhead("test", 2, 0);
+
+    @Test
+    void refusesCallsWhileTheCircuitIsOpen() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 1, 50, 60_000, 1);
+        ResilientTranslationService service = new ResilientTranslationService(delegate, breaker, bulkhead);
+        when(delegate.translateText(anyString(), anyString(), anyString())).thenThrow(new IllegalStateException("HTTP 500"));
+
+        assertThatThrownBy(() -> service.translateText("Invoice", "en", "es")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> service.translateText("Invoice", "en", "es"))
+                .isInstanceOf(TranslationUnavailableException.class);
+        assertThat(bulkhead.getAvailable()).isEqualTo(2);
+    }
+
+    @Test
+    void turnsCallsAwayWhenTheBulkheadIsFull() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 10, 50, 60_000, 1);
+        ResilientTranslationService service = new ResilientTranslationService(delegate, breaker, bulkhead);
+        when(delegate.translateTextAsync(anyString(), anyString(), anyString())).thenReturn(new CompletableFuture<>());
+
+        service.translateTextAsync("a", "en", "es");
+        service.translateTextAsync("b", "en", "es");
+
+        assertThatThrownBy(() -> service.translateTextAsync("c", "en", "es").join())
+                .hasCauseInstanceOf(TranslationUnavailableException.class);
+    }
+
+    @Test
+    void halfOpenProbesDroppedDownstreamLetOthersProbe() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 1, 50, 0, 1);
+        breaker.tryAcquirePermission();
+        breaker.onFailure();
+        ResilientTranslationService service = new ResilientTranslationService(delegate, breaker, bulkhead);
+
+        when(delegate.translateTextAsync(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new DeadlineExceededException("Deadline passed")))
+                .thenReturn(CompletableFuture.failedFuture(new CancellationException()))
+                .thenReturn(CompletableFuture.completedFuture("Factura"));
+
+        assertThatThrownBy(() -> service.translateTextAsync("Invoice", "en", "es").join())
+                .hasCauseInstanceOf(DeadlineExceededException.class);
+        assertThatThrownBy(() -> service.translateTextAsync("Invoice", "en", "es").join())
+                .hasCauseInstanceOf(CancellationException.class);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        assertThat(service.translateTextAsync("Invoice", "en", "es").join()).isEqualTo("Factura");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(bulkhead.getAvailable()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,105 @@
+package com.docmgmt.translation.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class StreamingTranslatorTest {
+
+    // Four one-sentence chunks at five characters each
+    private static final String TEXT = "One. Two. Six. Ten.";
+
+    private final TranslationServiceInterface translationService = mock(TranslationServiceInterface.class);
+    private final List<Call> calls = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> deliveredChunks = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * A chunk handed to the delegate, answered when the test says so.
+     */
+    private record Call(String text, Consumer<String> onText, CompletableFuture<String> result) {
+
+        void stream(String piece) {
+            onText.accept(piece);
+        }
+
+        void finish() {
+            result.complete(text);
+        }
+    }
+
+    StreamingTranslatorTest() {
+        doAnswer(invocation -> {
+            Call call = new Call(invocation.getArgument(0), invocation.getArgument(3), new CompletableFuture<>());
+            calls.add(call);
+            return call.result();
+        }).when(translationService).translateTextStreaming(anyString(), eq("en"), eq("es"), any());
+    }
+
+    @Test
+    void deliversChunksInDocumentOrderWhateverOrderTheyFinishIn() {
+        CompletableFuture<Integer> result = translator(2).translate(TEXT, "en", "es", this::deliver);
+
+        assertThat(calls).extracting(Call::text).containsExactly("One.", "Two.");
+        calls.get(1).stream("Dos");
+        calls.get(1).finish();
+        // Held until the first chunk is done; its slot goes to the third chunk
+        assertThat(delivered).isEmpty();
+        assertThat(calls).extracting(Call::text).containsExactly("One.", "Two.", "Six.");
+
+        calls.get(0).stream(" Uno");
+        assertThat(delivered).containsExactly("Uno");
+        calls.get(0).finish();
+        calls.get(2).stream("Seis ");
+        calls.get(2).finish();
+        calls.get(3).stream("Diez");
+        calls.get(3).finish();
+
+        assertThat(result).isCompletedWithValue(4);
+        assertThat(String.join("", delivered)).isEqualTo("Uno Dos Seis Diez");
+        assertThat(deliveredChunks).isSorted();
+    }
+
+    @Test
+    void startsNoMoreThanMaxParallelChunksAtOnce() {
+        translator(3).translate(TEXT, "en", "es", this::deliver);
+
+        assertThat(calls).hasSize(3);
+        calls.get(2).finish();
+        assertThat(calls).hasSize(4);
+    }
+
+    @Test
+    void abandonsTheStreamWhenAChunkFails() {
+        CompletableFuture<Integer> result = translator(2).translate(TEXT, "en", "es", this::deliver);
+
+        calls.get(1).result().completeExceptionally(new TranslationUnavailableException("Circuit open"));
+        calls.get(0).stream("Uno");
+        calls.get(0).finish();
+
+        assertThat(result).isCompletedExceptionally();
+        assertThat(delivered).isEmpty();
+        assertThat(calls).hasSize(2);
+    }
+
+    private StreamingTranslator translator(int maxParallelChunks) {
+        return new StreamingTranslator(translationService, new TaskExecutorAdapter(Runnable::run), 5, maxParallelChunks);
+    }
+
+    private void deliver(int chunk, String text) {
+        deliveredChunks.add(chunk);
+        delivered.add(text);
+    }
+}
@@ -0,0 +1,50 @@
+package com.docmgmt.translation.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextChunkerTest {
+
+    @Test
+    void endsChunksAtSentencesAndJoinsBackToTheText() {
+        String text = "The invoice is due. Pay it by Friday. Late payments cost extra.";
+
+        List<String> chunks = TextChunker.chunk(text, 40, Locale.ENGLISH);
+
+        assertThat(chunks).containsExactly("The invoice is due. Pay it by Friday. ", "Late payments cost extra.");
+        assertThat(String.join("", chunks)).isEqualTo(text);
+    }
+
+    @Test
+    void closesAReasonablyFullChunkAtAParagraphBreak() {
+        String text = "First paragraph here.\n\nSecond one.";
+
+        assertThat(TextChunker.chunk(text, 40, Locale.ENGLISH))
+                .containsExactly("First paragraph here.\n\n", "Second one.");
+    }
+
+    @Test
+    void splitsASentenceLongerThanTheLimitAtWhitespace() {
+        String text = "A sentence with far too many words for one chunk.";
+
+        List<String> chunks = TextChunker.chunk(text, 20, Locale.ENGLISH);
+
+        assertThat(chunks).allMatch(chunk -> chunk.length() <= 20);
+        assertThat(chunks).allMatch(chunk -> chunk.endsWith(" ") || chunk.endsWith("."));
+        assertThat(String.join("", chunks)).isEqualTo(text);
+    }
+
+    @Test
+    void neverCutsInsideASurrogatePair() {
+        String text = "😀".repeat(5);
+
+        List<String> chunks = TextChunker.chunk(text, 3, Locale.ENGLISH);
+
+        assertThat(chunks).allMatch(chunk -> !Character.isHighSurrogate(chunk.charAt(chunk.length() - 1)));
+        assertThat(String.join("", chunks)).isEqualTo(text);
+    }
+}
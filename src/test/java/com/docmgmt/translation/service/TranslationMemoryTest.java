@@ -0,0 +1,107 @@
+package com.docmgmt.translation.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TranslationMemoryTest {
+
+    @TempDir
+    Path dir;
+
+    private TranslationMemory memory;
+
+    @AfterEach
+    void close() {
+        if (memory != null) {
+            memory.close();
+        }
+    }
+
+    @Test
+    void answersTextsOfALearnedTemplateWithTheirOwnValues() {
+        memory = open();
+        memory.learn("Invoice #1234 – March", "en", "es", "Factura #1234 – marzo");
+
+        assertThat(memory.lookup("Invoice #5678 – March", "en", "es")).isEqualTo("Factura #5678 – marzo");
+        assertThat(memory.lookup("Invoice #5678 – April", "en", "es")).isNull();
+        assertThat(memory.lookup("Invoice #5678 – March", "en", "de")).isNull();
+    }
+
+    @Test
+    void keepsTheFirstTranslationOfATemplate() {
+        memory = open();
+        memory.learn("Invoice #1234", "en", "es", "Factura #1234");
+        memory.learn("Invoice #4321", "en", "es", "Cuenta #4321");
+
+        assertThat(memory.lookup("Invoice #9", "en", "es")).isEqualTo("Factura #9");
+    }
+
+    @Test
+    void doesNotLearnTranslationsThatChangedAValue() {
+        memory = open();
+        memory.learn("Invoice #1234 – March", "en", "es", "Factura n.º 1234 – marzo");
+
+        assertThat(memory.lookup("Invoice #5678 – March", "en", "es")).isNull();
+    }
+
+    @Test
+    void answersTextsWhoseSentencesAreAllKnown() {
+        memory = open();
+        memory.learn("Invoice #1234 is due.", "en", "es", "La factura #1234 vence.");
+        memory.learn("Please pay by 2024-03-01.", "en", "es", "Pague antes del 2024-03-01.");
+
+        assertThat(memory.lookup("Invoice #777 is due.  Please pay by 2024-04-01.", "en", "es"))
+                .isEqualTo("La factura #777 vence.  Pague antes del 2024-04-01.");
+        assertThat(memory.lookup("Invoice #777 is due. Please call us.", "en", "es")).isNull();
+    }
+
+    @Test
+    void remembersAcrossRestarts() {
+        memory = open();
+        memory.learn("Invoice #1234 – March", "en", "es", "Factura #1234 – marzo");
+        memory.close();
+
+        memory = open();
+        assertThat(memory.lookup("Invoice #5678 – March", "en", "es")).isEqualTo("Factura #5678 – marzo");
+        assertThat(memory.findSimilar("Invoice #5678 – March", "en", "es", 3))
+                .extracting(TranslationMemory.Suggestion::getTranslatedTemplate)
+                .containsExactly("Factura {I0} – marzo");
+    }
+
+    @Test
+    void suggestsSimilarPastTranslations() {
+        memory = open();
+        memory.learn("Quarterly sales report for the northern region, fiscal year 2024", "en", "es",
+                "Informe trimestral de ventas de la región norte, año fiscal 2024");
+
+        assertThat(memory.lookup("Quarterly sales report for the northern region, fiscal year 2025 draft", "en", "es"))
+                .isNull();
+        assertThat(memory.findSimilar("Quarterly sales report for the northern region, fiscal year 2025 draft",
+                "en", "es", 3))
+                .singleElement()
+                .satisfies(suggestion -> {
+                    assertThat(suggestion.getTranslatedTemplate())
+                            .isEqualTo("Informe trimestral de ventas de la región norte, año fiscal {N0}");
+                    assertThat(suggestion.getSimilarity()).isBetween(0.7, 1.0);
+                });
+        assertThat(memory.findSimilar("Minutes of the board meeting", "en", "es", 3)).isEmpty();
+    }
+
+    @Test
+    void answersNothingWhenDisabled() {
+        memory = new TranslationMemory(false, dir.resolve("memory.db").toString(), 1 << 20, 0.7, 1000);
+        memory.learn("Invoice #1234", "en", "es", "Factura #1234");
+
+        assertThat(memory.isEnabled()).isFalse();
+        assertThat(memory.lookup("Invoice #1234", "en", "es")).isNull();
+    }
+
+    private TranslationMemory open() {
+        return new TranslationMemory(true, dir.resolve("memory.db").toString(), 1 << 20, 0.7, 1000);
+    }
+}